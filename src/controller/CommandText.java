@@ -0,0 +1,129 @@
+package controller;
+
+import java.util.Arrays;
+
+/*
+a reusable, editable view of one line of input. the reader copies each line into the
+same character array, and trimming and lowercasing work in place by moving the
+view's bounds and rewriting its characters. checking for a command word and taking
+the rest of the line need no strings, so a command can be dispatched without
+allocating. the view is only valid until the next line is read into it.
+*/
+public final class CommandText implements CharSequence {
+    private char[] chars = new char[128];
+    private int start;
+    private int end;
+    // the view rest() hands out; it shares this line's characters
+    private CommandText tail;
+    
+    // make this view hold a copy of some text
+    public CommandText set(CharSequence text) {
+        int length = text == null ? 0 : text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        start = 0;
+        end = length;
+        return this;
+    }
+    
+    // make this view hold a copy of some characters
+    public CommandText set(char[] source, int offset, int length) {
+        ensure(length);
+        System.arraycopy(source, offset, chars, 0, length);
+        start = 0;
+        end = length;
+        return this;
+    }
+    
+    private void ensure(int length) {
+        if (length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(length, chars.length * 2));
+        }
+    }
+    
+    // drop leading and trailing whitespace and control characters, as String.trim() does
+    public CommandText trim() {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return this;
+    }
+    
+    // lowercase in place: ascii by arithmetic, anything else one char at a time
+    public CommandText toLowerCase() {
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c >= 'A' && c <= 'Z') {
+                chars[i] = (char) (c + ('a' - 'A'));
+            } else if (c >= 0x80) {
+                chars[i] = Character.toLowerCase(c);
+            }
+        }
+        return this;
+    }
+    
+    // whether the whole line is exactly this word
+    public boolean is(String word) {
+        return end - start == word.length() && startsWith(word);
+    }
+    
+    // whether the line begins with this text
+    public boolean startsWith(String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (chars[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // the line from an offset on, as a shared view that stays valid until the next line
+    public CommandText rest(int from) {
+        if (from < 0 || from > end - start) {
+            throw new IndexOutOfBoundsException("offset " + from + " of " + (end - start));
+        }
+        if (tail == null) {
+            tail = new CommandText();
+        }
+        tail.chars = chars;
+        tail.start = start + from;
+        tail.end = end;
+        return tail;
+    }
+    
+    @Override
+    public int length() {
+        return end - start;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return end == start;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + (end - start));
+        }
+        return chars[start + index];
+    }
+    
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return toString().substring(from, to);
+    }
+    
+    @Override
+    public String toString() {
+        return new String(chars, start, end - start);
+    }
+}
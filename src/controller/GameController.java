@@ -1,347 +1,780 @@
 package controller;
 
+import metrics.CommandMetrics;
+import metrics.CommandTurnEvent;
 import model.*;
+import java.io.File;
 import java.io.IOException;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 
 /*
 controller commands:
-(n)orth, (s)outh, (e)ast, (w)est, (t)ake, (d)rop, e(x)amine, attac(k), (l)ook, (u)se, (i)nventory, (a)nswer, sa(v)e, (r)estore, (q)uit.
+(n)orth, (s)outh, (e)ast, (w)est, (t)ake, (d)rop, e(x)amine, attac(k), (l)ook, (u)se, (i)nventory, (a)nswer, (c)raft, sa(v)e, (r)estore, (q)uit.
 */
 public class GameController {
     private GameWorld gameWorld;
-    private Scanner scanner;
-    private Appendable output;
-    private boolean gameOver;
+    // the player this controller plays for; other sessions may share the world
+    private final Player player;
+    // a room entered this command, locked along with the room the command started in
+    private Room entered;
+    // what other players did in and next to this player's room
+    private final NearbyEvents.Subscription nearby;
+    private Readable input;
+    private TurnOutput output;
+    // where output goes for a controller built without a sink, otherwise null
+    private StringBuilder captured;
+    private SessionPhase phase;
+    // the command being played; refilled for every line so dispatch allocates nothing
+    private final CommandText command = new CommandText();
+    private CommandMetrics<Verb> metrics;
+    private String softLockWarning;
+    // where save and restore go; null when this session may not touch the disk
+    private String saveFile = SAVE_FILE;
+    private static final String SAVE_FILE = "saved_game.json";
     
     // set up game world environment, input, and output
     public GameController(GameWorld gameWorld, Readable input, Appendable output) {
+        this(gameWorld, input, output, new CommandMetrics<>(Verb.class, false));
+    }
+    
+    // set up game world environment and output for push-style use with step()
+    public GameController(GameWorld gameWorld, Appendable output) {
+        this(gameWorld, (Readable) null, output);
+    }
+    
+    // set up game world environment for push-style use; each step's text comes back in its result
+    public GameController(GameWorld gameWorld) {
+        this(gameWorld, gameWorld.getPlayer(), null, null, new CommandMetrics<>(Verb.class, false),
+                new StringBuilder());
+    }
+    
+    // set up push-style play for one of several players sharing a world; see GameWorld.addPlayer()
+    public GameController(GameWorld gameWorld, Player player, Appendable output) {
+        this(gameWorld, player, null, output, new CommandMetrics<>(Verb.class, false), null);
+    }
+    
+    // set up game world environment, input, output, and per-command metrics
+    public GameController(GameWorld gameWorld, Readable input, Appendable output,
+                          CommandMetrics<Verb> metrics) {
+        this(gameWorld, gameWorld.getPlayer(), input, output, metrics, null);
+    }
+    
+    private GameController(GameWorld gameWorld, Player player, Readable input, Appendable output,
+                           CommandMetrics<Verb> metrics, StringBuilder captured) {
+        if (captured != null) {
+            output = captured;
+        }
         this.gameWorld = gameWorld;
-        this.scanner = new Scanner(input);
-        this.output = output;
-        this.gameOver = false;
+        this.player = player;
+        this.nearby = gameWorld.getNearbyEvents().subscribe(player);
+        this.captured = captured;
+        this.input = input;
+        // a TurnOutput passed in directly keeps its own sink, such as a socket channel
+        this.output = output instanceof TurnOutput ? (TurnOutput) output : new TurnOutput(output);
+        this.phase = SessionPhase.NEW;
+        this.metrics = metrics;
+    }
+    
+    // per-command counts, latencies, and allocation bytes
+    public CommandMetrics<Verb> getMetrics() {
+        return metrics;
+    }
+    
+    // set where save and restore go; null turns both off, for sessions that must not block on files
+    public void setSaveFile(String saveFile) {
+        this.saveFile = saveFile;
     }
     
-    // run main game loop
+    // run main game loop, pulling lines from the input
     public void play() throws IOException {
-        displayWelcome();
-        promptForPlayerName();
-        while (!gameOver && scanner.hasNextLine()) {
-            lookAround();
-            if (gameWorld.getPlayer().getHealth() <= 0) {
-                displayGameOver();
-                endGame();
-                return;
+        if (input == null) {
+            throw new IllegalStateException("this controller has no input; use step()");
+        }
+        LineReader reader = new LineReader(input);
+        try {
+            greet();
+            // show the name prompt before waiting for the name
+            output.flush();
+            if (!reader.next(command)) {
+                throw new NoSuchElementException("No line found");
+            }
+            answerName(command);
+            output.flush();
+            while (phase.isOpen() && reader.next(command)) {
+                if (!prompt()) {
+                    return;
+                }
+                output.flush();
+                playCommand(command);
+                // show the turn before waiting for more input
+                output.flush();
+            }
+        } finally {
+            output.flush();
+        }
+    }
+    
+    // push-style use: a server calls step() with each line the player sends. the
+    // first step greets the player and ignores its line; after that the player's name,
+    // then one command per step. each step runs to the next prompt and never blocks,
+    // so a waiting session is only its state.
+    public TurnResult step(CharSequence line) throws IOException {
+        boolean prompting = phase == SessionPhase.NAMING || phase == SessionPhase.PLAYING;
+        Verb verb = act(line);
+        if (prompting) {
+            prompt();
+        }
+        return finish(verb);
+    }
+    
+    // actor-style use, for a shared world whose room guard is a RoomActors: the line is
+    // played on the actor of the player's room, and the prompt on the actor of the room
+    // the player is in afterwards. the line is copied, so the caller may reuse it, but
+    // the next step must wait for this one's result.
+    public CompletableFuture<TurnResult> step(CharSequence line, RoomActors actors) {
+        CompletableFuture<TurnResult> result = new CompletableFuture<>();
+        String copy = line == null ? null : line.toString();
+        actors.tell(player.getCurrentRoom(), () -> {
+            try {
+                boolean prompting = phase == SessionPhase.NAMING || phase == SessionPhase.PLAYING;
+                Verb verb = act(copy);
+                if (!prompting) {
+                    result.complete(finish(verb));
+                    return;
+                }
+                // a move hands the rest of the turn to the room entered
+                actors.apply(player.getCurrentRoom(), () -> {
+                    try {
+                        prompt();
+                        result.complete(finish(verb));
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
             }
-            displayMenu();
-            String command = scanner.nextLine().trim().toLowerCase();
-            processCommand(command);
+        });
+        return result;
+    }
+    
+    // everything a step does before its prompt
+    private Verb act(CharSequence line) throws IOException {
+        switch (phase) {
+            case NEW:
+                greet();
+                return null;
+            case NAMING:
+                answerName(line);
+                return null;
+            case PLAYING:
+                return playCommand(line);
+            default:
+                // the game is over; nothing more happens
+                return null;
+        }
+    }
+    
+    // send the step's output and report how it went
+    private TurnResult finish(Verb verb) throws IOException {
+        output.flush();
+        if (captured == null || captured.length() == 0) {
+            return TurnResult.of(phase, verb);
         }
+        String text = captured.toString();
+        captured.setLength(0);
+        return TurnResult.of(phase, verb, text);
+    }
+    
+    // where the session is in its life
+    public SessionPhase getPhase() {
+        return phase;
     }
     
-    // display welcome message
-    private void displayWelcome() throws IOException {
-        output.append("welcome to " + gameWorld.getGameName() + "!\n\n");
+    // whether the player has quit or died
+    public boolean isGameOver() {
+        return phase == SessionPhase.OVER;
     }
     
-    // prompt for player's name
-    private void promptForPlayerName() throws IOException {
-        output.append("enter your name: ");
-        String name = scanner.nextLine().trim();
-        gameWorld.setPlayerName(name);
-        output.append("hello, " + name + "! let's start your adventure.\n\n");
+    // write the welcome and ask for the player's name
+    private void greet() throws IOException {
+        output.say(Message.WELCOME).with(gameWorld.getGameName());
+        output.say(Message.ASK_NAME);
+        phase = SessionPhase.NAMING;
+    }
+    
+    // greet the player by the name they gave
+    private void answerName(CharSequence line) throws IOException {
+        if (line != command) {
+            command.set(line);
+        }
+        String name = command.trim().toString();
+        player.setName(name);
+        output.say(Message.HELLO).with(name);
+        phase = SessionPhase.PLAYING;
+    }
+    
+    // run one command and everything that follows from it
+    private Verb playCommand(CharSequence line) throws IOException {
+        if (line != command) {
+            command.set(line);
+        }
+        // hold the player's room for the whole command, so other players sharing the
+        // world see it happen all at once
+        RoomGuard guard = gameWorld.getRoomGuard();
+        Room room = guard.lock(player);
+        Verb verb;
+        try {
+            verb = processCommand(command.trim().toLowerCase());
+        } finally {
+            if (entered != null) {
+                guard.unlock(room, entered);
+                entered = null;
+            } else {
+                guard.unlock(room);
+            }
+        }
+        // whatever the world's rules had to say about that command
+        output.append(gameWorld.drainLog(player));
+        advanceMonsters();
+        warnIfStuck();
+        return verb;
+    }
+    
+    // show the room and the menu, or the game over screen if the player has died;
+    // false once the game has ended
+    private boolean prompt() throws IOException {
+        if (!phase.isOpen()) {
+            return false;
+        }
+        RoomGuard guard = gameWorld.getRoomGuard();
+        Room room = guard.lock(player);
+        try {
+            reportNearby();
+            lookAround();
+        } finally {
+            guard.unlock(room);
+        }
+        if (player.getHealth() <= 0) {
+            displayGameOver();
+            endGame();
+            return false;
+        }
+        displayMenu();
+        return true;
     }
     
     // display current room and health status
     private void lookAround() throws IOException {
-        Player player = gameWorld.getPlayer();
+        if (!metrics.isEnabled()) {
+            renderRoom();
+            return;
+        }
+        long start = metrics.startTimer();
+        long allocation = metrics.startAllocation();
+        renderRoom();
+        metrics.record(Verb.LOOK_AROUND, start, allocation);
+    }
+    
+    // write health, then the room's text, rebuilt only when the room has changed
+    private void renderRoom() throws IOException {
         Room currentRoom = player.getCurrentRoom();
-        output.append("health: " + player.getHealth() + " (" + player.getHealthStatus() + ")\n");
-        output.append("you are in the " + currentRoom.getName().toLowerCase() + "\n");
+        output.say(Message.HEALTH).with(player.getHealth()).with(player.getHealthStatus());
         Puzzle puzzle = currentRoom.getPuzzle();
         Monster monster = currentRoom.getMonster();
+        int state;
         if (puzzle != null && puzzle.isActive() && puzzle.affectsTarget()) {
-            output.append(puzzle.getEffects() + "\n");
+            state = 1;
         } else if (monster != null && monster.isActive()) {
-            output.append(monster.getEffects() + "\n");
+            state = 2;
+        } else {
+            state = 0;
+        }
+        // solving or defeating doesn't touch the room, so the state is part of the key
+        long key = ((long) currentRoom.getVersion() << 2) | state;
+        String view = currentRoom.getCachedView(key);
+        if (view == null) {
+            StringBuilder text = new StringBuilder();
+            int split = describeRoom(currentRoom, state, text);
+            view = text.toString();
+            currentRoom.cacheView(key, view, split);
+        }
+        if (state == 2) {
+            // the monster strikes before the item listing
+            int split = currentRoom.getCachedViewSplit();
+            output.append(view, 0, split);
             monsterAttacksPlayer();
+            output.append(view, split, view.length());
         } else {
-            output.append(currentRoom.getDescription() + "\n");
+            output.append(view);
         }
-        displayRoomItems();
     }
     
-    // display items in the room
-    private void displayRoomItems() throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
-        if (!currentRoom.getItems().isEmpty()) {
-            output.append("items here: ");
-            for (Item item : currentRoom.getItems()) {
-                output.append(item.getName().toLowerCase() + " ");
+    // build room name, room state, and items; returns where a monster's strike goes
+    private int describeRoom(Room room, int state, StringBuilder text) {
+        text.append("you are in the ").append(room.getName().toLowerCase()).append('\n');
+        if (state == 1) {
+            text.append(room.getPuzzle().getEffects()).append('\n');
+        } else if (state == 2) {
+            text.append(room.getMonster().getEffects()).append('\n');
+        } else {
+            text.append(room.getDescription()).append('\n');
+        }
+        int split = text.length();
+        List<Item> items = room.getItems();
+        if (!items.isEmpty()) {
+            text.append("items here: ");
+            for (Item item : items) {
+                text.append(item.getDisplayName()).append(' ');
             }
-            output.append("\n");
+            text.append('\n');
         }
+        return state == 2 ? split : text.length();
     }
     
     // let monster counterattack
     private void monsterAttacksPlayer() throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
+        Room currentRoom = player.getCurrentRoom();
         Monster monster = currentRoom.getMonster();
         if (monster != null && monster.isActive() && monster.canAttack()) {
-            int damage = monster.attack(gameWorld.getPlayer());
+            int damage = monster.attack(player);
             if (damage > 0) {
-                output.append(monster.getName().toLowerCase() + " " + monster.getAttackDescription() + "\n");
-                output.append("you take -" + damage + " damage!\n");
+                output.say(Message.MONSTER_ATTACKS).with(monster.getDisplayName()).with(monster.getAttackDescription());
+                output.say(Message.TAKE_DAMAGE).with(damage);
+                gameWorld.getEvents().publish(WorldEventType.PLAYER_DAMAGED, player, currentRoom,
+                        monster.getName(), damage);
+                announce(Message.MONSTER_STRIKES, monster.getDisplayName(), player.getName());
             }
         }
     }
     
+    // tell other players in and next to this room what just happened; the text is only
+    // built if someone is there to hear it
+    private void announce(Message message, CharSequence first, CharSequence second) {
+        NearbyEvents events = gameWorld.getNearbyEvents();
+        Room room = player.getCurrentRoom();
+        if (events.isHeard(room, player)) {
+            events.publish(room, player, message.fill(first, second));
+        }
+    }
+    
+    // say what other players did nearby since this player's last turn
+    private void reportNearby() throws IOException {
+        NearbyEvents.Event event;
+        while ((event = nearby.poll()) != null) {
+            if (event.getRoom() == player.getCurrentRoom()) {
+                output.say(Message.LINE).with(event.getText());
+            } else {
+                output.say(Message.NEARBY).with(event.getRoom().getName().toLowerCase()).with(event.getText());
+            }
+        }
+    }
+    
+    // let monsters on timers act, then report what the player saw
+    private void advanceMonsters() throws IOException {
+        MonsterScheduler timers = gameWorld.getMonsterScheduler();
+        // timed monsters roam every room, so they only run while the world isn't shared
+        if (timers == null || !phase.isOpen() || gameWorld.getPlayers().size() > 1) {
+            return;
+        }
+        timers.endTurn();
+        output.append(timers.drainLog());
+    }
+    
+    // warn once when the game can no longer be finished, and point at the last save
+    private void warnIfStuck() throws IOException {
+        // whether a shared world can still be finished isn't any one player's problem
+        if (!phase.isOpen() || gameWorld.getPlayers().size() > 1) {
+            return;
+        }
+        String problem = gameWorld.getSoftLockDetector().check();
+        if (problem != null && !problem.equals(softLockWarning)) {
+            output.say(Message.STUCK).with(problem);
+            if (saveFile != null && new File(saveFile).exists()) {
+                output.say(Message.RESTORE_HINT);
+            }
+        }
+        softLockWarning = problem;
+    }
+    
     // display list of available commands
     private void displayMenu() throws IOException {
-        output.append("\ncommands: (n)orth, (s)outh, (e)ast, (w)est, (t)ake, (d)rop, e(x)amine, attac(k), (l)ook, (u)se, (i)nventory, (a)nswer, sa(v)e, (r)estore, (q)uit\n");
-        output.append("your choice: ");
+        output.say(Message.MENU);
     }
     
     // process player's command
-    private void processCommand(String command) throws IOException {
-        if (command.isEmpty()) return;
-        if (command.equals("n") || command.equals("north")) {
+    private Verb processCommand(CommandText command) throws IOException {
+        if (command.isEmpty()) return null;
+        CommandTurnEvent turn = new CommandTurnEvent();
+        String roomNumber = turn.isEnabled() ? player.getCurrentRoom().getRoomNumber() : null;
+        turn.begin();
+        long start = metrics.startTimer();
+        long allocation = metrics.startAllocation();
+        Verb verb = dispatch(command);
+        metrics.record(verb, start, allocation);
+        turn.end();
+        if (turn.shouldCommit()) {
+            turn.verb = verb.name();
+            turn.roomNumber = roomNumber;
+            turn.commit();
+        }
+        return verb;
+    }
+    
+    // run the command and report which kind it was
+    private Verb dispatch(CommandText command) throws IOException {
+        if (command.is("n") || command.is("north")) {
             move(Direction.NORTH);
-        } else if (command.equals("s") || command.equals("south")) {
+            return Verb.MOVE;
+        } else if (command.is("s") || command.is("south")) {
             move(Direction.SOUTH);
-        } else if (command.equals("e") || command.equals("east")) {
+            return Verb.MOVE;
+        } else if (command.is("e") || command.is("east")) {
             move(Direction.EAST);
-        } else if (command.equals("w") || command.equals("west")) {
+            return Verb.MOVE;
+        } else if (command.is("w") || command.is("west")) {
             move(Direction.WEST);
-        } else if (command.equals("l") || command.equals("look")) {
-            lookAround();
-        } else if (command.equals("i") || command.equals("inventory")) {
+            return Verb.MOVE;
+        } else if (command.is("l") || command.is("look")) {
+            // untimed, so the turn is counted once, as LOOK
+            renderRoom();
+            return Verb.LOOK;
+        } else if (command.is("i") || command.is("inventory")) {
             showInventory();
-        } else if (command.equals("k") || command.equals("attack")) {
+            return Verb.INVENTORY;
+        } else if (command.is("k") || command.is("attack")) {
             attackMonster();
+            return Verb.ATTACK;
         } else if (command.startsWith("t ") || command.startsWith("take ")) {
-            String itemName = command.startsWith("t ") ? command.substring(2) : command.substring(5);
+            CharSequence itemName = command.rest(command.startsWith("t ") ? 2 : 5);
             takeItem(itemName);
+            return Verb.TAKE;
         } else if (command.startsWith("d ") || command.startsWith("drop ")) {
-            String itemName = command.startsWith("d ") ? command.substring(2) : command.substring(5);
+            CharSequence itemName = command.rest(command.startsWith("d ") ? 2 : 5);
             dropItem(itemName);
+            return Verb.DROP;
         } else if (command.startsWith("x ") || command.startsWith("examine ")) {
-            String target = command.startsWith("x ") ? command.substring(2) : command.substring(8);
+            CharSequence target = command.rest(command.startsWith("x ") ? 2 : 8);
             examine(target);
+            return Verb.EXAMINE;
         } else if (command.startsWith("u ") || command.startsWith("use ")) {
-            String itemName = command.startsWith("u ") ? command.substring(2) : command.substring(4);
+            CharSequence itemName = command.rest(command.startsWith("u ") ? 2 : 4);
             useItem(itemName);
+            return Verb.USE;
         } else if (command.startsWith("a ") || command.startsWith("answer ")) {
-            String answer = command.startsWith("a ") ? command.substring(2) : command.substring(7);
+            CharSequence answer = command.rest(command.startsWith("a ") ? 2 : 7);
             provideAnswer(answer);
-        } else if (command.equals("v") || command.equals("save")) {
+            return Verb.ANSWER;
+        } else if (command.is("c") || command.is("craft")) {
+            craft("");
+            return Verb.CRAFT;
+        } else if (command.startsWith("c ") || command.startsWith("craft ")) {
+            CharSequence ingredients = command.rest(command.startsWith("c ") ? 2 : 6);
+            craft(ingredients);
+            return Verb.CRAFT;
+        } else if (command.is("v") || command.is("save")) {
             saveGame();
-        } else if (command.equals("r") || command.equals("restore")) {
+            return Verb.SAVE;
+        } else if (command.is("r") || command.is("restore")) {
             restoreGame();
-        } else if (command.equals("q") || command.equals("quit")) {
+            return Verb.RESTORE;
+        } else if (command.is("q") || command.is("quit")) {
             showFinalScore();
             endGame();
+            return Verb.QUIT;
         } else {
-            output.append("I don't understand that command.\n");
+            output.say(Message.UNKNOWN_COMMAND);
+            return Verb.UNKNOWN;
         }
     }
     
     // move player in the given direction
     private void move(Direction direction) throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
+        Room currentRoom = player.getCurrentRoom();
         String exitNumber = currentRoom.getExitRoomNumber(direction);
         if (exitNumber.equals("0")) {
-            output.append("you can't go that way. there's a wall.\n");
+            output.say(Message.WALL);
             return;
         }
         if (Integer.parseInt(exitNumber) < 0) {
             if (currentRoom.getPuzzle() != null && currentRoom.getPuzzle().isActive()) {
-                output.append("blocked by puzzle: " + currentRoom.getPuzzle().getDescription() + "\n");
+                output.say(Message.BLOCKED_BY_PUZZLE).with(currentRoom.getPuzzle().getDescription());
             } else if (currentRoom.getMonster() != null && currentRoom.getMonster().isActive()) {
-                output.append("blocked by monster: " + currentRoom.getMonster().getDescription() + "\n");
+                output.say(Message.BLOCKED_BY_MONSTER).with(currentRoom.getMonster().getDescription());
                 monsterAttacksPlayer();
             } else {
-                output.append("the path is blocked.\n");
+                output.say(Message.PATH_BLOCKED);
             }
             return;
         }
         Room nextRoom = currentRoom.getExit(direction);
         if (nextRoom != null) {
-            gameWorld.getPlayer().setCurrentRoom(nextRoom);
-            output.append("you move " + direction.toString().toLowerCase() + ".\n");
+            // hold the room being entered too. if the locks had to be retaken in order,
+            // nothing checked above can have changed: exits only ever open, and only
+            // this session moves this player
+            gameWorld.getRoomGuard().lockAlso(currentRoom, nextRoom);
+            entered = nextRoom;
+            announce(Message.OTHER_LEAVES, player.getName(), direction.getLowerName());
+            player.setCurrentRoom(nextRoom);
+            output.say(Message.MOVED).with(direction.getLowerName());
+            gameWorld.fire(player, RuleEvent.ENTER, nextRoom.getRoomNumber());
         } else {
-            output.append("exit error. can't move there.\n");
+            output.say(Message.EXIT_ERROR);
         }
     }
     
     // display player's inventory
     private void showInventory() throws IOException {
-        Player player = gameWorld.getPlayer();
-        output.append("inventory (weight: " + player.getInventoryWeight() + "/" + player.getMaxWeight() + "):\n");
+        output.say(Message.INVENTORY).with(player.getInventoryWeight()).with(player.getMaxWeight());
         if (player.getInventory().isEmpty()) {
-            output.append("your inventory is empty.\n");
+            output.say(Message.INVENTORY_EMPTY);
         } else {
             for (Item item : player.getInventory()) {
-                output.append("- " + item.getName().toLowerCase() + " (weight: " + item.getWeight() +
-                            ", uses: " + item.getUsesRemaining() + ")\n");
+                output.say(Message.INVENTORY_ITEM).with(item.getDisplayName()).with(item.getWeight())
+                        .with(item.getUsesRemaining());
             }
         }
     }
     
     // attack monster in the room
     private void attackMonster() throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
+        Room currentRoom = player.getCurrentRoom();
         Monster monster = currentRoom.getMonster();
         if (monster == null || !monster.isActive()) {
-            output.append("there's nothing here to attack.\n");
+            output.say(Message.NOTHING_TO_ATTACK);
+            return;
+        }
+        HitResult hit = gameWorld.attackMonster(player);
+        if (hit.isCritical()) {
+            output.say(Message.CRITICAL_HIT);
+        }
+        output.say(Message.ATTACK).with(monster.getDisplayName()).with(hit.getDamage());
+        if (hit.isDefeated()) {
+            output.say(Message.DEFEATED).with(monster.getDisplayName());
+            announce(Message.OTHER_DEFEATS, player.getName(), monster.getDisplayName());
+            reportLoot(monster);
             return;
         }
-        output.append("you attack the " + monster.getName().toLowerCase() + ", but it's not very effective.\n");
-        monsterAttacksPlayer();
+        announce(Message.OTHER_ATTACKS, player.getName(), monster.getDisplayName());
+        int damage = gameWorld.getCombatEngine(player).getCounterDamage();
+        if (damage > 0) {
+            output.say(Message.MONSTER_ATTACKS).with(monster.getDisplayName()).with(monster.getAttackDescription());
+            output.say(Message.TAKE_DAMAGE).with(damage);
+            announce(Message.MONSTER_STRIKES, monster.getDisplayName(), player.getName());
+        }
+    }
+    
+    // say what a defeated monster dropped
+    private void reportLoot(Monster monster) throws IOException {
+        for (Item drop : gameWorld.getLastLoot(player)) {
+            output.say(Message.LOOT).with(monster.getDisplayName()).with(drop.getDisplayName());
+        }
     }
     
     // pick up an item
-    private void takeItem(String itemName) throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
+    private void takeItem(CharSequence itemName) throws IOException {
+        Room currentRoom = player.getCurrentRoom();
         Item item = currentRoom.getItem(itemName);
         if (item == null) {
-            output.append("there's no " + itemName + " here to take.\n");
+            output.say(Message.NOTHING_TO_TAKE).with(itemName);
             return;
         }
-        if (gameWorld.getPlayer().addToInventory(item)) {
+        if (player.addToInventory(item)) {
             currentRoom.removeItem(item);
-            output.append("you pick up the " + item.getName().toLowerCase() + ".\n");
+            output.say(Message.PICKED_UP).with(item.getDisplayName());
+            gameWorld.getEvents().publish(WorldEventType.ITEM_TAKEN, player, currentRoom, item.getName(), 0);
+            announce(Message.OTHER_TAKES, player.getName(), item.getDisplayName());
+            gameWorld.fire(player, RuleEvent.TAKE, item.getName());
         } else {
-            output.append("you can't carry any more; your inventory is too heavy.\n");
+            output.say(Message.TOO_HEAVY);
         }
     }
     
     // drop an item from inventory
-    private void dropItem(String itemName) throws IOException {
-        Player player = gameWorld.getPlayer();
+    private void dropItem(CharSequence itemName) throws IOException {
         Item item = player.getItemFromInventory(itemName);
         if (item == null) {
-            output.append("you don't have a " + itemName + " in your inventory.\n");
+            output.say(Message.NOT_CARRIED).with(itemName);
             return;
         }
         if (player.removeFromInventory(item)) {
             player.getCurrentRoom().addItem(item);
-            output.append("you drop the " + item.getName().toLowerCase() + ".\n");
+            output.say(Message.DROPPED).with(item.getDisplayName());
+            gameWorld.getEvents().publish(WorldEventType.ITEM_DROPPED, player, player.getCurrentRoom(),
+                    item.getName(), 0);
+            announce(Message.OTHER_DROPS, player.getName(), item.getDisplayName());
         } else {
-            output.append("can't drop the " + item.getName().toLowerCase() + ".\n");
+            output.say(Message.CANNOT_DROP).with(item.getDisplayName());
         }
     }
     
     // examine an object in inventory, room, or fixture
-    private void examine(String target) throws IOException {
-        Player player = gameWorld.getPlayer();
+    private void examine(CharSequence target) throws IOException {
         Item invItem = player.getItemFromInventory(target);
         if (invItem != null) {
-            output.append(invItem.getDescription() + "\n");
+            output.say(Message.LINE).with(invItem.getDescription());
             return;
         }
         Room currentRoom = player.getCurrentRoom();
         Item roomItem = currentRoom.getItem(target);
         if (roomItem != null) {
-            output.append(roomItem.getDescription() + "\n");
+            output.say(Message.LINE).with(roomItem.getDescription());
             return;
         }
         Fixture fixture = currentRoom.getFixture(target);
         if (fixture != null) {
-            output.append(fixture.getDescription() + "\n");
+            output.say(Message.LINE).with(fixture.getDescription());
             return;
         }
-        output.append("you don't see a " + target + " here.\n");
+        output.say(Message.NOT_SEEN).with(target);
     }
     
     // use an item to solve a puzzle or defeat a monster
-    private void useItem(String itemName) throws IOException {
-        Player player = gameWorld.getPlayer();
+    private void useItem(CharSequence itemName) throws IOException {
         Item item = player.getItemFromInventory(itemName);
         if (item == null) {
-            output.append("you don't have a " + itemName + " in your inventory.\n");
+            output.say(Message.NOT_CARRIED).with(itemName);
             return;
         }
         if (item.getUsesRemaining() <= 0) {
-            output.append("the " + item.getName().toLowerCase() + " has no uses left.\n");
+            output.say(Message.NO_USES_LEFT).with(item.getDisplayName());
             return;
         }
         Room currentRoom = player.getCurrentRoom();
-        boolean solved = gameWorld.applySolution(item.getName());
+        boolean solved = gameWorld.applySolution(player, item.getName());
         if (solved) {
             if (currentRoom.getPuzzle() != null && !currentRoom.getPuzzle().isActive()) {
-                output.append("you used the " + item.getName().toLowerCase() + " to solve the puzzle!\n");
-                output.append(currentRoom.getPuzzle().getEffects() + "\n");
-                output.append("you gain " + currentRoom.getPuzzle().getValue() + " points!\n");
+                output.say(Message.SOLVED_WITH).with(item.getDisplayName());
+                output.say(Message.LINE).with(currentRoom.getPuzzle().getEffects());
+                output.say(Message.POINTS).with(currentRoom.getPuzzle().getValue());
             } else if (currentRoom.getMonster() != null && !currentRoom.getMonster().isActive()) {
-                output.append("you used the " + item.getName().toLowerCase() + " to defeat the monster!\n");
-                output.append("you gain " + currentRoom.getMonster().getValue() + " points!\n");
+                output.say(Message.DEFEATED_WITH).with(item.getDisplayName());
+                output.say(Message.POINTS).with(currentRoom.getMonster().getValue());
+                reportLoot(currentRoom.getMonster());
             }
             item.use();
         } else {
-            output.append("you use the " + item.getName().toLowerCase() + ".\n");
-            output.append(item.getWhenUsed() + "\n");
+            output.say(Message.USED).with(item.getDisplayName());
+            output.say(Message.LINE).with(item.getWhenUsed());
             item.use();
         }
+        gameWorld.fire(player, RuleEvent.USE, item.getName());
     }
     
     // provide an answer to a puzzle
-    private void provideAnswer(String answer) throws IOException {
-        Room currentRoom = gameWorld.getPlayer().getCurrentRoom();
+    private void provideAnswer(CharSequence answer) throws IOException {
+        Room currentRoom = player.getCurrentRoom();
         if (currentRoom.getPuzzle() == null || !currentRoom.getPuzzle().isActive()) {
-            output.append("there's no active puzzle here.\n");
+            output.say(Message.NO_PUZZLE);
             return;
         }
         Puzzle puzzle = currentRoom.getPuzzle();
-        if (!puzzle.getSolution().startsWith("'")) {
-            output.append("this puzzle requires using an item, not answering.\n");
+        if (!puzzle.requiresAnswer()) {
+            output.say(Message.NEEDS_ITEM);
             return;
         }
-        boolean solved = gameWorld.applySolution(answer);
+        boolean solved = gameWorld.applySolution(player, answer.toString());
         if (solved) {
-            output.append("correct! " + puzzle.getEffects() + "\n");
-            output.append("you gain " + puzzle.getValue() + " points!\n");
+            output.say(Message.CORRECT).with(puzzle.getEffects());
+            output.say(Message.POINTS).with(puzzle.getValue());
         } else {
-            output.append("that's not right. the puzzle is still unsolved.\n");
+            output.say(Message.WRONG);
+        }
+    }
+    
+    // craft at a station here, from the named ingredients or from whatever fits best
+    private void craft(CharSequence ingredients) throws IOException {
+        boolean hasStation = false;
+        for (Fixture fixture : player.getCurrentRoom().getFixtureList()) {
+            hasStation |= fixture.getRecipes() != null;
+        }
+        if (!hasStation) {
+            output.say(Message.NO_STATION);
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : ingredients.toString().split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        Inventory inventory = player.getInventoryStore();
+        int before = inventory.size();
+        Recipe recipe = gameWorld.craft(player, names);
+        if (recipe == null) {
+            output.say(Message.CANNOT_CRAFT);
+            return;
+        }
+        if (recipe.getDescription() != null) {
+            output.say(Message.LINE).with(recipe.getDescription());
+        }
+        String made = recipe.getOutput().getDisplayName();
+        if (recipe.getOutputCount() == 1) {
+            output.say(Message.CRAFTED).with(made);
+        } else {
+            output.say(Message.CRAFTED_MANY).with(recipe.getOutputCount()).with(made);
+        }
+        // anything that didn't fit in the inventory was left in the room
+        if (inventory.size() - before + recipe.getIngredientTotal() < recipe.getOutputCount()) {
+            output.say(Message.LEFT_HERE);
         }
     }
     
     // save game state
     private void saveGame() throws IOException {
+        if (saveFile == null) {
+            output.say(Message.SAVES_OFF);
+            return;
+        }
+        if (gameWorld.getPlayers().size() > 1) {
+            output.say(Message.SHARED_WORLD);
+            return;
+        }
         try {
-            gameWorld.saveGame("saved_game.json");
-            output.append("game saved successfully!\n");
+            gameWorld.saveGame(saveFile);
+            output.say(Message.SAVED);
         } catch (IOException e) {
-            output.append("error saving game: " + e.getMessage() + "\n");
+            output.say(Message.SAVE_FAILED).with(e.getMessage());
         }
     }
     
     // restore game state
     private void restoreGame() throws IOException {
+        if (saveFile == null) {
+            output.say(Message.SAVES_OFF);
+            return;
+        }
+        if (gameWorld.getPlayers().size() > 1) {
+            output.say(Message.SHARED_WORLD);
+            return;
+        }
         try {
-            gameWorld.loadGame("saved_game.json");
-            output.append("game restored successfully!\n");
+            List<Item> leftBehind = gameWorld.loadGame(saveFile);
+            output.say(Message.RESTORED);
+            for (Item item : leftBehind) {
+                output.say(Message.LEFT_BEHIND).with(item.getDisplayName());
+            }
         } catch (Exception e) {
-            output.append("error restoring game: " + e.getMessage() + "\n");
+            output.say(Message.RESTORE_FAILED).with(e.getMessage());
         }
     }
     
     // display final score and rank
     private void showFinalScore() throws IOException {
-        Player player = gameWorld.getPlayer();
-        output.append("\ngame over!\n");
-        output.append("final score: " + player.getScore() + "\n");
-        output.append("rank: " + player.getRank() + "\n");
+        output.say(Message.FINAL_SCORE).with(player.getScore()).with(player.getRank());
     }
     
     // display game over message
     private void displayGameOver() throws IOException {
-        output.append("\nyour health is depleted. you fall into a deep sleep.\n");
-        output.append("game over\n");
+        output.say(Message.HEALTH_DEPLETED);
     }
     
     // end game loop
     private void endGame() {
-        gameOver = true;
+        phase = SessionPhase.OVER;
+        gameWorld.getNearbyEvents().unsubscribe(player);
     }
 }
@@ -0,0 +1,99 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/*
+reads lines from a Readable into a reused buffer, without Scanner's regex matching or
+a string per line. each line is copied into a CommandText the caller owns. like
+Scanner.nextLine(), "\n", "\r\n" and a lone "\r" all end a line, and a last line
+without an ending still counts.
+*/
+public class LineReader {
+    private static final int BUFFER_SIZE = 4096;
+    
+    private final Readable input;
+    private final CharBuffer buffer;
+    private boolean exhausted;
+    // a "\r" ended the last line, so a "\n" right after it belongs to that line
+    private boolean skipNewline;
+    
+    public LineReader(Readable input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        this.input = input;
+        this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+    
+    // read the next line into the given view; false at the end of the input
+    public boolean next(CommandText line) throws IOException {
+        int length = 0;
+        char[] pending = null;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (length == 0 && pending == null) {
+                    return false;
+                }
+                line.set(pending, 0, length);
+                return true;
+            }
+            char[] chars = buffer.array();
+            int from = buffer.position();
+            int limit = buffer.limit();
+            if (skipNewline) {
+                skipNewline = false;
+                if (chars[from] == '\n') {
+                    buffer.position(++from);
+                    continue;
+                }
+            }
+            for (int i = from; i < limit; i++) {
+                char c = chars[i];
+                if (c == '\n' || c == '\r') {
+                    skipNewline = c == '\r';
+                    buffer.position(i + 1);
+                    if (pending == null) {
+                        line.set(chars, from, i - from);
+                    } else {
+                        pending = append(pending, length, chars, from, i - from);
+                        line.set(pending, 0, length + i - from);
+                    }
+                    return true;
+                }
+            }
+            // the line runs past the buffer; keep what we have and read more
+            pending = append(pending == null ? new char[BUFFER_SIZE] : pending, length, chars, from, limit - from);
+            length += limit - from;
+            buffer.position(limit);
+        }
+    }
+    
+    private static char[] append(char[] pending, int length, char[] chars, int from, int count) {
+        char[] target = pending;
+        if (length + count > target.length) {
+            target = Arrays.copyOf(target, Math.max(length + count, target.length * 2));
+        }
+        System.arraycopy(chars, from, target, length, count);
+        return target;
+    }
+    
+    private boolean fill() throws IOException {
+        if (exhausted) {
+            return false;
+        }
+        buffer.clear();
+        int n;
+        do {
+            n = input.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        if (n < 0) {
+            exhausted = true;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package controller;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+every fixed line the controller prints. "{}" marks a slot that TurnOutput fills in.
+templates are encoded to utf-8 once, split into the byte segments around their slots.
+*/
+public enum Message {
+    WELCOME("welcome to {}!\n\n"),
+    ASK_NAME("enter your name: "),
+    HELLO("hello, {}! let's start your adventure.\n\n"),
+    HEALTH("health: {} ({})\n"),
+    MENU("\ncommands: (n)orth, (s)outh, (e)ast, (w)est, (t)ake, (d)rop, e(x)amine, attac(k), (l)ook, (u)se, (i)nventory, (a)nswer, (c)raft, sa(v)e, (r)estore, (q)uit\nyour choice: "),
+    LINE("{}\n"),
+    MONSTER_ATTACKS("{} {}\n"),
+    TAKE_DAMAGE("you take -{} damage!\n"),
+    STUCK("warning: you can no longer finish this adventure: {}.\n"),
+    RESTORE_HINT("type (r)estore to go back to your last save.\n"),
+    UNKNOWN_COMMAND("I don't understand that command.\n"),
+    WALL("you can't go that way. there's a wall.\n"),
+    BLOCKED_BY_PUZZLE("blocked by puzzle: {}\n"),
+    BLOCKED_BY_MONSTER("blocked by monster: {}\n"),
+    PATH_BLOCKED("the path is blocked.\n"),
+    MOVED("you move {}.\n"),
+    EXIT_ERROR("exit error. can't move there.\n"),
+    INVENTORY("inventory (weight: {}/{}):\n"),
+    INVENTORY_EMPTY("your inventory is empty.\n"),
+    INVENTORY_ITEM("- {} (weight: {}, uses: {})\n"),
+    NOTHING_TO_ATTACK("there's nothing here to attack.\n"),
+    CRITICAL_HIT("critical hit! "),
+    ATTACK("you attack the {} for {} damage.\n"),
+    DEFEATED("you defeated the {}!\n"),
+    LOOT("the {} drops a {}.\n"),
+    NOTHING_TO_TAKE("there's no {} here to take.\n"),
+    PICKED_UP("you pick up the {}.\n"),
+    TOO_HEAVY("you can't carry any more; your inventory is too heavy.\n"),
+    NOT_CARRIED("you don't have a {} in your inventory.\n"),
+    DROPPED("you drop the {}.\n"),
+    CANNOT_DROP("can't drop the {}.\n"),
+    NOT_SEEN("you don't see a {} here.\n"),
+    NO_USES_LEFT("the {} has no uses left.\n"),
+    SOLVED_WITH("you used the {} to solve the puzzle!\n"),
+    DEFEATED_WITH("you used the {} to defeat the monster!\n"),
+    POINTS("you gain {} points!\n"),
+    USED("you use the {}.\n"),
+    NO_PUZZLE("there's no active puzzle here.\n"),
+    NEEDS_ITEM("this puzzle requires using an item, not answering.\n"),
+    CORRECT("correct! {}\n"),
+    WRONG("that's not right. the puzzle is still unsolved.\n"),
+    NO_STATION("there's nothing to craft with here.\n"),
+    CANNOT_CRAFT("you can't craft anything with that.\n"),
+    CRAFTED("you craft the {}.\n"),
+    CRAFTED_MANY("you craft {} of the {}.\n"),
+    LEFT_HERE("it's too heavy to carry, so you leave it here.\n"),
+    SAVED("game saved successfully!\n"),
+    SAVE_FAILED("error saving game: {}\n"),
+    RESTORED("game restored successfully!\n"),
+    LEFT_BEHIND("the {} is too heavy to carry now, so it's left here.\n"),
+    RESTORE_FAILED("error restoring game: {}\n"),
+    SAVES_OFF("saving is turned off for this game.\n"),
+    SHARED_WORLD("other players share this world, so it can't be saved or restored.\n"),
+    FINAL_SCORE("\ngame over!\nfinal score: {}\nrank: {}\n"),
+    HEALTH_DEPLETED("\nyour health is depleted. you fall into a deep sleep.\ngame over\n"),
+    NEARBY("from the {}: {}\n"),
+    // what other players sharing the world hear; one line each, without its line ending
+    OTHER_TAKES("{} picks up the {}."),
+    OTHER_DROPS("{} drops the {}."),
+    OTHER_LEAVES("{} goes {}."),
+    OTHER_ATTACKS("{} attacks the {}."),
+    OTHER_DEFEATS("{} defeats the {}!"),
+    MONSTER_STRIKES("the {} attacks {}.");
+    
+    private static final String SLOT = "{}";
+    
+    // utf-8 bytes before the first slot, between slots, and after the last slot
+    private final byte[][] segments;
+    
+    Message(String template) {
+        String[] parts = template.split("\\{\\}", -1);
+        segments = new byte[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            segments[i] = parts[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+    
+    // number of values the template takes
+    public int slots() {
+        return segments.length - 1;
+    }
+    
+    // encoded text that follows the given number of filled slots
+    byte[] segment(int index) {
+        return segments[index];
+    }
+    
+    // the template with its slots filled in order, as a string for text that outlives the turn
+    public String fill(CharSequence... values) {
+        if (values.length != slots()) {
+            throw new IllegalArgumentException(name() + " takes " + slots() + " values");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                text.append(values[i - 1]);
+            }
+            text.append(new String(segments[i], StandardCharsets.UTF_8));
+        }
+        return text.toString();
+    }
+    
+    // the template as written, with its slots marked
+    public String template() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                text.append(SLOT);
+            }
+            text.append(new String(segments[i], StandardCharsets.UTF_8));
+        }
+        return text.toString();
+    }
+}
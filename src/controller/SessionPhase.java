@@ -0,0 +1,17 @@
+package controller;
+
+/*
+where a session is in its life. a new session has printed nothing yet. once greeted
+it waits for the player's name, then plays commands until the player quits or dies.
+*/
+public enum SessionPhase {
+    NEW,
+    NAMING,
+    PLAYING,
+    OVER;
+    
+    // whether the session still takes input
+    public boolean isOpen() {
+        return this != OVER;
+    }
+}
@@ -0,0 +1,217 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/*
+a reusable utf-8 buffer for everything the controller prints in one turn.
+messages are copied in as pre-encoded segments and their slots are encoded straight
+into the buffer, so printing a line doesn't build a string:
+
+    output.say(Message.ATTACK).with(monster.getDisplayName()).with(damage);
+
+each with() fills the next slot and copies the segment after it. free text such as
+descriptions goes through the Appendable methods. nothing reaches the sink until
+flush(), or until the buffer fills. a byte sink, such as a socket channel, gets the
+bytes as they are. a character sink gets them decoded into a reused char buffer.
+not thread-safe; each session owns one.
+*/
+public class TurnOutput implements Appendable {
+    private static final int DEFAULT_CAPACITY = 8192;
+    // longest utf-8 encoding of one character, or of a surrogate pair
+    private static final int MAX_CHAR_BYTES = 4;
+    
+    private final WritableByteChannel channel;
+    private final Appendable text;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private Message pending;
+    private int filled;
+    
+    // write to a byte sink
+    public TurnOutput(WritableByteChannel channel) {
+        this(channel, null, DEFAULT_CAPACITY);
+    }
+    
+    // write to a character sink
+    public TurnOutput(Appendable text) {
+        this(null, text, DEFAULT_CAPACITY);
+    }
+    
+    private TurnOutput(WritableByteChannel channel, Appendable text, int capacity) {
+        if (channel == null && text == null) {
+            throw new IllegalArgumentException("Output sink cannot be null");
+        }
+        this.channel = channel;
+        this.text = text;
+        // every template segment must fit in the buffer whole
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.decoder = text == null ? null : StandardCharsets.UTF_8.newDecoder();
+        this.chars = text == null ? null : CharBuffer.allocate(capacity);
+    }
+    
+    // start a message; its slots must be filled with with() before anything else is written
+    public TurnOutput say(Message message) throws IOException {
+        checkComplete();
+        put(message.segment(0));
+        if (message.slots() > 0) {
+            pending = message;
+            filled = 0;
+        }
+        return this;
+    }
+    
+    // fill the next slot with text
+    public TurnOutput with(CharSequence value) throws IOException {
+        checkPending();
+        putChars(value == null ? "null" : value, 0, value == null ? 4 : value.length());
+        return next();
+    }
+    
+    // fill the next slot with a number
+    public TurnOutput with(long value) throws IOException {
+        checkPending();
+        int at = digits.length;
+        long rest = value;
+        do {
+            digits[--at] = (byte) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        if (value < 0) {
+            digits[--at] = '-';
+        }
+        ensure(digits.length - at);
+        buffer.put(digits, at, digits.length - at);
+        return next();
+    }
+    
+    @Override
+    public TurnOutput append(CharSequence csq) throws IOException {
+        CharSequence value = csq == null ? "null" : csq;
+        return append(value, 0, value.length());
+    }
+    
+    @Override
+    public TurnOutput append(CharSequence csq, int start, int end) throws IOException {
+        checkComplete();
+        putChars(csq == null ? "null" : csq, start, end);
+        return this;
+    }
+    
+    @Override
+    public TurnOutput append(char c) throws IOException {
+        checkComplete();
+        ensure(MAX_CHAR_BYTES);
+        putChar(c);
+        return this;
+    }
+    
+    // bytes written since the last flush
+    public int size() {
+        return buffer.position();
+    }
+    
+    // hand everything written so far to the sink
+    public void flush() throws IOException {
+        buffer.flip();
+        if (channel != null) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } else {
+            decoder.reset();
+            while (true) {
+                CoderResult result = decoder.decode(buffer, chars, true);
+                drainChars();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            decoder.flush(chars);
+            drainChars();
+        }
+        buffer.clear();
+    }
+    
+    private void drainChars() throws IOException {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            text.append(chars);
+        }
+        chars.clear();
+    }
+    
+    private TurnOutput next() throws IOException {
+        filled++;
+        put(pending.segment(filled));
+        if (filled == pending.slots()) {
+            pending = null;
+        }
+        return this;
+    }
+    
+    private void checkPending() {
+        if (pending == null) {
+            throw new IllegalStateException("No message slot left to fill");
+        }
+    }
+    
+    private void checkComplete() {
+        if (pending != null) {
+            throw new IllegalStateException("Message " + pending + " still has "
+                    + (pending.slots() - filled) + " slot(s) to fill");
+        }
+    }
+    
+    // copy a whole segment in, flushing first if it doesn't fit
+    private void put(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private void putChars(CharSequence value, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            ensure(MAX_CHAR_BYTES);
+            if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xf0 | (code >> 18)));
+                buffer.put((byte) (0x80 | ((code >> 12) & 0x3f)));
+                buffer.put((byte) (0x80 | ((code >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (code & 0x3f)));
+            } else {
+                putChar(c);
+            }
+        }
+    }
+    
+    // encode one utf-16 unit; an unpaired surrogate becomes '?'
+    private void putChar(char c) {
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xc0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3f)));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xe0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+            buffer.put((byte) (0x80 | (c & 0x3f)));
+        }
+    }
+    
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
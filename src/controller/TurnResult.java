@@ -0,0 +1,71 @@
+package controller;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+what one step of a session did: the phase it left the session in, the kind of command
+it ran (null when the line was not a command), and the text it printed when the
+controller collects its own output. a controller with its own sink has already sent
+the text there, so its results carry no text and are shared constants.
+*/
+public final class TurnResult {
+    // results without text, by phase and then by verb, with null verbs under UNKNOWN's slot
+    private static final Map<SessionPhase, TurnResult[]> SHARED = new EnumMap<>(SessionPhase.class);
+    
+    static {
+        for (SessionPhase phase : SessionPhase.values()) {
+            TurnResult[] byVerb = new TurnResult[Verb.values().length + 1];
+            byVerb[0] = new TurnResult(phase, null, "");
+            for (Verb verb : Verb.values()) {
+                byVerb[verb.ordinal() + 1] = new TurnResult(phase, verb, "");
+            }
+            SHARED.put(phase, byVerb);
+        }
+    }
+    
+    private final SessionPhase phase;
+    private final Verb verb;
+    private final String output;
+    
+    private TurnResult(SessionPhase phase, Verb verb, String output) {
+        this.phase = phase;
+        this.verb = verb;
+        this.output = output;
+    }
+    
+    // a result with text
+    static TurnResult of(SessionPhase phase, Verb verb, String output) {
+        if (output.isEmpty()) {
+            return of(phase, verb);
+        }
+        return new TurnResult(phase, verb, output);
+    }
+    
+    // a result without text; never allocates
+    static TurnResult of(SessionPhase phase, Verb verb) {
+        return SHARED.get(phase)[verb == null ? 0 : verb.ordinal() + 1];
+    }
+    
+    public SessionPhase getPhase() {
+        return phase;
+    }
+    
+    public Verb getVerb() {
+        return verb;
+    }
+    
+    public String getOutput() {
+        return output;
+    }
+    
+    // whether the session still takes input
+    public boolean isOpen() {
+        return phase.isOpen();
+    }
+    
+    @Override
+    public String toString() {
+        return "TurnResult [phase=" + phase + ", verb=" + verb + ", output=" + output + "]";
+    }
+}
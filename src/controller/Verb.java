@@ -0,0 +1,23 @@
+package controller;
+
+/*
+kinds of player commands, used to key per-command metrics.
+LOOK_AROUND is the room display that runs before every prompt.
+*/
+public enum Verb {
+    MOVE,
+    LOOK,
+    LOOK_AROUND,
+    INVENTORY,
+    ATTACK,
+    TAKE,
+    DROP,
+    EXAMINE,
+    USE,
+    ANSWER,
+    CRAFT,
+    SAVE,
+    RESTORE,
+    QUIT,
+    UNKNOWN
+}
@@ -1,15 +1,40 @@
 package enginedriver;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import metrics.CommandMetrics;
+import metrics.MetricsReporter;
 import model.GameWorld;
+import model.MonsterScheduler;
+import model.SplittableRandomSource;
 import controller.GameController;
+import controller.Verb;
+import scheduler.Clock;
+import scheduler.TurnClock;
+import scheduler.WallClock;
+import server.SelectorServer;
 
 /**
  * The main application class that initializes and runs the text-based adventure game.
  * This class serves as the entry point for the game, connecting the model (GameWorld)
  * with the controller (GameController) and handling I/O operations.
+ * Setting the {@code game.metrics.file} system property turns on per-command metrics
+ * and dumps them to that file every {@code game.metrics.period} seconds (default 10).
+ * Setting {@code game.seed} seeds the combat dice so a session can be replayed exactly.
+ * Setting {@code game.monster.clock} puts monsters on their own timers: {@code turn} ticks
+ * once per command, and a number ticks every that many milliseconds of real time.
+ * Setting {@code game.server.port} serves the game over TCP instead, one fresh world per
+ * connection, on {@code game.server.threads} event loops (default one per processor).
  */
 public class GameEngineApp {
+  private static final String METRICS_FILE_PROPERTY = "game.metrics.file";
+  private static final String METRICS_PERIOD_PROPERTY = "game.metrics.period";
+  private static final String SEED_PROPERTY = "game.seed";
+  private static final String MONSTER_CLOCK_PROPERTY = "game.monster.clock";
+  private static final String SERVER_PORT_PROPERTY = "game.server.port";
+  private static final String SERVER_THREADS_PROPERTY = "game.server.threads";
+
   private final String gameFileName;
   private final Readable input;
   private final Appendable output;
@@ -35,17 +60,68 @@ public class GameEngineApp {
    * @throws IOException If there is an error reading the game file or during I/O operations
    */
   public void start() throws IOException {
+    Integer port = Integer.getInteger(SERVER_PORT_PROPERTY);
+    if (port != null) {
+      serve(port);
+      return;
+    }
     try {
       // Create the game model by loading the specified JSON
       GameWorld gameWorld = new GameWorld(gameFileName);
+      Long seed = Long.getLong(SEED_PROPERTY);
+      if (seed != null) {
+        gameWorld.setRandomSource(new SplittableRandomSource(seed));
+      }
+      String monsterClock = System.getProperty(MONSTER_CLOCK_PROPERTY);
+      if (monsterClock != null) {
+        Clock clock = "turn".equals(monsterClock)
+                ? new TurnClock() : new WallClock(Long.parseLong(monsterClock));
+        gameWorld.setMonsterScheduler(new MonsterScheduler(gameWorld, clock,
+                gameWorld.getCombatEngine().getRandomSource().split()));
+      }
 
       // Create the controller, linking it to the model and I/O
-      GameController controller = new GameController(gameWorld, input, output);
+      String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+      if (metricsFile == null) {
+        GameController controller = new GameController(gameWorld, input, output);
+
+        // Start game loop
+        controller.play();
+        return;
+      }
 
-      // Start game loop
-      controller.play();
+      // Same game loop, with metrics dumped periodically and once more at the end
+      CommandMetrics<Verb> metrics = new CommandMetrics<>(Verb.class, true);
+      long period = Long.getLong(METRICS_PERIOD_PROPERTY, 10L);
+      MetricsReporter reporter = new MetricsReporter(metrics, Paths.get(metricsFile), period);
+      try {
+        GameController controller = new GameController(gameWorld, input, output, metrics);
+        controller.play();
+      } finally {
+        reporter.close();
+      }
     } catch (IOException e) {
       throw new IOException("Error starting game: " + e.getMessage(), e);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Serves the game to network clients until the thread is interrupted.
+   *
+   * @param port The port to listen on
+   * @throws IOException If the port cannot be bound
+   */
+  private void serve(int port) throws IOException {
+    int threads = Integer.getInteger(SERVER_THREADS_PROPERTY,
+            Runtime.getRuntime().availableProcessors());
+    try (SelectorServer server = new SelectorServer(() -> new GameWorld(gameFileName),
+            new InetSocketAddress(port), threads)) {
+      server.start();
+      output.append("serving " + gameFileName + " on port " + server.getAddress().getPort()
+              + "\n");
+      Thread.currentThread().join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-command counters and latency histograms for the game controller.
+ * Each command kind is identified by a constant of the given enum type, so
+ * recording is an array index rather than a map lookup. Allocation bytes per
+ * turn are tracked when the JVM exposes per-thread allocation counters.
+ * A disabled instance records nothing and never reads the clock.
+ *
+ * @param <E> The enum type naming the command kinds
+ */
+public class CommandMetrics<E extends Enum<E>> {
+  private final boolean enabled;
+  private final E[] kinds;
+  private final AtomicLong[] counts;
+  private final LatencyHistogram[] latencies;
+  private final AtomicLong[] allocatedBytes;
+  private final com.sun.management.ThreadMXBean allocationBean;
+
+  /**
+   * Constructs metrics for every constant of the given enum type.
+   *
+   * @param kindType The enum class naming the command kinds
+   * @param enabled  Whether anything should be recorded
+   */
+  public CommandMetrics(Class<E> kindType, boolean enabled) {
+    this.enabled = enabled;
+    this.kinds = kindType.getEnumConstants();
+    this.counts = new AtomicLong[kinds.length];
+    this.latencies = new LatencyHistogram[kinds.length];
+    this.allocatedBytes = new AtomicLong[kinds.length];
+    if (enabled) {
+      for (int i = 0; i < kinds.length; i++) {
+        counts[i] = new AtomicLong();
+        latencies[i] = new LatencyHistogram();
+        allocatedBytes[i] = new AtomicLong();
+      }
+    }
+    this.allocationBean = enabled ? findAllocationBean() : null;
+  }
+
+  /**
+   * Looks up the HotSpot thread bean if it can report allocated bytes.
+   */
+  private static com.sun.management.ThreadMXBean findAllocationBean() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+      if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+        return hotspot;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether this instance records anything.
+   *
+   * @return true if recording is enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks whether allocation bytes are being tracked on this JVM.
+   *
+   * @return true if allocation tracking is available
+   */
+  public boolean isTrackingAllocations() {
+    return allocationBean != null;
+  }
+
+  /**
+   * Reads the current clock for the start of a timed section.
+   *
+   * @return A nanosecond timestamp, or 0 when disabled
+   */
+  public long startTimer() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Reads the bytes allocated so far by the calling thread.
+   *
+   * @return The allocated byte count, or 0 if it is not tracked
+   */
+  public long startAllocation() {
+    return allocationBean != null
+            ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+  }
+
+  /**
+   * Records a finished command.
+   *
+   * @param kind            The command kind
+   * @param startNanos      The value returned by {@link #startTimer()}
+   * @param startAllocation The value returned by {@link #startAllocation()}
+   */
+  public void record(E kind, long startNanos, long startAllocation) {
+    if (!enabled) {
+      return;
+    }
+    int index = kind.ordinal();
+    latencies[index].record(System.nanoTime() - startNanos);
+    counts[index].incrementAndGet();
+    if (allocationBean != null) {
+      long allocated = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      allocatedBytes[index].addAndGet(Math.max(0, allocated - startAllocation));
+    }
+  }
+
+  /**
+   * Gets how many times a command kind was recorded.
+   *
+   * @param kind The command kind
+   * @return The count, or 0 when disabled
+   */
+  public long getCount(E kind) {
+    return enabled ? counts[kind.ordinal()].get() : 0L;
+  }
+
+  /**
+   * Gets the latency histogram for a command kind.
+   *
+   * @param kind The command kind
+   * @return The histogram, or null when disabled
+   */
+  public LatencyHistogram getLatency(E kind) {
+    return enabled ? latencies[kind.ordinal()] : null;
+  }
+
+  /**
+   * Gets the total bytes allocated while running a command kind.
+   *
+   * @param kind The command kind
+   * @return The allocated bytes, or 0 if not tracked
+   */
+  public long getAllocatedBytes(E kind) {
+    return enabled ? allocatedBytes[kind.ordinal()].get() : 0L;
+  }
+
+  /**
+   * Builds a snapshot of every command kind that has been recorded at least once.
+   * Values are count, mean, p50, p99, p99.9 and max latency in nanoseconds,
+   * followed by mean allocated bytes per command.
+   *
+   * @return A map from lower-case command kind to its summary values
+   */
+  public Map<String, long[]> snapshot() {
+    Map<String, long[]> result = new LinkedHashMap<>();
+    if (!enabled) {
+      return result;
+    }
+    for (E kind : kinds) {
+      long count = getCount(kind);
+      if (count == 0) {
+        continue;
+      }
+      LatencyHistogram histogram = latencies[kind.ordinal()];
+      result.put(kind.name().toLowerCase(), new long[] {
+          count,
+          (long) histogram.getMean(),
+          histogram.getValueAtPercentile(50),
+          histogram.getValueAtPercentile(99),
+          histogram.getValueAtPercentile(99.9),
+          histogram.getMax(),
+          getAllocatedBytes(kind) / count
+      });
+    }
+    return result;
+  }
+
+  /**
+   * Formats the snapshot as a plain-text table, one command kind per line.
+   *
+   * @return The formatted report
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%-12s %10s %12s %12s %12s %12s %12s %12s%n",
+            "command", "count", "mean_ns", "p50_ns", "p99_ns", "p999_ns", "max_ns", "alloc_b"));
+    for (Map.Entry<String, long[]> entry : snapshot().entrySet()) {
+      long[] v = entry.getValue();
+      sb.append(String.format("%-12s %10d %12d %12d %12d %12d %12d %12d%n",
+              entry.getKey(), v[0], v[1], v[2], v[3], v[4], v[5], v[6]));
+    }
+    return sb.toString();
+  }
+}
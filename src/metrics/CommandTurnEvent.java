@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one player command, from dispatch to the last line
+ * of output. The event duration is the time the command took.
+ */
+@Name("adventure.CommandTurn")
+@Label("Command Turn")
+@Category({"Adventure Engine", "Commands"})
+@Description("A single player command processed by the game controller")
+public class CommandTurnEvent extends jdk.jfr.Event {
+  @Label("Verb")
+  public String verb;
+
+  @Label("Room Number")
+  @Description("The room the player was in when the command started")
+  public String roomNumber;
+}
@@ -0,0 +1,136 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, log-linear latency histogram in the style of HdrHistogram.
+ * Values below 64 are counted exactly; larger values fall into one of 32 linear
+ * sub-buckets per power of two, which keeps the relative error under about 3%
+ * while covering the full range of a long. Recording never allocates and is
+ * safe to call from several threads at once.
+ */
+public class LatencyHistogram {
+  private static final int EXACT_LIMIT = 64;
+  private static final int SUB_BUCKETS = 32;
+  private static final int BUCKET_COUNT = EXACT_LIMIT + 57 * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final AtomicLong totalCount;
+  private final AtomicLong totalValue;
+  private final AtomicLong maxValue;
+
+  /**
+   * Constructs an empty histogram.
+   */
+  public LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKET_COUNT);
+    this.totalCount = new AtomicLong();
+    this.totalValue = new AtomicLong();
+    this.maxValue = new AtomicLong();
+  }
+
+  /**
+   * Records a single value. Negative values are counted as zero.
+   *
+   * @param value The value to record, usually a duration in nanoseconds
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(indexFor(v));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(v);
+    long max = maxValue.get();
+    while (v > max && !maxValue.compareAndSet(max, v)) {
+      max = maxValue.get();
+    }
+  }
+
+  /**
+   * Gets the number of recorded values.
+   *
+   * @return The total count
+   */
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * Gets the largest recorded value.
+   *
+   * @return The maximum value, or 0 if nothing was recorded
+   */
+  public long getMax() {
+    return maxValue.get();
+  }
+
+  /**
+   * Gets the arithmetic mean of the recorded values.
+   *
+   * @return The mean, or 0 if nothing was recorded
+   */
+  public double getMean() {
+    long count = totalCount.get();
+    return count == 0 ? 0.0 : (double) totalValue.get() / count;
+  }
+
+  /**
+   * Gets the value at the given percentile. The result is the upper bound of the
+   * bucket holding that percentile, so it never under-reports a latency.
+   *
+   * @param percentile A percentile between 0 and 100
+   * @return The value at that percentile, or 0 if nothing was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = totalCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    double clamped = Math.min(100.0, Math.max(0.0, percentile));
+    long rank = Math.max(1, (long) Math.ceil(clamped / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueIn(i), maxValue.get());
+      }
+    }
+    return maxValue.get();
+  }
+
+  /**
+   * Clears every recorded value.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    totalValue.set(0);
+    maxValue.set(0);
+  }
+
+  /**
+   * Maps a value onto its bucket index.
+   */
+  static int indexFor(long value) {
+    if (value < EXACT_LIMIT) {
+      return (int) value;
+    }
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - 5;
+    int mantissa = (int) (value >>> shift);
+    return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+  }
+
+  /**
+   * Gets the largest value that maps onto the given bucket index.
+   */
+  static long highestValueIn(int index) {
+    if (index < EXACT_LIMIT) {
+      return index;
+    }
+    int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+    long mantissa = (index - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,79 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a {@link CommandMetrics} report to a local file.
+ * The report is written to a temporary sibling and then moved into place,
+ * so readers never see a half-written file. The dump runs on a single daemon
+ * thread and never touches the command path.
+ */
+public class MetricsReporter implements AutoCloseable {
+  private final CommandMetrics<?> metrics;
+  private final Path target;
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Constructs a reporter and starts dumping at a fixed rate.
+   *
+   * @param metrics       The metrics to dump
+   * @param target        The file to write the report to
+   * @param periodSeconds Seconds between dumps
+   * @throws IllegalArgumentException if the period is not positive
+   */
+  public MetricsReporter(CommandMetrics<?> metrics, Path target, long periodSeconds) {
+    if (periodSeconds <= 0) {
+      throw new IllegalArgumentException("Dump period must be positive");
+    }
+    this.metrics = metrics;
+    this.target = target;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(this::dumpQuietly, periodSeconds, periodSeconds,
+            TimeUnit.SECONDS);
+  }
+
+  /**
+   * Writes the current report to the target file.
+   *
+   * @throws IOException If the file cannot be written
+   */
+  public void dump() throws IOException {
+    Path parent = target.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+    Files.write(temp, metrics.report().getBytes(StandardCharsets.UTF_8));
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Dumps on the reporter thread, where there is no caller to report failures to.
+   */
+  private void dumpQuietly() {
+    try {
+      dump();
+    } catch (IOException e) {
+      // Try again at the next period
+    }
+  }
+
+  /**
+   * Stops the periodic dump and writes one final report.
+   *
+   * @throws IOException If the final report cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    dump();
+  }
+}
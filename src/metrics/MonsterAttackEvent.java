@@ -0,0 +1,24 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a monster attacking the player.
+ */
+@Name("adventure.MonsterAttack")
+@Label("Monster Attack")
+@Category({"Adventure Engine", "Combat"})
+@Description("A monster dealing damage to the player")
+public class MonsterAttackEvent extends jdk.jfr.Event {
+  @Label("Monster")
+  public String monster;
+
+  @Label("Damage")
+  public int damage;
+
+  @Label("Player Health After")
+  public int playerHealth;
+}
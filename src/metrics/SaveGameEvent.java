@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for writing or reading a save file. The event duration
+ * covers serialization and file I/O.
+ */
+@Name("adventure.SaveGame")
+@Label("Save Game")
+@Category({"Adventure Engine", "Persistence"})
+@Description("A saveGame or loadGame call on the game world")
+public class SaveGameEvent extends jdk.jfr.Event {
+  @Label("Operation")
+  @Description("save or load")
+  public String operation;
+
+  @Label("File")
+  public String file;
+
+  @Label("Size")
+  @DataAmount
+  public long bytes;
+}
@@ -0,0 +1,26 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one phase of loading a world file, such as reading
+ * items or connecting rooms. The event duration is the time spent in the phase.
+ */
+@Name("adventure.WorldLoad")
+@Label("World Load Phase")
+@Category({"Adventure Engine", "World"})
+@Description("A single phase of parsing and building a game world")
+public class WorldLoadEvent extends jdk.jfr.Event {
+  @Label("World File")
+  public String worldFile;
+
+  @Label("Phase")
+  @Description("items, fixtures, puzzles, monsters, rooms or connect")
+  public String phase;
+
+  @Label("Element Count")
+  public int elementCount;
+}
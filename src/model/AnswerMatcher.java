@@ -0,0 +1,253 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The accepted answers of a puzzle, compiled once so that checking an attempt does not
+ * allocate.
+ *
+ * <p>A solution may list several answers separated by {@code |}, as in
+ * {@code 'Align|Line up'}. Each answer is normalized by lowercasing it and dropping
+ * everything but letters and digits, and attempts are normalized the same way as they
+ * are read, so "line-up!" matches "Line up". An answer made only of punctuation, such
+ * as {@code '?'}, keeps its punctuation and drops only whitespace.
+ *
+ * <p>With a tolerance above 0 an attempt also matches when it is within that many
+ * insertions, deletions or substitutions of an answer. For each answer of up to 64
+ * normalized characters the matcher prebuilds the per-character bit masks of Myers'
+ * bit-parallel edit distance automaton, so a fuzzy check runs in a handful of word
+ * operations per character of the attempt. Longer answers are matched exactly.
+ */
+public final class AnswerMatcher {
+  private static final int MAX_FUZZY_LENGTH = 64;
+
+  private final String firstAnswer;
+  private final int tolerance;
+  private final char[][] answers;
+  private final boolean[] keepsPunctuation;
+  /** Sorted distinct characters of each answer, or null if the answer is matched exactly. */
+  private final char[][] alphabets;
+  /** Bit mask of the positions of each alphabet character in its answer. */
+  private final long[][] masks;
+
+  private AnswerMatcher(String firstAnswer, int tolerance, char[][] answers,
+                        boolean[] keepsPunctuation) {
+    this.firstAnswer = firstAnswer;
+    this.tolerance = tolerance;
+    this.answers = answers;
+    this.keepsPunctuation = keepsPunctuation;
+    this.alphabets = new char[answers.length][];
+    this.masks = new long[answers.length][];
+    if (tolerance > 0) {
+      for (int a = 0; a < answers.length; a++) {
+        if (answers[a].length <= MAX_FUZZY_LENGTH) {
+          buildMasks(a);
+        }
+      }
+    }
+  }
+
+  /**
+   * Compiles a list of accepted answers.
+   *
+   * @param answers   The answers separated by {@code |}, without the surrounding quotes
+   * @param tolerance The number of typing mistakes to forgive, 0 for exact matching
+   * @return The matcher
+   * @throws IllegalArgumentException if answers is null or tolerance is negative
+   */
+  public static AnswerMatcher compile(String answers, int tolerance) {
+    if (answers == null) {
+      throw new IllegalArgumentException("Answers cannot be null");
+    }
+    if (tolerance < 0) {
+      throw new IllegalArgumentException("Tolerance cannot be negative");
+    }
+    List<char[]> normalized = new ArrayList<>();
+    List<Boolean> punctuation = new ArrayList<>();
+    String first = null;
+    for (String answer : answers.split("\\|")) {
+      String trimmed = answer.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      boolean keep = normalizedLength(trimmed, false) == 0;
+      char[] chars = new char[normalizedLength(trimmed, keep)];
+      int n = 0;
+      for (int i = 0; i < trimmed.length(); i++) {
+        char c = trimmed.charAt(i);
+        if (counts(c, keep)) {
+          chars[n++] = Character.toLowerCase(c);
+        }
+      }
+      normalized.add(chars);
+      punctuation.add(keep);
+      if (first == null) {
+        first = trimmed;
+      }
+    }
+    boolean[] keeps = new boolean[punctuation.size()];
+    for (int i = 0; i < keeps.length; i++) {
+      keeps[i] = punctuation.get(i);
+    }
+    return new AnswerMatcher(first == null ? "" : first, tolerance,
+            normalized.toArray(new char[0][]), keeps);
+  }
+
+  /**
+   * Compiles a puzzle solution if it is a quoted answer.
+   *
+   * @param solution  The solution as written in the world file
+   * @param tolerance The number of typing mistakes to forgive
+   * @return The matcher, or null if the solution names an item
+   */
+  static AnswerMatcher forSolution(String solution, int tolerance) {
+    if (solution == null || solution.length() < 2 || !solution.startsWith("'")
+            || !solution.endsWith("'")) {
+      return null;
+    }
+    return compile(solution.substring(1, solution.length() - 1), tolerance);
+  }
+
+  private static boolean counts(char c, boolean keepPunctuation) {
+    return keepPunctuation ? !Character.isWhitespace(c) : Character.isLetterOrDigit(c);
+  }
+
+  private static int normalizedLength(CharSequence text, boolean keepPunctuation) {
+    int n = 0;
+    for (int i = 0; i < text.length(); i++) {
+      if (counts(text.charAt(i), keepPunctuation)) {
+        n++;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Builds the character masks of one answer for the edit distance automaton.
+   */
+  private void buildMasks(int a) {
+    char[] answer = answers[a];
+    char[] sorted = answer.clone();
+    Arrays.sort(sorted);
+    int distinct = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    char[] alphabet = Arrays.copyOf(sorted, distinct);
+    long[] bits = new long[distinct];
+    for (int i = 0; i < answer.length; i++) {
+      bits[Arrays.binarySearch(alphabet, answer[i])] |= 1L << i;
+    }
+    alphabets[a] = alphabet;
+    masks[a] = bits;
+  }
+
+  /**
+   * Checks whether an attempt matches any accepted answer.
+   *
+   * @param attempt The player's answer, as typed
+   * @return true if it matches
+   */
+  public boolean matches(CharSequence attempt) {
+    if (attempt == null) {
+      return false;
+    }
+    int lettersOnly = -1;
+    int withPunctuation = -1;
+    for (int a = 0; a < answers.length; a++) {
+      boolean keep = keepsPunctuation[a];
+      int length;
+      if (keep) {
+        length = withPunctuation < 0
+                ? (withPunctuation = normalizedLength(attempt, true)) : withPunctuation;
+      } else {
+        length = lettersOnly < 0
+                ? (lettersOnly = normalizedLength(attempt, false)) : lettersOnly;
+      }
+      if (length == answers[a].length && matchesExactly(a, attempt)) {
+        return true;
+      }
+      if (alphabets[a] != null && Math.abs(length - answers[a].length) <= tolerance
+              && distance(a, attempt) <= tolerance) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesExactly(int a, CharSequence attempt) {
+    char[] answer = answers[a];
+    boolean keep = keepsPunctuation[a];
+    int n = 0;
+    for (int i = 0; i < attempt.length(); i++) {
+      char c = attempt.charAt(i);
+      if (counts(c, keep) && Character.toLowerCase(c) != answer[n++]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes the edit distance between an answer and the normalized attempt with Myers'
+   * bit-vector algorithm: the vertical deltas of one dynamic programming column are
+   * kept as two bit vectors and updated for each attempt character at once.
+   */
+  private int distance(int a, CharSequence attempt) {
+    char[] answer = answers[a];
+    if (answer.length == 0) {
+      return normalizedLength(attempt, keepsPunctuation[a]);
+    }
+    char[] alphabet = alphabets[a];
+    long[] bits = masks[a];
+    boolean keep = keepsPunctuation[a];
+    long last = 1L << (answer.length - 1);
+    long positive = answer.length == 64 ? -1L : (1L << answer.length) - 1;
+    long negative = 0;
+    int score = answer.length;
+    for (int i = 0; i < attempt.length(); i++) {
+      char c = attempt.charAt(i);
+      if (!counts(c, keep)) {
+        continue;
+      }
+      int slot = Arrays.binarySearch(alphabet, Character.toLowerCase(c));
+      long eq = slot >= 0 ? bits[slot] : 0;
+      long xv = eq | negative;
+      long xh = (((eq & positive) + positive) ^ positive) | eq;
+      long ph = negative | ~(xh | positive);
+      long mh = positive & xh;
+      if ((ph & last) != 0) {
+        score++;
+      } else if ((mh & last) != 0) {
+        score--;
+      }
+      ph = (ph << 1) | 1;
+      mh <<= 1;
+      positive = mh | ~(xv | ph);
+      negative = ph & xv;
+    }
+    return score;
+  }
+
+  /**
+   * Gets the first accepted answer as it was written.
+   *
+   * @return The answer
+   */
+  public String getAnswer() {
+    return firstAnswer;
+  }
+
+  /**
+   * Gets the number of typing mistakes forgiven.
+   *
+   * @return The tolerance
+   */
+  public int getTolerance() {
+    return tolerance;
+  }
+}
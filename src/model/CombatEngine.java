@@ -0,0 +1,83 @@
+package model;
+
+/**
+ * Runs turn-based fights between a player and a monster. Each exchange is one turn:
+ * the player attacks with {@link Player#attack(Monster, RandomSource, HitResult)}, and
+ * if the monster survives it strikes back with {@link Monster#attack(Player)}.
+ *
+ * <p>Every roll comes from the engine's own {@link RandomSource}, so an engine built
+ * from a seeded source replays a fight exactly, and engines in different sessions never
+ * share a generator. The engine reuses one {@link HitResult}, so a turn allocates
+ * nothing; read the result before the next exchange overwrites it. An engine is meant
+ * for a single session and is not thread-safe.
+ */
+public class CombatEngine {
+  private final RandomSource random;
+  private final HitResult hit;
+  private int counterDamage;
+
+  /**
+   * Constructs an engine with an unpredictable seed.
+   */
+  public CombatEngine() {
+    this(new SplittableRandomSource());
+  }
+
+  /**
+   * Constructs an engine that rolls with the given source.
+   *
+   * @param random The random source
+   * @throws IllegalArgumentException if random is null
+   */
+  public CombatEngine(RandomSource random) {
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null");
+    }
+    this.random = random;
+    this.hit = new HitResult();
+  }
+
+  /**
+   * Plays one turn of a fight.
+   *
+   * @param player  The attacking player
+   * @param monster The monster being fought
+   * @return The player's hit, which is reused by the next exchange
+   * @throws IllegalArgumentException if player or monster is null
+   */
+  public HitResult exchange(Player player, Monster monster) {
+    if (player == null || monster == null) {
+      throw new IllegalArgumentException("Player and monster cannot be null");
+    }
+    player.attack(monster, random, hit);
+    counterDamage = hit.isSuccess() && !hit.isDefeated() ? monster.attack(player) : 0;
+    return hit;
+  }
+
+  /**
+   * Gets the damage the monster dealt back in the last exchange.
+   *
+   * @return The counterattack damage, or 0 if the monster did not strike back
+   */
+  public int getCounterDamage() {
+    return counterDamage;
+  }
+
+  /**
+   * Gets the player's hit from the last exchange.
+   *
+   * @return The last hit
+   */
+  public HitResult getLastHit() {
+    return hit;
+  }
+
+  /**
+   * Gets the source the engine rolls with.
+   *
+   * @return The random source
+   */
+  public RandomSource getRandomSource() {
+    return random;
+  }
+}
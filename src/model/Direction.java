@@ -6,6 +6,8 @@ package model;
 public enum Direction {
   NORTH, SOUTH, EAST, WEST;
 
+  private final String lowerName = name().toLowerCase();
+
   // Method
   /**
    * This method provides the direction opposite to the current direction.
@@ -21,4 +23,13 @@ public enum Direction {
       default -> null;
     };
   }
+
+  /**
+   * This method provides the direction's name in lower case, as the game prints it.
+   *
+   * @return The lower-case name
+   */
+  public String getLowerName() {
+    return lowerName;
+  }
 }
@@ -0,0 +1,368 @@
+package model;
+
+import static java.lang.Math.abs;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import metrics.MonsterAttackEvent;
+
+/**
+ * A struct-of-arrays store for the monsters and puzzles of a world.
+ * Every entity gets a dense int id, and each of its attributes lives at that index
+ * in a column array. {@link Monster} and {@link Puzzle} objects are thin views
+ * over one id. Bulk operations ("systems") walk the primitive columns directly,
+ * which stays cache-friendly for worlds with hundreds of thousands of entities.
+ *
+ * <p>Item instances have their own columns in {@link ItemInstances}, and their
+ * values live on the shared {@link ItemDefinition}. Descriptions, effects and attack
+ * descriptions are handles into the store's {@link Texts}.
+ */
+public class EntityStore {
+  /** Kind of an entity that is a monster. */
+  public static final byte MONSTER = 1;
+  /** Kind of an entity that is a puzzle. */
+  public static final byte PUZZLE = 2;
+
+  private static final int DEFAULT_MAX_HEALTH = 100;
+
+  private final Texts texts;
+  private int size;
+  private byte[] kind;
+  private boolean[] active;
+  private boolean[] canAttack;
+  private boolean[] affectsTarget;
+  private boolean[] affectsPlayer;
+  private int[] health;
+  private int[] maxHealth;
+  private int[] damage;
+  private int[] value;
+  private int[] room;
+  private int[] symbol;
+  private String[] name;
+  private int[] description;
+  private int[] effects;
+  private String[] solution;
+  private String[] target;
+  private int[] attackDescription;
+  private AnswerMatcher[] answer;
+  private LootTable[] loot;
+
+  /**
+   * Constructs an empty store.
+   *
+   * @param initialCapacity The number of entities to reserve room for
+   */
+  public EntityStore(int initialCapacity) {
+    this(initialCapacity, Texts.shared());
+  }
+
+  /**
+   * Constructs an empty store that keeps its texts in a world's own text store.
+   *
+   * @param initialCapacity The number of entities to reserve room for
+   * @param texts           Where descriptions and effects are kept
+   */
+  EntityStore(int initialCapacity, Texts texts) {
+    this.texts = texts;
+    int capacity = Math.max(1, initialCapacity);
+    kind = new byte[capacity];
+    active = new boolean[capacity];
+    canAttack = new boolean[capacity];
+    affectsTarget = new boolean[capacity];
+    affectsPlayer = new boolean[capacity];
+    health = new int[capacity];
+    maxHealth = new int[capacity];
+    damage = new int[capacity];
+    value = new int[capacity];
+    room = new int[capacity];
+    symbol = new int[capacity];
+    name = new String[capacity];
+    description = new int[capacity];
+    effects = new int[capacity];
+    solution = new String[capacity];
+    target = new String[capacity];
+    attackDescription = new int[capacity];
+    answer = new AnswerMatcher[capacity];
+    loot = new LootTable[capacity];
+  }
+
+  /**
+   * Adds a monster to the store.
+   *
+   * @return The new entity id
+   */
+  int addMonster(String name, String description, boolean active, int damage, boolean canAttack,
+                 String attackDescription, String effects, int value, String solution,
+                 String target) {
+    int id = allocate(MONSTER, name, description, active, effects, value, solution, target);
+    this.damage[id] = damage;
+    this.canAttack[id] = canAttack;
+    this.attackDescription[id] = texts.store(attackDescription);
+    this.maxHealth[id] = DEFAULT_MAX_HEALTH;
+    this.health[id] = DEFAULT_MAX_HEALTH;
+    return id;
+  }
+
+  /**
+   * Adds a puzzle to the store.
+   *
+   * @return The new entity id
+   */
+  int addPuzzle(String name, boolean active, boolean affectsTarget, boolean affectsPlayer,
+                String solution, int value, String description, String effects, String target) {
+    int id = allocate(PUZZLE, name, description, active, effects, value, solution, target);
+    this.affectsTarget[id] = affectsTarget;
+    this.affectsPlayer[id] = affectsPlayer;
+    this.answer[id] = AnswerMatcher.forSolution(solution, 0);
+    return id;
+  }
+
+  /**
+   * Claims the next id and fills in the columns shared by every kind.
+   */
+  private int allocate(byte kind, String name, String description, boolean active,
+                       String effects, int value, String solution, String target) {
+    if (size == this.kind.length) {
+      grow(size * 2);
+    }
+    int id = size++;
+    this.kind[id] = kind;
+    this.name[id] = name;
+    this.symbol[id] = name == null ? Symbols.NONE : Symbols.intern(name);
+    this.description[id] = texts.store(description);
+    this.active[id] = active;
+    this.effects[id] = texts.store(effects);
+    this.value[id] = value;
+    this.solution[id] = solution;
+    this.target[id] = target;
+    return id;
+  }
+
+  /**
+   * Resizes every column to the given capacity.
+   */
+  private void grow(int capacity) {
+    kind = Arrays.copyOf(kind, capacity);
+    active = Arrays.copyOf(active, capacity);
+    canAttack = Arrays.copyOf(canAttack, capacity);
+    affectsTarget = Arrays.copyOf(affectsTarget, capacity);
+    affectsPlayer = Arrays.copyOf(affectsPlayer, capacity);
+    health = Arrays.copyOf(health, capacity);
+    maxHealth = Arrays.copyOf(maxHealth, capacity);
+    damage = Arrays.copyOf(damage, capacity);
+    value = Arrays.copyOf(value, capacity);
+    room = Arrays.copyOf(room, capacity);
+    symbol = Arrays.copyOf(symbol, capacity);
+    name = Arrays.copyOf(name, capacity);
+    description = Arrays.copyOf(description, capacity);
+    effects = Arrays.copyOf(effects, capacity);
+    solution = Arrays.copyOf(solution, capacity);
+    target = Arrays.copyOf(target, capacity);
+    attackDescription = Arrays.copyOf(attackDescription, capacity);
+    answer = Arrays.copyOf(answer, capacity);
+    loot = Arrays.copyOf(loot, capacity);
+  }
+
+  /**
+   * Gets the number of entities in the store.
+   *
+   * @return The entity count
+   */
+  public int size() {
+    return size;
+  }
+
+  // Column accessors used by the Monster and Puzzle views
+
+  byte kind(int id) {
+    return kind[id];
+  }
+
+  boolean isActive(int id) {
+    return active[id];
+  }
+
+  void setActive(int id, boolean active) {
+    this.active[id] = active;
+  }
+
+  boolean canAttack(int id) {
+    return canAttack[id];
+  }
+
+  boolean affectsTarget(int id) {
+    return affectsTarget[id];
+  }
+
+  boolean affectsPlayer(int id) {
+    return affectsPlayer[id];
+  }
+
+  int health(int id) {
+    return health[id];
+  }
+
+  void setHealth(int id, int health) {
+    this.health[id] = health;
+  }
+
+  int maxHealth(int id) {
+    return maxHealth[id];
+  }
+
+  int damage(int id) {
+    return damage[id];
+  }
+
+  int value(int id) {
+    return value[id];
+  }
+
+  int room(int id) {
+    return room[id];
+  }
+
+  void setRoom(int id, int room) {
+    this.room[id] = room;
+  }
+
+  String name(int id) {
+    return name[id];
+  }
+
+  int symbol(int id) {
+    return symbol[id];
+  }
+
+  String description(int id) {
+    return texts.get(description[id]);
+  }
+
+  String effects(int id) {
+    return texts.get(effects[id]);
+  }
+
+  String solution(int id) {
+    return solution[id];
+  }
+
+  LootTable loot(int id) {
+    return loot[id];
+  }
+
+  void setLoot(int id, LootTable table) {
+    loot[id] = table;
+  }
+
+  AnswerMatcher answer(int id) {
+    return answer[id];
+  }
+
+  /**
+   * Recompiles a puzzle's answers to forgive the given number of typing mistakes.
+   */
+  void setAnswerTolerance(int id, int tolerance) {
+    answer[id] = AnswerMatcher.forSolution(solution[id], tolerance);
+  }
+
+  String target(int id) {
+    return target[id];
+  }
+
+  String attackDescription(int id) {
+    return texts.get(attackDescription[id]);
+  }
+
+  // Systems
+
+  /**
+   * Defeats a monster: marks it inactive and drops its health to zero.
+   *
+   * @param id The monster's entity id
+   */
+  public void defeat(int id) {
+    active[id] = false;
+    health[id] = 0;
+  }
+
+  /**
+   * Lets one monster attack the player if it is active and able to.
+   *
+   * @param id     The monster's entity id
+   * @param player The player being attacked
+   * @return The damage dealt
+   */
+  int strike(int id, Player player) {
+    if (!active[id] || !canAttack[id]) {
+      return 0;
+    }
+    int dealt = abs(damage[id]);
+    MonsterAttackEvent event = new MonsterAttackEvent();
+    event.begin();
+    player.takeDamage(dealt);
+    event.end();
+    if (event.shouldCommit()) {
+      event.monster = name[id];
+      event.damage = dealt;
+      event.playerHealth = player.getHealth();
+      event.commit();
+    }
+    return dealt;
+  }
+
+  /**
+   * Lets every active, attack-capable monster in a room attack the player, until the
+   * player falls.
+   *
+   * @param roomNumber The number of the room the player is in
+   * @param player     The player being attacked
+   * @param struck     Told the id of each monster that dealt damage
+   * @return The total damage dealt
+   */
+  public int attackAll(int roomNumber, Player player, IntConsumer struck) {
+    int total = 0;
+    for (int id = 0; id < size && player.getHealth() > 0; id++) {
+      if (room[id] == roomNumber && active[id] && canAttack[id] && kind[id] == MONSTER) {
+        int dealt = strike(id, player);
+        if (dealt > 0) {
+          total += dealt;
+          struck.accept(id);
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Restores health to every active monster, capped at its maximum.
+   *
+   * @param amount The health to restore
+   * @return The number of monsters that gained health
+   */
+  public int regenerateAll(int amount) {
+    if (amount <= 0) {
+      return 0;
+    }
+    int healed = 0;
+    for (int id = 0; id < size; id++) {
+      if (active[id] && kind[id] == MONSTER && health[id] < maxHealth[id]) {
+        health[id] = Math.min(maxHealth[id], health[id] + amount);
+        healed++;
+      }
+    }
+    return healed;
+  }
+
+  /**
+   * Restores health to one monster, capped at its maximum.
+   *
+   * @param id     The monster's entity id
+   * @param amount The health to restore
+   * @return The health actually restored
+   */
+  int regenerate(int id, int amount) {
+    int restored = Math.max(0, Math.min(maxHealth[id], health[id] + amount) - health[id]);
+    health[id] += restored;
+    return restored;
+  }
+}
@@ -11,8 +11,11 @@ public class Fixture {
   private int weight;       // Stored as an integer (JSON weight is a string)
   private String puzzle;    // Optional: puzzle associated with the fixture
   private String states;    // Optional: state model (not used in HW8)
-  private String description;
+  private Texts texts = Texts.shared();
+  private int description = Texts.NONE;
   private String picture;   // Optional: path or URL to a picture
+  private int symbol = Symbols.NONE; // Interned name, for case-insensitive lookups
+  private RecipeBook recipes; // Optional: what can be crafted here
 
   /** TODO: Add method documentation. */
   public Fixture() {}
@@ -29,12 +32,20 @@ public class Fixture {
    */
   public Fixture(String name, int weight, String puzzle, String states,
                  String description, String picture) {
+    this(name, weight, puzzle, states, description, picture, Texts.shared());
+  }
+
+  /** Constructs a Fixture whose description is kept in a world's own text store. */
+  Fixture(String name, int weight, String puzzle, String states, String description,
+          String picture, Texts texts) {
     this.name = name;
     this.weight = weight;
     this.puzzle = puzzle;
     this.states = states;
-    this.description = description;
+    this.texts = texts;
+    this.description = texts.store(description);
     this.picture = picture;
+    this.symbol = name == null ? Symbols.NONE : Symbols.intern(name);
   }
 
   /** TODO: Add method documentation. */
@@ -47,6 +58,15 @@ public class Fixture {
     return name;
   }
 
+  /**
+   * Gets the interned symbol of the fixture's name.
+   *
+   * @return the name symbol, or {@link Symbols#NONE} if the fixture has no name
+   */
+  public int getSymbol() {
+    return symbol;
+  }
+
   /** TODO: Add method documentation. */
   public int getWeight() {
     return weight;
@@ -64,7 +84,7 @@ public class Fixture {
 
   /** TODO: Add method documentation. */
   public String getDescription() {
-    return description;
+    return texts.get(description);
   }
 
   /** TODO: Add method documentation. */
@@ -72,10 +92,28 @@ public class Fixture {
     return picture;
   }
 
+  /**
+   * Gets the recipes that can be crafted at this fixture.
+   *
+   * @return the recipe book, or null if this fixture is not a crafting station
+   */
+  public RecipeBook getRecipes() {
+    return recipes;
+  }
+
+  /**
+   * Makes this fixture a crafting station.
+   *
+   * @param recipes the recipes that can be crafted here, or null to craft nothing
+   */
+  public void setRecipes(RecipeBook recipes) {
+    this.recipes = recipes;
+  }
+
   @Override
   public String toString() {
     return "Fixture [name=" + name + ", weight=" + weight
-            + ", description=" + description + "]";
+            + ", description=" + getDescription() + "]";
   }
 
   @Override
@@ -88,7 +126,7 @@ public class Fixture {
     }
     return weight == fixture.weight
             && Objects.equals(name, fixture.name)
-            && Objects.equals(description, fixture.description);
+            && description == fixture.description;
   }
 
   @Override
@@ -96,8 +134,14 @@ public class Fixture {
     return Objects.hash(name, weight, description);
   }
 
-  /** TODO: Add method documentation. */
-  public boolean interact(Player ignoredPlayer) {
-    return false;
+  /**
+   * Lets the player use this fixture. A crafting station crafts the best recipe the
+   * player's inventory allows; other fixtures do nothing.
+   *
+   * @param player the player interacting with the fixture
+   * @return true if something was crafted
+   */
+  public boolean interact(Player player) {
+    return recipes != null && recipes.craft(player) != null;
   }
 }
\ No newline at end of file
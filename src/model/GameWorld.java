@@ -1,13 +1,21 @@
 package model;
 
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.FileWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
+import metrics.SaveGameEvent;
+import metrics.WorldLoadEvent;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -25,13 +33,49 @@ public class GameWorld {
 
   // Game elements
   private Map<String, Room> rooms;
-  private Map<String, Item> items;
-  private Map<String, Fixture> fixtures;
-  private Map<String, Puzzle> puzzles;
-  private Map<String, Monster> monsters;
-
-  // Player
+  private SymbolMap<ItemDefinition> items;
+  private ItemInstances itemInstances;
+  private EntityStore entities;
+  private SymbolMap<Fixture> fixtures;
+  private SymbolMap<Puzzle> puzzles;
+  private SymbolMap<Monster> monsters;
+  private SymbolMap<ItemDefinition> craftable;
+  private SymbolMap<ItemDefinition> lootable;
+
+  // Players
   private Player player;
+  private Room startRoom;
+  private final List<Player> players = new CopyOnWriteArrayList<>();
+  private final Map<Player, Seat> seats = new ConcurrentHashMap<>();
+  private RandomSource lootRandom;
+  // Where newcomers' rolls are split from; only addPlayer touches it, under the world lock
+  private RandomSource seatRandom;
+  private MonsterScheduler monsterTimers;
+  private SoftLockDetector softLocks;
+  private RuleEngine rules;
+  private final Texts texts = new Texts();
+
+  // Sharing the world: room stripes, and one lock for what belongs to no room
+  private final RoomLocks roomLocks = new RoomLocks();
+  private volatile RoomGuard roomGuard = roomLocks;
+  private final ReentrantLock shared = new ReentrantLock();
+  private Player actor;
+  private final NearbyEvents nearby = new NearbyEvents();
+  private final WorldEventRing events = new WorldEventRing(1024);
+
+  /**
+   * What the world keeps for each player besides the player itself.
+   */
+  private static final class Seat {
+    private CombatEngine combat;
+    private final List<Item> loot = new ArrayList<>();
+    // What the rules said to this player; only the player's own session writes or reads it
+    private final StringBuilder said = new StringBuilder();
+
+    private Seat(CombatEngine combat) {
+      this.combat = combat;
+    }
+  }
 
   /**
    * Constructs a new GameWorld by loading game data from the specified JSON file.
@@ -42,21 +86,33 @@ public class GameWorld {
    */
   public GameWorld(String gameFileName) throws IOException {
     this.rooms = new HashMap<>();
-    this.items = new HashMap<>();
-    this.fixtures = new HashMap<>();
-    this.puzzles = new HashMap<>();
-    this.monsters = new HashMap<>();
+    this.items = new SymbolMap<>();
+    this.itemInstances = new ItemInstances(64);
+    this.entities = new EntityStore(32, texts);
+    this.fixtures = new SymbolMap<>();
+    this.puzzles = new SymbolMap<>();
+    this.monsters = new SymbolMap<>();
+    this.craftable = new SymbolMap<>();
+    this.lootable = new SymbolMap<>();
+    this.lootRandom = new SplittableRandomSource();
+    this.seatRandom = new SplittableRandomSource();
+    this.rules = new RuleEngine(this);
 
     try {
       loadGameData(gameFileName);
     } catch (Exception e) {
       throw new IOException("Error loading game data: " + e.getMessage(), e);
     }
+    // Move the world's prose off the heap now that all of it has been read
+    texts.flush();
 
     // Initialize player in the first room
     if (!rooms.isEmpty()) {
-      Room startRoom = rooms.values().iterator().next(); // Get the first room
+      this.startRoom = rooms.values().iterator().next(); // Get the first room
       this.player = new Player(startRoom);
+      seats.put(player, new Seat(new CombatEngine()));
+      players.add(player);
+      this.softLocks = new SoftLockDetector(this);
     } else {
       throw new IOException("No rooms defined in the game file.");
     }
@@ -83,31 +139,60 @@ public class GameWorld {
 
       // Load items first so they can be referenced by rooms
       if (gameData.containsKey("items")) {
+        WorldLoadEvent phase = beginPhase();
         loadItems((JSONArray) gameData.get("items"));
+        commitPhase(phase, gameFileName, "items", items.size());
       }
 
       // Load fixtures
       if (gameData.containsKey("fixtures")) {
+        WorldLoadEvent phase = beginPhase();
         loadFixtures((JSONArray) gameData.get("fixtures"));
+        commitPhase(phase, gameFileName, "fixtures", fixtures.size());
+      }
+
+      // Load recipes, which need both items and fixtures
+      if (gameData.containsKey("recipes")) {
+        WorldLoadEvent phase = beginPhase();
+        loadRecipes((JSONArray) gameData.get("recipes"));
+        commitPhase(phase, gameFileName, "recipes", craftable.size());
       }
 
       // Load puzzles
       if (gameData.containsKey("puzzles")) {
+        WorldLoadEvent phase = beginPhase();
         loadPuzzles((JSONArray) gameData.get("puzzles"));
+        commitPhase(phase, gameFileName, "puzzles", puzzles.size());
       }
 
       // Load monsters
       if (gameData.containsKey("monsters")) {
+        WorldLoadEvent phase = beginPhase();
         loadMonsters((JSONArray) gameData.get("monsters"));
+        commitPhase(phase, gameFileName, "monsters", monsters.size());
       }
 
       // Load rooms (must be loaded last)
       if (gameData.containsKey("rooms")) {
+        WorldLoadEvent phase = beginPhase();
         loadRooms((JSONArray) gameData.get("rooms"));
+        commitPhase(phase, gameFileName, "rooms", rooms.size());
+
+        // Connect rooms after all rooms are loaded
+        phase = beginPhase();
+        connectRooms();
+        commitPhase(phase, gameFileName, "connect", rooms.size());
       } else {
         throw new IOException("No rooms defined in the game file.");
       }
 
+      // Load rules, which can name anything else in the world
+      if (gameData.containsKey("rules")) {
+        WorldLoadEvent phase = beginPhase();
+        loadRules((JSONArray) gameData.get("rules"));
+        commitPhase(phase, gameFileName, "rules", rules.size());
+      }
+
     } catch (IOException e) {
       throw e;
     } catch (org.json.simple.parser.ParseException e) {
@@ -137,16 +222,15 @@ public class GameWorld {
       exits.put(Direction.WEST, (String) roomData.get("W"));
 
       // Create room
-      Room room = new Room(roomName, roomNumber, description, exits,
-              0, 0, 0, 0,"itemsField", "field3");
+      Room room = new Room(roomName, roomNumber, description, exits, "field3", texts);
 
       // Add items to room if present
       String itemsList = (String) roomData.get("items");
       if (itemsList != null && !itemsList.isEmpty()) {
         for (String itemName : itemsList.split(",")) {
-          Item item = items.get(itemName.trim().toUpperCase());
-          if (item != null) {
-            room.addItem(item);
+          ItemDefinition definition = items.get(itemName);
+          if (definition != null) {
+            room.addItem(itemInstances.create(definition));
           }
         }
       }
@@ -155,7 +239,7 @@ public class GameWorld {
       String fixturesList = (String) roomData.get("fixtures");
       if (fixturesList != null && !fixturesList.isEmpty()) {
         for (String fixtureName : fixturesList.split(",")) {
-          Fixture fixture = fixtures.get(fixtureName.trim().toUpperCase());
+          Fixture fixture = fixtures.get(fixtureName);
           if (fixture != null) {
             room.addFixture(fixture);
           }
@@ -165,7 +249,7 @@ public class GameWorld {
       // Add puzzle to room if present
       String puzzleName = (String) roomData.get("puzzle");
       if (puzzleName != null && !puzzleName.isEmpty()) {
-        Puzzle puzzle = puzzles.get(puzzleName.trim().toUpperCase());
+        Puzzle puzzle = puzzles.get(puzzleName);
         if (puzzle != null) {
           room.setPuzzle(puzzle);
         }
@@ -174,7 +258,7 @@ public class GameWorld {
       // Add monster to room if present
       String monsterName = (String) roomData.get("monster");
       if (monsterName != null && !monsterName.isEmpty()) {
-        Monster monster = monsters.get(monsterName.trim().toUpperCase());
+        Monster monster = monsters.get(monsterName);
         if (monster != null) {
           room.setMonster(monster);
         }
@@ -183,13 +267,150 @@ public class GameWorld {
       // Add room to map
       rooms.put(roomNumber, room);
     }
+  }
+
+  /**
+   * Creates a new item instance from a saved entry. Entries are either an object with
+   * a name, uses remaining and optional container contents, or, in older save files,
+   * just the item name.
+   *
+   * @param savedItem The saved entry
+   * @return The new item, or null if no item with that name is defined
+   */
+  private Item restoreItem(Object savedItem) {
+    if (savedItem instanceof String) {
+      ItemDefinition definition = items.get((String) savedItem);
+      return definition == null ? null : itemInstances.create(definition);
+    }
+    JSONObject itemData = (JSONObject) savedItem;
+    ItemDefinition definition = items.get((String) itemData.get("name"));
+    if (definition == null) {
+      return null;
+    }
+    long usesRemaining = (Long) itemData.get("uses_remaining");
+    Item item = itemInstances.create(definition, (int) usesRemaining);
+
+    // Refill containers
+    JSONArray contentsData = (JSONArray) itemData.get("contents");
+    if (contentsData != null && item.getContents() != null) {
+      for (Object contentObj : contentsData) {
+        Item content = restoreItem(contentObj);
+        if (content != null) {
+          item.getContents().add(content);
+        }
+      }
+    }
+    return item;
+  }
+
+  /**
+   * Frees an item instance, and everything inside it, for reuse. Each instance goes back
+   * to the store it came from, which for an item built outside the world is its own.
+   *
+   * @param item The item to release
+   */
+  private void releaseItem(Item item) {
+    Inventory contents = item.getContents();
+    if (contents != null) {
+      for (Item content : contents.getItems()) {
+        releaseItem(content);
+      }
+    }
+    item.release();
+  }
+
+  /**
+   * Builds the save entry for one item instance, including the contents of containers.
+   * json-simple's objects and arrays are raw collections, so filling them is unchecked.
+   *
+   * @param item The item to save
+   * @return The saved entry
+   */
+  @SuppressWarnings("unchecked")
+  private JSONObject saveItem(Item item) {
+    JSONObject itemData = new JSONObject();
+    itemData.put("name", item.getName());
+    itemData.put("uses_remaining", item.getUsesRemaining());
+    Inventory contents = item.getContents();
+    if (contents != null && !contents.isEmpty()) {
+      JSONArray contentsData = new JSONArray();
+      for (Item content : contents.getItems()) {
+        contentsData.add(saveItem(content));
+      }
+      itemData.put("contents", contentsData);
+    }
+    return itemData;
+  }
+
+  /**
+   * Moves each saved monster back to its saved room and restores whether it is active and
+   * how much health it has left. Monsters the world no longer has are skipped.
+   */
+  private void restoreMonsters(JSONArray monstersData) {
+    List<Monster> saved = new ArrayList<>();
+    for (Object obj : monstersData) {
+      Monster monster = getMonsterByName((String) ((JSONObject) obj).get("name"));
+      saved.add(monster);
+      if (monster != null) {
+        Room from = rooms.get(String.valueOf(monster.getRoomNumber()));
+        if (from != null && from.getMonster() == monster) {
+          from.setMonster(null);
+        }
+      }
+    }
+    for (int i = 0; i < saved.size(); i++) {
+      Monster monster = saved.get(i);
+      if (monster == null) {
+        continue;
+      }
+      JSONObject monsterData = (JSONObject) monstersData.get(i);
+      Room to = rooms.get((String) monsterData.get("room"));
+      if (to != null) {
+        to.setMonster(monster);
+      } else {
+        monster.setRoom(0);
+      }
+      monster.setActive((Boolean) monsterData.get("active"));
+      // Saves from before combat damage lasted have no health
+      if (monsterData.containsKey("health")) {
+        long health = (Long) monsterData.get("health");
+        entities.setHealth(monster.getEntityId(), (int) Math.min(monster.getMaxHealth(), health));
+      }
+    }
+  }
+
+  /**
+   * Starts timing a world-load phase for Flight Recorder.
+   *
+   * @return The started event
+   */
+  private WorldLoadEvent beginPhase() {
+    WorldLoadEvent event = new WorldLoadEvent();
+    event.begin();
+    return event;
+  }
 
-    // Connect rooms after all rooms are loaded
-    connectRooms();
+  /**
+   * Finishes a world-load phase and commits it if Flight Recorder is recording it.
+   *
+   * @param event        The event returned by {@link #beginPhase()}
+   * @param gameFileName The world file being loaded
+   * @param phase        The name of the phase
+   * @param count        The number of elements loaded so far
+   */
+  private void commitPhase(WorldLoadEvent event, String gameFileName, String phase, int count) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.worldFile = gameFileName;
+      event.phase = phase;
+      event.elementCount = count;
+      event.commit();
+    }
   }
 
   /**
-   * Loads item data from the JSON array and creates Item objects.
+   * Loads item data from the JSON array and creates one shared ItemDefinition per item.
+   * Rooms create their own instances of these definitions.
    *
    * @param itemsArray The JSON array containing item data
    */
@@ -208,9 +429,11 @@ public class GameWorld {
       int value = parseIntOrDefault(itemData.get("value"), 0);
       String whenUsed = (String) itemData.get("when_used");
       String description = (String) itemData.get("description");
+      int capacity = parseIntOrDefault(itemData.get("capacity"), 0);
 
-      Item item = new Item(name, weight, maxUses, usesRemaining, value, whenUsed, description);
-      items.put(name.toUpperCase(), item);
+      ItemDefinition definition = new ItemDefinition(name, weight, maxUses, usesRemaining, value,
+              whenUsed, description, capacity, texts);
+      items.put(definition.getSymbol(), definition);
     }
   }
 
@@ -231,8 +454,53 @@ public class GameWorld {
       int weight = parseIntOrDefault(fixtureData.get("weight"), 1000);
       String description = (String) fixtureData.get("description");
 
-      Fixture fixture = new Fixture(name, weight, description);
-      fixtures.put(name.toUpperCase(), fixture);
+      Fixture fixture = new Fixture(name, weight, null, null, description, null, texts);
+      fixtures.put(fixture.getSymbol(), fixture);
+    }
+  }
+
+  /**
+   * Loads recipe data from the JSON array and attaches each recipe to its station.
+   * Ingredients are a comma-separated list of item names, repeated for each copy needed.
+   * Recipes naming an unknown station, ingredient or output are skipped.
+   *
+   * @param recipesArray The JSON array containing recipe data
+   */
+  private void loadRecipes(JSONArray recipesArray) {
+    if (recipesArray == null) {
+      return;
+    }
+
+    for (Object obj : recipesArray) {
+      JSONObject recipeData = (JSONObject) obj;
+
+      String name = (String) recipeData.get("name");
+      Fixture station = fixtures.get((String) recipeData.get("station"));
+      String outputName = (String) recipeData.get("output");
+      ItemDefinition output = items.get(outputName == null ? name : outputName);
+      String ingredientList = (String) recipeData.get("ingredients");
+      if (station == null || output == null || ingredientList == null) {
+        continue;
+      }
+      List<String> ingredients = new ArrayList<>();
+      for (String ingredient : ingredientList.split(",")) {
+        if (items.get(ingredient) == null) {
+          ingredients = null;
+          break;
+        }
+        ingredients.add(ingredient.trim());
+      }
+      if (ingredients == null || ingredients.isEmpty()) {
+        continue;
+      }
+      int count = parseIntOrDefault(recipeData.get("count"), 1);
+      String description = (String) recipeData.get("description");
+
+      if (station.getRecipes() == null) {
+        station.setRecipes(new RecipeBook(itemInstances));
+      }
+      station.getRecipes().add(new Recipe(name, ingredients, output, count, description));
+      craftable.put(output.getSymbol(), output);
     }
   }
 
@@ -259,9 +527,13 @@ public class GameWorld {
       String effects = (String) puzzleData.get("effects");
       String target = (String) puzzleData.get("target");
 
-      Puzzle puzzle = new Puzzle(name, active, affectsTarget, affectsPlayer, solution, value,
-              description, effects, target);
-      puzzles.put(name.toUpperCase(), puzzle);
+      Puzzle puzzle = new Puzzle(entities, entities.addPuzzle(name, active, affectsTarget,
+              affectsPlayer, solution, value, description, effects, target));
+      int tolerance = parseIntOrDefault(puzzleData.get("tolerance"), 0);
+      if (tolerance > 0) {
+        puzzle.setAnswerTolerance(tolerance);
+      }
+      puzzles.put(puzzle.getSymbol(), puzzle);
     }
   }
 
@@ -289,10 +561,120 @@ public class GameWorld {
       String solution = (String) monsterData.get("solution");
       String target = (String) monsterData.get("target");
 
-      Monster monster = new Monster(name, description, active, damage, canAttack,
-              attackDescription, effects, value, solution, target);
-      monsters.put(name.toUpperCase(), monster);
+      Monster monster = new Monster(entities, entities.addMonster(name, description, active,
+              damage, canAttack, attackDescription, effects, value, solution, target));
+      monster.setLoot(parseLoot(monsterData.get("loot")));
+      monsters.put(monster.getSymbol(), monster);
+    }
+  }
+
+  /**
+   * Loads rule data from the JSON array and compiles each rule. A rule has a trigger
+   * ("on"), optional conditions ("if") and actions ("do"), each either one string or an
+   * array of strings, and fires once unless "repeat" is true.
+   *
+   * @param rulesArray The JSON array containing rule data
+   * @throws IllegalArgumentException if a rule cannot be compiled
+   */
+  private void loadRules(JSONArray rulesArray) {
+    if (rulesArray == null) {
+      return;
+    }
+
+    for (Object obj : rulesArray) {
+      JSONObject ruleData = (JSONObject) obj;
+
+      String on = (String) ruleData.get("on");
+      if (on == null) {
+        throw new IllegalArgumentException("Rule has no trigger: " + ruleData.toJSONString());
+      }
+      boolean repeat = Boolean.parseBoolean(String.valueOf(ruleData.get("repeat")));
+      rules.add(on, stringList(ruleData.get("if")), stringList(ruleData.get("do")), repeat);
+    }
+  }
+
+  /**
+   * Reads a JSON value that is either one string or an array of strings.
+   */
+  private static List<String> stringList(Object value) {
+    List<String> strings = new ArrayList<>();
+    if (value instanceof String) {
+      strings.add((String) value);
+    } else if (value instanceof JSONArray) {
+      for (Object element : (JSONArray) value) {
+        strings.add(String.valueOf(element));
+      }
+    }
+    return strings;
+  }
+
+  /**
+   * Parses a monster's loot. Loot is either a comma-separated list of items that always
+   * drop, or a table object with optional "guaranteed" items, a number of "rolls"
+   * (default 1) and weighted "entries". Each entry has a "weight" and one of an "item"
+   * (with an optional "count"), a nested "table", or neither to drop nothing, plus
+   * optional "if_carrying" or "unless_carrying" conditions. An entry naming an unknown
+   * item drops nothing.
+   *
+   * @param lootData The "loot" value, or null
+   * @return The loot table, or null if the monster drops nothing
+   */
+  private LootTable parseLoot(Object lootData) {
+    if (lootData instanceof String) {
+      List<ItemDefinition> drops = parseItemList((String) lootData);
+      return drops.isEmpty() ? null : new LootTable(drops, 0, List.of());
+    }
+    if (!(lootData instanceof JSONObject)) {
+      return null;
     }
+    JSONObject tableData = (JSONObject) lootData;
+    List<ItemDefinition> guaranteed = parseItemList((String) tableData.get("guaranteed"));
+    List<LootTable.Entry> entries = new ArrayList<>();
+    JSONArray entriesData = (JSONArray) tableData.get("entries");
+    if (entriesData != null) {
+      for (Object obj : entriesData) {
+        JSONObject entryData = (JSONObject) obj;
+        int weight = parseIntOrDefault(entryData.get("weight"), 1);
+        ItemDefinition item = entryData.containsKey("item")
+                ? items.get((String) entryData.get("item")) : null;
+        LootTable nested = parseLoot(entryData.get("table"));
+        LootTable.Entry entry;
+        if (item != null) {
+          lootable.put(item.getSymbol(), item);
+          entry = LootTable.Entry.item(item, weight, parseIntOrDefault(entryData.get("count"), 1));
+        } else if (nested != null) {
+          entry = LootTable.Entry.table(nested, weight);
+        } else {
+          entry = LootTable.Entry.nothing(weight);
+        }
+        if (entryData.get("if_carrying") != null) {
+          entry = entry.ifCarrying((String) entryData.get("if_carrying"));
+        }
+        if (entryData.get("unless_carrying") != null) {
+          entry = entry.unlessCarrying((String) entryData.get("unless_carrying"));
+        }
+        entries.add(entry);
+      }
+    }
+    int rolls = parseIntOrDefault(tableData.get("rolls"), 1);
+    return new LootTable(guaranteed, rolls, entries);
+  }
+
+  /**
+   * Looks up a comma-separated list of item names, skipping unknown names.
+   */
+  private List<ItemDefinition> parseItemList(String names) {
+    List<ItemDefinition> found = new ArrayList<>();
+    if (names != null) {
+      for (String name : names.split(",")) {
+        ItemDefinition definition = items.get(name);
+        if (definition != null) {
+          found.add(definition);
+          lootable.put(definition.getSymbol(), definition);
+        }
+      }
+    }
+    return found;
   }
 
   /**
@@ -355,6 +737,114 @@ public class GameWorld {
     return player;
   }
 
+  /**
+   * Adds another player to the world, in the room where the first player started. The
+   * new player shares every room, item, puzzle and monster with the others, and gets
+   * their own combat rolls split from the world's.
+   *
+   * <p>A world with several players is meant to be driven from several threads. Every
+   * method that takes a player expects the caller to hold that player's room through
+   * {@link #getRoomGuard()}. Saving, restoring, monster timers and soft-lock warnings
+   * still follow the first player only.
+   *
+   * @param name The new player's name
+   * @return The new player
+   * @throws IllegalArgumentException if name is null or empty
+   */
+  public Player addPlayer(String name) {
+    Player newcomer = new Player(startRoom);
+    newcomer.setName(name);
+    shared.lock();
+    try {
+      RandomSource random = seatRandom.split();
+      newcomer.setRandomSource(random.split());
+      seats.put(newcomer, new Seat(new CombatEngine(random)));
+    } finally {
+      shared.unlock();
+    }
+    players.add(newcomer);
+    return newcomer;
+  }
+
+  /**
+   * Gets every player in the world, the first player first.
+   *
+   * @return A read-only view of the players
+   */
+  public List<Player> getPlayers() {
+    return Collections.unmodifiableList(players);
+  }
+
+  /**
+   * Gets the locks that guard the rooms when several players share the world.
+   *
+   * @return The room locks
+   */
+  public RoomLocks getRoomLocks() {
+    return roomLocks;
+  }
+
+  /**
+   * Gets what keeps players from changing the same room at once: the striped room locks
+   * unless something else was installed.
+   *
+   * @return The room guard
+   */
+  public RoomGuard getRoomGuard() {
+    return roomGuard;
+  }
+
+  /**
+   * Replaces what keeps players from changing the same room at once, for example with
+   * {@link RoomActors}. Install it before any player acts.
+   *
+   * @param roomGuard The room guard
+   * @throws IllegalArgumentException if roomGuard is null
+   */
+  public void setRoomGuard(RoomGuard roomGuard) {
+    if (roomGuard == null) {
+      throw new IllegalArgumentException("Room guard cannot be null");
+    }
+    this.roomGuard = roomGuard;
+  }
+
+  /**
+   * Gets the stream of changes to the world, for achievements, journals, metrics and
+   * anything else that follows the game as it is played.
+   *
+   * @return The event ring
+   */
+  public WorldEventRing getEvents() {
+    return events;
+  }
+
+  /**
+   * Gets the bus that tells players what happens in and next to their room.
+   *
+   * @return The nearby events
+   */
+  public NearbyEvents getNearbyEvents() {
+    return nearby;
+  }
+
+  /**
+   * Gets the player whose action is being handled: the one rules heal, damage and score.
+   *
+   * @return The acting player, or the first player outside of an action
+   */
+  Player getActor() {
+    Player acting = actor;
+    return acting != null ? acting : player;
+  }
+
+  private Seat seat(Player who) {
+    Seat seat = seats.get(who);
+    if (seat == null) {
+      throw new IllegalArgumentException("Player is not in this world");
+    }
+    return seat;
+  }
+
   /**
    * Sets the player's name.
    *
@@ -381,7 +871,60 @@ public class GameWorld {
    * @return The Puzzle object with the specified name, or null if not found
    */
   public Puzzle getPuzzleByName(String name) {
-    return puzzles.get(name.toUpperCase());
+    return puzzles.get(name);
+  }
+
+  /**
+   * Retrieves a monster by its name.
+   *
+   * @param name The name of the monster to retrieve
+   * @return The Monster object with the specified name, or null if not found
+   */
+  public Monster getMonsterByName(String name) {
+    return monsters.get(name);
+  }
+
+  /**
+   * Retrieves an item definition by its name.
+   *
+   * @param name The name of the item
+   * @return The definition, or null if no item has that name
+   */
+  public ItemDefinition getItemDefinition(String name) {
+    return items.get(name);
+  }
+
+  /**
+   * Gets every room in the world, sorted by room number.
+   *
+   * @return A new list of the rooms
+   */
+  public List<Room> getRooms() {
+    List<Room> all = new ArrayList<>(rooms.values());
+    all.sort(Comparator.comparingInt(Room::getLocation));
+    return all;
+  }
+
+  /**
+   * Gets every monster in the world, sorted by name.
+   *
+   * @return A new list of the monsters
+   */
+  public List<Monster> getMonsters() {
+    List<Monster> all = monsters.values();
+    all.sort(Comparator.comparing(Monster::getName));
+    return all;
+  }
+
+  /**
+   * Gets the shared definition of every item in the world, sorted by name.
+   *
+   * @return A new list of the item definitions
+   */
+  public List<ItemDefinition> getItemDefinitions() {
+    List<ItemDefinition> all = items.values();
+    all.sort(Comparator.comparing(ItemDefinition::getName));
+    return all;
   }
 
   /**
@@ -402,29 +945,32 @@ public class GameWorld {
    * @return true if the solution was successful, false otherwise
    */
   public boolean applySolution(String solution) {
-    Room currentRoom = player.getCurrentRoom();
+    return applySolution(player, solution);
+  }
+
+  /**
+   * Attempts to solve a puzzle or defeat a monster in a player's current room.
+   *
+   * @param who      The player, whose room the caller has locked
+   * @param solution The solution to apply
+   * @return true if the solution was successful, false otherwise
+   */
+  public boolean applySolution(Player who, String solution) {
+    Room currentRoom = who.getCurrentRoom();
 
     // Check if there's a puzzle in the room
     if (currentRoom.getPuzzle() != null && currentRoom.getPuzzle().isActive()) {
       Puzzle puzzle = currentRoom.getPuzzle();
       if (puzzle.solve(solution)) {
         // Update player score
-        player.addScore(puzzle.getValue());
-
-        // Unblock paths
-        for (Direction dir : Direction.values()) {
-          String exitNumber = currentRoom.getExitRoomNumber(dir);
-          if (Integer.parseInt(exitNumber) < 0) {
-            // Convert negative to positive to unblock
-            currentRoom.setExitRoomNumber(dir, String.valueOf(Math.abs
-                    (Integer.parseInt(exitNumber))));
-            // Set the actual exit
-            Room targetRoom = rooms.get(String.valueOf(Math.abs(Integer.parseInt(exitNumber))));
-            if (targetRoom != null) {
-              currentRoom.setExit(dir, targetRoom);
-            }
-          }
-        }
+        who.addScore(puzzle.getValue());
+        events.publish(WorldEventType.PUZZLE_SOLVED, who, currentRoom, puzzle.getName(),
+                puzzle.getValue());
+        events.publish(WorldEventType.SCORE_CHANGED, who, currentRoom, puzzle.getName(),
+                puzzle.getValue());
+
+        // Unblock paths, or do whatever the world's rules say instead
+        applyEffects(who, RuleEvent.SOLVED, puzzle.getName(), currentRoom);
         return true;
       }
     }
@@ -433,24 +979,14 @@ public class GameWorld {
     if (currentRoom.getMonster() != null && currentRoom.getMonster().isActive()) {
       Monster monster = currentRoom.getMonster();
       if (monster.getSolution().equalsIgnoreCase(solution)) {
-        monster.defeat();
+        entities.defeat(monster.getEntityId());
         // Update Players score
-        player.addScore(monster.getValue());
-
-        // Unblock paths
-        for (Direction dir : Direction.values()) {
-          String exitNumber = currentRoom.getExitRoomNumber(dir);
-          if (Integer.parseInt(exitNumber) < 0) {
-            // Convert negative to positive to unblock
-            currentRoom.setExitRoomNumber(dir, String.valueOf(Math.abs
-                    (Integer.parseInt(exitNumber))));
-            // Set the actual exit
-            Room targetRoom = rooms.get(String.valueOf(Math.abs(Integer.parseInt(exitNumber))));
-            if (targetRoom != null) {
-              currentRoom.setExit(dir, targetRoom);
-            }
-          }
-        }
+        who.addScore(monster.getValue());
+        publishDefeat(who, monster, currentRoom);
+        dropLoot(who, monster, currentRoom);
+
+        // Unblock paths, or do whatever the world's rules say instead
+        applyEffects(who, RuleEvent.DEFEATED, monster.getName(), currentRoom);
         return true;
       }
     }
@@ -458,6 +994,366 @@ public class GameWorld {
     return false;
   }
 
+  /**
+   * Crafts at a crafting station in the player's current room. With no ingredients
+   * named, the station picks the recipe that uses the most of what the player carries.
+   *
+   * @param ingredients The ingredient names, repeated for each copy, or an empty list
+   * @return The recipe crafted, or null if there is no station here or nothing matched
+   */
+  public Recipe craft(List<String> ingredients) {
+    return craft(player, ingredients);
+  }
+
+  /**
+   * Crafts at a crafting station in a player's current room.
+   *
+   * @param who         The player, whose room the caller has locked
+   * @param ingredients The ingredient names, repeated for each copy, or an empty list
+   * @return The recipe crafted, or null if there is no station here or nothing matched
+   */
+  public Recipe craft(Player who, List<String> ingredients) {
+    for (Fixture fixture : who.getCurrentRoom().getFixtureList()) {
+      RecipeBook recipes = fixture.getRecipes();
+      if (recipes == null) {
+        continue;
+      }
+      shared.lock();
+      try {
+        Recipe recipe = ingredients.isEmpty()
+                ? recipes.craft(who) : recipes.craft(who, ingredients);
+        if (recipe != null) {
+          // New items appeared, so the soft-lock detector must watch them too
+          softLocks.rebuild();
+          return recipe;
+        }
+      } finally {
+        shared.unlock();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether some recipe in the world makes an item.
+   *
+   * @param symbol The item's name symbol
+   * @return true if the item can be crafted
+   */
+  public boolean isCraftable(int symbol) {
+    return craftable.get(symbol) != null;
+  }
+
+  /**
+   * Checks whether some monster's loot can drop an item.
+   *
+   * @param symbol The item's name symbol
+   * @return true if the item can drop as loot
+   */
+  public boolean isLoot(int symbol) {
+    return lootable.get(symbol) != null;
+  }
+
+  /**
+   * Plays one turn of combat against the active monster in the player's current room.
+   * The player strikes first and the monster strikes back if it survives. A monster
+   * beaten in combat counts the same as one defeated with its solution: the player
+   * scores its value and the room's blocked exits open.
+   *
+   * @return The player's hit, reused by the next turn, or null if there is no active monster
+   */
+  public HitResult attackMonster() {
+    return attackMonster(player);
+  }
+
+  /**
+   * Plays one turn of combat for a player against the active monster in their room.
+   *
+   * @param who The player, whose room the caller has locked
+   * @return The player's hit, reused by their next turn, or null if there is no active monster
+   */
+  public HitResult attackMonster(Player who) {
+    Room currentRoom = who.getCurrentRoom();
+    Monster monster = currentRoom.getMonster();
+    if (monster == null || !monster.isActive()) {
+      return null;
+    }
+    CombatEngine combat = seat(who).combat;
+    HitResult hit = combat.exchange(who, monster);
+    if (combat.getCounterDamage() > 0) {
+      events.publish(WorldEventType.PLAYER_DAMAGED, who, currentRoom, monster.getName(),
+              combat.getCounterDamage());
+    }
+    if (hit.isDefeated()) {
+      who.addScore(monster.getValue());
+      publishDefeat(who, monster, currentRoom);
+      dropLoot(who, monster, currentRoom);
+      applyEffects(who, RuleEvent.DEFEATED, monster.getName(), currentRoom);
+    }
+    return hit;
+  }
+
+  private void publishDefeat(Player who, Monster monster, Room room) {
+    events.publish(WorldEventType.MONSTER_DEFEATED, who, room, monster.getName(),
+            monster.getValue());
+    events.publish(WorldEventType.SCORE_CHANGED, who, room, monster.getName(),
+            monster.getValue());
+  }
+
+  /**
+   * Rolls a defeated monster's loot and puts the drops in the room.
+   */
+  private void dropLoot(Player who, Monster monster, Room room) {
+    List<Item> lastLoot = seat(who).loot;
+    lastLoot.clear();
+    LootTable loot = monster.getLoot();
+    if (loot == null) {
+      return;
+    }
+    shared.lock();
+    try {
+      loot.roll(lootRandom, who.getInventoryStore(), (item, count) -> {
+        for (int i = 0; i < count; i++) {
+          Item drop = itemInstances.create(item);
+          room.addItem(drop);
+          lastLoot.add(drop);
+        }
+      });
+      if (!lastLoot.isEmpty()) {
+        // New items appeared, so the soft-lock detector must watch them too
+        softLocks.rebuild();
+      }
+    } finally {
+      shared.unlock();
+    }
+  }
+
+  /**
+   * Gets the items the last defeated monster dropped.
+   *
+   * @return The drops, empty if it dropped nothing
+   */
+  public List<Item> getLastLoot() {
+    return getLastLoot(player);
+  }
+
+  /**
+   * Gets the items dropped by the last monster a player defeated.
+   *
+   * @param who The player
+   * @return The drops, empty if it dropped nothing
+   */
+  public List<Item> getLastLoot(Player who) {
+    return Collections.unmodifiableList(seat(who).loot);
+  }
+
+  /**
+   * Gets the combat engine for this session.
+   *
+   * @return The combat engine
+   */
+  public CombatEngine getCombatEngine() {
+    return seat(player).combat;
+  }
+
+  /**
+   * Gets the combat engine a player fights with.
+   *
+   * @param who The player
+   * @return The player's combat engine
+   */
+  public CombatEngine getCombatEngine(Player who) {
+    return seat(who).combat;
+  }
+
+  /**
+   * Gets the detector that notices when the game can no longer be finished.
+   *
+   * @return The soft-lock detector
+   */
+  public SoftLockDetector getSoftLockDetector() {
+    return softLocks;
+  }
+
+  /**
+   * Gets the scheduler that lets monsters act on their own timers.
+   *
+   * @return The scheduler, or null if monsters only act when the player meets them
+   */
+  public MonsterScheduler getMonsterScheduler() {
+    return monsterTimers;
+  }
+
+  /**
+   * Sets the scheduler that lets monsters act on their own timers.
+   *
+   * @param monsterTimers The scheduler, or null to turn monster timers off
+   */
+  public void setMonsterScheduler(MonsterScheduler monsterTimers) {
+    this.monsterTimers = monsterTimers;
+  }
+
+  /**
+   * Replaces the random source used for combat and loot. Passing a seeded source makes
+   * every fight and every drop in the session reproducible.
+   *
+   * @param random The random source
+   * @throws IllegalArgumentException if random is null
+   */
+  public void setRandomSource(RandomSource random) {
+    seat(player).combat = new CombatEngine(random);
+    player.setRandomSource(random.split());
+    this.lootRandom = random.split();
+    this.seatRandom = random.split();
+  }
+
+  /**
+   * Runs the effects of solving a puzzle or defeating a monster. If the world has rules
+   * for the event, they decide what happens; otherwise every blocked exit of the room
+   * opens.
+   *
+   * @param event   The event
+   * @param subject The name of the puzzle or monster
+   * @param room    The room it was in
+   */
+  private void applyEffects(Player who, RuleEvent event, String subject, Room room) {
+    if (rules.hasRules(event, subject)) {
+      fire(who, event, subject);
+    } else {
+      unblockExits(room);
+    }
+  }
+
+  /**
+   * Fires a rule event on behalf of a player. Rules run one event at a time, however
+   * many players act at once. Rules that heal, damage or score apply to this player,
+   * and what they say is kept for this player's {@link #drainLog(Player)}. An event no
+   * rule listens for returns at once, without taking the world lock.
+   *
+   * @param who     The player acting, whose room the caller has locked
+   * @param event   The event
+   * @param subject Its subject
+   * @return The number of rules that fired
+   */
+  public int fire(Player who, RuleEvent event, CharSequence subject) {
+    if (!rules.hasRules(event, subject)) {
+      return 0;
+    }
+    shared.lock();
+    Player outer = actor;
+    try {
+      actor = who;
+      int fired = rules.fire(event, subject);
+      seat(who).said.append(rules.drainLog());
+      return fired;
+    } finally {
+      actor = outer;
+      shared.unlock();
+    }
+  }
+
+  /**
+   * Takes what the rules have said to a player since the last call. Only the player's
+   * own session may call this, so it needs no lock.
+   *
+   * @param who The player
+   * @return The text, empty if the rules said nothing
+   */
+  public String drainLog(Player who) {
+    StringBuilder said = seat(who).said;
+    if (said.length() == 0) {
+      return "";
+    }
+    String text = said.toString();
+    said.setLength(0);
+    return text;
+  }
+
+  /**
+   * Opens every blocked exit of a room.
+   *
+   * @param room The room whose exits are unblocked
+   */
+  private void unblockExits(Room room) {
+    for (Direction dir : Direction.values()) {
+      unblockExit(room, dir);
+    }
+  }
+
+  /**
+   * Opens one exit of a room if it is blocked, by turning its negative room number
+   * positive and linking the actual neighbouring room.
+   *
+   * @param room The room
+   * @param dir  The direction of the exit
+   */
+  void unblockExit(Room room, Direction dir) {
+    // A rule may open a door in a room another player is using
+    roomGuard.apply(room, () -> openExit(room, dir));
+  }
+
+  private void openExit(Room room, Direction dir) {
+    int exitNumber = Integer.parseInt(room.getExitRoomNumber(dir));
+    if (exitNumber < 0) {
+      // Convert negative to positive to unblock
+      String targetNumber = String.valueOf(-exitNumber);
+      room.setExitRoomNumber(dir, targetNumber);
+      // Set the actual exit
+      Room targetRoom = rooms.get(targetNumber);
+      if (targetRoom != null) {
+        room.setExit(dir, targetRoom);
+      }
+      events.publish(WorldEventType.EXIT_UNBLOCKED, null, room, dir.name(), 0);
+    }
+  }
+
+  /**
+   * Creates a new copy of an item in a room.
+   *
+   * @param item The item to create
+   * @param room The room to put it in
+   */
+  void spawnItem(ItemDefinition item, Room room) {
+    roomGuard.apply(room, () -> {
+      shared.lock();
+      try {
+        room.addItem(itemInstances.create(item));
+        // New items appeared, so the soft-lock detector must watch them too
+        softLocks.rebuild();
+      } finally {
+        shared.unlock();
+      }
+    });
+  }
+
+  /**
+   * Gets the rules of this world.
+   *
+   * @return The rule engine
+   */
+  public RuleEngine getRules() {
+    return rules;
+  }
+
+  /**
+   * Gets the store holding this world's descriptions and effects. It is dropped with
+   * the world.
+   *
+   * @return The text store
+   */
+  public Texts getTexts() {
+    return texts;
+  }
+
+  /**
+   * Gets the column store holding every monster and puzzle in the world.
+   *
+   * @return The entity store
+   */
+  public EntityStore getEntities() {
+    return entities;
+  }
+
   /**
    * Saves the current game state to a JSON file.
    * Includes player data, inventory, room states, and other game elements.
@@ -465,7 +1361,10 @@ public class GameWorld {
    * @param filename The path where the save file will be created
    * @throws IOException If there is an error writing to the file
    */
+  @SuppressWarnings("unchecked")
   public void saveGame(String filename) throws IOException {
+    SaveGameEvent event = new SaveGameEvent();
+    event.begin();
     JSONObject saveData = new JSONObject();
 
     // Save player data
@@ -478,10 +1377,7 @@ public class GameWorld {
     // Save inventory
     JSONArray inventoryData = new JSONArray();
     for (Item item : player.getInventory()) {
-      JSONObject itemData = new JSONObject();
-      itemData.put("name", item.getName());
-      itemData.put("uses_remaining", item.getUsesRemaining());
-      inventoryData.add(itemData);
+      inventoryData.add(saveItem(item));
     }
     playerData.put("inventory", inventoryData);
 
@@ -498,11 +1394,6 @@ public class GameWorld {
         roomData.put("puzzle_active", room.getPuzzle().isActive());
       }
 
-      // Save monster state
-      if (room.getMonster() != null) {
-        roomData.put("monster_active", room.getMonster().isActive());
-      }
-
       // Save room exits
       JSONObject exitsData = new JSONObject();
       for (Direction dir : Direction.values()) {
@@ -510,10 +1401,10 @@ public class GameWorld {
       }
       roomData.put("exits", exitsData);
 
-      // Save items in room
+      // Save items in room, each copy with its own uses
       JSONArray roomItemsData = new JSONArray();
       for (Item item : room.getItems()) {
-        roomItemsData.add(item.getName());
+        roomItemsData.add(saveItem(item));
       }
       roomData.put("items", roomItemsData);
 
@@ -521,24 +1412,53 @@ public class GameWorld {
     }
 
     saveData.put("rooms", roomsData);
+
+    // Save monster state; monsters roam, so each one records its room
+    JSONArray monstersData = new JSONArray();
+    for (Monster monster : getMonsters()) {
+      JSONObject monsterData = new JSONObject();
+      monsterData.put("name", monster.getName());
+      monsterData.put("room", String.valueOf(monster.getRoomNumber()));
+      monsterData.put("active", monster.isActive());
+      monsterData.put("health", monster.getHealth());
+      monstersData.add(monsterData);
+    }
+    saveData.put("monsters", monstersData);
+
+    JSONArray flagsData = new JSONArray();
+    flagsData.addAll(rules.getState());
+    saveData.put("flags", flagsData);
     saveData.put("game_name", gameName);
     saveData.put("version", version);
 
     try (FileWriter file = new FileWriter(filename)) {
       file.write(saveData.toJSONString());
     }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "save";
+      event.file = filename;
+      event.bytes = new File(filename).length();
+      event.commit();
+    }
   }
 
   /**
    * Loads a previously saved game state from a JSON file.
    * Restores player data, inventory, room states, and other game elements.
+   * Saved items that no longer fit in the player's inventory are left in the player's room.
    *
    * @param filename The path to the save file to load
+   * @return The items left in the player's room because they were too heavy to carry
    * @throws IOException    If there is an error reading the file
    * @throws ParseException If there is an error parsing the JSON data
    */
-  public void loadGame(String filename) throws IOException, org.json.simple.parser.ParseException {
+  public List<Item> loadGame(String filename) throws IOException, org.json.simple.parser.ParseException {
+    SaveGameEvent event = new SaveGameEvent();
+    event.begin();
     JSONParser parser = new JSONParser();
+    List<Item> overflow;
 
     try (FileReader file = new FileReader(filename)) {
       JSONObject saveData = (JSONObject) parser.parse(file);
@@ -550,27 +1470,26 @@ public class GameWorld {
       long score = (Long) playerData.get("score");
       String currentRoomNumber = (String) playerData.get("current_room");
 
-      // Load inventory
+      // Load inventory as fresh copies; the copies being replaced are released
       JSONArray inventoryData = (JSONArray) playerData.get("inventory");
       List<Item> inventory = new ArrayList<>();
       for (Object obj : inventoryData) {
-        JSONObject itemData = (JSONObject) obj;
-        String itemName = (String) itemData.get("name");
-        long usesRemaining = (Long) itemData.get("uses_remaining");
-
-        Item item = items.get(itemName.toUpperCase());
+        Item item = restoreItem(obj);
         if (item != null) {
-          item.setUsesRemaining((int) usesRemaining);
           inventory.add(item);
         }
       }
+      List<Item> replaced = new ArrayList<>(player.getInventory());
 
       // Set Player State
       player.setName(playerName);
       player.setHealth((int) health);
       player.setScore((int) score);
       player.setCurrentRoom(rooms.get(currentRoomNumber));
-      player.setInventory(inventory);
+      overflow = player.setInventory(inventory);
+      for (Item item : replaced) {
+        releaseItem(item);
+      }
 
       // Load room state
       JSONArray roomsData = (JSONArray) saveData.get("rooms");
@@ -586,7 +1505,7 @@ public class GameWorld {
             room.getPuzzle().setActive(puzzleActive);
           }
 
-          // Load monster state
+          // Load monster state from saves made before monsters recorded their rooms
           if (roomData.containsKey("monster_active") && room.getMonster() != null) {
             boolean monsterActive = (Boolean) roomData.get("monster_active");
             room.getMonster().setActive(monsterActive);
@@ -614,10 +1533,14 @@ public class GameWorld {
           // Load items in room
           if (roomData.containsKey("items")) {
             JSONArray roomsItemsData = (JSONArray) roomData.get("items");
+            // Take the items out before freeing them, which ends their views
+            List<Item> cleared = new ArrayList<>(room.getItems());
             room.clearItems();
+            for (Item item : cleared) {
+              releaseItem(item);
+            }
             for (Object itemObj : roomsItemsData) {
-              String itemName = (String) itemObj;
-              Item item = items.get(itemName.toUpperCase());
+              Item item = restoreItem(itemObj);
               if (item != null) {
                 room.addItem(item);
               }
@@ -625,6 +1548,31 @@ public class GameWorld {
           }
         }
       }
+
+      // Put every monster back in the room it was saved in
+      JSONArray monstersData = (JSONArray) saveData.get("monsters");
+      if (monstersData != null) {
+        restoreMonsters(monstersData);
+      }
+
+      // Load rule flags; older saves have none
+      JSONArray flagsData = (JSONArray) saveData.get("flags");
+      rules.restoreState(flagsData == null ? List.of() : stringList(flagsData));
+
+      // Whatever is too heavy now waits where the player stands, after the rooms are restored
+      for (Item item : overflow) {
+        player.getCurrentRoom().addItem(item);
+      }
+    }
+    softLocks.rebuild();
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "load";
+      event.file = filename;
+      event.bytes = new File(filename).length();
+      event.commit();
     }
+    return overflow;
   }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * The outcome of one hit on a monster.
+ * Instances are meant to be reused: a caller keeps one and passes it to every
+ * {@link Monster#applyHit(int, boolean, HitResult)} call, so recording a hit
+ * allocates nothing.
+ */
+public final class HitResult {
+  private boolean success;
+  private int damage;
+  private boolean critical;
+  private boolean defeated;
+  private int healthRemaining;
+
+  /**
+   * Overwrites every field of the result.
+   */
+  void set(boolean success, int damage, boolean critical, boolean defeated, int healthRemaining) {
+    this.success = success;
+    this.damage = damage;
+    this.critical = critical;
+    this.defeated = defeated;
+    this.healthRemaining = healthRemaining;
+  }
+
+  /**
+   * Checks whether the hit landed. A hit on a monster that is already defeated does not.
+   *
+   * @return true if the hit landed
+   */
+  public boolean isSuccess() {
+    return success;
+  }
+
+  /**
+   * Gets the damage dealt.
+   *
+   * @return The damage, or 0 if the hit did not land
+   */
+  public int getDamage() {
+    return damage;
+  }
+
+  /**
+   * Checks whether the hit was critical.
+   *
+   * @return true if the hit was critical
+   */
+  public boolean isCritical() {
+    return critical;
+  }
+
+  /**
+   * Checks whether the hit defeated the monster.
+   *
+   * @return true if the monster was defeated by this hit
+   */
+  public boolean isDefeated() {
+    return defeated;
+  }
+
+  /**
+   * Gets the monster's health after the hit.
+   *
+   * @return The remaining health
+   */
+  public int getHealthRemaining() {
+    return healthRemaining;
+  }
+}
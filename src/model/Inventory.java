@@ -0,0 +1,425 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A weight-limited collection of items, such as a player's pack or the inside of a bag.
+ * Copies of the same item are kept together in a {@link Stack}, and stacks are indexed by
+ * name symbol, so finding, adding and removing an item take constant time no matter how
+ * large the inventory grows. The total weight is maintained as items come and go instead
+ * of being summed on every check.
+ *
+ * <p>Items whose definition has a capacity are containers with their own nested inventory.
+ * A container's weight includes its contents, and the contents count against every
+ * inventory the container sits in.
+ */
+public class Inventory {
+  private final int capacity;
+  private final int location;
+  private int weight;
+  private int itemCount;
+  private Inventory parent;
+  private final SymbolMap<Stack> index;
+  private Stack[] stacks;
+  private int stackCount;
+
+  /**
+   * All the copies of one item held in an inventory.
+   */
+  public static final class Stack {
+    private final List<Item> copies;
+    private int position;
+
+    private Stack() {
+      this.copies = new ArrayList<>(1);
+    }
+
+    /**
+     * Gets the definition shared by every copy in the stack.
+     *
+     * @return The item definition
+     */
+    public ItemDefinition getDefinition() {
+      return copies.get(0).getDefinition();
+    }
+
+    /**
+     * Gets how many copies are in the stack.
+     *
+     * @return The number of copies
+     */
+    public int getCount() {
+      return copies.size();
+    }
+
+    /**
+     * Gets the copy that would be taken first.
+     *
+     * @return The most recently added copy
+     */
+    public Item top() {
+      return copies.get(copies.size() - 1);
+    }
+
+    /**
+     * Gets a read-only view of the copies in the stack.
+     *
+     * @return The copies
+     */
+    public List<Item> getItems() {
+      return Collections.unmodifiableList(copies);
+    }
+  }
+
+  /**
+   * Constructs an empty inventory carried by a player.
+   *
+   * @param capacity The maximum total weight
+   */
+  public Inventory(int capacity) {
+    this(capacity, ItemInstances.IN_INVENTORY);
+  }
+
+  /**
+   * Constructs an empty inventory.
+   *
+   * @param capacity The maximum total weight
+   * @param location The location code given to items placed in it
+   */
+  Inventory(int capacity, int location) {
+    this.capacity = capacity;
+    this.location = location;
+    this.index = new SymbolMap<>();
+    this.stacks = new Stack[4];
+  }
+
+  /**
+   * Gets the maximum total weight.
+   *
+   * @return The capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the total weight of everything held, including the contents of containers.
+   *
+   * @return The total weight
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Gets the number of items held directly, counting every copy in every stack.
+   *
+   * @return The item count
+   */
+  public int size() {
+    return itemCount;
+  }
+
+  /**
+   * Checks whether nothing is held.
+   *
+   * @return true if the inventory is empty
+   */
+  public boolean isEmpty() {
+    return itemCount == 0;
+  }
+
+  /**
+   * Checks whether extra weight fits here and in every inventory this one sits in.
+   *
+   * @param extra The weight to add
+   * @return true if it fits
+   */
+  public boolean canHold(int extra) {
+    for (Inventory level = this; level != null; level = level.parent) {
+      if (level.weight + extra > level.capacity) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the weight of an item together with anything inside it.
+   *
+   * @param item The item
+   * @return The combined weight
+   */
+  public static int weightOf(Item item) {
+    Inventory contents = item.getContents();
+    return item.getWeight() + (contents == null ? 0 : contents.weight);
+  }
+
+  /**
+   * Adds an item if it fits.
+   *
+   * @param item The item to add
+   * @return true if the item was added, false if it would exceed a weight limit
+   * @throws IllegalArgumentException if item is null or would end up inside itself
+   */
+  public boolean add(Item item) {
+    if (item == null) {
+      throw new IllegalArgumentException("Item cannot be null");
+    }
+    Inventory contents = item.getContents();
+    for (Inventory level = this; contents != null && level != null; level = level.parent) {
+      if (level == contents) {
+        throw new IllegalArgumentException("A container cannot hold itself");
+      }
+    }
+    int itemWeight = weightOf(item);
+    if (!canHold(itemWeight)) {
+      return false;
+    }
+    Stack stack = index.get(item.getSymbol());
+    if (stack == null) {
+      stack = new Stack();
+      if (stackCount == stacks.length) {
+        stacks = Arrays.copyOf(stacks, stackCount * 2);
+      }
+      stack.position = stackCount;
+      stacks[stackCount++] = stack;
+      index.put(item.getSymbol(), stack);
+    }
+    stack.copies.add(item);
+    itemCount++;
+    adjustWeight(itemWeight);
+    if (contents != null) {
+      contents.parent = this;
+    }
+    item.setLocation(location);
+    return true;
+  }
+
+  /**
+   * Removes an item.
+   *
+   * @param item The item to remove
+   * @return true if the item was removed, false if it was not here
+   * @throws IllegalArgumentException if item is null
+   */
+  public boolean remove(Item item) {
+    if (item == null) {
+      throw new IllegalArgumentException("Item cannot be null");
+    }
+    Stack stack = index.get(item.getSymbol());
+    if (stack == null) {
+      return false;
+    }
+    List<Item> copies = stack.copies;
+    int last = copies.size() - 1;
+    if (copies.get(last) == item) {
+      copies.remove(last);
+    } else if (!copies.remove(item)) {
+      return false;
+    }
+    if (copies.isEmpty()) {
+      removeStack(stack, item.getSymbol());
+    }
+    itemCount--;
+    adjustWeight(-weightOf(item));
+    Inventory contents = item.getContents();
+    if (contents != null) {
+      contents.parent = null;
+    }
+    if (item.getLocation() == location) {
+      item.setLocation(ItemInstances.NOWHERE);
+    }
+    return true;
+  }
+
+  /**
+   * Drops an empty stack by moving the last stack into its slot.
+   */
+  private void removeStack(Stack stack, int symbol) {
+    index.remove(symbol);
+    Stack moved = stacks[--stackCount];
+    stacks[stack.position] = moved;
+    moved.position = stack.position;
+    stacks[stackCount] = null;
+  }
+
+  /**
+   * Moves an item held here into a container that is also held here, or nested deeper.
+   *
+   * @param container The container to put the item into
+   * @param item      The item to move
+   * @return true if the item was moved, false if it is not here or does not fit
+   * @throws IllegalArgumentException if the container is not a container
+   */
+  public boolean moveInto(Item container, Item item) {
+    Inventory contents = container.getContents();
+    if (contents == null) {
+      throw new IllegalArgumentException(container.getName() + " is not a container");
+    }
+    if (!remove(item)) {
+      return false;
+    }
+    if (contents.add(item)) {
+      return true;
+    }
+    add(item);
+    return false;
+  }
+
+  /**
+   * Applies a weight change here and in every enclosing inventory.
+   */
+  private void adjustWeight(int delta) {
+    for (Inventory level = this; level != null; level = level.parent) {
+      level.weight += delta;
+    }
+  }
+
+  /**
+   * Finds a copy of an item by symbol.
+   *
+   * @param symbol The name symbol
+   * @return The most recently added copy, or null if there is none
+   */
+  public Item find(int symbol) {
+    Stack stack = index.get(symbol);
+    return stack == null ? null : stack.top();
+  }
+
+  /**
+   * Finds a copy of an item by name, ignoring case and surrounding whitespace.
+   *
+   * @param name The item name
+   * @return The most recently added copy, or null if there is none
+   */
+  public Item find(CharSequence name) {
+    return find(Symbols.lookup(name));
+  }
+
+  /**
+   * Counts the copies of an item by symbol.
+   *
+   * @param symbol The name symbol
+   * @return The number of copies held directly
+   */
+  public int count(int symbol) {
+    Stack stack = index.get(symbol);
+    return stack == null ? 0 : stack.getCount();
+  }
+
+  /**
+   * Counts the copies of an item by name.
+   *
+   * @param name The item name
+   * @return The number of copies held directly
+   */
+  public int count(CharSequence name) {
+    Stack stack = index.get(name);
+    return stack == null ? 0 : stack.getCount();
+  }
+
+  /**
+   * Removes every item.
+   */
+  public void clear() {
+    for (int i = 0; i < stackCount; i++) {
+      for (Item item : stacks[i].copies) {
+        Inventory contents = item.getContents();
+        if (contents != null) {
+          contents.parent = null;
+        }
+        if (item.getLocation() == location) {
+          item.setLocation(ItemInstances.NOWHERE);
+        }
+      }
+      stacks[i] = null;
+    }
+    adjustWeight(-weight);
+    index.clear();
+    stackCount = 0;
+    itemCount = 0;
+  }
+
+  /**
+   * Gets a read-only view of the stacks, in no particular order.
+   *
+   * @return The stacks
+   */
+  public List<Stack> getStacks() {
+    return new AbstractList<Stack>() {
+      @Override
+      public Stack get(int i) {
+        if (i < 0 || i >= stackCount) {
+          throw new IndexOutOfBoundsException("Index: " + i);
+        }
+        return stacks[i];
+      }
+
+      @Override
+      public int size() {
+        return stackCount;
+      }
+    };
+  }
+
+  /**
+   * Gets a read-only view of every item held directly, one entry per copy.
+   * The view reflects later changes; it is not a copy.
+   *
+   * @return The items
+   */
+  public List<Item> getItems() {
+    return new AbstractList<Item>() {
+      @Override
+      public Item get(int i) {
+        if (i >= 0) {
+          for (int s = 0; s < stackCount; s++) {
+            List<Item> copies = stacks[s].copies;
+            if (i < copies.size()) {
+              return copies.get(i);
+            }
+            i -= copies.size();
+          }
+        }
+        throw new IndexOutOfBoundsException("Index: " + i);
+      }
+
+      @Override
+      public int size() {
+        return itemCount;
+      }
+
+      @Override
+      public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+          private int stack;
+          private int copy;
+
+          @Override
+          public boolean hasNext() {
+            while (stack < stackCount && copy >= stacks[stack].copies.size()) {
+              stack++;
+              copy = 0;
+            }
+            return stack < stackCount;
+          }
+
+          @Override
+          public Item next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return stacks[stack].copies.get(copy++);
+          }
+        };
+      }
+    };
+  }
+}
@@ -2,20 +2,21 @@ package model;
 
 /**
  * Represents an item in the game world.
- * Each item has attributes like name, weight, max uses, current uses,
- * value, and a description of what happens when it is used.
+ * An item is a view of one instance in an {@link ItemInstances} store: the shared
+ * attributes (name, weight, max uses, value and descriptions) come from its
+ * {@link ItemDefinition}, while uses remaining and location belong to the instance.
+ * Two items with the same name are therefore independent copies. A view of an instance
+ * that has since been released fails rather than reading another item's state.
  */
 public class Item {
-  private final String name;
-  private final int weight;
-  private final int maxUses;
-  private int usesRemaining;
-  private final int value;
-  private final String whenUsed;
-  private final String description;
+  private final ItemInstances store;
+  private final int id;
+  private final int generation;
 
   /**
    * Constructs an Item with the specified attributes.
+   * The item gets its own definition and a private one-item store, outside any world,
+   * so both are freed with the item.
    *
    * @param name          The name of the item
    * @param weight        The weight of the item
@@ -32,13 +33,38 @@ public class Item {
               int value,
               String whenUsed,
               String description) {
-    this.name = name;
-    this.weight = weight;
-    this.maxUses = maxUses;
-    this.usesRemaining = usesRemaining;
-    this.value = value;
-    this.whenUsed = whenUsed;
-    this.description = description;
+    this.store = new ItemInstances(1);
+    this.id = store.allocate(new ItemDefinition(name, weight, maxUses, usesRemaining, value,
+            whenUsed, description), usesRemaining);
+    this.generation = store.getGeneration(id);
+  }
+
+  /**
+   * Constructs a view of an existing instance.
+   *
+   * @param store The store holding the instance
+   * @param id    The instance id
+   */
+  Item(ItemInstances store, int id) {
+    this.store = store;
+    this.id = id;
+    this.generation = store.getGeneration(id);
+  }
+
+  /**
+   * Gets the instance id after checking that it still belongs to this view.
+   */
+  private int live() {
+    store.checkLive(id, generation);
+    return id;
+  }
+
+  /**
+   * Frees this item's instance in the store that holds it. The view must not be used
+   * afterwards.
+   */
+  void release() {
+    store.release(live());
   }
 
   /**
@@ -48,11 +74,53 @@ public class Item {
    * @return true if the item was used, false otherwise
    */
   public boolean use() {
-    if (usesRemaining > 0) {
-      usesRemaining--;
-      return true;
-    }
-    return false;
+    return store.use(live());
+  }
+
+  /**
+   * Gets the shared definition this item is a copy of.
+   *
+   * @return The item definition
+   */
+  public ItemDefinition getDefinition() {
+    return store.getDefinition(live());
+  }
+
+  /**
+   * Gets the id of this item's instance in its store.
+   *
+   * @return The instance id
+   */
+  public int getInstanceId() {
+    return id;
+  }
+
+  /**
+   * Gets the items held inside this item.
+   *
+   * @return The nested inventory, or null if this item is not a container
+   */
+  public Inventory getContents() {
+    return store.getContents(live());
+  }
+
+  /**
+   * Gets the encoded location of the item.
+   *
+   * @return A room number, {@link ItemInstances#IN_INVENTORY} or {@link ItemInstances#NOWHERE}
+   */
+  public int getLocation() {
+    return store.getLocation(live());
+  }
+
+  /**
+   * Sets the encoded location of the item.
+   *
+   * @param location A room number, {@link ItemInstances#IN_INVENTORY} or
+   *                 {@link ItemInstances#NOWHERE}
+   */
+  void setLocation(int location) {
+    store.setLocation(live(), location);
   }
 
   /**
@@ -61,7 +129,7 @@ public class Item {
    * @return The description of the item's effect
    */
   public String getWhenUsed() {
-    return this.whenUsed;
+    return getDefinition().getWhenUsed();
   }
 
   /**
@@ -70,7 +138,25 @@ public class Item {
    * @return The name of the item
    */
   public String getName() {
-    return this.name;
+    return getDefinition().getName();
+  }
+
+  /**
+   * Gets the interned symbol of the item's name.
+   *
+   * @return The name symbol
+   */
+  public int getSymbol() {
+    return getDefinition().getSymbol();
+  }
+
+  /**
+   * Gets the lower-case name shown to players.
+   *
+   * @return The display name
+   */
+  public String getDisplayName() {
+    return getDefinition().getDisplayName();
   }
 
   /**
@@ -79,7 +165,7 @@ public class Item {
    * @return The weight of the item
    */
   public int getWeight() {
-    return this.weight;
+    return getDefinition().getWeight();
   }
 
   /**
@@ -88,7 +174,7 @@ public class Item {
    * @return The maximum number of uses
    */
   public int getMaxUses() {
-    return this.maxUses;
+    return getDefinition().getMaxUses();
   }
 
   /**
@@ -97,7 +183,7 @@ public class Item {
    * @return The number of uses remaining
    */
   public int getUsesRemaining() {
-    return this.usesRemaining;
+    return store.getUsesRemaining(live());
   }
 
   /**
@@ -106,7 +192,7 @@ public class Item {
    * @param uses The new number of uses remaining
    */
   public void setUsesRemaining(int uses) {
-    this.usesRemaining = uses;
+    store.setUsesRemaining(live(), uses);
   }
 
   /**
@@ -115,7 +201,7 @@ public class Item {
    * @return The value of the item
    */
   public int getValue() {
-    return this.value;
+    return getDefinition().getValue();
   }
 
   /**
@@ -124,6 +210,11 @@ public class Item {
    * @return The description of the item
    */
   public String getDescription() {
-    return this.description;
+    return getDefinition().getDescription();
+  }
+
+  @Override
+  public String toString() {
+    return "Item [name=" + getName() + ", usesRemaining=" + getUsesRemaining() + "]";
   }
 }
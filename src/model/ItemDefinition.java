@@ -0,0 +1,189 @@
+package model;
+
+/**
+ * The immutable, shared part of an item: everything that is the same for every copy
+ * of it in the world. A world holds one definition per item name, and any number of
+ * item instances refer back to it. Per-copy state such as uses remaining lives in
+ * {@link ItemInstances}. The descriptions are kept compressed in the world's
+ * {@link Texts}.
+ */
+public final class ItemDefinition {
+  private final String name;
+  private final int weight;
+  private final int maxUses;
+  private final int initialUses;
+  private final int value;
+  private final Texts texts;
+  private final int whenUsed;
+  private final int description;
+  private final int capacity;
+  private final int symbol;
+
+  /**
+   * Constructs an ItemDefinition with the specified attributes.
+   *
+   * @param name        The name of the item
+   * @param weight      The weight of the item
+   * @param maxUses     The maximum number of uses for the item
+   * @param initialUses The number of uses a new copy of the item starts with
+   * @param value       The value of the item
+   * @param whenUsed    A description of what happens when the item is used
+   * @param description A description of the item
+   * @throws IllegalArgumentException if the name is null or blank
+   */
+  public ItemDefinition(String name,
+                        int weight,
+                        int maxUses,
+                        int initialUses,
+                        int value,
+                        String whenUsed,
+                        String description) {
+    this(name, weight, maxUses, initialUses, value, whenUsed, description, 0);
+  }
+
+  /**
+   * Constructs an ItemDefinition for an item that may be a container.
+   *
+   * @param name        The name of the item
+   * @param weight      The weight of the item
+   * @param maxUses     The maximum number of uses for the item
+   * @param initialUses The number of uses a new copy of the item starts with
+   * @param value       The value of the item
+   * @param whenUsed    A description of what happens when the item is used
+   * @param description A description of the item
+   * @param capacity    The weight the item can hold inside it, or 0 if it is not a container
+   * @throws IllegalArgumentException if the name is null or blank
+   */
+  public ItemDefinition(String name,
+                        int weight,
+                        int maxUses,
+                        int initialUses,
+                        int value,
+                        String whenUsed,
+                        String description,
+                        int capacity) {
+    this(name, weight, maxUses, initialUses, value, whenUsed, description, capacity,
+            Texts.shared());
+  }
+
+  /**
+   * Constructs an ItemDefinition whose descriptions are kept in a world's own text store.
+   */
+  ItemDefinition(String name, int weight, int maxUses, int initialUses, int value,
+                 String whenUsed, String description, int capacity, Texts texts) {
+    this.name = name;
+    this.weight = weight;
+    this.maxUses = maxUses;
+    this.initialUses = initialUses;
+    this.value = value;
+    this.texts = texts;
+    this.whenUsed = texts.store(whenUsed);
+    this.description = texts.store(description);
+    this.capacity = capacity;
+    this.symbol = Symbols.intern(name);
+  }
+
+  /**
+   * Gets the name of the item.
+   *
+   * @return The name of the item
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the interned symbol of the item's name.
+   *
+   * @return The name symbol
+   */
+  public int getSymbol() {
+    return symbol;
+  }
+
+  /**
+   * Gets the lower-case name shown to players, computed once when the name was interned.
+   *
+   * @return The display name
+   */
+  public String getDisplayName() {
+    return Symbols.lowerName(symbol);
+  }
+
+  /**
+   * Gets the weight of the item.
+   *
+   * @return The weight of the item
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Gets the maximum number of uses for the item.
+   *
+   * @return The maximum number of uses
+   */
+  public int getMaxUses() {
+    return maxUses;
+  }
+
+  /**
+   * Gets the number of uses a new copy of the item starts with.
+   *
+   * @return The initial number of uses
+   */
+  public int getInitialUses() {
+    return initialUses;
+  }
+
+  /**
+   * Gets the value of the item.
+   *
+   * @return The value of the item
+   */
+  public int getValue() {
+    return value;
+  }
+
+  /**
+   * Gets the description of what happens when the item is used.
+   *
+   * @return The description of the item's effect
+   */
+  public String getWhenUsed() {
+    return texts.get(whenUsed);
+  }
+
+  /**
+   * Gets the weight the item can hold inside it.
+   *
+   * @return The container capacity, or 0 if the item is not a container
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Checks whether the item can hold other items.
+   *
+   * @return true if the item is a container
+   */
+  public boolean isContainer() {
+    return capacity > 0;
+  }
+
+  /**
+   * Gets the description of the item.
+   *
+   * @return The description of the item
+   */
+  public String getDescription() {
+    return texts.get(description);
+  }
+
+  @Override
+  public String toString() {
+    return "ItemDefinition [name=" + name + ", weight=" + weight + ", value=" + value + "]";
+  }
+}
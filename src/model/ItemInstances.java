@@ -0,0 +1,300 @@
+package model;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Stores the mutable state of every item instance in a world as parallel primitive
+ * arrays indexed by instance id. Each instance records which {@link ItemDefinition}
+ * it is a copy of, how many uses it has left, and where it is. An instance costs
+ * three ints and a reference slot for the contents of containers, so a world can hold
+ * millions of them; {@link Item} objects are only thin views over an id in this store.
+ *
+ * <p>Locations are encoded as ints: a positive value is the number of the room the
+ * item lies in, {@link #IN_INVENTORY} means a player carries it, {@link #IN_CONTAINER}
+ * means it is inside a container item, and {@link #NOWHERE} means it is not placed
+ * anywhere.
+ *
+ * <p>Every id also has a generation, bumped when it is released. A view remembers the
+ * generation it was made for, so a view of a released instance fails instead of reading
+ * whatever instance reuses the id. An item built outside a world gets a store of its own.
+ *
+ * <p>The arrays are cut into fixed-size chunks that never move once made, and growing
+ * the store only adds chunks. Allocating and releasing are synchronized on the store,
+ * but the uses and location of a live instance can be read and written without that
+ * lock, under whatever lock guards the room or inventory holding the item, because such
+ * a write can never land in an array a concurrent resize is about to drop.
+ */
+public class ItemInstances {
+  /** Location of an item that is not in any room or inventory. */
+  public static final int NOWHERE = 0;
+  /** Location of an item carried by a player. */
+  public static final int IN_INVENTORY = -1;
+  /** Location of an item inside a container item. */
+  public static final int IN_CONTAINER = -2;
+
+  private static final int FREE = -1;
+  private static final int MAX_CHUNK_BITS = 10;
+
+  private volatile ItemDefinition[] definitions;
+  private final Map<ItemDefinition, Integer> definitionIndex;
+  private int definitionCount;
+
+  private final int chunkBits;
+  private final int chunkMask;
+  private volatile Chunk[] chunks;
+  private int highWater;
+  private int[] freeIds;
+  private int freeCount;
+
+  /**
+   * One fixed-size slice of the columns.
+   */
+  private static final class Chunk {
+    final int[] definitionOf;
+    final int[] usesRemaining;
+    final int[] location;
+    final int[] generation;
+    final Inventory[] contents;
+
+    Chunk(int size) {
+      definitionOf = new int[size];
+      Arrays.fill(definitionOf, FREE);
+      usesRemaining = new int[size];
+      location = new int[size];
+      generation = new int[size];
+      contents = new Inventory[size];
+    }
+  }
+
+  /**
+   * Constructs an empty store.
+   *
+   * @param initialCapacity The number of instances to reserve room for, which also sets
+   *                        the chunk size, up to 1024 instances per chunk
+   */
+  public ItemInstances(int initialCapacity) {
+    int capacity = Math.max(1, initialCapacity);
+    this.chunkBits = Math.min(MAX_CHUNK_BITS, 32 - Integer.numberOfLeadingZeros(capacity - 1));
+    this.chunkMask = (1 << chunkBits) - 1;
+    this.definitions = new ItemDefinition[4];
+    this.definitionIndex = new IdentityHashMap<>();
+    Chunk[] initial = new Chunk[(capacity + chunkMask) >>> chunkBits];
+    for (int c = 0; c < initial.length; c++) {
+      initial[c] = new Chunk(1 << chunkBits);
+    }
+    this.chunks = initial;
+    this.freeIds = new int[4];
+  }
+
+  /**
+   * Creates a new instance of a definition, starting with the definition's initial
+   * uses and no location.
+   *
+   * @param definition The definition to copy
+   * @return A view of the new instance
+   */
+  public Item create(ItemDefinition definition) {
+    return create(definition, definition.getInitialUses());
+  }
+
+  /**
+   * Creates a new instance of a definition with the given uses remaining.
+   *
+   * @param definition    The definition to copy
+   * @param usesRemaining The number of uses the instance starts with
+   * @return A view of the new instance
+   */
+  public Item create(ItemDefinition definition, int usesRemaining) {
+    return new Item(this, allocate(definition, usesRemaining));
+  }
+
+  /**
+   * Allocates an instance id without creating a view for it.
+   *
+   * @param definition    The definition to copy
+   * @param usesRemaining The number of uses the instance starts with
+   * @return The new instance id
+   */
+  public synchronized int allocate(ItemDefinition definition, int usesRemaining) {
+    int definitionId = register(definition);
+    int id;
+    if (freeCount > 0) {
+      id = freeIds[--freeCount];
+    } else {
+      if ((highWater >>> chunkBits) == chunks.length) {
+        Chunk[] grown = Arrays.copyOf(chunks, chunks.length * 2);
+        for (int c = chunks.length; c < grown.length; c++) {
+          grown[c] = new Chunk(1 << chunkBits);
+        }
+        chunks = grown;
+      }
+      id = highWater++;
+    }
+    Chunk chunk = chunkOf(id);
+    int slot = id & chunkMask;
+    chunk.usesRemaining[slot] = usesRemaining;
+    chunk.location[slot] = NOWHERE;
+    chunk.contents[slot] = definition.isContainer()
+            ? new Inventory(definition.getCapacity(), IN_CONTAINER) : null;
+    chunk.definitionOf[slot] = definitionId;
+    return id;
+  }
+
+  /**
+   * Frees an instance id for reuse. Views of a released id must no longer be used.
+   *
+   * @param id The instance id
+   */
+  public synchronized void release(int id) {
+    Chunk chunk = live(id);
+    int slot = id & chunkMask;
+    chunk.definitionOf[slot] = FREE;
+    chunk.contents[slot] = null;
+    chunk.generation[slot]++;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+  }
+
+  /**
+   * Gets the index of a definition, adding it to the store if it is new.
+   */
+  private int register(ItemDefinition definition) {
+    Integer known = definitionIndex.get(definition);
+    if (known != null) {
+      return known;
+    }
+    ItemDefinition[] all = definitions;
+    if (definitionCount == all.length) {
+      all = Arrays.copyOf(all, definitionCount * 2);
+    }
+    all[definitionCount] = definition;
+    definitions = all;
+    definitionIndex.put(definition, definitionCount);
+    return definitionCount++;
+  }
+
+  private Chunk chunkOf(int id) {
+    return chunks[id >>> chunkBits];
+  }
+
+  /**
+   * Gets the chunk holding a live instance.
+   */
+  private Chunk live(int id) {
+    Chunk[] all = chunks;
+    if (id >= 0 && (id >>> chunkBits) < all.length) {
+      Chunk chunk = all[id >>> chunkBits];
+      if (chunk.definitionOf[id & chunkMask] != FREE) {
+        return chunk;
+      }
+    }
+    throw new IllegalArgumentException("No live item instance with id " + id);
+  }
+
+  /**
+   * Checks that a view made for the given generation of an id is still live.
+   *
+   * @throws IllegalStateException if the instance was released since the view was made
+   */
+  void checkLive(int id, int generation) {
+    if (live(id).generation[id & chunkMask] != generation) {
+      throw new IllegalStateException("Item instance " + id + " was released");
+    }
+  }
+
+  /**
+   * Gets the generation of a live id, which changes each time the id is released.
+   */
+  int getGeneration(int id) {
+    return live(id).generation[id & chunkMask];
+  }
+
+  /**
+   * Gets the definition an instance is a copy of.
+   *
+   * @param id The instance id
+   * @return The shared definition
+   */
+  public ItemDefinition getDefinition(int id) {
+    return definitions[live(id).definitionOf[id & chunkMask]];
+  }
+
+  /**
+   * Gets the uses remaining on an instance.
+   *
+   * @param id The instance id
+   * @return The uses remaining
+   */
+  public int getUsesRemaining(int id) {
+    return live(id).usesRemaining[id & chunkMask];
+  }
+
+  /**
+   * Sets the uses remaining on an instance.
+   *
+   * @param id   The instance id
+   * @param uses The new number of uses remaining
+   */
+  public void setUsesRemaining(int id, int uses) {
+    live(id).usesRemaining[id & chunkMask] = uses;
+  }
+
+  /**
+   * Uses an instance once if it has any uses left.
+   *
+   * @param id The instance id
+   * @return true if the instance was used, false if it had no uses left
+   */
+  public boolean use(int id) {
+    int[] usesRemaining = live(id).usesRemaining;
+    int slot = id & chunkMask;
+    if (usesRemaining[slot] > 0) {
+      usesRemaining[slot]--;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gets the encoded location of an instance.
+   *
+   * @param id The instance id
+   * @return A room number, {@link #IN_INVENTORY} or {@link #NOWHERE}
+   */
+  public int getLocation(int id) {
+    return live(id).location[id & chunkMask];
+  }
+
+  /**
+   * Sets the encoded location of an instance.
+   *
+   * @param id       The instance id
+   * @param location A room number, {@link #IN_INVENTORY} or {@link #NOWHERE}
+   */
+  public void setLocation(int id, int location) {
+    live(id).location[id & chunkMask] = location;
+  }
+
+  /**
+   * Gets the nested inventory of a container instance.
+   *
+   * @param id The instance id
+   * @return The contents, or null if the instance is not a container
+   */
+  public Inventory getContents(int id) {
+    return live(id).contents[id & chunkMask];
+  }
+
+  /**
+   * Gets the number of live instances.
+   *
+   * @return The live instance count
+   */
+  public synchronized int size() {
+    return highWater - freeCount;
+  }
+}
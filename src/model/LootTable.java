@@ -0,0 +1,250 @@
+package model;
+
+import java.util.List;
+
+/**
+ * What a monster drops when it is defeated.
+ *
+ * <p>A table has guaranteed drops, such as quest items, that fall every time, and a
+ * number of rolls on a list of weighted entries. An entry drops some copies of an item,
+ * rolls on a nested table, or drops nothing. An entry can also depend on what the player
+ * carries. For example, lamp oil might only drop for a player who carries a lamp.
+ *
+ * <p>Rolls use Vose's alias method. The weights are turned into a probability table and
+ * an alias table once, when the table is built. After that, each roll is one uniform
+ * index and one biased coin flip, whatever the number of entries. A conditional entry
+ * keeps its share of the weight: when its condition fails, that roll drops nothing.
+ * This keeps every roll O(1). Rolling does not allocate. Dropped items are handed to a
+ * {@link Sink}, so a simulation can count drops without creating any items.
+ */
+public final class LootTable {
+  private final ItemDefinition[] guaranteed;
+  private final int rolls;
+  private final ItemDefinition[] items;
+  private final LootTable[] tables;
+  private final int[] counts;
+  private final int[] requires;
+  private final int[] excludes;
+  private final double[] probability;
+  private final int[] alias;
+
+  /**
+   * Receives the items a table drops.
+   */
+  public interface Sink {
+    /**
+     * Takes one drop.
+     *
+     * @param item  The item dropped
+     * @param count How many copies dropped
+     */
+    void drop(ItemDefinition item, int count);
+  }
+
+  /**
+   * One weighted outcome of a roll.
+   */
+  public static final class Entry {
+    private final ItemDefinition item;
+    private final LootTable table;
+    private final int weight;
+    private final int count;
+    private final int requires;
+    private final int excludes;
+
+    private Entry(ItemDefinition item, LootTable table, int weight, int count, int requires,
+                  int excludes) {
+      if (weight <= 0) {
+        throw new IllegalArgumentException("Loot weights must be positive");
+      }
+      if (count <= 0) {
+        throw new IllegalArgumentException("Loot counts must be positive");
+      }
+      this.item = item;
+      this.table = table;
+      this.weight = weight;
+      this.count = count;
+      this.requires = requires;
+      this.excludes = excludes;
+    }
+
+    /**
+     * Creates an entry that drops copies of an item.
+     *
+     * @param item   The item
+     * @param weight The entry's weight
+     * @param count  How many copies drop
+     * @return The entry
+     */
+    public static Entry item(ItemDefinition item, int weight, int count) {
+      return new Entry(item, null, weight, count, Symbols.NONE, Symbols.NONE);
+    }
+
+    /**
+     * Creates an entry that rolls once on a nested table.
+     *
+     * @param table  The nested table
+     * @param weight The entry's weight
+     * @return The entry
+     */
+    public static Entry table(LootTable table, int weight) {
+      return new Entry(null, table, weight, 1, Symbols.NONE, Symbols.NONE);
+    }
+
+    /**
+     * Creates an entry that drops nothing.
+     *
+     * @param weight The entry's weight
+     * @return The entry
+     */
+    public static Entry nothing(int weight) {
+      return new Entry(null, null, weight, 1, Symbols.NONE, Symbols.NONE);
+    }
+
+    /**
+     * Gets a copy of this entry that only drops for a player carrying an item.
+     *
+     * @param itemName The item the player must carry
+     * @return The conditional entry
+     */
+    public Entry ifCarrying(String itemName) {
+      return new Entry(item, table, weight, count, Symbols.intern(itemName), excludes);
+    }
+
+    /**
+     * Gets a copy of this entry that only drops for a player not carrying an item.
+     *
+     * @param itemName The item the player must not carry
+     * @return The conditional entry
+     */
+    public Entry unlessCarrying(String itemName) {
+      return new Entry(item, table, weight, count, requires, Symbols.intern(itemName));
+    }
+  }
+
+  /**
+   * Builds a loot table.
+   *
+   * @param guaranteed Items that drop every time
+   * @param rolls      How many times to roll on the entries
+   * @param entries    The weighted entries
+   * @throws IllegalArgumentException if rolls is negative
+   */
+  public LootTable(List<ItemDefinition> guaranteed, int rolls, List<Entry> entries) {
+    if (rolls < 0) {
+      throw new IllegalArgumentException("Rolls cannot be negative");
+    }
+    int n = entries.size();
+    this.guaranteed = guaranteed.toArray(new ItemDefinition[0]);
+    this.rolls = n == 0 ? 0 : rolls;
+    this.items = new ItemDefinition[n];
+    this.tables = new LootTable[n];
+    this.counts = new int[n];
+    this.requires = new int[n];
+    this.excludes = new int[n];
+    this.probability = new double[n];
+    this.alias = new int[n];
+
+    long total = 0;
+    for (int i = 0; i < n; i++) {
+      Entry entry = entries.get(i);
+      items[i] = entry.item;
+      tables[i] = entry.table;
+      counts[i] = entry.count;
+      requires[i] = entry.requires;
+      excludes[i] = entry.excludes;
+      total += entry.weight;
+    }
+
+    // Vose: scale weights to average 1, then pair each light entry with a heavy one
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = (double) entries.get(i).weight * n / total;
+      if (scaled[i] < 1.0) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
+    }
+    while (smallCount > 0 && largeCount > 0) {
+      int light = small[--smallCount];
+      int heavy = large[--largeCount];
+      probability[light] = scaled[light];
+      alias[light] = heavy;
+      scaled[heavy] = (scaled[heavy] + scaled[light]) - 1.0;
+      if (scaled[heavy] < 1.0) {
+        small[smallCount++] = heavy;
+      } else {
+        large[largeCount++] = heavy;
+      }
+    }
+    // Whatever is left is 1 up to rounding error
+    while (largeCount > 0) {
+      probability[large[--largeCount]] = 1.0;
+    }
+    while (smallCount > 0) {
+      probability[small[--smallCount]] = 1.0;
+    }
+  }
+
+  /**
+   * Creates a table that always drops the given items and rolls on nothing.
+   *
+   * @param guaranteed The items
+   * @return The table
+   */
+  public static LootTable of(ItemDefinition... guaranteed) {
+    return new LootTable(List.of(guaranteed), 0, List.of());
+  }
+
+  /**
+   * Picks one entry in constant time.
+   *
+   * @param random The source of randomness
+   * @return The entry index
+   */
+  int sample(RandomSource random) {
+    int i = random.nextInt(probability.length);
+    return random.nextDouble() < probability[i] ? i : alias[i];
+  }
+
+  /**
+   * Drops the guaranteed items, then rolls on the entries.
+   *
+   * @param random   The source of randomness
+   * @param carrying What the player carries, for conditional entries, or null for nothing
+   * @param sink     Where drops go
+   */
+  public void roll(RandomSource random, Inventory carrying, Sink sink) {
+    for (ItemDefinition item : guaranteed) {
+      sink.drop(item, 1);
+    }
+    for (int r = 0; r < rolls; r++) {
+      int i = sample(random);
+      if (requires[i] != Symbols.NONE && (carrying == null || carrying.count(requires[i]) == 0)) {
+        continue;
+      }
+      if (excludes[i] != Symbols.NONE && carrying != null && carrying.count(excludes[i]) > 0) {
+        continue;
+      }
+      if (items[i] != null) {
+        sink.drop(items[i], counts[i]);
+      } else if (tables[i] != null) {
+        tables[i].roll(random, carrying, sink);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of weighted entries.
+   *
+   * @return The entry count
+   */
+  public int size() {
+    return probability.length;
+  }
+}
@@ -1,28 +1,19 @@
 package model;
 
-import static java.lang.Math.abs;
-
 /**
  * A Monster class with various attributes like name, description, health, attack and its related
  * descriptions, surrounding effects, and target object.
+ * A Monster is a view of one entity in an {@link EntityStore}; its attributes live in the
+ * store's columns.
  */
 public class Monster {
-  private String name;
-  private String attackDescription;
-  private String description;
-  private String effects;
-  private String solution;
-  private String target;
-  private boolean active;
-  private boolean canAttack;
-  private int damage;
-  private int value;
-  private int health;
-  private int maxHealth;
-
-  // Constructor (Qt: 1)
+  private final EntityStore store;
+  private final int id;
+
+  // Constructor (Qt: 2)
   /**
    * A constructor that instantiates the Monster class by taking in 10 different arguments.
+   * The Monster is kept in its own store, outside any world.
    *
    * @param name Monster's name
    * @param active Is Monster active or not (true/false)
@@ -38,18 +29,20 @@ public class Monster {
   public Monster(String name, String description, boolean active, int damage, boolean canAttack,
                  String attackDescription, String effects, int value,
                  String solution, String target) {
-    this.name = name;
-    this.description = description;
-    this.active = active;
-    this.damage = damage;
-    this.canAttack = canAttack;
-    this.attackDescription = attackDescription;
-    this.effects = effects;
-    this.value = value;
-    this.solution = solution;
-    this.target = target;
-    this.maxHealth = 100;  // Default value, can be adjusted per monster
-    this.health = maxHealth;
+    this.store = new EntityStore(1);
+    this.id = store.addMonster(name, description, active, damage, canAttack, attackDescription,
+            effects, value, solution, target);
+  }
+
+  /**
+   * A constructor that views an existing monster entity.
+   *
+   * @param store The store holding the monster
+   * @param id The monster's entity id
+   */
+  Monster(EntityStore store, int id) {
+    this.store = store;
+    this.id = id;
   }
 
   // Methods (Qt: 5)
@@ -61,19 +54,15 @@ public class Monster {
    * @return inflicted damage
    */
   public int attack(Player player) {
-    if (active & canAttack) {
-      player.takeDamage(abs(damage));
-      return abs(damage);
-    }
-    return 0;
+    return store.strike(id, player);
   }
 
+
   /**
    * This method is used to set the Monster's status to inactive and health to 0.
    */
   public void defeat() {
-    this.active = false;
-    this.health = 0;
+    store.defeat(id);
   }
 
   /**
@@ -85,36 +74,66 @@ public class Monster {
    * @return Result of the damage
    */
   public String takeDamage(int amount, boolean isCritical) {
-    if (!active) {
+    HitResult result = applyHit(amount, isCritical, new HitResult());
+    if (!result.isSuccess()) {
       return "success: " + false + ",\n"
               + "message: Monster is already defeated" + "\n\n";
     } // if Monster is already defeated
 
-    this.health -= amount; // reduce health by amount dealt by the Player
+    return "success: " + true + ",\n"
+            + "damage: " + result.getDamage() + ",\n"
+            + "critical: " + result.isCritical() + ",\n"
+            + "defeated: " + result.isDefeated() + ",\n"
+            + "healthRemaining: " + result.getHealthRemaining() + "\n\n";
+  }
+
+  /**
+   * This method is used to apply the damage to the Monster and record the outcome in a
+   * result the caller owns, so repeated hits allocate nothing.
+   * The Monster is defeated once its health drops to 0.
+   *
+   * @param amount Damage Amount
+   * @param isCritical Critical hit or not (true/false)
+   * @param result The result to overwrite
+   * @return The same result, for chaining
+   */
+  public HitResult applyHit(int amount, boolean isCritical, HitResult result) {
+    if (!store.isActive(id)) {
+      result.set(false, 0, isCritical, false, store.health(id));
+      return result;
+    } // if Monster is already defeated
 
-    if (this.health <= 0) {
-      this.health = 0;
+    int health = store.health(id) - amount; // reduce health by amount dealt by the Player
+    if (health <= 0) {
       this.defeat();
-      return "success: " + true + ",\n"
-              + "damage: " + amount + ",\n"
-              + "critical: " + isCritical + ",\n"
-              + "defeated: " + true + ",\n"
-              + "healthRemaining: " + 0 + "\n\n";
+      result.set(true, amount, isCritical, true, 0);
+      return result;
     } // if Monster's health drops to 0 or below
 
-    // If Monster is still able to take damage and has HP remaining
-    return "success: " + true + ",\n"
-            + "damage: " + amount + ",\n"
-            + "critical: " + isCritical + ",\n"
-            + "defeated: " + false + ",\n"
-            + "healthRemaining: " + this.health + "\n\n";
+    store.setHealth(id, health);
+    result.set(true, amount, isCritical, false, health);
+    return result;
+  }
+
+  /**
+   * This method restores some of the Monster's health, never past its maximum.
+   * A defeated Monster does not regenerate.
+   *
+   * @param amount Health to restore
+   * @return Health actually restored
+   */
+  public int regenerate(int amount) {
+    if (!store.isActive(id) || amount <= 0) {
+      return 0;
+    }
+    return store.regenerate(id, amount);
   }
 
   /**
    * This method lets the user know if the Monster is active.
    */
   public boolean isActive() {
-    return active;
+    return store.isActive(id);
   }
 
   /**
@@ -123,7 +142,7 @@ public class Monster {
    * @return can attack or cannot attack (true or false)
    */
   public boolean canAttack() {
-    return canAttack;
+    return store.canAttack(id);
   }
 
   // Getters (Qt: 9) and Setters (Qt: 1)
@@ -133,7 +152,25 @@ public class Monster {
    * @return Monster's name
    */
   public String getName() {
-    return name;
+    return store.name(id);
+  }
+
+  /**
+   * This method provides the interned symbol of the Monster's name.
+   *
+   * @return Monster's name symbol
+   */
+  public int getSymbol() {
+    return store.symbol(id);
+  }
+
+  /**
+   * This method provides the Monster's lower-case name for display.
+   *
+   * @return Monster's display name
+   */
+  public String getDisplayName() {
+    return Symbols.lowerName(store.symbol(id));
   }
 
   /**
@@ -142,7 +179,7 @@ public class Monster {
    * @return Monster's description
    */
   public String getDescription() {
-    return description;
+    return store.description(id);
   }
 
   /**
@@ -151,7 +188,25 @@ public class Monster {
    * @return Monster's current health
    */
   public int getHealthPercentage() {
-    return (this.health / this.maxHealth) * 100;
+    return store.health(id) * 100 / store.maxHealth(id);
+  }
+
+  /**
+   * This method will get the Monster's current health points.
+   *
+   * @return Monster's health
+   */
+  public int getHealth() {
+    return store.health(id);
+  }
+
+  /**
+   * This method will get the health the Monster starts with.
+   *
+   * @return Monster's maximum health
+   */
+  public int getMaxHealth() {
+    return store.maxHealth(id);
   }
 
   /**
@@ -160,7 +215,7 @@ public class Monster {
    * @return Monster's damage output.
    */
   public int getDamage() {
-    return damage;
+    return store.damage(id);
   }
 
   /**
@@ -169,7 +224,7 @@ public class Monster {
    * @return Monster's attack description
    */
   public String getAttackDescription() {
-    return attackDescription;
+    return store.attackDescription(id);
   }
 
   /**
@@ -178,7 +233,7 @@ public class Monster {
    * @return Monster's effects on its environment
    */
   public String getEffects() {
-    return effects;
+    return store.effects(id);
   }
 
   /**
@@ -187,7 +242,25 @@ public class Monster {
    * @return Points from defeating the Monster
    */
   public int getValue() {
-    return value;
+    return store.value(id);
+  }
+
+  /**
+   * This method provides what the Monster drops when it is defeated.
+   *
+   * @return Loot table, or null if the Monster drops nothing
+   */
+  public LootTable getLoot() {
+    return store.loot(id);
+  }
+
+  /**
+   * This method sets what the Monster drops when it is defeated.
+   *
+   * @param loot Loot table, or null to drop nothing
+   */
+  public void setLoot(LootTable loot) {
+    store.setLoot(id, loot);
   }
 
   /**
@@ -196,7 +269,7 @@ public class Monster {
    * @return Solution to defeat the Monster
    */
   public String getSolution() {
-    return solution;
+    return store.solution(id);
   }
 
   /**
@@ -204,7 +277,7 @@ public class Monster {
    * @return Monster's target
    */
   public String getTarget() {
-    return target;
+    return store.target(id);
   }
 
   /**
@@ -213,6 +286,33 @@ public class Monster {
    * @param active active or inactive (true or false)
    */
   public void setActive(boolean active) {
-    this.active = active;
+    store.setActive(id, active);
+  }
+
+  /**
+   * This method provides the id of this Monster in its entity store.
+   *
+   * @return Monster's entity id
+   */
+  public int getEntityId() {
+    return id;
+  }
+
+  /**
+   * This method provides the number of the room the Monster is in.
+   *
+   * @return Monster's room number, or 0 if it is not in a room
+   */
+  public int getRoomNumber() {
+    return store.room(id);
+  }
+
+  /**
+   * This method records which room the Monster is in.
+   *
+   * @param roomNumber The room number
+   */
+  void setRoom(int roomNumber) {
+    store.setRoom(id, roomNumber);
   }
 }
@@ -0,0 +1,214 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import scheduler.Clock;
+import scheduler.TimingWheel;
+import scheduler.TurnClock;
+
+/**
+ * Puts a world's monsters on timers, so monsters act between the player's commands
+ * instead of only when the player looks around or attacks. Monsters regenerate health,
+ * attack a player who shares their room, and, if not guarding a blocked exit, roam into
+ * a neighbouring room. Each behaviour is an action on a {@link TimingWheel} that
+ * schedules its next run when it finishes. Attacks and regeneration are one action for
+ * the whole world, each a single pass over the {@link EntityStore} columns; only roaming
+ * is timed per monster.
+ *
+ * <p>Time comes from a {@link Clock}. With a {@link TurnClock} the scheduler ticks once
+ * per {@link #endTurn()}, so runs are deterministic; with a wall clock, monsters act as
+ * real time passes and catch up at the end of each turn. What the player should see is
+ * collected and handed out by {@link #drainLog()}.
+ */
+public class MonsterScheduler {
+  private final GameWorld world;
+  private final Clock clock;
+  private final RandomSource random;
+  private final TimingWheel wheel;
+  private final int attackEvery;
+  private final int regenerateEvery;
+  private final int regenerateAmount;
+  private final int roamEvery;
+  private final StringBuilder log;
+
+  /**
+   * Constructs a scheduler with the default timings: attack every 2 ticks, regenerate
+   * 5 health every 5 ticks and roam every 8 ticks.
+   *
+   * @param world  The world whose monsters act
+   * @param clock  The source of time
+   * @param random The source used to pick where monsters roam
+   */
+  public MonsterScheduler(GameWorld world, Clock clock, RandomSource random) {
+    this(world, clock, random, 2, 5, 5, 8);
+  }
+
+  /**
+   * Constructs a scheduler and starts the timers of every monster in the world.
+   * An interval of 0 turns a behaviour off.
+   *
+   * @param world            The world whose monsters act
+   * @param clock            The source of time
+   * @param random           The source used to pick where monsters roam
+   * @param attackEvery      Ticks between attacks
+   * @param regenerateEvery  Ticks between regenerations
+   * @param regenerateAmount Health restored per regeneration
+   * @param roamEvery        Ticks between moves to another room
+   * @throws IllegalArgumentException if an argument is null or an interval is negative
+   */
+  public MonsterScheduler(GameWorld world, Clock clock, RandomSource random, int attackEvery,
+                          int regenerateEvery, int regenerateAmount, int roamEvery) {
+    if (world == null || clock == null || random == null) {
+      throw new IllegalArgumentException("World, clock and random source cannot be null");
+    }
+    if (attackEvery < 0 || regenerateEvery < 0 || roamEvery < 0) {
+      throw new IllegalArgumentException("Intervals cannot be negative");
+    }
+    this.world = world;
+    this.clock = clock;
+    this.random = random;
+    this.wheel = new TimingWheel(clock.now());
+    this.attackEvery = attackEvery;
+    this.regenerateEvery = regenerateEvery;
+    this.regenerateAmount = regenerateAmount;
+    this.roamEvery = roamEvery;
+    this.log = new StringBuilder();
+    if (attackEvery > 0) {
+      repeat(attackEvery, this::attack);
+    }
+    if (regenerateEvery > 0) {
+      repeat(regenerateEvery, () -> world.getEntities().regenerateAll(regenerateAmount));
+    }
+    for (Monster monster : world.getMonsters()) {
+      start(monster);
+    }
+  }
+
+  /**
+   * Starts the roaming timer of one monster. Timers are staggered by a random offset so
+   * monsters with the same interval do not all move on the same tick.
+   *
+   * @param monster The monster
+   */
+  public void start(Monster monster) {
+    if (roamEvery > 0) {
+      repeat(roamEvery, () -> roam(monster));
+    }
+  }
+
+  /**
+   * Runs an action every interval ticks, starting at a random point in the first interval.
+   */
+  private void repeat(int interval, Runnable action) {
+    Runnable[] self = new Runnable[1];
+    self[0] = () -> {
+      action.run();
+      wheel.schedule(interval, self[0]);
+    };
+    wheel.schedule(1 + random.nextInt(interval), self[0]);
+  }
+
+  /**
+   * Lets every monster in the player's room attack the player.
+   */
+  private void attack() {
+    Player player = world.getPlayer();
+    Room here = player.getCurrentRoom();
+    EntityStore entities = world.getEntities();
+    entities.attackAll(here.getLocation(), player, id -> {
+      int damage = Math.abs(entities.damage(id));
+      world.getEvents().publish(WorldEventType.PLAYER_DAMAGED, player, here, entities.name(id),
+              damage);
+      log.append(Symbols.lowerName(entities.symbol(id))).append(' ')
+              .append(entities.attackDescription(id)).append('\n');
+      log.append("you take -").append(damage).append(" damage!\n");
+    });
+  }
+
+  /**
+   * Moves a monster to a random neighbouring room that has no monster or puzzle of its own.
+   * A monster guarding a blocked exit stays where it is.
+   */
+  private void roam(Monster monster) {
+    if (!monster.isActive()) {
+      return;
+    }
+    Room from = world.getRoom(String.valueOf(monster.getRoomNumber()));
+    if (from == null || from.getMonster() != monster || guardsExit(from)) {
+      return;
+    }
+    List<Room> choices = new ArrayList<>(4);
+    for (Direction direction : Direction.values()) {
+      Room to = from.getExit(direction);
+      if (to != null && to.getMonster() == null && to.getPuzzle() == null) {
+        choices.add(to);
+      }
+    }
+    if (choices.isEmpty()) {
+      return;
+    }
+    Room to = choices.get(random.nextInt(choices.size()));
+    from.setMonster(null);
+    to.setMonster(monster);
+
+    Room here = world.getPlayer().getCurrentRoom();
+    if (here == from) {
+      log.append("the ").append(monster.getDisplayName()).append(" wanders off.\n");
+    } else if (here == to) {
+      log.append("the ").append(monster.getDisplayName()).append(" wanders in.\n");
+    }
+  }
+
+  /**
+   * Checks whether a room still has an exit blocked by its monster or puzzle.
+   */
+  private static boolean guardsExit(Room room) {
+    for (Direction direction : Direction.values()) {
+      if (Integer.parseInt(room.getExitRoomNumber(direction)) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Runs every monster action that has fallen due by the clock's current time.
+   *
+   * @return The number of actions that ran
+   */
+  public int advance() {
+    return wheel.advanceTo(clock.now());
+  }
+
+  /**
+   * Ends the player's turn: a turn clock moves one tick, then due actions run.
+   *
+   * @return The number of actions that ran
+   */
+  public int endTurn() {
+    if (clock instanceof TurnClock) {
+      ((TurnClock) clock).tick();
+    }
+    return advance();
+  }
+
+  /**
+   * Gets and clears what monsters did since the last call, as lines for the player.
+   *
+   * @return The log, empty if nothing the player could see happened
+   */
+  public String drainLog() {
+    String text = log.toString();
+    log.setLength(0);
+    return text;
+  }
+
+  /**
+   * Gets the number of monster actions waiting to run.
+   *
+   * @return The pending action count
+   */
+  public int getPendingActions() {
+    return wheel.size();
+  }
+}
@@ -0,0 +1,240 @@
+package model;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Tells players in a shared world what other players and monsters do near them.
+ *
+ * <p>An event happens in a room. It is heard there and in every room one exit away,
+ * found through {@link Room#getExit(Direction)}. Telling every player about every event
+ * would cost O(players²) per round, so subscribers are indexed by the room they are in.
+ * Publishing visits only the origin room and its neighbours, and each subscriber found
+ * there. The index follows each subscribed player through
+ * {@link Player#setCurrentRoom(Room)}, so the cost of an event depends on how crowded
+ * its corner of the world is, not on how many players there are.
+ *
+ * <p>Events are queued in each listener's inbox. The inbox is drained on the listener's
+ * own thread, so a publisher never touches another player's session. One event object
+ * is shared by all of its recipients.
+ */
+public class NearbyEvents implements Player.RoomListener {
+  private final Map<String, Set<Subscription>> byRoom;
+  private final Map<Player, Subscription> byPlayer;
+
+  /**
+   * Something that happened in a room.
+   */
+  public static final class Event {
+    private final Room room;
+    private final Player source;
+    private final String text;
+
+    private Event(Room room, Player source, String text) {
+      this.room = room;
+      this.source = source;
+      this.text = text;
+    }
+
+    /**
+     * Gets the room the event happened in.
+     *
+     * @return The room
+     */
+    public Room getRoom() {
+      return room;
+    }
+
+    /**
+     * Gets the player who caused the event.
+     *
+     * @return The player, or null if no player did
+     */
+    public Player getSource() {
+      return source;
+    }
+
+    /**
+     * Gets what happened, as one line without its line ending.
+     *
+     * @return The text
+     */
+    public String getText() {
+      return text;
+    }
+  }
+
+  /**
+   * One player's place on the bus and the events waiting for them.
+   */
+  public static final class Subscription {
+    private final Player player;
+    private final Queue<Event> inbox;
+
+    private Subscription(Player player) {
+      this.player = player;
+      this.inbox = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Gets the subscribed player.
+     *
+     * @return The player
+     */
+    public Player getPlayer() {
+      return player;
+    }
+
+    /**
+     * Takes the oldest event waiting.
+     *
+     * @return The event, or null if none is waiting
+     */
+    public Event poll() {
+      return inbox.poll();
+    }
+  }
+
+  /**
+   * Constructs a bus with no subscribers.
+   */
+  public NearbyEvents() {
+    this.byRoom = new ConcurrentHashMap<>();
+    this.byPlayer = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Subscribes a player to what happens near them. This bus becomes the player's room
+   * listener. Subscribing a player twice gives back the first subscription.
+   *
+   * @param player The player
+   * @return The player's subscription
+   */
+  public Subscription subscribe(Player player) {
+    Subscription subscription = new Subscription(player);
+    Subscription earlier = byPlayer.putIfAbsent(player, subscription);
+    if (earlier != null) {
+      return earlier;
+    }
+    player.setRoomListener(this);
+    room(player.getCurrentRoom()).add(subscription);
+    return subscription;
+  }
+
+  /**
+   * Stops telling a player what happens near them. Events already queued are dropped.
+   *
+   * @param player The player
+   */
+  public void unsubscribe(Player player) {
+    Subscription subscription = byPlayer.remove(player);
+    if (subscription != null) {
+      player.setRoomListener(null);
+      room(player.getCurrentRoom()).remove(subscription);
+      subscription.inbox.clear();
+    }
+  }
+
+  @Override
+  public void roomChanged(Player player, Room from, Room to) {
+    Subscription subscription = byPlayer.get(player);
+    if (subscription == null) {
+      return;
+    }
+    if (from != null) {
+      room(from).remove(subscription);
+    }
+    room(to).add(subscription);
+  }
+
+  /**
+   * Checks whether anyone besides the source would hear an event in a room, so that
+   * an event nobody hears need not be written.
+   *
+   * @param origin The room
+   * @param source The player causing it, who does not hear it, or null
+   * @return true if some other subscriber is in the room or next to it
+   */
+  public boolean isHeard(Room origin, Player source) {
+    return deliver(origin, null, source) > 0;
+  }
+
+  /**
+   * Queues an event for every subscriber in a room and in the rooms next to it,
+   * except the player who caused it.
+   *
+   * @param origin The room it happened in
+   * @param source The player who caused it, or null
+   * @param text   What happened, as one line without its line ending
+   * @return The number of players who will hear it
+   */
+  public int publish(Room origin, Player source, String text) {
+    return deliver(origin, new Event(origin, source, text), source);
+  }
+
+  /**
+   * Gets the number of players subscribed in a room.
+   *
+   * @param room The room
+   * @return The number of subscribers there
+   */
+  public int countIn(Room room) {
+    Set<Subscription> here = byRoom.get(room.getRoomNumber());
+    return here == null ? 0 : here.size();
+  }
+
+  /**
+   * Hands an event to everyone in and next to a room, or just counts them if there is
+   * no event.
+   */
+  private int deliver(Room origin, Event event, Player source) {
+    int heard = deliverIn(origin, event, source);
+    Direction[] directions = Direction.values();
+    for (int d = 0; d < directions.length; d++) {
+      Room next = origin.getExit(directions[d]);
+      if (next == null || next == origin || isEarlierExit(origin, directions, d, next)) {
+        continue;
+      }
+      heard += deliverIn(next, event, source);
+      if (event == null && heard > 0) {
+        return heard;
+      }
+    }
+    return heard;
+  }
+
+  // Two exits may lead to the same room, which should hear the event once
+  private static boolean isEarlierExit(Room origin, Direction[] directions, int d, Room next) {
+    for (int e = 0; e < d; e++) {
+      if (origin.getExit(directions[e]) == next) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int deliverIn(Room room, Event event, Player source) {
+    Set<Subscription> here = byRoom.get(room.getRoomNumber());
+    if (here == null) {
+      return 0;
+    }
+    int heard = 0;
+    for (Subscription subscription : here) {
+      if (subscription.player == source) {
+        continue;
+      }
+      if (event != null) {
+        subscription.inbox.add(event);
+      }
+      heard++;
+    }
+    return heard;
+  }
+
+  private Set<Subscription> room(Room room) {
+    return byRoom.computeIfAbsent(room.getRoomNumber(), number -> ConcurrentHashMap.newKeySet());
+  }
+}
@@ -9,15 +9,31 @@ import java.util.List;
  * and accumulate score.
  */
 public class Player {
+  /**
+   * Told whenever a player changes rooms.
+   */
+  public interface RoomListener {
+    /**
+     * Called after the player has moved.
+     *
+     * @param player The player
+     * @param from   The room the player left
+     * @param to     The room the player is in now
+     */
+    void roomChanged(Player player, Room from, Room to);
+  }
+
   private String name;
   private int health;
-  private final List<Item> inventory;
-  private Room currentRoom;
+  private final Inventory inventory;
+  private volatile Room currentRoom;
   private int score;
   private static final int MAX_WEIGHT = 13;
   private static final int MAX_HEALTH = 100;
   private final int attackPower;
   private final int criticalChance;
+  private RandomSource random;
+  private volatile RoomListener roomListener;
 
   /**
    * Creates a new player in the specified starting room.
@@ -31,11 +47,12 @@ public class Player {
     }
     this.name = "Player";
     this.health = MAX_HEALTH;
-    this.inventory = new ArrayList<>();
+    this.inventory = new Inventory(MAX_WEIGHT);
     this.currentRoom = startRoom;
     this.score = 0;
     this.attackPower = 10;
     this.criticalChance = 15;
+    this.random = new SplittableRandomSource();
   }
 
   /**
@@ -98,11 +115,7 @@ public class Player {
     if (item == null) {
       throw new IllegalArgumentException("Item cannot be null");
     }
-    if (getInventoryWeight() + item.getWeight() <= MAX_WEIGHT) {
-      inventory.add(item);
-      return true;
-    }
-    return false;
+    return inventory.add(item);
   }
 
   /**
@@ -126,48 +139,76 @@ public class Player {
    * @return The item if found, null otherwise
    * @throws IllegalArgumentException if itemName is null or empty
    */
-  public Item getItemFromInventory(String itemName) {
-    if (itemName == null || itemName.trim().isEmpty()) {
+  public Item getItemFromInventory(CharSequence itemName) {
+    if (itemName == null || isBlank(itemName)) {
       throw new IllegalArgumentException("Item name cannot be null or empty");
     }
-    return inventory.stream()
-            .filter(item -> item.getName().equalsIgnoreCase(itemName))
-            .findFirst()
-            .orElse(null);
+    return inventory.find(itemName);
+  }
+
+  /**
+   * Checks whether a name holds nothing but whitespace, without copying it.
+   *
+   * @param name The name to check
+   * @return true if the name is empty or blank
+   */
+  private static boolean isBlank(CharSequence name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (!Character.isWhitespace(name.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
-   * Gets the total weight of all items in the inventory.
+   * Gets the total weight of all items in the inventory, including the contents
+   * of any containers.
    *
    * @return The total weight of the inventory
    */
   public int getInventoryWeight() {
-    return inventory.stream()
-            .mapToInt(Item::getWeight)
-            .sum();
+    return inventory.getWeight();
   }
 
   /**
-   * Gets a copy of the player's inventory.
+   * Gets a read-only view of the player's inventory.
    *
-   * @return A new list containing all items in the inventory
+   * @return A list of every item in the inventory
    */
   public List<Item> getInventory() {
-    return new ArrayList<>(inventory);
+    return inventory.getItems();
   }
 
   /**
-   * Sets the player's inventory to the specified list.
+   * Gets the player's inventory, with stacks, containers and weight accounting.
+   *
+   * @return The inventory
+   */
+  public Inventory getInventoryStore() {
+    return inventory;
+  }
+
+  /**
+   * Sets the player's inventory to the specified list. Items that would go over the
+   * weight limit are left out and handed back.
    *
    * @param inventory The new inventory list
+   * @return The items that did not fit, in list order; empty if all of them fit
    * @throws IllegalArgumentException if inventory is null
    */
-  public void setInventory(List<Item> inventory) {
+  public List<Item> setInventory(List<Item> inventory) {
     if (inventory == null) {
       throw new IllegalArgumentException("Inventory cannot be null");
     }
     this.inventory.clear();
-    this.inventory.addAll(inventory);
+    List<Item> overflow = new ArrayList<>();
+    for (Item item : inventory) {
+      if (!this.inventory.add(item)) {
+        overflow.add(item);
+      }
+    }
+    return overflow;
   }
 
   /**
@@ -185,7 +226,7 @@ public class Player {
    * @return The maximum weight
    */
   public int getMaxWeight() {
-    return MAX_HEALTH;
+    return inventory.getCapacity();
   }
 
   /**
@@ -198,7 +239,25 @@ public class Player {
     if (room == null) {
       throw new IllegalArgumentException("Room cannot be null");
     }
-    this.currentRoom = room;
+    enter(room);
+  }
+
+  /**
+   * Sets the listener told when the player changes rooms. A player has one listener.
+   *
+   * @param roomListener The listener, or null for none
+   */
+  public void setRoomListener(RoomListener roomListener) {
+    this.roomListener = roomListener;
+  }
+
+  private void enter(Room room) {
+    Room from = currentRoom;
+    currentRoom = room;
+    RoomListener listener = roomListener;
+    if (listener != null && from != room) {
+      listener.roomChanged(this, from, room);
+    }
   }
 
   /**
@@ -283,38 +342,89 @@ public class Player {
   }
 
   /**
-   * Attacks a monster with a chance for critical hits.
+   * Attacks a monster with a chance for critical hits, rolled with the player's own
+   * random source.
    *
    * @param monster The monster to attack
    * @return The damage dealt to the monster, or 0 if the attack was unsuccessful
    * @throws IllegalArgumentException if monster is null
    */
   public int attack(Monster monster) {
+    return attack(monster, random, new HitResult()).getDamage();
+  }
+
+  /**
+   * Attacks a monster with a chance for critical hits, rolled with the given source.
+   * The outcome is written into a result the caller owns, so no objects are created.
+   *
+   * @param monster The monster to attack
+   * @param random  The source used to roll for a critical hit
+   * @param result  The result to overwrite
+   * @return The same result, for chaining
+   * @throws IllegalArgumentException if monster or random is null
+   */
+  public HitResult attack(Monster monster, RandomSource random, HitResult result) {
     if (monster == null) {
       throw new IllegalArgumentException("Monster cannot be null");
     }
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null");
+    }
 
     if (!monster.isActive()) {
-      return 0;
+      return monster.applyHit(0, false, result);
     }
 
     int damage = this.attackPower;
-    boolean isCritical = isCriticalHit();
+    boolean isCritical = isCriticalHit(random);
     if (isCritical) {
       damage *= 2;
     }
 
-    monster.takeDamage(damage, isCritical);
-    return damage;
+    return monster.applyHit(damage, isCritical, result);
   }
 
   /**
    * Determines if the attack is a critical hit.
+   * The critical chance is a percentage, so the roll is a whole number below 100.
    *
+   * @param random The source to roll with
    * @return true if the attack is a critical hit
    */
-  private boolean isCriticalHit() {
-    return Math.random() < criticalChance;
+  private boolean isCriticalHit(RandomSource random) {
+    return random.nextInt(100) < criticalChance;
+  }
+
+  /**
+   * Gets the chance, in percent, that an attack is a critical hit.
+   *
+   * @return The critical chance
+   */
+  public int getCriticalChance() {
+    return criticalChance;
+  }
+
+  /**
+   * Gets the player's attack power before critical hits.
+   *
+   * @return The attack power
+   */
+  public int getAttackPower() {
+    return attackPower;
+  }
+
+  /**
+   * Sets the random source used by {@link #attack(Monster)}.
+   * A seeded source makes the player's attacks replay exactly.
+   *
+   * @param random The random source
+   * @throws IllegalArgumentException if random is null
+   */
+  public void setRandomSource(RandomSource random) {
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null");
+    }
+    this.random = random;
   }
 
   /**
@@ -344,7 +454,7 @@ public class Player {
     }
     Room nextRoom = currentRoom.getExit(direction);
     if (nextRoom != null) {
-      currentRoom = nextRoom;
+      enter(nextRoom);
       return true;
     }
     return false;
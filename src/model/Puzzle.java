@@ -1,35 +1,31 @@
 package model;
 
 /**
- * a puzzle that players can solve
+ * a puzzle that players can solve.
+ * a puzzle is a view of one entity in an EntityStore.
  */
 public class Puzzle {
-    // store basic info about the puzzle
-    private String name;
-    private boolean active;
-    private boolean affectsTarget;
-    private boolean affectsPlayer;
-    private String solution;
-    private int value;
-    private String description;
-    private String effects;
-    private String target;
+    // where the puzzle's info lives
+    private final EntityStore store;
+    private final int id;
     
     /**
-     * create a new puzzle
+     * create a new puzzle, kept in its own store
      */
     public Puzzle(String name, boolean active, boolean affectsTarget, boolean affectsPlayer,
                 String solution, int value, String description, String effects, String target) {
         // save all the info about this puzzle
-        this.name = name;
-        this.active = active;
-        this.affectsTarget = affectsTarget;
-        this.affectsPlayer = affectsPlayer;
-        this.solution = solution;
-        this.value = value;
-        this.description = description;
-        this.effects = effects;
-        this.target = target;
+        this.store = new EntityStore(1);
+        this.id = store.addPuzzle(name, active, affectsTarget, affectsPlayer, solution, value,
+                description, effects, target);
+    }
+    
+    /**
+     * view an existing puzzle entity
+     */
+    Puzzle(EntityStore store, int id) {
+        this.store = store;
+        this.id = id;
     }
     
     /**
@@ -37,85 +33,93 @@ public class Puzzle {
      */
     public boolean solve(String answer) {
         // can't solve inactive puzzles
-        if (!active) {
+        if (!store.isActive(id)) {
             return false;
         }
-        
-        // convert the answer to a Solution object
-        Solution providedSolution;
-        
-        // check if this is a word answer (has quotes)
-        if (solution.startsWith("'") && solution.endsWith("'")) {
-            // create a text answer solution
-            providedSolution = new Solution(SolutionType.ANSWER, answer);
-            
-            // get the correct solution (without quotes)
-            String correctAnswer = solution.substring(1, solution.length() - 1);
-            Solution correctSolution = new Solution(SolutionType.ANSWER, correctAnswer);
-            
-            // check if they match
-            if (providedSolution.matches(correctSolution)) {
-                active = false;  // puzzle is now solved
-                return true;
-            }
-        } 
-        // check if this is an item answer (no quotes)
-        else {
-            // create an item solution
-            providedSolution = new Solution(SolutionType.ITEM, answer);
-            
-            // create the correct solution
-            Solution correctSolution = new Solution(SolutionType.ITEM, solution);
-            
-            // check if they match
-            if (providedSolution.matches(correctSolution)) {
-                active = false;  // puzzle is now solved
-                return true;
-            }
+        // answers were compiled when the puzzle was loaded, so checking one is cheap
+        AnswerMatcher matcher = store.answer(id);
+        boolean correct = matcher != null
+                ? matcher.matches(answer)
+                : store.solution(id).equalsIgnoreCase(answer);
+        if (correct) {
+            store.setActive(id, false);  // puzzle is now solved
         }
-        
-        // wrong answer
-        return false;
+        return correct;
+    }
+    
+    /**
+     * check if the puzzle is solved by answering rather than by using an item
+     */
+    public boolean requiresAnswer() {
+        return store.answer(id) != null;
+    }
+    
+    /**
+     * get the first accepted answer, or null if the puzzle needs an item
+     */
+    public String getAnswer() {
+        AnswerMatcher matcher = store.answer(id);
+        return matcher == null ? null : matcher.getAnswer();
+    }
+    
+    /**
+     * forgive up to this many typing mistakes in answers
+     */
+    public void setAnswerTolerance(int tolerance) {
+        store.setAnswerTolerance(id, tolerance);
     }
     
     // simple getters
     public String getName() {
-        return name;
+        return store.name(id);
+    }
+    
+    public int getSymbol() {
+        return store.symbol(id);
     }
     
     public boolean isActive() {
-        return active;
+        return store.isActive(id);
     }
     
     public void setActive(boolean active) {
-        this.active = active;
+        store.setActive(id, active);
     }
     
     public boolean affectsTarget() {
-        return affectsTarget;
+        return store.affectsTarget(id);
     }
     
     public boolean affectsPlayer() {
-        return affectsPlayer;
+        return store.affectsPlayer(id);
     }
     
     public String getSolution() {
-        return solution;
+        return store.solution(id);
     }
     
     public int getValue() {
-        return value;
+        return store.value(id);
     }
     
     public String getDescription() {
-        return description;
+        return store.description(id);
     }
     
     public String getEffects() {
-        return effects;
+        return store.effects(id);
     }
     
     public String getTarget() {
-        return target;
+        return store.target(id);
+    }
+    
+    public int getEntityId() {
+        return id;
+    }
+    
+    // record which room the puzzle is in
+    void setRoom(int roomNumber) {
+        store.setRoom(id, roomNumber);
     }
 }
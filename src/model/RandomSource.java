@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * A source of random numbers for game mechanics such as critical hits.
+ * Each session owns its own source, so sessions never contend on a shared
+ * generator, and a seeded source replays the exact same sequence of rolls.
+ */
+public interface RandomSource {
+
+  /**
+   * Gets a uniformly distributed int between 0 (inclusive) and the bound (exclusive).
+   *
+   * @param bound The upper bound, which must be positive
+   * @return The next random int
+   */
+  int nextInt(int bound);
+
+  /**
+   * Gets a uniformly distributed long.
+   *
+   * @return The next random long
+   */
+  long nextLong();
+
+  /**
+   * Gets a uniformly distributed double between 0.0 (inclusive) and 1.0 (exclusive).
+   *
+   * @return The next random double
+   */
+  double nextDouble();
+
+  /**
+   * Creates an independent source whose sequence is determined by this one.
+   * Splitting a seeded source gives every child a reproducible sequence.
+   *
+   * @return A new source
+   */
+  RandomSource split();
+}
@@ -0,0 +1,183 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A way of turning items into a new item at a crafting station. A recipe takes a
+ * multiset of ingredients (so "Iron, Iron, Coal" needs two irons) and makes one or
+ * more copies of its output.
+ *
+ * <p>Ingredients are kept as name symbols sorted in increasing order, each paired with
+ * a count, which is the canonical form {@link RecipeBook} indexes recipes by.
+ */
+public final class Recipe {
+  private final String name;
+  private final int[] symbols;
+  private final int[] counts;
+  private final int ingredientCount;
+  private final ItemDefinition output;
+  private final int outputCount;
+  private final String description;
+
+  /**
+   * Constructs a recipe.
+   *
+   * @param name        The name of the recipe
+   * @param ingredients The names of the items it consumes, repeated for each copy needed
+   * @param output      The item it makes
+   * @param outputCount How many copies of the output it makes
+   * @param description What the player sees when crafting, or null
+   * @throws IllegalArgumentException if there are no ingredients, no output, or the
+   *                                  output count is not positive
+   */
+  public Recipe(String name, List<String> ingredients, ItemDefinition output, int outputCount,
+                String description) {
+    if (ingredients == null || ingredients.isEmpty()) {
+      throw new IllegalArgumentException("A recipe needs at least one ingredient");
+    }
+    if (output == null || outputCount < 1) {
+      throw new IllegalArgumentException("A recipe must make at least one item");
+    }
+    int[] all = new int[ingredients.size()];
+    for (int i = 0; i < all.length; i++) {
+      all[i] = Symbols.intern(ingredients.get(i));
+    }
+    Arrays.sort(all);
+    int distinct = 0;
+    int[] sortedSymbols = new int[all.length];
+    int[] sortedCounts = new int[all.length];
+    for (int i = 0; i < all.length; i++) {
+      if (distinct > 0 && sortedSymbols[distinct - 1] == all[i]) {
+        sortedCounts[distinct - 1]++;
+      } else {
+        sortedSymbols[distinct] = all[i];
+        sortedCounts[distinct++] = 1;
+      }
+    }
+    this.name = name;
+    this.symbols = Arrays.copyOf(sortedSymbols, distinct);
+    this.counts = Arrays.copyOf(sortedCounts, distinct);
+    this.ingredientCount = all.length;
+    this.output = output;
+    this.outputCount = outputCount;
+    this.description = description;
+  }
+
+  /**
+   * Hashes a multiset in canonical form. Equal multisets hash alike however they were
+   * gathered.
+   *
+   * @param symbols The distinct symbols, sorted
+   * @param counts  The count of each symbol
+   * @param length  The number of distinct symbols
+   * @return The hash
+   */
+  static long hash(int[] symbols, int[] counts, int length) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int i = 0; i < length; i++) {
+      h = (h ^ symbols[i]) * 0xBF58476D1CE4E5B9L;
+      h = (h ^ counts[i]) * 0x94D049BB133111EBL;
+      h ^= h >>> 29;
+    }
+    return h;
+  }
+
+  long hash() {
+    return hash(symbols, counts, symbols.length);
+  }
+
+  /**
+   * Checks whether the recipe takes exactly the given multiset.
+   */
+  boolean takes(int[] symbols, int[] counts, int length) {
+    if (length != this.symbols.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (symbols[i] != this.symbols[i] || counts[i] != this.counts[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the name of the recipe.
+   *
+   * @return The name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of distinct ingredients.
+   *
+   * @return The number of distinct ingredients
+   */
+  public int getIngredientKinds() {
+    return symbols.length;
+  }
+
+  /**
+   * Gets the symbol of one distinct ingredient.
+   *
+   * @param i The index, from 0 to {@link #getIngredientKinds()} - 1
+   * @return The name symbol
+   */
+  public int getIngredientSymbol(int i) {
+    return symbols[i];
+  }
+
+  /**
+   * Gets how many copies of one distinct ingredient the recipe takes.
+   *
+   * @param i The index, from 0 to {@link #getIngredientKinds()} - 1
+   * @return The count
+   */
+  public int getIngredientCount(int i) {
+    return counts[i];
+  }
+
+  /**
+   * Gets the total number of items the recipe consumes.
+   *
+   * @return The number of ingredients, counting copies
+   */
+  public int getIngredientTotal() {
+    return ingredientCount;
+  }
+
+  /**
+   * Gets the item the recipe makes.
+   *
+   * @return The output definition
+   */
+  public ItemDefinition getOutput() {
+    return output;
+  }
+
+  /**
+   * Gets how many copies of the output the recipe makes.
+   *
+   * @return The output count
+   */
+  public int getOutputCount() {
+    return outputCount;
+  }
+
+  /**
+   * Gets what the player sees when crafting.
+   *
+   * @return The description, or null
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  @Override
+  public String toString() {
+    return "Recipe [name=" + name + ", output=" + output.getName() + " x" + outputCount + "]";
+  }
+}
@@ -0,0 +1,315 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The recipes of one crafting station, indexed by the multiset of ingredients each takes.
+ *
+ * <p>Recipes live in an open-addressing table keyed by a hash of their canonical
+ * ingredient multiset, so finding the recipe for a set of items is one probe whatever
+ * the number of recipes. To craft from whatever the player carries, the book looks only
+ * at carried items that some recipe uses, caps each count at the most any recipe needs,
+ * and probes every sub-multiset of that; the work depends on what the player carries,
+ * not on how many recipes the station knows. A player carrying many different
+ * ingredients has more sub-multisets than the station has recipes, and then the book
+ * checks each recipe against the inventory instead, so a lookup costs the smaller of
+ * the two. When several recipes match, the one that uses the most items wins.
+ *
+ * <p>Lookups reuse scratch arrays, so a book must not be used by two threads at once.
+ */
+public class RecipeBook {
+  private final ItemInstances instances;
+  private final SymbolMap<Integer> mostNeeded;
+  private Recipe[] table;
+  private long[] hashes;
+  private int size;
+
+  private int[] held;
+  private int[] heldSymbols;
+  private int[] chosen;
+  private int[] symbols;
+  private int[] counts;
+
+  /**
+   * Constructs an empty recipe book.
+   *
+   * @param instances The store crafted items are created in
+   * @throws IllegalArgumentException if instances is null
+   */
+  public RecipeBook(ItemInstances instances) {
+    if (instances == null) {
+      throw new IllegalArgumentException("Item store cannot be null");
+    }
+    this.instances = instances;
+    this.mostNeeded = new SymbolMap<>();
+    this.table = new Recipe[16];
+    this.hashes = new long[16];
+    this.held = new int[8];
+    this.heldSymbols = new int[8];
+    this.chosen = new int[8];
+    this.symbols = new int[8];
+    this.counts = new int[8];
+  }
+
+  /**
+   * Adds a recipe.
+   *
+   * @param recipe The recipe
+   * @throws IllegalArgumentException if another recipe takes the same ingredients
+   */
+  public void add(Recipe recipe) {
+    int kinds = recipe.getIngredientKinds();
+    int[] recipeSymbols = new int[kinds];
+    int[] recipeCounts = new int[kinds];
+    for (int i = 0; i < kinds; i++) {
+      recipeSymbols[i] = recipe.getIngredientSymbol(i);
+      recipeCounts[i] = recipe.getIngredientCount(i);
+    }
+    Recipe clash = find(recipeSymbols, recipeCounts, kinds);
+    if (clash != null) {
+      throw new IllegalArgumentException("Recipes " + clash.getName() + " and "
+              + recipe.getName() + " take the same ingredients");
+    }
+    if (2 * (size + 1) > table.length) {
+      resize(table.length * 2);
+    }
+    insert(recipe, recipe.hash());
+    size++;
+    for (int i = 0; i < kinds; i++) {
+      Integer most = mostNeeded.get(recipeSymbols[i]);
+      if (most == null || most < recipeCounts[i]) {
+        mostNeeded.put(recipeSymbols[i], recipeCounts[i]);
+      }
+    }
+  }
+
+  private void insert(Recipe recipe, long hash) {
+    int mask = table.length - 1;
+    int slot = slotOf(hash) & mask;
+    while (table[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = recipe;
+    hashes[slot] = hash;
+  }
+
+  private void resize(int capacity) {
+    Recipe[] oldTable = table;
+    long[] oldHashes = hashes;
+    table = new Recipe[capacity];
+    hashes = new long[capacity];
+    for (int i = 0; i < oldTable.length; i++) {
+      if (oldTable[i] != null) {
+        insert(oldTable[i], oldHashes[i]);
+      }
+    }
+  }
+
+  private static int slotOf(long hash) {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * Gets the number of recipes.
+   *
+   * @return The recipe count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Finds the recipe that takes exactly the given multiset.
+   *
+   * @param symbols The distinct ingredient symbols, sorted in increasing order
+   * @param counts  The count of each symbol
+   * @param length  The number of distinct symbols
+   * @return The recipe, or null if none takes that multiset
+   */
+  public Recipe find(int[] symbols, int[] counts, int length) {
+    long hash = Recipe.hash(symbols, counts, length);
+    int mask = table.length - 1;
+    for (int slot = slotOf(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash && table[slot].takes(symbols, counts, length)) {
+        return table[slot];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the recipe that uses the most of what an inventory holds.
+   *
+   * @param inventory The inventory
+   * @return The recipe, or null if nothing can be crafted from it
+   */
+  public Recipe findFor(Inventory inventory) {
+    // Gather carried ingredients, capped at the most any recipe takes, sorted by symbol
+    int kinds = 0;
+    long probes = 1;
+    for (Inventory.Stack stack : inventory.getStacks()) {
+      int symbol = stack.getDefinition().getSymbol();
+      Integer most = mostNeeded.get(symbol);
+      if (most == null) {
+        continue;
+      }
+      ensureScratch(kinds + 1);
+      int count = Math.min(stack.getCount(), most);
+      int at = kinds++;
+      while (at > 0 && heldSymbols[at - 1] > symbol) {
+        heldSymbols[at] = heldSymbols[at - 1];
+        held[at] = held[at - 1];
+        at--;
+      }
+      heldSymbols[at] = symbol;
+      held[at] = count;
+      // Stop counting once it is clear the recipes are fewer
+      probes = probes > size ? probes : probes * (count + 1);
+    }
+    if (kinds == 0) {
+      return null;
+    }
+    if (probes > size) {
+      return bestCovered(kinds);
+    }
+
+    // Count through every sub-multiset in mixed radix
+    Recipe best = null;
+    for (int i = 0; i < kinds; i++) {
+      chosen[i] = 0;
+    }
+    while (true) {
+      int digit = 0;
+      while (digit < kinds && chosen[digit] == held[digit]) {
+        chosen[digit++] = 0;
+      }
+      if (digit == kinds) {
+        return best;
+      }
+      chosen[digit]++;
+      int length = 0;
+      for (int i = 0; i < kinds; i++) {
+        if (chosen[i] > 0) {
+          symbols[length] = heldSymbols[i];
+          counts[length++] = chosen[i];
+        }
+      }
+      Recipe found = find(symbols, counts, length);
+      if (found != null
+              && (best == null || found.getIngredientTotal() > best.getIngredientTotal())) {
+        best = found;
+      }
+    }
+  }
+
+  /**
+   * Finds the largest recipe whose every ingredient is among the held ones, checking
+   * each recipe in turn.
+   */
+  private Recipe bestCovered(int kinds) {
+    Recipe best = null;
+    for (Recipe recipe : table) {
+      if (recipe == null
+              || (best != null && recipe.getIngredientTotal() <= best.getIngredientTotal())) {
+        continue;
+      }
+      boolean covered = true;
+      for (int i = 0; i < recipe.getIngredientKinds() && covered; i++) {
+        int at = Arrays.binarySearch(heldSymbols, 0, kinds, recipe.getIngredientSymbol(i));
+        covered = at >= 0 && held[at] >= recipe.getIngredientCount(i);
+      }
+      if (covered) {
+        best = recipe;
+      }
+    }
+    return best;
+  }
+
+  private void ensureScratch(int kinds) {
+    if (kinds > held.length) {
+      int capacity = Math.max(kinds, held.length * 2);
+      held = Arrays.copyOf(held, capacity);
+      heldSymbols = Arrays.copyOf(heldSymbols, capacity);
+      chosen = Arrays.copyOf(chosen, capacity);
+      symbols = Arrays.copyOf(symbols, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+    }
+  }
+
+  /**
+   * Crafts the best recipe the player's inventory allows.
+   *
+   * @param player The player
+   * @return The recipe crafted, or null if nothing could be crafted
+   */
+  public Recipe craft(Player player) {
+    Recipe recipe = findFor(player.getInventoryStore());
+    if (recipe != null) {
+      make(player, recipe);
+    }
+    return recipe;
+  }
+
+  /**
+   * Crafts with exactly the named ingredients, which the player must be carrying.
+   *
+   * @param player      The player
+   * @param ingredients The ingredient names, repeated for each copy
+   * @return The recipe crafted, or null if the player lacks an ingredient or no recipe
+   *         takes exactly those items
+   */
+  public Recipe craft(Player player, List<? extends CharSequence> ingredients) {
+    ensureScratch(ingredients.size());
+    int length = 0;
+    for (CharSequence name : ingredients) {
+      int symbol = Symbols.lookup(name);
+      if (symbol == Symbols.NONE) {
+        return null;
+      }
+      int at = 0;
+      while (at < length && symbols[at] < symbol) {
+        at++;
+      }
+      if (at < length && symbols[at] == symbol) {
+        counts[at]++;
+        continue;
+      }
+      System.arraycopy(symbols, at, symbols, at + 1, length - at);
+      System.arraycopy(counts, at, counts, at + 1, length - at);
+      symbols[at] = symbol;
+      counts[at] = 1;
+      length++;
+    }
+    Inventory inventory = player.getInventoryStore();
+    for (int i = 0; i < length; i++) {
+      if (inventory.count(symbols[i]) < counts[i]) {
+        return null;
+      }
+    }
+    Recipe recipe = find(symbols, counts, length);
+    if (recipe != null) {
+      make(player, recipe);
+    }
+    return recipe;
+  }
+
+  /**
+   * Consumes a recipe's ingredients from the player and hands over its output. Output
+   * the player cannot carry is left in the player's room.
+   */
+  private void make(Player player, Recipe recipe) {
+    Inventory inventory = player.getInventoryStore();
+    for (int i = 0; i < recipe.getIngredientKinds(); i++) {
+      for (int n = 0; n < recipe.getIngredientCount(i); n++) {
+        inventory.remove(inventory.find(recipe.getIngredientSymbol(i)));
+      }
+    }
+    for (int n = 0; n < recipe.getOutputCount(); n++) {
+      Item made = instances.create(recipe.getOutput());
+      if (!player.addToInventory(made)) {
+        player.getCurrentRoom().addItem(made);
+      }
+    }
+  }
+}
@@ -10,41 +10,53 @@ import java.util.Objects;
 public class Room {
   private final String room_name;
   private final String room_number;
-  private final String description;
+  private final Texts texts;
+  private final int description;
   private final int N;
   private final int S;
   private final int E;
   private final int W;
+  private final int location;
   private final Map<Direction, String> exitRoomNumbers;
   private final Map<Direction, Room> exits;
   private final List<Item> items;
   private final List<Fixture> fixtures;
-  private final Map<String, Fixture> fixtureMap;
-  private final Map<String, Item> itemMap;
+  private final SymbolMap<Fixture> fixtureMap;
+  private final SymbolMap<Item> itemMap;
   private Puzzle puzzleObj;
   private Monster monsterObj;
   private String picture;
+  private int version;
+  private String view;
+  private int viewSplit;
+  private long viewKey = -1;
 
   // ✅ NEW: 9-argument constructor to match the scenario usage
   public Room(String room_name, String room_number, String description,
               Map<Direction, String> exitRoomNumbers,
               int field1, int field2, int itemsField, int i, String field3, String picture) {
+    this(room_name, room_number, description, exitRoomNumbers, picture, Texts.shared());
+  }
+
+  /** Constructs a room whose description is kept in a world's own text store. */
+  Room(String room_name, String room_number, String description,
+       Map<Direction, String> exitRoomNumbers, String picture, Texts texts) {
     this.room_name = room_name;
     this.room_number = room_number;
-    this.description = description;
+    this.texts = texts;
+    this.description = texts.store(description);
     this.exitRoomNumbers = (exitRoomNumbers != null) ? exitRoomNumbers : new HashMap<>();
     this.N = parseExitAsInt(exitRoomNumbers.get(Direction.NORTH));
     this.S = parseExitAsInt(exitRoomNumbers.get(Direction.SOUTH));
     this.E = parseExitAsInt(exitRoomNumbers.get(Direction.EAST));
     this.W = parseExitAsInt(exitRoomNumbers.get(Direction.WEST));
+    this.location = parseExitAsInt(room_number);
     this.items = new ArrayList<>();
     this.fixtures = new ArrayList<>();
     this.exits = new HashMap<>();
-    this.fixtureMap = new HashMap<>();
-    this.itemMap = new HashMap<>();
+    this.fixtureMap = new SymbolMap<>();
+    this.itemMap = new SymbolMap<>();
     this.picture = picture;
-
-    // You can optionally use itemsField and field3 here
   }
 
   /** Parses string to int or returns 0. */
@@ -59,7 +71,7 @@ public class Room {
 
   public String getRoomName() { return room_name; }
   public String getRoomNumber() { return room_number; }
-  public String getDescription() { return description; }
+  public String getDescription() { return texts.get(description); }
   public int getNorth() { return N; }
   public int getSouth() { return S; }
   public int getEast() { return E; }
@@ -70,13 +82,13 @@ public class Room {
   public void addFixture(Fixture fixture) {
     if (fixture != null) {
       fixtures.add(fixture);
-      fixtureMap.put(fixture.getName(), fixture);
+      fixtureMap.put(fixture.getSymbol(), fixture);
     }
   }
 
   public boolean removeFixture(Fixture fixture) {
     if (fixture != null) {
-      fixtureMap.remove(fixture.getName());
+      fixtureMap.remove(fixture.getSymbol());
       return fixtures.remove(fixture);
     }
     return false;
@@ -85,34 +97,67 @@ public class Room {
   public void addItem(Item item) {
     if (item != null) {
       items.add(item);
-      itemMap.put(item.getName().toUpperCase(), item);
+      version++;
+      itemMap.putIfAbsent(item.getSymbol(), item);
+      item.setLocation(location);
     }
   }
 
   public void removeItem(Item item) {
-    if (item != null) {
-      itemMap.remove(item.getName());
-      items.remove(item);
+    if (item != null && items.remove(item)) {
+      version++;
+      int key = item.getSymbol();
+      if (itemMap.get(key) == item) {
+        // Another copy with the same name may still be here
+        itemMap.remove(key);
+        for (Item other : items) {
+          if (other.getSymbol() == key) {
+            itemMap.put(key, other);
+            break;
+          }
+        }
+      }
+      if (item.getLocation() == location) {
+        item.setLocation(ItemInstances.NOWHERE);
+      }
     }
   }
 
   public void clearItems() {
+    for (Item item : items) {
+      if (item.getLocation() == location) {
+        item.setLocation(ItemInstances.NOWHERE);
+      }
+    }
     items.clear();
+    version++;
     itemMap.clear();
   }
 
-  public Item getItem(String name) {
-    return itemMap.get(name.toUpperCase());
+  public Item getItem(CharSequence name) {
+    return itemMap.get(name);
   }
 
   public List<Item> getItems() {
     return new ArrayList<>(items);
   }
 
-  public void setPuzzle(Puzzle puzzle) { this.puzzleObj = puzzle; }
+  public void setPuzzle(Puzzle puzzle) {
+    this.puzzleObj = puzzle;
+    version++;
+    if (puzzle != null) {
+      puzzle.setRoom(location);
+    }
+  }
   public Puzzle getPuzzle() { return puzzleObj; }
 
-  public void setMonster(Monster monster) { this.monsterObj = monster; }
+  public void setMonster(Monster monster) {
+    this.monsterObj = monster;
+    version++;
+    if (monster != null) {
+      monster.setRoom(location);
+    }
+  }
   public Monster getMonster() { return monsterObj; }
 
   public void setExit(Direction direction, Room neighbor) {
@@ -137,7 +182,31 @@ public class Room {
 
   public String getName() { return room_name; }
 
-  public Fixture getFixture(String target) {
+  /** Gets the room number as an int, or 0 if it is not numeric. */
+  public int getLocation() { return location; }
+
+  /** Gets a counter that changes whenever items, the puzzle or the monster change. */
+  public int getVersion() { return version; }
+
+  /** Gets the cached rendering of the room, or null if it was cached under another key. */
+  public String getCachedView(long key) {
+    return key == viewKey ? view : null;
+  }
+
+  /** Gets where in the cached rendering a monster's strike is shown. */
+  public int getCachedViewSplit() { return viewSplit; }
+
+  /**
+   * Caches a rendering of the room under a key derived from its version, with the
+   * offset where a monster's strike goes, or the text's length if none does.
+   */
+  public void cacheView(long key, String text, int split) {
+    this.viewKey = key;
+    this.view = text;
+    this.viewSplit = split;
+  }
+
+  public Fixture getFixture(CharSequence target) {
     return fixtureMap.get(target);
   }
 
@@ -145,7 +214,7 @@ public class Room {
   public String toString() {
     return "Room [room_name=" + room_name
             + ", room_number=" + room_number
-            + ", description=" + description
+            + ", description=" + getDescription()
             + ", N=" + N + ", S=" + S + ", E=" + E + ", W=" + W
             + ", puzzle=" + puzzleObj + ", monster=" + monsterObj
             + ", items=" + items + ", fixtures=" + fixtures
@@ -158,7 +227,7 @@ public class Room {
     if (!(o instanceof Room room)) return false;
     return room_number.equals(room.room_number)
             && room_name.equals(room.room_name)
-            && description.equals(room.description);
+            && description == room.description;
   }
 
   @Override
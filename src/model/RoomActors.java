@@ -0,0 +1,216 @@
+package model;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a shared world as one actor per room, with no locks around rooms.
+ *
+ * <p>Each room has a mailbox. Everything that reads or changes a room, such as a
+ * player's command in that room, is sent to the mailbox with {@link #tell(Room,
+ * Runnable)}. The actor runs its messages one at a time and in order, so only one
+ * logical thread ever touches a room. A move is a hand-off: the command runs on the
+ * room the player leaves, and whatever comes after it is sent on to the room they
+ * enter.
+ *
+ * <p>Actors run on a work-stealing {@link ForkJoinPool}. A mailbox is only scheduled
+ * while it has messages, and it gives its thread back after a batch, so a busy room
+ * cannot starve the others. An idle room has no task and no thread. Its mailbox is
+ * created the first time something is sent to the room.
+ *
+ * <p>To use actors, install them with {@link GameWorld#setRoomGuard(RoomGuard)} before
+ * any command runs. As a guard, they only check that a command runs on its room's
+ * actor. State that belongs to no room, such as the rules, stays behind the world's
+ * own lock.
+ */
+public class RoomActors implements RoomGuard, Closeable {
+  /** Messages an actor runs before it gives its thread back. */
+  static final int BATCH = 64;
+
+  private final ForkJoinPool pool;
+  private final boolean ownsPool;
+  private final Map<String, Mailbox> mailboxes;
+  // The mailbox this thread is running messages for, if any
+  private final ThreadLocal<Mailbox> running;
+
+  /**
+   * Constructs actors on a pool of their own.
+   *
+   * @param parallelism The number of threads in the pool
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public RoomActors(int parallelism) {
+    this(new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+            null, true), true);
+  }
+
+  /**
+   * Constructs actors on a pool someone else owns and shuts down.
+   *
+   * @param pool The pool
+   */
+  public RoomActors(ForkJoinPool pool) {
+    this(pool, false);
+  }
+
+  private RoomActors(ForkJoinPool pool, boolean ownsPool) {
+    this.pool = pool;
+    this.ownsPool = ownsPool;
+    this.mailboxes = new ConcurrentHashMap<>();
+    this.running = new ThreadLocal<>();
+  }
+
+  /**
+   * Sends a message to a room's actor. It runs after every message sent to the room
+   * before it.
+   *
+   * @param room    The room
+   * @param message What to run on the room's actor
+   */
+  public void tell(Room room, Runnable message) {
+    mailboxes.computeIfAbsent(room.getRoomNumber(), number -> new Mailbox()).tell(message);
+  }
+
+  /**
+   * Checks whether the current thread is running a room's actor.
+   *
+   * @param room The room
+   * @return true if messages for the room are being run by this thread
+   */
+  public boolean isRunning(Room room) {
+    Mailbox mailbox = running.get();
+    return mailbox != null && mailbox == mailboxes.get(room.getRoomNumber());
+  }
+
+  /**
+   * Gets the number of rooms that have had a message.
+   *
+   * @return The number of mailboxes
+   */
+  public int getMailboxCount() {
+    return mailboxes.size();
+  }
+
+  /**
+   * Checks that the current thread runs the actor of the player's room.
+   *
+   * @param player The player
+   * @return The player's current room
+   * @throws IllegalStateException if called off the room's actor
+   */
+  @Override
+  public Room lock(Player player) {
+    Room room = player.getCurrentRoom();
+    if (!isRunning(room)) {
+      throw new IllegalStateException("Room " + room.getRoomNumber()
+              + " can only be used from its own actor");
+    }
+    return room;
+  }
+
+  /**
+   * Does nothing: the actor keeps its room.
+   *
+   * @param room The room
+   */
+  @Override
+  public void unlock(Room room) {
+    // Nothing to release
+  }
+
+  /**
+   * Does nothing. The room being entered belongs to another actor, and the command
+   * only moves the player into it. What comes next should be sent to that actor.
+   *
+   * @param held  The room the command runs in
+   * @param other The room being entered
+   * @return true
+   */
+  @Override
+  public boolean lockAlso(Room held, Room other) {
+    return true;
+  }
+
+  /**
+   * Does nothing: the actor keeps its room.
+   *
+   * @param a The room the command ran in
+   * @param b The room entered
+   */
+  @Override
+  public void unlock(Room a, Room b) {
+    // Nothing to release
+  }
+
+  /**
+   * Runs a change now if this thread is the room's actor, and otherwise sends it there.
+   *
+   * @param room   The room to change
+   * @param change The change
+   */
+  @Override
+  public void apply(Room room, Runnable change) {
+    if (isRunning(room)) {
+      change.run();
+    } else {
+      tell(room, change);
+    }
+  }
+
+  /**
+   * Shuts down the pool if these actors made it. Messages not yet run are dropped.
+   */
+  @Override
+  public void close() {
+    if (ownsPool) {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * One room's queue of messages, scheduled on the pool only while it has any.
+   */
+  private final class Mailbox implements Runnable {
+    private final Queue<Runnable> messages = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private void tell(Runnable message) {
+      messages.add(message);
+      if (scheduled.compareAndSet(false, true)) {
+        pool.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      running.set(this);
+      try {
+        for (int i = 0; i < BATCH; i++) {
+          Runnable message = messages.poll();
+          if (message == null) {
+            break;
+          }
+          try {
+            message.run();
+          } catch (RuntimeException e) {
+            // One bad message must not stop the room
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+          }
+        }
+      } finally {
+        running.remove();
+        scheduled.set(false);
+        // A message may have arrived after the last poll but before the flag was cleared
+        if (!messages.isEmpty() && scheduled.compareAndSet(false, true)) {
+          pool.execute(this);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package model;
+
+/**
+ * Keeps players sharing a world from changing the same room at the same time.
+ *
+ * <p>A command takes the guard for its player's room before touching the room, and a
+ * move also takes the room it enters. A change that one room's action makes to another
+ * room goes through {@link #apply(Room, Runnable)}, which never waits. Two guards come
+ * with the model: {@link RoomLocks}, where a command takes its room's lock on whatever
+ * thread runs it, and {@link RoomActors}, where the command already runs on its room's
+ * actor and taking the guard only checks that.
+ */
+public interface RoomGuard {
+  /**
+   * Takes the room a player is in.
+   *
+   * @param player The player
+   * @return The room now held, which is the player's current room
+   */
+  Room lock(Player player);
+
+  /**
+   * Lets go of a room taken with {@link #lock(Player)}.
+   *
+   * @param room The room
+   */
+  void unlock(Room room);
+
+  /**
+   * Takes a second room while holding the first.
+   *
+   * @param held  The room already held
+   * @param other The room to take as well
+   * @return true if the held room was kept the whole time; if false, the caller must
+   *         check again whatever it read while holding the first room
+   */
+  boolean lockAlso(Room held, Room other);
+
+  /**
+   * Lets go of two rooms taken with {@link #lockAlso(Room, Room)}.
+   *
+   * @param a The room held first
+   * @param b The room taken as well
+   */
+  void unlock(Room a, Room b);
+
+  /**
+   * Changes a room now if that is safe, and otherwise as soon as whoever holds it lets
+   * go. Never waits.
+   *
+   * @param room   The room to change
+   * @param change The change
+   */
+  void apply(Room room, Runnable change);
+}
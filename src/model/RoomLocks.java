@@ -0,0 +1,226 @@
+package model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks that let several players share a world without one global lock.
+ *
+ * <p>Each room maps to one of a fixed number of stripes by its room number. Whoever
+ * reads or changes a room's items, puzzle or monster holds that room's stripe, so
+ * players in different rooms almost never wait for each other. A move needs the rooms
+ * on both sides. To rule out deadlock, a thread only ever waits for a higher stripe than
+ * the ones it holds. If it needs a lower stripe, it tries for it without waiting. If
+ * that fails, it lets go and takes both stripes again in order.
+ *
+ * <p>Sometimes a room changes because of something that happened elsewhere, for example
+ * a rule that opens a door in another room. That change must not wait for the other
+ * room's stripe. If the stripe is free, the change runs at once. Otherwise it is queued
+ * on the stripe, and the queue is emptied by whoever holds the stripe, before they
+ * release it or right after the next thread takes it. So anyone holding a room's stripe
+ * sees every change queued before they took it.
+ */
+public class RoomLocks implements RoomGuard {
+  private final Stripe[] stripes;
+  private final int mask;
+
+  /**
+   * One lock and the changes queued for whoever holds it.
+   */
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Constructs locks with enough stripes for the machine's processors.
+   */
+  public RoomLocks() {
+    this(Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * Constructs locks with at least the given number of stripes, rounded up to a power
+   * of two.
+   *
+   * @param stripes The minimum number of stripes
+   * @throws IllegalArgumentException if stripes is not positive
+   */
+  public RoomLocks(int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    int size = Integer.highestOneBit(stripes);
+    if (size < stripes) {
+      size <<= 1;
+    }
+    this.stripes = new Stripe[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new Stripe();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Gets the stripe a room maps to. Rooms next to each other are usually numbered
+   * next to each other, so they get different stripes.
+   *
+   * @param room The room
+   * @return The stripe index
+   */
+  int stripeOf(Room room) {
+    int h = room.getLocation() != 0 ? room.getLocation() : room.getRoomNumber().hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Gets the number of stripes.
+   *
+   * @return The stripe count
+   */
+  public int getStripeCount() {
+    return stripes.length;
+  }
+
+  /**
+   * Waits for a room's stripe.
+   *
+   * @param room The room
+   */
+  public void lock(Room room) {
+    int stripe = stripeOf(room);
+    stripes[stripe].lock.lock();
+    runPending(stripe);
+  }
+
+  /**
+   * Locks the room a player is in. The player's room is read again after locking, in
+   * case the player moved while this thread was waiting.
+   *
+   * @param player The player
+   * @return The room now locked, which is the player's current room
+   */
+  @Override
+  public Room lock(Player player) {
+    while (true) {
+      Room room = player.getCurrentRoom();
+      lock(room);
+      if (player.getCurrentRoom() == room) {
+        return room;
+      }
+      unlock(room);
+    }
+  }
+
+  /**
+   * Releases a room's stripe.
+   *
+   * @param room The room
+   */
+  @Override
+  public void unlock(Room room) {
+    int stripe = stripeOf(room);
+    runPending(stripe);
+    stripes[stripe].lock.unlock();
+  }
+
+  /**
+   * Waits for the stripes of two rooms, lower stripe first.
+   *
+   * @param a One room
+   * @param b The other room
+   */
+  public void lock(Room a, Room b) {
+    int first = stripeOf(a);
+    int second = stripeOf(b);
+    if (first == second) {
+      lock(a);
+      return;
+    }
+    stripes[Math.min(first, second)].lock.lock();
+    stripes[Math.max(first, second)].lock.lock();
+    runPending(first);
+    runPending(second);
+  }
+
+  /**
+   * Takes a second room's stripe while already holding the first. If waiting for it
+   * could deadlock, the held stripe is let go and both are taken again in order, and
+   * the caller must check again whatever it read under the first.
+   *
+   * @param held  A room whose stripe this thread holds once
+   * @param other The room to lock as well
+   * @return true if the held stripe was kept the whole time
+   */
+  @Override
+  public boolean lockAlso(Room held, Room other) {
+    int first = stripeOf(held);
+    int second = stripeOf(other);
+    if (first == second) {
+      return true;
+    }
+    if (second > first) {
+      stripes[second].lock.lock();
+    } else if (!stripes[second].lock.tryLock()) {
+      unlock(held);
+      lock(held, other);
+      return false;
+    }
+    runPending(second);
+    return true;
+  }
+
+  /**
+   * Releases the stripes of two rooms locked together, by {@link #lock(Room, Room)} or
+   * by {@link #lockAlso(Room, Room)}.
+   *
+   * @param a One room
+   * @param b The other room
+   */
+  @Override
+  public void unlock(Room a, Room b) {
+    if (stripeOf(a) != stripeOf(b)) {
+      unlock(b);
+    }
+    unlock(a);
+  }
+
+  /**
+   * Changes a room now if its stripe is free or already held by this thread, or queues
+   * the change for whoever holds it. Never waits.
+   *
+   * @param room   The room to change
+   * @param change The change
+   */
+  @Override
+  public void apply(Room room, Runnable change) {
+    int stripe = stripeOf(room);
+    ReentrantLock lock = stripes[stripe].lock;
+    // Queued first either way, so changes to a room keep their order
+    stripes[stripe].pending.add(change);
+    if (lock.isHeldByCurrentThread()) {
+      runPending(stripe);
+    } else if (lock.tryLock()) {
+      runPending(stripe);
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checks whether this thread holds a room's stripe.
+   *
+   * @param room The room
+   * @return true if the stripe is held by the current thread
+   */
+  public boolean isHeldByCurrentThread(Room room) {
+    return stripes[stripeOf(room)].lock.isHeldByCurrentThread();
+  }
+
+  private void runPending(int stripe) {
+    Runnable change;
+    while ((change = stripes[stripe].pending.poll()) != null) {
+      change.run();
+    }
+  }
+}
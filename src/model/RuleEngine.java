@@ -0,0 +1,430 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The declarative rules of a world: when something happens, if some conditions hold,
+ * do some actions.
+ *
+ * <p>Rules are written in the world file as short strings. A rule is triggered by an
+ * event, such as {@code "solved:Lock"} or {@code "enter:4"}. It has conditions:
+ * <ul>
+ *   <li>{@code carrying:<item>}</li>
+ *   <li>{@code flag:<name>}</li>
+ *   <li>{@code in_room:<room>}</li>
+ *   <li>{@code room_has:<room>:<item>}</li>
+ *   <li>{@code solved:<puzzle>}</li>
+ *   <li>{@code defeated:<monster>}</li>
+ *   <li>{@code health_below:<n>}</li>
+ * </ul>
+ * Any condition can be negated with a leading {@code !}. The rule's actions are:
+ * <ul>
+ *   <li>{@code unblock:<room>:<N|S|E|W>}</li>
+ *   <li>{@code spawn:<room>:<item>}</li>
+ *   <li>{@code heal:<n>}</li>
+ *   <li>{@code damage:<n>}</li>
+ *   <li>{@code score:<n>}</li>
+ *   <li>{@code set:<flag>}</li>
+ *   <li>{@code clear:<flag>}</li>
+ *   <li>{@code say:<text>}</li>
+ * </ul>
+ *
+ * <p>Each rule is compiled once, when it is added. Names are resolved to rooms, symbols
+ * and flag bits, and the strings become a chain of predicates and actions. Rules are
+ * filed by event and subject, so firing an event only looks at the rules it can
+ * trigger, however many rules the world has. A rule fires once unless it is marked
+ * repeatable. Flags and spent rules are bits in one {@link BitSet}, which saved games
+ * store by name. A spent rule is named after its trigger, conditions and actions, so
+ * adding or reordering rules in the world file does not mark the wrong ones as spent.
+ */
+public class RuleEngine {
+  private final GameWorld world;
+  private final Map<RuleEvent, SymbolMap<List<Rule>>> index;
+  private final Map<String, Integer> bits;
+  private final List<String> bitNames;
+  private final BitSet state;
+  // Item symbols some rule spawns, and exits (room number times 4 plus direction) it opens
+  private final BitSet spawnable;
+  private final BitSet unblockable;
+  private final StringBuilder log;
+  private int ruleCount;
+
+  /**
+   * One compiled rule.
+   */
+  private static final class Rule {
+    private final Predicate<GameWorld> condition;
+    private final List<Consumer<GameWorld>> actions;
+    private final int spentBit;
+
+    private Rule(Predicate<GameWorld> condition, List<Consumer<GameWorld>> actions,
+                 int spentBit) {
+      this.condition = condition;
+      this.actions = actions;
+      this.spentBit = spentBit;
+    }
+  }
+
+  /**
+   * Constructs an engine with no rules.
+   *
+   * @param world The world rules read and change
+   */
+  public RuleEngine(GameWorld world) {
+    this.world = world;
+    this.index = new EnumMap<>(RuleEvent.class);
+    for (RuleEvent event : RuleEvent.values()) {
+      index.put(event, new SymbolMap<>());
+    }
+    this.bits = new HashMap<>();
+    this.bitNames = new ArrayList<>();
+    this.state = new BitSet();
+    this.spawnable = new BitSet();
+    this.unblockable = new BitSet();
+    this.log = new StringBuilder();
+  }
+
+  /**
+   * Compiles a rule and files it under its triggering event.
+   *
+   * @param on         The trigger, such as "solved:Lock"
+   * @param conditions The conditions, all of which must hold
+   * @param actions    The actions, run in order
+   * @param repeatable Whether the rule may fire more than once
+   * @throws IllegalArgumentException if any part of the rule cannot be understood
+   */
+  public void add(String on, List<String> conditions, List<String> actions,
+                  boolean repeatable) {
+    String[] trigger = split(on, 2);
+    RuleEvent event;
+    try {
+      event = RuleEvent.valueOf(trigger[0].toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown rule trigger: " + on);
+    }
+    Predicate<GameWorld> condition = w -> true;
+    for (String text : conditions) {
+      condition = condition.and(compileCondition(text));
+    }
+    List<Consumer<GameWorld>> compiled = new ArrayList<>(actions.size());
+    for (String text : actions) {
+      compiled.add(compileAction(text));
+    }
+    int spent = repeatable ? -1 : bit(spentName(on, conditions, actions));
+    ruleCount++;
+    SymbolMap<List<Rule>> bySubject = index.get(event);
+    int subject = Symbols.intern(trigger[1]);
+    List<Rule> rules = bySubject.get(subject);
+    if (rules == null) {
+      rules = new ArrayList<>(1);
+      bySubject.put(subject, rules);
+    }
+    rules.add(new Rule(condition, compiled, spent));
+  }
+
+  /**
+   * Names the spent marker of a one-shot rule after its declaration. A second rule with
+   * the very same declaration gets a numbered copy of the name.
+   */
+  private String spentName(String on, List<String> conditions, List<String> actions) {
+    String declared = "#" + on.trim() + " if " + String.join(", ", conditions)
+            + " do " + String.join(", ", actions);
+    String name = declared;
+    for (int copy = 2; bits.containsKey(name); copy++) {
+      name = declared + " #" + copy;
+    }
+    return name;
+  }
+
+  private Predicate<GameWorld> compileCondition(String text) {
+    String trimmed = text.trim();
+    if (trimmed.startsWith("!")) {
+      return compileCondition(trimmed.substring(1)).negate();
+    }
+    String[] parts = split(trimmed, 2);
+    String arg = parts[1];
+    switch (parts[0].toLowerCase(Locale.ROOT)) {
+      case "carrying": {
+        int symbol = Symbols.intern(arg);
+        return w -> w.getActor().getInventoryStore().count(symbol) > 0;
+      }
+      case "flag": {
+        int flag = bit(arg);
+        return w -> state.get(flag);
+      }
+      case "in_room": {
+        Room room = room(arg);
+        return w -> w.getActor().getCurrentRoom() == room;
+      }
+      case "room_has": {
+        String[] where = split(arg, 2);
+        Room room = room(where[0]);
+        String item = where[1];
+        return w -> room.getItem(item) != null;
+      }
+      case "solved": {
+        Puzzle puzzle = world.getPuzzleByName(arg);
+        if (puzzle == null) {
+          throw new IllegalArgumentException("Unknown puzzle in rule: " + text);
+        }
+        return w -> !puzzle.isActive();
+      }
+      case "defeated": {
+        Monster monster = world.getMonsterByName(arg);
+        if (monster == null) {
+          throw new IllegalArgumentException("Unknown monster in rule: " + text);
+        }
+        return w -> !monster.isActive();
+      }
+      case "health_below": {
+        int health = number(arg, text);
+        return w -> w.getActor().getHealth() < health;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown rule condition: " + text);
+    }
+  }
+
+  private Consumer<GameWorld> compileAction(String text) {
+    String[] parts = split(text.trim(), 2);
+    String arg = parts[1];
+    switch (parts[0].toLowerCase(Locale.ROOT)) {
+      case "unblock": {
+        String[] where = split(arg, 2);
+        Room room = room(where[0]);
+        Direction direction = direction(where[1], text);
+        unblockable.set(exitBit(room, direction));
+        return w -> w.unblockExit(room, direction);
+      }
+      case "spawn": {
+        String[] where = split(arg, 2);
+        Room room = room(where[0]);
+        ItemDefinition item = world.getItemDefinition(where[1]);
+        if (item == null) {
+          throw new IllegalArgumentException("Unknown item in rule: " + text);
+        }
+        spawnable.set(item.getSymbol());
+        return w -> w.spawnItem(item, room);
+      }
+      case "heal": {
+        int amount = number(arg, text);
+        return w -> w.getActor().setHealth(w.getActor().getHealth() + amount);
+      }
+      case "damage": {
+        int amount = number(arg, text);
+        return w -> {
+          Player actor = w.getActor();
+          actor.takeDamage(amount);
+          w.getEvents().publish(WorldEventType.PLAYER_DAMAGED, actor, actor.getCurrentRoom(),
+                  "rule", amount);
+        };
+      }
+      case "score": {
+        int points = number(arg, text);
+        return w -> {
+          Player actor = w.getActor();
+          actor.addScore(points);
+          w.getEvents().publish(WorldEventType.SCORE_CHANGED, actor, actor.getCurrentRoom(),
+                  "rule", points);
+        };
+      }
+      case "set": {
+        int flag = bit(arg);
+        return w -> state.set(flag);
+      }
+      case "clear": {
+        int flag = bit(arg);
+        return w -> state.clear(flag);
+      }
+      case "say": {
+        String line = arg + "\n";
+        return w -> log.append(line);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown rule action: " + text);
+    }
+  }
+
+  private static String[] split(String text, int parts) {
+    String[] split = text.split(":", parts);
+    if (split.length < parts) {
+      throw new IllegalArgumentException("Rule part is missing an argument: " + text);
+    }
+    for (int i = 0; i < split.length; i++) {
+      split[i] = split[i].trim();
+    }
+    return split;
+  }
+
+  private Room room(String number) {
+    Room room = world.getRoom(number);
+    if (room == null) {
+      throw new IllegalArgumentException("Unknown room in rule: " + number);
+    }
+    return room;
+  }
+
+  private static Direction direction(String name, String text) {
+    for (Direction direction : Direction.values()) {
+      if (direction.name().equalsIgnoreCase(name)
+              || direction.name().substring(0, 1).equalsIgnoreCase(name)) {
+        return direction;
+      }
+    }
+    throw new IllegalArgumentException("Unknown direction in rule: " + text);
+  }
+
+  private static int exitBit(Room room, Direction direction) {
+    return room.getLocation() * Direction.values().length + direction.ordinal();
+  }
+
+  private static int number(String value, String text) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Expected a number in rule: " + text);
+    }
+  }
+
+  /**
+   * Gets the bit of a flag or spent marker, assigning one if it is new.
+   */
+  private int bit(String name) {
+    Integer known = bits.get(name);
+    if (known != null) {
+      return known;
+    }
+    int bit = bitNames.size();
+    bits.put(name, bit);
+    bitNames.add(name);
+    return bit;
+  }
+
+  /**
+   * Checks whether any rule listens for an event.
+   *
+   * @param event   The event
+   * @param subject Its subject
+   * @return true if some rule is filed under the event
+   */
+  public boolean hasRules(RuleEvent event, CharSequence subject) {
+    return index.get(event).get(subject) != null;
+  }
+
+  /**
+   * Fires an event, running every rule filed under it whose conditions hold.
+   *
+   * @param event   The event
+   * @param subject Its subject
+   * @return The number of rules that fired
+   */
+  public int fire(RuleEvent event, CharSequence subject) {
+    List<Rule> rules = index.get(event).get(subject);
+    if (rules == null) {
+      return 0;
+    }
+    int fired = 0;
+    for (int r = 0; r < rules.size(); r++) {
+      Rule rule = rules.get(r);
+      if ((rule.spentBit >= 0 && state.get(rule.spentBit)) || !rule.condition.test(world)) {
+        continue;
+      }
+      if (rule.spentBit >= 0) {
+        state.set(rule.spentBit);
+      }
+      for (int a = 0; a < rule.actions.size(); a++) {
+        rule.actions.get(a).accept(world);
+      }
+      fired++;
+    }
+    return fired;
+  }
+
+  /**
+   * Gets the number of rules.
+   *
+   * @return The rule count
+   */
+  public int size() {
+    return ruleCount;
+  }
+
+  /**
+   * Checks whether a flag is set.
+   *
+   * @param flag The flag name
+   * @return true if it is set
+   */
+  public boolean isSet(String flag) {
+    Integer bit = bits.get(flag);
+    return bit != null && state.get(bit);
+  }
+
+  /**
+   * Checks whether some rule can open an exit.
+   *
+   * @param room      The room
+   * @param direction The exit's direction
+   * @return true if a rule unblocks that exit
+   */
+  public boolean mayUnblock(Room room, Direction direction) {
+    return room.getLocation() > 0 && unblockable.get(exitBit(room, direction));
+  }
+
+  /**
+   * Checks whether some rule can create an item.
+   *
+   * @param symbol The item's name symbol
+   * @return true if a rule spawns that item
+   */
+  public boolean maySpawn(int symbol) {
+    return symbol >= 0 && spawnable.get(symbol);
+  }
+
+  /**
+   * Gets and clears what rules said since the last call.
+   *
+   * @return The lines, empty if no rule said anything
+   */
+  public String drainLog() {
+    String text = log.toString();
+    log.setLength(0);
+    return text;
+  }
+
+  /**
+   * Gets the names of every set flag and spent rule, for saving.
+   *
+   * @return The names
+   */
+  public List<String> getState() {
+    List<String> names = new ArrayList<>();
+    for (int bit = state.nextSetBit(0); bit >= 0; bit = state.nextSetBit(bit + 1)) {
+      names.add(bitNames.get(bit));
+    }
+    return names;
+  }
+
+  /**
+   * Replaces the set flags and spent rules with saved ones. Unknown names are ignored.
+   *
+   * @param names The names
+   */
+  public void restoreState(List<String> names) {
+    state.clear();
+    for (String name : names) {
+      Integer bit = bits.get(name);
+      if (bit != null) {
+        state.set(bit);
+      }
+    }
+  }
+}
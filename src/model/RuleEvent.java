@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * The moments a world rule can be triggered by. Each event has a subject: the puzzle,
+ * monster or item involved, or the number of the room entered.
+ */
+public enum RuleEvent {
+  /** A puzzle was solved; the subject is the puzzle's name. */
+  SOLVED,
+  /** A monster was defeated; the subject is the monster's name. */
+  DEFEATED,
+  /** The player entered a room; the subject is the room number. */
+  ENTER,
+  /** The player picked up an item; the subject is the item's name. */
+  TAKE,
+  /** The player used an item; the subject is the item's name. */
+  USE
+}
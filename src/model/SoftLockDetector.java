@@ -0,0 +1,391 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Notices, after each command, when the player can no longer finish the game: when the
+ * last use of a needed item is spent, or a needed item is left behind a one-way exit.
+ *
+ * <p>The detector builds a dependency graph once: every active puzzle that needs an item
+ * points to the item copies that could solve it, and every blocked exit points to the
+ * guards whose defeat would open it. A monster needs no item, since it can always be
+ * fought, so any monster the player can reach counts as beatable. Each turn it first
+ * takes a cheap fingerprint of the facts the graph depends on (the place and uses of
+ * the watched items, and which guards are active). Only if the fingerprint changed does
+ * it rerun the reachability check, a single worklist pass over the graph that costs
+ * time proportional to the number of rooms, exits and watched items.
+ *
+ * <p>The player's room is left out of the fingerprint. Rooms joined both ways by exits
+ * that were never blocked reach exactly the same rooms, so the graph's strongly
+ * connected components over those exits are found once, and a move inside the
+ * component the last check started from keeps its verdict. Only a move into another
+ * component, through a one-way or guarded exit, reruns the check.
+ *
+ * <p>The check is optimistic: it ignores weight juggling and turn order, so it can miss a
+ * dead end, but it never reports one that is not there. Items inside containers are
+ * assumed to be within reach. Items a recipe makes, a monster can drop or a rule can
+ * spawn are assumed to be available, and exits a rule can open are treated as open.
+ */
+public class SoftLockDetector {
+  private static final int NO_BLOCKER = -1;
+  private static final int UNOBTAINABLE = -2;
+
+  private final GameWorld world;
+  private Room[] rooms;
+  private int[] roomIndexByNumber;
+  private int[][] exitTarget;
+  private boolean[][] exitBlocked;
+  private int[] component;
+  private Item[] watched;
+  private int[] watchedSymbols;
+  private long fingerprint;
+  private int checkedComponent;
+  private String problem;
+
+  /**
+   * Constructs a detector and builds its dependency graph from the world's current state.
+   *
+   * @param world The world to watch
+   */
+  public SoftLockDetector(GameWorld world) {
+    this.world = world;
+    rebuild();
+  }
+
+  /**
+   * Rebuilds the dependency graph. Call this whenever the world's items or exits are
+   * replaced wholesale, as restoring a saved game does.
+   */
+  public void rebuild() {
+    List<Room> all = world.getRooms();
+    rooms = all.toArray(new Room[0]);
+    int highest = 0;
+    for (Room room : rooms) {
+      highest = Math.max(highest, room.getLocation());
+    }
+    roomIndexByNumber = new int[highest + 1];
+    Arrays.fill(roomIndexByNumber, -1);
+    for (int r = 0; r < rooms.length; r++) {
+      if (rooms[r].getLocation() > 0) {
+        roomIndexByNumber[rooms[r].getLocation()] = r;
+      }
+    }
+
+    Direction[] directions = Direction.values();
+    exitTarget = new int[rooms.length][directions.length];
+    exitBlocked = new boolean[rooms.length][directions.length];
+    for (int r = 0; r < rooms.length; r++) {
+      for (Direction direction : directions) {
+        int number = Integer.parseInt(rooms[r].getExitRoomNumber(direction));
+        exitTarget[r][direction.ordinal()] = indexOf(Math.abs(number));
+        // An exit some rule can open is optimistically treated as open
+        exitBlocked[r][direction.ordinal()] = number < 0
+                && !world.getRules().mayUnblock(rooms[r], direction);
+      }
+    }
+    component = openComponents();
+
+    // Watch every copy of every item some active puzzle needs
+    List<Integer> needed = new ArrayList<>();
+    for (Room room : rooms) {
+      int symbol = neededItem(room.getPuzzle());
+      if (symbol != Symbols.NONE) {
+        needed.add(symbol);
+      }
+    }
+    List<Item> items = new ArrayList<>();
+    for (Room room : rooms) {
+      collect(room.getItems(), needed, items);
+    }
+    collect(world.getPlayer().getInventory(), needed, items);
+    watched = items.toArray(new Item[0]);
+    watchedSymbols = needed.stream().mapToInt(Integer::intValue).distinct().toArray();
+    fingerprint = 0;
+    problem = null;
+  }
+
+  private static void collect(List<Item> from, List<Integer> needed, List<Item> into) {
+    for (Item item : from) {
+      if (needed.contains(item.getSymbol())) {
+        into.add(item);
+      }
+      Inventory contents = item.getContents();
+      if (contents != null) {
+        collect(contents.getItems(), needed, into);
+      }
+    }
+  }
+
+  private int indexOf(int roomNumber) {
+    return roomNumber > 0 && roomNumber < roomIndexByNumber.length
+            ? roomIndexByNumber[roomNumber] : -1;
+  }
+
+  /**
+   * Finds the strongly connected components of the rooms over exits that were never
+   * blocked, with an iterative Tarjan walk so long corridors cannot overflow the stack.
+   *
+   * @return The component number of each room
+   */
+  private int[] openComponents() {
+    int n = rooms.length;
+    int[] of = new int[n];
+    int[] order = new int[n];
+    int[] low = new int[n];
+    boolean[] onStack = new boolean[n];
+    int[] stack = new int[n];
+    int[] callRoom = new int[n];
+    int[] callExit = new int[n];
+    Arrays.fill(order, -1);
+    int visited = 0;
+    int components = 0;
+    int top = 0;
+    for (int root = 0; root < n; root++) {
+      if (order[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      callRoom[0] = root;
+      callExit[0] = 0;
+      order[root] = low[root] = visited++;
+      stack[top++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        int r = callRoom[depth];
+        if (callExit[depth] < exitTarget[r].length) {
+          int d = callExit[depth]++;
+          int target = exitTarget[r][d];
+          if (target < 0 || exitBlocked[r][d]) {
+            continue;
+          }
+          if (order[target] < 0) {
+            order[target] = low[target] = visited++;
+            stack[top++] = target;
+            onStack[target] = true;
+            depth++;
+            callRoom[depth] = target;
+            callExit[depth] = 0;
+          } else if (onStack[target]) {
+            low[r] = Math.min(low[r], order[target]);
+          }
+          continue;
+        }
+        if (low[r] == order[r]) {
+          int member;
+          do {
+            member = stack[--top];
+            onStack[member] = false;
+            of[member] = components;
+          } while (member != r);
+          components++;
+        }
+        depth--;
+        if (depth >= 0) {
+          int parent = callRoom[depth];
+          low[parent] = Math.min(low[parent], low[r]);
+        }
+      }
+    }
+    return of;
+  }
+
+  /**
+   * Gets the symbol of the item an active puzzle needs, if it needs one.
+   */
+  private static int neededItem(Puzzle puzzle) {
+    if (puzzle == null || !puzzle.isActive() || puzzle.requiresAnswer()) {
+      return Symbols.NONE;
+    }
+    return Symbols.lookup(puzzle.getSolution());
+  }
+
+  /**
+   * Checks whether the game can still be finished, doing real work only if something the
+   * answer depends on changed since the last check.
+   *
+   * @return A description of what can no longer be beaten, or null if the game can still
+   *         be finished
+   */
+  public String check() {
+    int start = indexOf(world.getPlayer().getCurrentRoom().getLocation());
+    if (start < 0) {
+      return null;
+    }
+    long current = fingerprint();
+    if (current != fingerprint || component[start] != checkedComponent) {
+      fingerprint = current;
+      checkedComponent = component[start];
+      problem = findProblem(start);
+    }
+    return problem;
+  }
+
+  /**
+   * Hashes every fact the verdict depends on, apart from where the player stands.
+   */
+  private long fingerprint() {
+    long hash = 1469598103934665603L;
+    for (Item item : watched) {
+      hash = (hash ^ item.getLocation()) * 1099511628211L;
+      hash = (hash ^ item.getUsesRemaining()) * 1099511628211L;
+    }
+    for (Room room : rooms) {
+      Puzzle puzzle = room.getPuzzle();
+      Monster monster = room.getMonster();
+      hash = (hash ^ (puzzle != null && puzzle.isActive() ? 1 : 0)) * 1099511628211L;
+      hash = (hash ^ (monster != null && monster.isActive() ? 2 : 0)) * 1099511628211L;
+    }
+    // Never 0, which means "not checked yet"
+    return hash == 0 ? 1 : hash;
+  }
+
+  /**
+   * Grows the set of reachable rooms and beatable guards from the player's room with one
+   * worklist. Reaching a room adds the uses of the watched items lying there; the first
+   * use of an item within reach wakes the puzzles waiting for it, whose rooms are then
+   * walked on. Then it reports the first active puzzle or monster still out of reach.
+   */
+  private String findProblem(int start) {
+    boolean[] reachable = new boolean[rooms.length];
+    boolean[] beatable = new boolean[rooms.length];
+    int[] queue = new int[rooms.length * 2];
+    int[] uses = new int[watchedSymbols.length];
+    List<List<Integer>> waiting = new ArrayList<>(watchedSymbols.length);
+    for (int s = 0; s < watchedSymbols.length; s++) {
+      waiting.add(new ArrayList<>(1));
+      int symbol = watchedSymbols[s];
+      if (world.isCraftable(symbol) || world.isLoot(symbol)
+              || world.getRules().maySpawn(symbol)) {
+        // Recipes, drops and rules are not modelled, so assume such items can always be had
+        uses[s] = Integer.MAX_VALUE;
+      }
+    }
+
+    // File the watched items by where they lie; carried ones are within reach already
+    int maxWeight = world.getPlayer().getMaxWeight();
+    int[] firstInRoom = new int[rooms.length];
+    int[] nextInRoom = new int[watched.length];
+    Arrays.fill(firstInRoom, -1);
+    for (int i = 0; i < watched.length; i++) {
+      Item item = watched[i];
+      if (item.getUsesRemaining() <= 0) {
+        continue;
+      }
+      int location = item.getLocation();
+      if (location == ItemInstances.IN_INVENTORY || location == ItemInstances.IN_CONTAINER) {
+        addUses(uses, symbolIndex(item.getSymbol()), item.getUsesRemaining());
+      } else if (location > 0 && Inventory.weightOf(item) <= maxWeight) {
+        int r = indexOf(location);
+        if (r >= 0) {
+          nextInRoom[i] = firstInRoom[r];
+          firstInRoom[r] = i;
+        }
+      }
+    }
+
+    int tail = 0;
+    reachable[start] = true;
+    queue[tail++] = start;
+    for (int head = 0; head < tail; head++) {
+      int r = queue[head];
+      if (!beatable[r]) {
+        // Take up what lies here, and see whether this room's guard can now be beaten
+        for (int i = firstInRoom[r]; i >= 0; i = nextInRoom[i]) {
+          int s = symbolIndex(watched[i].getSymbol());
+          if (uses[s] == 0) {
+            for (int woken : waiting.get(s)) {
+              beatable[woken] = true;
+              queue[tail++] = woken;
+            }
+            waiting.get(s).clear();
+          }
+          addUses(uses, s, watched[i].getUsesRemaining());
+        }
+        int blocker = blocker(rooms[r]);
+        if (blocker == NO_BLOCKER || (blocker >= 0 && uses[blocker] > 0)) {
+          beatable[r] = true;
+        } else if (blocker >= 0) {
+          waiting.get(blocker).add(r);
+        }
+      }
+      for (int d = 0; d < exitTarget[r].length; d++) {
+        int target = exitTarget[r][d];
+        if (target >= 0 && !reachable[target] && (!exitBlocked[r][d] || beatable[r])) {
+          reachable[target] = true;
+          queue[tail++] = target;
+        }
+      }
+    }
+
+    for (int r = 0; r < rooms.length; r++) {
+      Puzzle puzzle = rooms[r].getPuzzle();
+      if (puzzle != null && puzzle.isActive() && !(reachable[r] && (puzzle.requiresAnswer()
+              || usesOf(uses, Symbols.lookup(puzzle.getSolution())) > 0))) {
+        return describe(puzzle.getName(), puzzle.getSolution(), reachable[r]);
+      }
+      Monster monster = rooms[r].getMonster();
+      if (monster != null && monster.isActive() && !reachable[r]) {
+        return "the " + monster.getName().toLowerCase() + " can no longer be reached";
+      }
+    }
+    for (int s = 0; s < watchedSymbols.length; s++) {
+      int needers = 0;
+      for (Room room : rooms) {
+        needers += neededItem(room.getPuzzle()) == watchedSymbols[s] ? 1 : 0;
+      }
+      if (needers > uses[s]) {
+        return "there are not enough uses of the " + Symbols.lowerName(watchedSymbols[s])
+                + " left for everything that needs it";
+      }
+    }
+    return null;
+  }
+
+  private static void addUses(int[] uses, int s, int more) {
+    uses[s] = (int) Math.min(Integer.MAX_VALUE, (long) uses[s] + more);
+  }
+
+  private int symbolIndex(int symbol) {
+    for (int s = 0; s < watchedSymbols.length; s++) {
+      if (watchedSymbols[s] == symbol) {
+        return s;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the index of the watched item a room's guard is waiting for. A reachable
+   * monster can always be fought, and a riddle only needs its answer.
+   *
+   * @return The index, {@link #NO_BLOCKER} if the room has no guard that needs an item,
+   *         or {@link #UNOBTAINABLE} if its puzzle needs an item the world never had
+   */
+  private int blocker(Room room) {
+    Monster monster = room.getMonster();
+    Puzzle puzzle = room.getPuzzle();
+    if ((monster != null && monster.isActive()) || puzzle == null || !puzzle.isActive()
+            || puzzle.requiresAnswer()) {
+      return NO_BLOCKER;
+    }
+    int s = symbolIndex(Symbols.lookup(puzzle.getSolution()));
+    return s >= 0 ? s : UNOBTAINABLE;
+  }
+
+  /**
+   * Gets the uses within reach of an item, 0 if it is not watched at all.
+   */
+  private int usesOf(int[] uses, int symbol) {
+    int s = symbolIndex(symbol);
+    return s >= 0 ? uses[s] : 0;
+  }
+
+  private static String describe(String name, String solution, boolean reachable) {
+    return reachable
+            ? "the " + name.toLowerCase() + " needs the " + solution.toLowerCase()
+                    + ", and there is none left within reach"
+            : "the " + name.toLowerCase() + " can no longer be reached";
+  }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link RandomSource} backed by {@link SplittableRandom}.
+ * It is not thread-safe; give each session or worker its own instance,
+ * usually by calling {@link #split()}.
+ */
+public class SplittableRandomSource implements RandomSource {
+  private final SplittableRandom random;
+
+  /**
+   * Constructs a source with an unpredictable seed.
+   */
+  public SplittableRandomSource() {
+    this(new SplittableRandom());
+  }
+
+  /**
+   * Constructs a source that always produces the same sequence for the same seed.
+   *
+   * @param seed The seed
+   */
+  public SplittableRandomSource(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private SplittableRandomSource(SplittableRandom random) {
+    this.random = random;
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  @Override
+  public long nextLong() {
+    return random.nextLong();
+  }
+
+  @Override
+  public double nextDouble() {
+    return random.nextDouble();
+  }
+
+  @Override
+  public RandomSource split() {
+    return new SplittableRandomSource(random.split());
+  }
+}
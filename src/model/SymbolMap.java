@@ -0,0 +1,218 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small open-addressing map from {@link Symbols} symbols to values.
+ * Keys are plain ints, so lookups neither box nor allocate. Lookups by name go
+ * through the global symbol table first, so "key", "Key" and " KEY" all find
+ * the same entry.
+ *
+ * @param <V> The value type
+ */
+public class SymbolMap<V> {
+  private static final int EMPTY = -1;
+  private static final int REMOVED = -2;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+  private int used;
+
+  /**
+   * Constructs an empty map.
+   */
+  public SymbolMap() {
+    this.keys = new int[8];
+    this.values = new Object[8];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * Gets the value for a symbol.
+   *
+   * @param symbol The symbol
+   * @return The value, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int symbol) {
+    if (symbol < 0) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    int slot = mix(symbol) & mask;
+    while (true) {
+      int key = keys[slot];
+      if (key == symbol) {
+        return (V) values[slot];
+      }
+      if (key == EMPTY) {
+        return null;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Gets the value for a name, ignoring case and surrounding whitespace.
+   *
+   * @param name The name
+   * @return The value, or null if there is none
+   */
+  public V get(CharSequence name) {
+    return get(Symbols.lookup(name));
+  }
+
+  /**
+   * Associates a value with a symbol, replacing any previous value. A negative symbol,
+   * such as {@link Symbols#NONE} for something without a name, is ignored, since it
+   * could never be looked up.
+   *
+   * @param symbol The symbol
+   * @param value  The value
+   * @return The previous value, or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int symbol, V value) {
+    if (symbol < 0) {
+      return null;
+    }
+    if ((used + 1) * 4 > keys.length * 3) {
+      resize(size * 2 >= keys.length / 2 ? keys.length * 2 : keys.length);
+    }
+    int mask = keys.length - 1;
+    int slot = mix(symbol) & mask;
+    int tombstone = -1;
+    while (true) {
+      int key = keys[slot];
+      if (key == symbol) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      if (key == REMOVED && tombstone < 0) {
+        tombstone = slot;
+      }
+      if (key == EMPTY) {
+        if (tombstone >= 0) {
+          slot = tombstone;
+        } else {
+          used++;
+        }
+        keys[slot] = symbol;
+        values[slot] = value;
+        size++;
+        return null;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Associates a value with a symbol only if it has none yet.
+   *
+   * @param symbol The symbol
+   * @param value  The value
+   */
+  public void putIfAbsent(int symbol, V value) {
+    if (get(symbol) == null) {
+      put(symbol, value);
+    }
+  }
+
+  /**
+   * Removes the value for a symbol. A negative symbol has no value to remove.
+   *
+   * @param symbol The symbol
+   * @return The removed value, or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int symbol) {
+    if (symbol < 0) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    int slot = mix(symbol) & mask;
+    while (true) {
+      int key = keys[slot];
+      if (key == symbol) {
+        V previous = (V) values[slot];
+        keys[slot] = REMOVED;
+        values[slot] = null;
+        size--;
+        return previous;
+      }
+      if (key == EMPTY) {
+        return null;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(values, null);
+    size = 0;
+    used = 0;
+  }
+
+  /**
+   * Gets the number of entries.
+   *
+   * @return The entry count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Copies the values into a new list, in no particular order.
+   *
+   * @return The values
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> values() {
+    List<V> copy = new ArrayList<>(size);
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] >= 0) {
+        copy.add((V) values[i]);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Rebuilds the table at the given capacity, dropping tombstones.
+   */
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[capacity];
+    values = new Object[capacity];
+    Arrays.fill(keys, EMPTY);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] >= 0) {
+        int slot = mix(oldKeys[i]) & mask;
+        while (keys[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+    used = size;
+  }
+
+  /**
+   * Spreads dense symbols across the table.
+   */
+  private static int mix(int symbol) {
+    return symbol * 0x9E3779B9 >>> 16 ^ symbol;
+  }
+}
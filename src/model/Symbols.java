@@ -0,0 +1,231 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A process-wide symbol table for entity names.
+ * Every distinct name is interned once, at load time, and gets a small int symbol.
+ * Names are matched ignoring case and surrounding whitespace, so "Key", " key " and
+ * "KEY" all share one symbol. Lookups hash the characters of any {@link CharSequence}
+ * in place, which lets the command path resolve a typed name with a single probe
+ * and no String allocation.
+ *
+ * <p>Interning is synchronized; lookups take no lock and may run concurrently with it.
+ */
+public final class Symbols {
+  /** Symbol returned when a name has never been interned. */
+  public static final int NONE = -1;
+
+  private static final Object LOCK = new Object();
+  private static volatile Table table = new Table(64);
+
+  private Symbols() {
+  }
+
+  /**
+   * The open-addressing table. Slots hold symbol + 1, so 0 means empty.
+   */
+  private static final class Table {
+    final int[] slots;
+    final int mask;
+    String[] keys;
+    String[] lowerNames;
+    int count;
+
+    Table(int capacity) {
+      this.slots = new int[capacity];
+      this.mask = capacity - 1;
+      this.keys = new String[capacity / 2];
+      this.lowerNames = new String[capacity / 2];
+    }
+  }
+
+  /**
+   * Interns a name, assigning it a symbol if it is new.
+   *
+   * @param name The name to intern
+   * @return The name's symbol
+   * @throws IllegalArgumentException if the name is null or blank
+   */
+  public static int intern(CharSequence name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Name cannot be null");
+    }
+    int start = trimStart(name, 0, name.length());
+    int end = trimEnd(name, start, name.length());
+    if (start == end) {
+      throw new IllegalArgumentException("Name cannot be empty");
+    }
+    synchronized (LOCK) {
+      Table current = table;
+      int existing = find(current, name, start, end);
+      if (existing != NONE) {
+        return existing;
+      }
+      if ((current.count + 1) * 2 > current.slots.length) {
+        current = rehash(current, current.slots.length * 2);
+      }
+      int symbol = current.count;
+      String trimmed = name.subSequence(start, end).toString();
+      current.keys[symbol] = foldAll(trimmed);
+      current.lowerNames[symbol] = trimmed.toLowerCase();
+      int slot = hash(name, start, end) & current.mask;
+      while (current.slots[slot] != 0) {
+        slot = (slot + 1) & current.mask;
+      }
+      current.slots[slot] = symbol + 1;
+      current.count++;
+      // Volatile write publishes the new entry to readers
+      table = current;
+      return symbol;
+    }
+  }
+
+  /**
+   * Looks up the symbol of a name without interning it.
+   *
+   * @param name The name, in any case and with any surrounding whitespace
+   * @return The symbol, or {@link #NONE} if the name was never interned
+   */
+  public static int lookup(CharSequence name) {
+    if (name == null) {
+      return NONE;
+    }
+    return lookup(name, 0, name.length());
+  }
+
+  /**
+   * Looks up the symbol of a region of a character sequence without interning it.
+   *
+   * @param text  The text holding the name
+   * @param start The index of the first character of the name
+   * @param end   The index just past the last character of the name
+   * @return The symbol, or {@link #NONE} if the name was never interned
+   */
+  public static int lookup(CharSequence text, int start, int end) {
+    int from = trimStart(text, start, end);
+    int to = trimEnd(text, from, end);
+    if (from == to) {
+      return NONE;
+    }
+    return find(table, text, from, to);
+  }
+
+  /**
+   * Gets the upper-case canonical spelling of a symbol.
+   *
+   * @param symbol The symbol
+   * @return The upper-case name
+   */
+  public static String name(int symbol) {
+    return table.keys[symbol];
+  }
+
+  /**
+   * Gets the lower-case spelling of a symbol, computed once when it was interned.
+   *
+   * @param symbol The symbol
+   * @return The lower-case name
+   */
+  public static String lowerName(int symbol) {
+    return table.lowerNames[symbol];
+  }
+
+  /**
+   * Probes the table for a trimmed region.
+   */
+  private static int find(Table t, CharSequence text, int start, int end) {
+    int slot = hash(text, start, end) & t.mask;
+    while (true) {
+      int entry = t.slots[slot];
+      if (entry == 0) {
+        return NONE;
+      }
+      String key = t.keys[entry - 1];
+      if (key != null && matches(key, text, start, end)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & t.mask;
+    }
+  }
+
+  /**
+   * Builds a larger table holding every existing symbol.
+   */
+  private static Table rehash(Table old, int capacity) {
+    Table grown = new Table(capacity);
+    grown.keys = Arrays.copyOf(old.keys, capacity / 2);
+    grown.lowerNames = Arrays.copyOf(old.lowerNames, capacity / 2);
+    grown.count = old.count;
+    for (int symbol = 0; symbol < old.count; symbol++) {
+      String key = old.keys[symbol];
+      int slot = hash(key, 0, key.length()) & grown.mask;
+      while (grown.slots[slot] != 0) {
+        slot = (slot + 1) & grown.mask;
+      }
+      grown.slots[slot] = symbol + 1;
+    }
+    return grown;
+  }
+
+  /**
+   * Hashes a region ignoring case.
+   */
+  private static int hash(CharSequence text, int start, int end) {
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + fold(text.charAt(i));
+    }
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Compares an upper-case key against a region ignoring case.
+   */
+  private static boolean matches(String key, CharSequence text, int start, int end) {
+    if (key.length() != end - start) {
+      return false;
+    }
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) != fold(text.charAt(start + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Folds a character to upper case, with a fast path for ASCII.
+   */
+  private static char fold(char c) {
+    if (c < 128) {
+      return (c >= 'a' && c <= 'z') ? (char) (c - 32) : c;
+    }
+    return Character.toUpperCase(c);
+  }
+
+  /**
+   * Folds every character of a string the same way lookups do.
+   */
+  private static String foldAll(String text) {
+    char[] chars = new char[text.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = fold(text.charAt(i));
+    }
+    return new String(chars);
+  }
+
+  private static int trimStart(CharSequence text, int start, int end) {
+    while (start < end && Character.isWhitespace(text.charAt(start))) {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(CharSequence text, int start, int end) {
+    while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+}
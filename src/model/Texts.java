@@ -0,0 +1,393 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compressed store for the long prose of a world: room descriptions, item
+ * descriptions, puzzle effects and the like. Each {@link GameWorld} has its own store,
+ * which goes away with the world. Objects built outside a world share
+ * {@link #shared()}.
+ *
+ * <p>These texts are most of the heap of a loaded world but are read only on look or
+ * examine. Each text is stored once, as UTF-8, and gets a small int handle. Texts
+ * are packed end to end into blocks of up to {@value #BLOCK_SIZE} bytes. When a
+ * block fills, it is deflated and moved into a direct buffer outside the Java heap.
+ * Related texts share a block, so a phrase repeated across rooms is compressed
+ * once. Every block is also primed with a preset dictionary of common adventure
+ * prose. Identical texts share one handle, so owners may compare handles instead of
+ * strings. Call {@link #flush()} once a world is loaded to compress the partly filled
+ * last block.
+ *
+ * <p>Storing is synchronized on the store. Reading takes no lock: a sealed block never
+ * changes, and each store or seal publishes a new snapshot of the tables. Each thread
+ * inflates with its own {@link Inflater} and keeps its last inflated block and a small
+ * cache of decoded strings, so repeated looks at the same room and reads of
+ * neighbouring texts cost no inflation. The per-thread state refers to stores only by
+ * id, so it never keeps a dropped world's texts alive.
+ */
+public final class Texts {
+  /** Handle of a missing (null) text. */
+  public static final int NONE = -1;
+
+  /** Most uncompressed bytes packed into one block. */
+  static final int BLOCK_SIZE = 16 * 1024;
+  private static final int CACHE_SIZE = 64;
+
+  /** Common fragments of adventure prose, most frequent last as deflate prefers. */
+  private static final byte[] DICTIONARY = ("puzzle monster solve answer health damage"
+          + " key lamp book table chair window wall floor ceiling stairs staircase hallway"
+          + " corridor kitchen library chamber dark light strange old ancient dusty"
+          + " It is There is a You see You can You feel You hear looks like seems to"
+          + " leads to the north south east west to the north. to the south. to the east."
+          + " to the west. The door is locked. The door is open. The room is you are in"
+          + " a door in the room of the and the . You ")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private static final AtomicLong IDS = new AtomicLong();
+  private static final Texts SHARED = new Texts();
+  private static final ThreadLocal<Reader> READERS = ThreadLocal.withInitial(Reader::new);
+
+  // Tells this store's blocks and texts apart in the per-thread caches
+  private final long id;
+
+  // Per text: UTF-8 hash, for sharing identical texts
+  private long[] textHash = new long[64];
+  private int[] textBlock = new int[64];
+  private int[] textStart = new int[64];
+  private int[] textLength = new int[64];
+  private int count;
+
+  // Open-addressing index from text hash to handle + 1
+  private int[] byHash = new int[128];
+
+  // Per sealed block: offset and length in the off-heap buffer, and uncompressed size
+  private int[] blockOffset = new int[4];
+  private int[] blockLength = new int[4];
+  private int[] blockRaw = new int[4];
+  private int blocks;
+  private ByteBuffer sealed;
+  private int sealedLength;
+
+  // The block still being filled, kept uncompressed on the heap
+  private byte[] open = new byte[256];
+  private int openLength;
+
+  // What readers see; replaced, never changed, by every store and seal
+  private volatile View view;
+
+  /**
+   * Constructs an empty store.
+   */
+  public Texts() {
+    this.id = IDS.incrementAndGet();
+    publish();
+  }
+
+  /**
+   * Gets the store shared by objects built outside a world, such as in scenarios and
+   * tests. Worlds use their own.
+   *
+   * @return The shared store
+   */
+  public static Texts shared() {
+    return SHARED;
+  }
+
+  /**
+   * Stores a text, or finds the handle of an identical one stored before.
+   *
+   * @param text The text, or null
+   * @return The text's handle, or {@link #NONE} for null
+   */
+  public int store(String text) {
+    if (text == null) {
+      return NONE;
+    }
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    long hash = hash(bytes);
+    synchronized (this) {
+      int mask = byHash.length - 1;
+      int slot = (int) (hash ^ (hash >>> 32)) & mask;
+      for (; byHash[slot] != 0; slot = (slot + 1) & mask) {
+        int known = byHash[slot] - 1;
+        if (textHash[known] == hash && text.equals(get(known))) {
+          return known;
+        }
+      }
+      if (bytes.length > BLOCK_SIZE - openLength && openLength > 0) {
+        seal();
+      }
+      if (openLength + bytes.length > open.length) {
+        open = Arrays.copyOf(open,
+                Math.max(openLength + bytes.length, Math.min(open.length * 2, BLOCK_SIZE)));
+      }
+      if (count == textBlock.length) {
+        int capacity = count * 2;
+        textBlock = Arrays.copyOf(textBlock, capacity);
+        textStart = Arrays.copyOf(textStart, capacity);
+        textLength = Arrays.copyOf(textLength, capacity);
+        textHash = Arrays.copyOf(textHash, capacity);
+      }
+      int handle = count++;
+      System.arraycopy(bytes, 0, open, openLength, bytes.length);
+      textBlock[handle] = blocks;
+      textStart[handle] = openLength;
+      textLength[handle] = bytes.length;
+      textHash[handle] = hash;
+      openLength += bytes.length;
+      byHash[slot] = handle + 1;
+      if (count * 2 > byHash.length) {
+        rehash(byHash.length * 2);
+      }
+      publish();
+      return handle;
+    }
+  }
+
+  /**
+   * Gets a stored text. Takes no lock.
+   *
+   * @param handle The handle from {@link #store(String)}
+   * @return The text, or null for {@link #NONE}
+   * @throws IllegalArgumentException if the handle is not from this store
+   */
+  public String get(int handle) {
+    if (handle == NONE) {
+      return null;
+    }
+    View snapshot = view;
+    if (handle < 0 || handle >= snapshot.count) {
+      throw new IllegalArgumentException("No text " + handle + " in this store");
+    }
+    Reader reader = READERS.get();
+    String text = reader.cached(id, handle);
+    if (text != null) {
+      return text;
+    }
+    int block = snapshot.textBlock[handle];
+    byte[] source = block == snapshot.blocks ? snapshot.open : reader.inflate(id, snapshot, block);
+    text = new String(source, snapshot.textStart[handle], snapshot.textLength[handle],
+            StandardCharsets.UTF_8);
+    reader.cache(id, handle, text);
+    return text;
+  }
+
+  /**
+   * Compresses the block being filled, so every text stored so far lives off the heap.
+   * The next text starts a new block.
+   */
+  public synchronized void flush() {
+    if (openLength > 0) {
+      seal();
+      publish();
+    }
+  }
+
+  /**
+   * Gets the number of distinct texts stored.
+   *
+   * @return The text count
+   */
+  public int size() {
+    return view.count;
+  }
+
+  /**
+   * Gets the total UTF-8 size of every distinct text.
+   *
+   * @return The uncompressed bytes
+   */
+  public synchronized long rawBytes() {
+    long total = openLength;
+    for (int b = 0; b < blocks; b++) {
+      total += blockRaw[b];
+    }
+    return total;
+  }
+
+  /**
+   * Gets the space the texts take: compressed blocks plus the block being filled.
+   *
+   * @return The stored bytes
+   */
+  public synchronized long storedBytes() {
+    return (long) sealedLength + openLength;
+  }
+
+  /**
+   * Deflates the open block into the off-heap buffer.
+   */
+  private void seal() {
+    byte[] compressed = new byte[Math.max(64, openLength / 2)];
+    int length = 0;
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setDictionary(DICTIONARY);
+      deflater.setInput(open, 0, openLength);
+      deflater.finish();
+      while (!deflater.finished()) {
+        if (length == compressed.length) {
+          compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        length += deflater.deflate(compressed, length, compressed.length - length);
+      }
+    } finally {
+      deflater.end();
+    }
+    if (sealed == null || sealed.capacity() - sealedLength < length) {
+      // Readers may still hold the old buffer, so copy rather than reuse it
+      ByteBuffer bigger = ByteBuffer.allocateDirect(
+              Math.max(sealed == null ? 0 : sealed.capacity() * 2, sealedLength + length));
+      if (sealed != null) {
+        bigger.put(0, sealed, 0, sealedLength);
+      }
+      sealed = bigger;
+    }
+    if (blocks == blockOffset.length) {
+      blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+      blockLength = Arrays.copyOf(blockLength, blocks * 2);
+      blockRaw = Arrays.copyOf(blockRaw, blocks * 2);
+    }
+    // Absolute puts only, so concurrent readers never see the buffer's position move
+    sealed.put(sealedLength, compressed, 0, length);
+    blockOffset[blocks] = sealedLength;
+    blockLength[blocks] = length;
+    blockRaw[blocks] = openLength;
+    sealedLength += length;
+    blocks++;
+    // A fresh array: readers of an older snapshot may still be reading the old one
+    openLength = 0;
+    open = new byte[256];
+  }
+
+  private void publish() {
+    view = new View(this);
+  }
+
+  private void rehash(int capacity) {
+    byHash = new int[capacity];
+    int mask = capacity - 1;
+    for (int handle = 0; handle < count; handle++) {
+      long hash = textHash[handle];
+      int slot = (int) (hash ^ (hash >>> 32)) & mask;
+      while (byHash[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      byHash[slot] = handle + 1;
+    }
+  }
+
+  /**
+   * FNV-1a over the UTF-8 bytes, widened to 64 bits.
+   */
+  private static long hash(byte[] bytes) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      h = (h ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    return h;
+  }
+
+  /**
+   * The tables as of one store or seal. Entries below the counts are never changed
+   * afterwards, so a reader can use a snapshot while the writer moves on.
+   */
+  private static final class View {
+    private final int count;
+    private final int[] textBlock;
+    private final int[] textStart;
+    private final int[] textLength;
+    private final int blocks;
+    private final int[] blockOffset;
+    private final int[] blockLength;
+    private final int[] blockRaw;
+    private final ByteBuffer sealed;
+    private final byte[] open;
+
+    private View(Texts texts) {
+      this.count = texts.count;
+      this.textBlock = texts.textBlock;
+      this.textStart = texts.textStart;
+      this.textLength = texts.textLength;
+      this.blocks = texts.blocks;
+      this.blockOffset = texts.blockOffset;
+      this.blockLength = texts.blockLength;
+      this.blockRaw = texts.blockRaw;
+      this.sealed = texts.sealed;
+      this.open = texts.open;
+    }
+  }
+
+  /**
+   * One thread's inflater, last inflated block and decoded strings.
+   */
+  private static final class Reader {
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[1024];
+    private byte[] decoded = new byte[BLOCK_SIZE];
+    private long decodedStore;
+    private int decodedBlock = -1;
+    private final long[] cachedStore = new long[CACHE_SIZE];
+    private final int[] cachedHandle = new int[CACHE_SIZE];
+    private final String[] cachedText = new String[CACHE_SIZE];
+
+    private static int slot(long store, int handle) {
+      return (int) (handle * 31 + store) & (CACHE_SIZE - 1);
+    }
+
+    private String cached(long store, int handle) {
+      int slot = slot(store, handle);
+      return cachedStore[slot] == store && cachedHandle[slot] == handle
+              ? cachedText[slot] : null;
+    }
+
+    private void cache(long store, int handle, String text) {
+      int slot = slot(store, handle);
+      cachedStore[slot] = store;
+      cachedHandle[slot] = handle;
+      cachedText[slot] = text;
+    }
+
+    private byte[] inflate(long store, View view, int block) {
+      if (store == decodedStore && block == decodedBlock) {
+        return decoded;
+      }
+      int length = view.blockLength[block];
+      int raw = view.blockRaw[block];
+      if (compressed.length < length) {
+        compressed = new byte[length];
+      }
+      view.sealed.get(view.blockOffset[block], compressed, 0, length);
+      if (decoded.length < raw) {
+        decoded = new byte[raw];
+      }
+      // Forget the old block first, in case this one turns out corrupt
+      decodedBlock = -1;
+      inflater.reset();
+      inflater.setInput(compressed, 0, length);
+      try {
+        int n = 0;
+        while (n < raw) {
+          int read = inflater.inflate(decoded, n, raw - n);
+          if (read == 0 && inflater.needsDictionary()) {
+            inflater.setDictionary(DICTIONARY);
+          } else if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+            throw new IllegalStateException("Text block " + block + " is truncated");
+          }
+          n += read;
+        }
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Text block " + block + " is corrupt", e);
+      }
+      decodedStore = store;
+      decodedBlock = block;
+      return decoded;
+    }
+  }
+}
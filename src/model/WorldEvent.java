@@ -0,0 +1,78 @@
+package model;
+
+/**
+ * One slot of a {@link WorldEventRing}. Slots are made once, with the ring, and
+ * overwritten as the ring wraps around, so publishing an event allocates nothing. A
+ * consumer must copy what it wants to keep before it returns from its handler.
+ */
+public final class WorldEvent {
+  private WorldEventType type;
+  private Player player;
+  private Room room;
+  private String subject;
+  private int amount;
+
+  WorldEvent() {
+  }
+
+  /**
+   * Overwrites the slot.
+   */
+  void set(WorldEventType type, Player player, Room room, String subject, int amount) {
+    this.type = type;
+    this.player = player;
+    this.room = room;
+    this.subject = subject;
+    this.amount = amount;
+  }
+
+  /**
+   * Gets the kind of change.
+   *
+   * @return The event type
+   */
+  public WorldEventType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the player involved.
+   *
+   * @return The player, or null if no player was involved
+   */
+  public Player getPlayer() {
+    return player;
+  }
+
+  /**
+   * Gets the room the change happened in.
+   *
+   * @return The room
+   */
+  public Room getRoom() {
+    return room;
+  }
+
+  /**
+   * Gets the name of the puzzle, monster, item or direction involved.
+   *
+   * @return The subject
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Gets the points or damage involved.
+   *
+   * @return The amount, or 0 if the event has none
+   */
+  public int getAmount() {
+    return amount;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + subject + " (" + amount + ")";
+  }
+}
@@ -0,0 +1,236 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The stream of things that change in a world, such as puzzles solved and monsters
+ * defeated, shared by every feature that wants to follow along.
+ *
+ * <p>This is a ring buffer in the style of the LMAX Disruptor. The ring's
+ * {@link WorldEvent} slots are made once. A publisher claims the next sequence number
+ * with one atomic increment, fills the slot in place and marks it published, so an
+ * event allocates nothing and publishers never lock. Each {@link Consumer} keeps its
+ * own sequence and reads in batches: everything published since its last read, in
+ * order, with the last event of a batch flagged so it can flush once. A publisher that
+ * would lap the slowest consumer waits for it. With no consumers, publishing costs one
+ * check and nothing is written.
+ *
+ * <p>A consumer must keep draining, on its own thread or from a loop it already runs,
+ * or be closed. Otherwise the world stops at the next lap.
+ */
+public class WorldEventRing {
+  private final WorldEvent[] slots;
+  private final int mask;
+  private final int shift;
+  // The lap each slot was last published in, so consumers know what is ready
+  private final AtomicIntegerArray published;
+  // The next sequence to claim
+  private final AtomicLong claimed;
+  private final CopyOnWriteArrayList<Consumer> consumers;
+  // The slowest consumer's sequence when last checked; only ever behind the truth
+  private volatile long gate;
+
+  /**
+   * Handles events as a consumer reads them.
+   */
+  public interface Handler {
+    /**
+     * Takes one event. The slot is reused once the handler returns.
+     *
+     * @param event      The event
+     * @param sequence   Its place in the stream
+     * @param endOfBatch true if it is the last event of this read
+     */
+    void onEvent(WorldEvent event, long sequence, boolean endOfBatch);
+  }
+
+  /**
+   * Constructs a ring with at least the given number of slots, rounded up to a power of
+   * two.
+   *
+   * @param size The minimum number of events that can be waiting
+   * @throws IllegalArgumentException if size is not positive
+   */
+  public WorldEventRing(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Ring size must be positive");
+    }
+    int capacity = Integer.highestOneBit(size);
+    if (capacity < size) {
+      capacity <<= 1;
+    }
+    this.slots = new WorldEvent[capacity];
+    this.published = new AtomicIntegerArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new WorldEvent();
+      published.set(i, -1);
+    }
+    this.mask = capacity - 1;
+    this.shift = Integer.numberOfTrailingZeros(capacity);
+    this.claimed = new AtomicLong();
+    this.consumers = new CopyOnWriteArrayList<>();
+    this.gate = -1;
+  }
+
+  /**
+   * Gets the number of slots.
+   *
+   * @return The ring's capacity
+   */
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  /**
+   * Checks whether anything is reading the stream.
+   *
+   * @return true if at least one consumer is open
+   */
+  public boolean hasConsumers() {
+    return !consumers.isEmpty();
+  }
+
+  /**
+   * Publishes an event to every consumer. Does nothing if there are none.
+   *
+   * @param type    The kind of change
+   * @param player  The player involved, or null
+   * @param room    The room it happened in
+   * @param subject The name of what was involved
+   * @param amount  The points or damage involved, or 0
+   */
+  public void publish(WorldEventType type, Player player, Room room, String subject,
+                      int amount) {
+    if (consumers.isEmpty()) {
+      return;
+    }
+    long sequence = claimed.getAndIncrement();
+    awaitRoom(sequence);
+    int index = (int) sequence & mask;
+    slots[index].set(type, player, room, subject, amount);
+    // Release: the slot's fields are visible before the lap number is
+    published.lazySet(index, (int) (sequence >>> shift));
+  }
+
+  /**
+   * Waits until the slowest consumer has read the event a lap before this one.
+   */
+  private void awaitRoom(long sequence) {
+    long wrap = sequence - slots.length;
+    if (wrap <= gate) {
+      return;
+    }
+    int spins = 0;
+    long slowest;
+    while (wrap > (slowest = slowest(sequence))) {
+      if (++spins < 100) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(1_000);
+      }
+    }
+    gate = slowest;
+  }
+
+  private long slowest(long sequence) {
+    long slowest = sequence - 1;
+    for (Consumer consumer : consumers) {
+      slowest = Math.min(slowest, consumer.sequence.get());
+    }
+    return slowest;
+  }
+
+  /**
+   * Adds a consumer. It sees every event claimed after it joins.
+   *
+   * @param handler What to do with each event
+   * @return The consumer, which must be drained or closed
+   */
+  public Consumer addConsumer(Handler handler) {
+    Consumer consumer = new Consumer(handler, claimed.get() - 1);
+    consumers.add(consumer);
+    return consumer;
+  }
+
+  /**
+   * One reader of the stream, with its own place in it.
+   */
+  public final class Consumer implements Runnable, AutoCloseable {
+    private final Handler handler;
+    // The last sequence handled
+    private final AtomicLong sequence;
+    private volatile boolean open;
+
+    private Consumer(Handler handler, long start) {
+      this.handler = handler;
+      this.sequence = new AtomicLong(start);
+      this.open = true;
+    }
+
+    /**
+     * Hands every event published since the last call to the handler, in one batch.
+     * Call from one thread at a time.
+     *
+     * @return The number of events handled
+     */
+    public int drain() {
+      long first = sequence.get() + 1;
+      long end = first;
+      while (end - first < slots.length
+              && published.get((int) end & mask) == (int) (end >>> shift)) {
+        end++;
+      }
+      long next = first;
+      try {
+        while (next < end) {
+          handler.onEvent(slots[(int) next & mask], next, next == end - 1);
+          next++;
+        }
+      } finally {
+        // A handler that throws skips its event rather than stopping the stream
+        long done = next < end ? next : end - 1;
+        sequence.lazySet(done);
+      }
+      return (int) (end - first);
+    }
+
+    /**
+     * Drains until closed, waiting briefly whenever nothing is ready. Run it on a
+     * thread of its own.
+     */
+    @Override
+    public void run() {
+      int idle = 0;
+      while (open) {
+        if (drain() > 0) {
+          idle = 0;
+        } else if (++idle < 100) {
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(100_000);
+        }
+      }
+    }
+
+    /**
+     * Gets the last sequence this consumer handled.
+     *
+     * @return The sequence, or -1 before the first event
+     */
+    public long getSequence() {
+      return sequence.get();
+    }
+
+    /**
+     * Leaves the stream. Publishers stop waiting for this consumer.
+     */
+    @Override
+    public void close() {
+      open = false;
+      consumers.remove(this);
+    }
+  }
+}
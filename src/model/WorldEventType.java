@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * The kinds of change published on a world's {@link WorldEventRing}. Each event has a
+ * player, a room, a subject and an amount; the comments say which apply.
+ */
+public enum WorldEventType {
+  /** A player solved a puzzle; the subject is the puzzle's name, the amount its points. */
+  PUZZLE_SOLVED,
+  /** A player defeated a monster; the subject is the monster's name, the amount its points. */
+  MONSTER_DEFEATED,
+  /** A player picked up an item; the subject is the item's name. */
+  ITEM_TAKEN,
+  /** A player dropped an item; the subject is the item's name. */
+  ITEM_DROPPED,
+  /** A blocked exit opened; the subject is the direction's name, and there may be no player. */
+  EXIT_UNBLOCKED,
+  /** A player lost health; the subject is what hurt them, the amount the damage. */
+  PLAYER_DAMAGED,
+  /** A player's score went up; the subject is why, the amount the points gained. */
+  SCORE_CHANGED
+}
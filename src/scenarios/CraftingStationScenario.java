@@ -2,6 +2,7 @@ package scenarios;
 
 import model.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,6 +57,14 @@ public class CraftingStationScenario {
             "A crafting station that is inactive until you have both Iron and Diamond."
     );
 
+    // Step 3b: Teach the station its recipe: Iron and Diamond make a Diamond Sword
+    ItemDefinition sword = new ItemDefinition("Diamond Sword", 2, 50, 50, 500,
+            "You swing the diamond sword.", "A gleaming sword with a diamond edge.");
+    RecipeBook recipes = new RecipeBook(new ItemInstances(4));
+    recipes.add(new Recipe("Diamond Sword", List.of("Iron", "Diamond"), sword, 1,
+            "The station hums as it fuses the iron and diamond into a blade."));
+    craftingStation.setRecipes(recipes);
+
     // Step 4: Show current inventory
     System.out.println("Current Inventory: " + player.getInventory());
 
@@ -0,0 +1,15 @@
+package scheduler;
+
+/**
+ * A source of time for a {@link TimingWheel}, counted in whole ticks.
+ * The clock only reports time; whoever owns the wheel advances it to {@link #now()}.
+ */
+public interface Clock {
+
+  /**
+   * Gets the current tick. Ticks never go backwards.
+   *
+   * @return The current tick
+   */
+  long now();
+}
@@ -0,0 +1,228 @@
+package scheduler;
+
+/**
+ * A hierarchical timing wheel: a scheduler for very many pending actions where
+ * scheduling and cancelling are O(1) no matter how many are pending.
+ *
+ * <p>The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots. Level 0 has one slot
+ * per tick, level 1 one slot per {@value #SLOTS} ticks, and so on. An action goes into
+ * the level whose span covers its delay, in a doubly linked list, so cancelling just
+ * unlinks it. When the lower levels wrap around, the next slot of the level above is
+ * emptied and its actions move down, so each action moves at most once per level.
+ * Delays longer than the whole wheel park in the top level and are moved again until
+ * they are due.
+ *
+ * <p>Time only moves when {@link #advanceTo(long)} is called, so the wheel can be driven by
+ * a {@link TurnClock} as well as a {@link WallClock}. The wheel is not thread-safe.
+ */
+public class TimingWheel {
+  private static final int BITS = 6;
+  private static final int SLOTS = 1 << BITS;
+  private static final int MASK = SLOTS - 1;
+  private static final int LEVELS = 4;
+  private static final long SPAN = 1L << (BITS * LEVELS);
+
+  private final Timeout[][] slots;
+  private long currentTick;
+  private int pending;
+
+  /**
+   * A scheduled action. Keep it to cancel the action before it runs.
+   */
+  public static final class Timeout {
+    private final Runnable action;
+    private final long deadline;
+    private TimingWheel wheel;
+    private int level;
+    private int slot;
+    private Timeout prev;
+    private Timeout next;
+
+    private Timeout(TimingWheel wheel, long deadline, Runnable action) {
+      this.wheel = wheel;
+      this.deadline = deadline;
+      this.action = action;
+    }
+
+    /**
+     * Gets the tick the action is due at.
+     *
+     * @return The deadline tick
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+
+    /**
+     * Checks whether the action is still waiting to run.
+     *
+     * @return true if it has neither run nor been cancelled
+     */
+    public boolean isPending() {
+      return wheel != null;
+    }
+
+    /**
+     * Stops the action from running.
+     *
+     * @return true if it was cancelled, false if it had already run or been cancelled
+     */
+    public boolean cancel() {
+      if (wheel == null) {
+        return false;
+      }
+      wheel.unlink(this);
+      wheel.pending--;
+      wheel = null;
+      return true;
+    }
+  }
+
+  /**
+   * Constructs an empty wheel at tick 0.
+   */
+  public TimingWheel() {
+    this(0L);
+  }
+
+  /**
+   * Constructs an empty wheel.
+   *
+   * @param startTick The tick the wheel starts at
+   */
+  public TimingWheel(long startTick) {
+    this.slots = new Timeout[LEVELS][SLOTS];
+    this.currentTick = startTick;
+  }
+
+  /**
+   * Schedules an action.
+   *
+   * @param delay  The number of ticks from now; delays below 1 run on the next tick
+   * @param action The action to run
+   * @return A handle for cancelling the action
+   * @throws IllegalArgumentException if action is null
+   */
+  public Timeout schedule(long delay, Runnable action) {
+    if (action == null) {
+      throw new IllegalArgumentException("Action cannot be null");
+    }
+    Timeout timeout = new Timeout(this, currentTick + Math.max(1L, delay), action);
+    place(timeout);
+    pending++;
+    return timeout;
+  }
+
+  /**
+   * Links a timeout into the level and slot that fit its remaining delay.
+   */
+  private void place(Timeout timeout) {
+    long remaining = timeout.deadline - currentTick;
+    long due = remaining < SPAN ? timeout.deadline : currentTick + SPAN - 1;
+    int level = 0;
+    while (level < LEVELS - 1 && due - currentTick >= 1L << (BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) (due >>> (BITS * level)) & MASK;
+    timeout.level = level;
+    timeout.slot = slot;
+    timeout.prev = null;
+    timeout.next = slots[level][slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    slots[level][slot] = timeout;
+  }
+
+  /**
+   * Removes a timeout from its slot list.
+   */
+  private void unlink(Timeout timeout) {
+    if (timeout.prev == null) {
+      slots[timeout.level][timeout.slot] = timeout.next;
+    } else {
+      timeout.prev.next = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+  }
+
+  /**
+   * Moves time forward, running every action that falls due on the way, in tick order.
+   * Actions may schedule or cancel other actions while they run.
+   *
+   * @param tick The tick to move to; earlier ticks are ignored
+   * @return The number of actions that ran
+   */
+  public int advanceTo(long tick) {
+    int ran = 0;
+    while (currentTick < tick) {
+      currentTick++;
+      cascade();
+      ran += expire(slots[0], (int) currentTick & MASK);
+    }
+    return ran;
+  }
+
+  /**
+   * Moves down the higher-level slots that start at the current tick, highest level first,
+   * so actions dropping out of one level can land in a slot that is moved next.
+   */
+  private void cascade() {
+    int top = 0;
+    while (top < LEVELS - 1 && (currentTick & ((1L << (BITS * (top + 1))) - 1)) == 0) {
+      top++;
+    }
+    for (int level = top; level >= 1; level--) {
+      Timeout[] row = slots[level];
+      int slot = (int) (currentTick >>> (BITS * level)) & MASK;
+      Timeout timeout;
+      while ((timeout = row[slot]) != null) {
+        unlink(timeout);
+        place(timeout);
+      }
+    }
+  }
+
+  /**
+   * Runs the actions in a level-0 slot that are due, and re-places any that are not.
+   * Each action is unlinked before it runs, so it may safely cancel the others.
+   */
+  private int expire(Timeout[] level0, int slot) {
+    int ran = 0;
+    Timeout timeout;
+    while ((timeout = level0[slot]) != null) {
+      unlink(timeout);
+      if (timeout.deadline > currentTick) {
+        place(timeout);
+      } else {
+        timeout.wheel = null;
+        pending--;
+        timeout.action.run();
+        ran++;
+      }
+    }
+    return ran;
+  }
+
+  /**
+   * Gets the tick the wheel has reached.
+   *
+   * @return The current tick
+   */
+  public long getCurrentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Gets the number of actions waiting to run.
+   *
+   * @return The pending action count
+   */
+  public int size() {
+    return pending;
+  }
+}
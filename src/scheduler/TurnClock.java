@@ -0,0 +1,35 @@
+package scheduler;
+
+/**
+ * A deterministic clock that moves one tick per game turn.
+ * Nothing happens between turns, so a run replays the same way every time,
+ * which also makes timers easy to test.
+ */
+public class TurnClock implements Clock {
+  private long tick;
+
+  @Override
+  public long now() {
+    return tick;
+  }
+
+  /**
+   * Moves the clock forward by one turn.
+   */
+  public void tick() {
+    tick++;
+  }
+
+  /**
+   * Moves the clock forward by several turns.
+   *
+   * @param turns The number of turns
+   * @throws IllegalArgumentException if turns is negative
+   */
+  public void advance(long turns) {
+    if (turns < 0) {
+      throw new IllegalArgumentException("Turns cannot be negative");
+    }
+    tick += turns;
+  }
+}
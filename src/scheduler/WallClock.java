@@ -0,0 +1,28 @@
+package scheduler;
+
+/**
+ * A clock that follows real time, counting fixed-length ticks since it was created.
+ */
+public class WallClock implements Clock {
+  private final long origin;
+  private final long tickNanos;
+
+  /**
+   * Constructs a clock starting at tick 0 now.
+   *
+   * @param tickMillis The length of one tick in milliseconds
+   * @throws IllegalArgumentException if tickMillis is not positive
+   */
+  public WallClock(long tickMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick length must be positive");
+    }
+    this.origin = System.nanoTime();
+    this.tickNanos = tickMillis * 1_000_000L;
+  }
+
+  @Override
+  public long now() {
+    return (System.nanoTime() - origin) / tickNanos;
+  }
+}
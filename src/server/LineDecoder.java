@@ -0,0 +1,92 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits the bytes read from a connection into lines of text, without a {@link
+ * java.util.Scanner}.
+ *
+ * <p>Bytes are gathered until a newline, a trailing carriage return is dropped, and the
+ * line is decoded from UTF-8 into a reused {@link CharBuffer}. A line arriving over
+ * several reads is stitched together. Lines longer than the limit are cut at the limit,
+ * so a client cannot make the decoder buffer without end. The view handed to the
+ * {@link Sink} is only valid during the call.
+ */
+public class LineDecoder {
+  /**
+   * Receives decoded lines.
+   */
+  public interface Sink {
+    /**
+     * Takes one line.
+     *
+     * @param line The line, without its line ending
+     * @return true to keep decoding, false to stop and ignore the rest of the input
+     * @throws IOException if handling the line fails
+     */
+    boolean line(CharSequence line) throws IOException;
+  }
+
+  private final byte[] pending;
+  private final ByteBuffer pendingView;
+  private final CharBuffer chars;
+  private final CharsetDecoder decoder;
+  private int length;
+  private boolean stopped;
+
+  /**
+   * Constructs a decoder.
+   *
+   * @param maxLineBytes The longest line kept, in bytes
+   * @throws IllegalArgumentException if maxLineBytes is not positive
+   */
+  public LineDecoder(int maxLineBytes) {
+    if (maxLineBytes <= 0) {
+      throw new IllegalArgumentException("Line limit must be positive");
+    }
+    this.pending = new byte[maxLineBytes];
+    this.pendingView = ByteBuffer.wrap(pending);
+    this.chars = CharBuffer.allocate(maxLineBytes);
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * Consumes every byte remaining in a buffer, handing each complete line to the sink.
+   * A partial last line is kept for the next call.
+   *
+   * @param in   The bytes read, flipped for reading
+   * @param sink Where lines go
+   * @return false if the sink asked to stop, now or earlier
+   * @throws IOException if the sink fails
+   */
+  public boolean decode(ByteBuffer in, Sink sink) throws IOException {
+    while (!stopped && in.hasRemaining()) {
+      byte b = in.get();
+      if (b == '\n') {
+        int end = length;
+        if (end > 0 && pending[end - 1] == '\r') {
+          end--;
+        }
+        length = 0;
+        chars.clear();
+        decoder.reset();
+        pendingView.limit(end).position(0);
+        decoder.decode(pendingView, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        stopped = !sink.line(chars);
+      } else if (length < pending.length) {
+        pending[length++] = b;
+      }
+    }
+    in.position(in.limit());
+    return !stopped;
+  }
+}
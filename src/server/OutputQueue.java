@@ -0,0 +1,122 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * The bytes waiting to go out on one connection.
+ *
+ * <p>The controller flushes each turn into the queue as if it were a channel. The
+ * queue copies those bytes into direct buffers, which the event loop later hands to
+ * the socket in one gathering write. A non-blocking socket may take only part of
+ * them, so whatever it does not take stays queued until the socket is writable again.
+ * Drained buffers are kept and reused.
+ */
+public class OutputQueue implements WritableByteChannel {
+  /** Bytes in each direct buffer. */
+  static final int CHUNK_SIZE = 8192;
+
+  private ByteBuffer[] chunks;
+  private int first;
+  private int count;
+  private ByteBuffer[] spare;
+  private int spareCount;
+  private boolean open;
+
+  /**
+   * Constructs an empty queue.
+   */
+  public OutputQueue() {
+    this.chunks = new ByteBuffer[4];
+    this.spare = new ByteBuffer[4];
+    this.open = true;
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    if (!open) {
+      throw new IOException("Connection is closed");
+    }
+    int written = src.remaining();
+    while (src.hasRemaining()) {
+      ByteBuffer tail = count == 0 ? null : chunks[first + count - 1];
+      if (tail == null || tail.limit() == tail.capacity()) {
+        tail = addChunk();
+      }
+      // Chunks stay ready for reading; new bytes go in past the limit
+      int end = tail.limit();
+      int n = Math.min(tail.capacity() - end, src.remaining());
+      tail.limit(end + n);
+      tail.put(end, src, src.position(), n);
+      src.position(src.position() + n);
+    }
+    return written;
+  }
+
+  private ByteBuffer addChunk() {
+    if (first + count == chunks.length) {
+      if (first > 0) {
+        System.arraycopy(chunks, first, chunks, 0, count);
+        Arrays.fill(chunks, count, first + count, null);
+        first = 0;
+      } else {
+        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      }
+    }
+    ByteBuffer chunk = spareCount > 0 ? spare[--spareCount] : ByteBuffer.allocateDirect(CHUNK_SIZE);
+    chunk.position(0).limit(0);
+    chunks[first + count++] = chunk;
+    return chunk;
+  }
+
+  /**
+   * Writes as much as the channel takes, in one gathering write.
+   *
+   * @param channel The connection
+   * @return true if the queue is now empty
+   * @throws IOException if the write fails
+   */
+  public boolean drainTo(GatheringByteChannel channel) throws IOException {
+    if (count == 0) {
+      return true;
+    }
+    channel.write(chunks, first, count);
+    while (count > 0 && !chunks[first].hasRemaining()) {
+      recycle(chunks[first]);
+      chunks[first++] = null;
+      count--;
+    }
+    if (count == 0) {
+      first = 0;
+    }
+    return count == 0;
+  }
+
+  private void recycle(ByteBuffer chunk) {
+    if (spareCount < spare.length) {
+      spare[spareCount++] = chunk;
+    }
+  }
+
+  /**
+   * Checks whether any bytes are waiting.
+   *
+   * @return true if the queue is empty
+   */
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+  }
+}
@@ -0,0 +1,286 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.GameWorld;
+
+/**
+ * A non-blocking front end that serves many game sessions from a few threads.
+ *
+ * <p>Each of N event loops owns a {@link Selector} and the sessions registered with
+ * it. Loop 0 also accepts connections and hands each one to the next loop in turn. A
+ * loop reads what each ready socket has, splits it into lines, pushes the lines
+ * through the session's controller, and sends the reply with a gathering write from
+ * direct buffers. No thread ever waits on a single player, so an idle session costs
+ * only its world and a few buffers.
+ *
+ * <p>Every session gets a fresh world from the factory. Worlds are loaded on a separate
+ * pool of loader threads and only then handed to a loop, so a slow factory delays the
+ * new player but never the players already connected.
+ */
+public class SelectorServer implements Closeable {
+  private final Callable<GameWorld> worlds;
+  private final ServerSocketChannel server;
+  private final EventLoop[] loops;
+  private final ExecutorService loader;
+  private final AtomicInteger sessions;
+  private int nextLoop;
+
+  /**
+   * Binds the server. Call {@link #start()} to begin serving.
+   *
+   * @param worlds  Makes each new session's world
+   * @param address The address to listen on; port 0 picks a free port
+   * @param threads The number of event loops
+   * @throws IOException if the address cannot be bound
+   * @throws IllegalArgumentException if threads is not positive
+   */
+  public SelectorServer(Callable<GameWorld> worlds, InetSocketAddress address, int threads)
+          throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("A server needs at least one event loop");
+    }
+    this.worlds = worlds;
+    this.sessions = new AtomicInteger();
+    this.loops = new EventLoop[threads];
+    for (int i = 0; i < threads; i++) {
+      loops[i] = new EventLoop(i);
+    }
+    this.loader = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "world-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server = ServerSocketChannel.open();
+    server.configureBlocking(false);
+    server.bind(address);
+    server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Starts the event loop threads.
+   */
+  public void start() {
+    for (EventLoop loop : loops) {
+      loop.thread.start();
+    }
+  }
+
+  /**
+   * Gets the address the server listens on.
+   *
+   * @return The bound address
+   * @throws IOException if the server is closed
+   */
+  public InetSocketAddress getAddress() throws IOException {
+    return (InetSocketAddress) server.getLocalAddress();
+  }
+
+  /**
+   * Gets the number of sessions currently connected.
+   *
+   * @return The session count
+   */
+  public int getSessionCount() {
+    return sessions.get();
+  }
+
+  /**
+   * Stops accepting, closes every session and waits for the loops to finish.
+   *
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    server.close();
+    loader.shutdownNow();
+    for (EventLoop loop : loops) {
+      loop.running = false;
+      loop.selector.wakeup();
+    }
+    for (EventLoop loop : loops) {
+      try {
+        loop.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = server.accept()) != null) {
+      channel.configureBlocking(false);
+      EventLoop loop = loops[nextLoop];
+      nextLoop = (nextLoop + 1) % loops.length;
+      SocketChannel accepted = channel;
+      try {
+        loader.execute(() -> load(accepted, loop));
+      } catch (RejectedExecutionException e) {
+        closeQuietly(accepted);
+      }
+    }
+  }
+
+  /**
+   * Makes a world for a new connection on a loader thread and hands both to a loop.
+   */
+  private void load(SocketChannel channel, EventLoop loop) {
+    try {
+      loop.adopt(new Arrival(channel, worlds.call()));
+    } catch (Exception e) {
+      closeQuietly(channel);
+    }
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // Already failing
+    }
+  }
+
+  /**
+   * A connection and the world loaded for it, waiting for its loop.
+   */
+  private static final class Arrival {
+    private final SocketChannel channel;
+    private final GameWorld world;
+
+    private Arrival(SocketChannel channel, GameWorld world) {
+      this.channel = channel;
+      this.world = world;
+    }
+  }
+
+  /**
+   * One selector thread and the sessions it owns.
+   */
+  private final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Arrival> arrivals;
+    // One read buffer per loop: a read is fully decoded before the next one starts
+    private final ByteBuffer in;
+    private volatile boolean running;
+
+    private EventLoop(int index) throws IOException {
+      this.selector = Selector.open();
+      this.thread = new Thread(this, "game-loop-" + index);
+      this.arrivals = new ConcurrentLinkedQueue<>();
+      this.in = ByteBuffer.allocateDirect(Session.MAX_LINE * 4);
+      this.running = true;
+    }
+
+    /**
+     * Hands a new connection and its world to this loop from any thread.
+     */
+    private void adopt(Arrival arrival) {
+      arrivals.add(arrival);
+      selector.wakeup();
+      if (!running) {
+        // The loop may already have drained its arrivals for the last time
+        dropArrivals();
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          registerArrivals();
+          Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+          while (ready.hasNext()) {
+            SelectionKey key = ready.next();
+            ready.remove();
+            handle(key);
+          }
+        }
+      } catch (IOException | ClosedSelectorException e) {
+        // The selector itself failed; fall through and drop this loop's sessions
+      } finally {
+        shutdown();
+      }
+    }
+
+    private void registerArrivals() {
+      Arrival arrival;
+      while ((arrival = arrivals.poll()) != null) {
+        try {
+          SelectionKey key = arrival.channel.register(selector, SelectionKey.OP_READ);
+          key.attach(new Session(arrival.channel, key, arrival.world, in));
+          sessions.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+          closeQuietly(arrival.channel);
+        }
+      }
+    }
+
+    private void dropArrivals() {
+      Arrival arrival;
+      while ((arrival = arrivals.poll()) != null) {
+        closeQuietly(arrival.channel);
+      }
+    }
+
+    private void handle(SelectionKey key) {
+      if (!key.isValid()) {
+        return;
+      }
+      if (key.isAcceptable()) {
+        try {
+          accept();
+        } catch (IOException e) {
+          // The listening socket was closed or the client went away mid-accept
+        }
+        return;
+      }
+      Session session = (Session) key.attachment();
+      try {
+        if (key.isReadable()) {
+          session.read();
+        } else if (key.isWritable()) {
+          session.send();
+        }
+      } catch (IOException | RuntimeException e) {
+        session.close();
+      }
+      if (session.isClosed()) {
+        sessions.decrementAndGet();
+      }
+    }
+
+    private void shutdown() {
+      dropArrivals();
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof Session session && !session.isClosed()) {
+          session.close();
+          sessions.decrementAndGet();
+        }
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        // Nothing left to release
+      }
+    }
+  }
+}
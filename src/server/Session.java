@@ -0,0 +1,118 @@
+package server;
+
+import controller.GameController;
+import controller.TurnOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import model.GameWorld;
+
+/**
+ * One player's connection: its game, the bytes read but not yet split into lines, and
+ * the output not yet sent.
+ *
+ * <p>A session is owned by one event loop and is only touched from that loop's thread.
+ * It never blocks. It reads what the socket has, feeds every complete line to the
+ * controller, and queues what the controller prints. When the game ends, the session
+ * sends the rest of the output and then closes.
+ *
+ * <p>Save and restore are turned off: every session has its own world, and one shared
+ * save file on the loop thread would both mix up players' games and block the loop.
+ */
+class Session {
+  /** Longest command kept, in bytes. */
+  static final int MAX_LINE = 1024;
+
+  private final SocketChannel channel;
+  private final SelectionKey key;
+  private final GameController controller;
+  private final LineDecoder lines;
+  private final OutputQueue output;
+  private final ByteBuffer in;
+  private boolean ending;
+
+  /**
+   * Starts a session: greets the player and asks for their name.
+   *
+   * @param channel The connection, already in non-blocking mode
+   * @param key     The connection's registration with the loop's selector
+   * @param world   The session's own world
+   * @param in      The loop's read buffer, shared by its sessions
+   * @throws IOException if the greeting cannot be queued
+   */
+  Session(SocketChannel channel, SelectionKey key, GameWorld world, ByteBuffer in)
+          throws IOException {
+    this.channel = channel;
+    this.key = key;
+    this.output = new OutputQueue();
+    this.controller = new GameController(world, new TurnOutput(output));
+    controller.setSaveFile(null);
+    this.lines = new LineDecoder(MAX_LINE);
+    this.in = in;
+    controller.step(null);
+    send();
+  }
+
+  /**
+   * Reads whatever has arrived and plays every complete line.
+   *
+   * @throws IOException if the connection fails
+   */
+  void read() throws IOException {
+    in.clear();
+    int n = channel.read(in);
+    if (n < 0) {
+      close();
+      return;
+    }
+    in.flip();
+    if (!ending && !lines.decode(in, this::play)) {
+      ending = true;
+    }
+    send();
+  }
+
+  private boolean play(CharSequence line) throws IOException {
+    return controller.step(line).isOpen();
+  }
+
+  /**
+   * Sends queued output, asking to be told when the socket can take more if it is full.
+   *
+   * @throws IOException if the connection fails
+   */
+  void send() throws IOException {
+    if (output.drainTo(channel)) {
+      if (ending) {
+        close();
+      } else {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    } else {
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+  }
+
+  /**
+   * Closes the connection. The game is dropped without saving.
+   */
+  void close() {
+    output.close();
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing more can be sent either way
+    }
+  }
+
+  /**
+   * Checks whether the session has been closed.
+   *
+   * @return true if the connection is closed
+   */
+  boolean isClosed() {
+    return !channel.isOpen();
+  }
+}
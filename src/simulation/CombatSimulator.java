@@ -0,0 +1,207 @@
+package simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import model.GameWorld;
+import model.ItemDefinition;
+import model.Monster;
+import model.Player;
+import model.RandomSource;
+import model.SplittableRandomSource;
+import model.Symbols;
+
+/**
+ * Runs large numbers of seeded fights between the player and each monster of a world,
+ * so designers can check how monster damage and health, and the player's attack power
+ * and critical chance, play out without tuning them by hand.
+ *
+ * <p>A fight follows the rules of {@link model.CombatEngine}: each turn the player
+ * attacks for its attack power, doubled on a critical hit, and the monster strikes back
+ * if it survives and can attack. A player carrying the monster's solution wins on the
+ * first turn without taking damage. Fights are simulated on plain ints rather than
+ * model objects, so a fight allocates nothing.
+ *
+ * <p>The fights for one monster and loadout are split into fixed-size batches on a
+ * {@link ForkJoinPool}. Every batch gets its own random source, split off in a fixed
+ * order before any work is forked, so the same seed gives the same report no matter
+ * how many cores run it.
+ */
+public class CombatSimulator {
+  private static final int BATCH_SIZE = 1 << 16;
+  private static final int TURN_LIMIT = 1000;
+
+  private final int playerHealth;
+  private final int attackPower;
+  private final int criticalChance;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a simulator for fights fought by the given player.
+   *
+   * @param player The player whose health, attack power and critical chance are used
+   * @param pool   The pool to run batches on
+   */
+  public CombatSimulator(Player player, ForkJoinPool pool) {
+    this.playerHealth = player.getHealth();
+    this.attackPower = player.getAttackPower();
+    this.criticalChance = player.getCriticalChance();
+    this.pool = pool;
+  }
+
+  /**
+   * Simulates fights against one monster.
+   *
+   * @param monster The monster to fight; its current state is not changed
+   * @param loadout The items the player carries
+   * @param fights  The number of fights to run
+   * @param seed    The seed for every roll
+   * @return The totals over all fights
+   */
+  public FightStats simulate(Monster monster, Loadout loadout, long fights, long seed) {
+    Fight fight = new Fight(monster, loadout.holds(Symbols.lookup(monster.getSolution())));
+    return pool.invoke(new Batch(fight, 0, fights, new SplittableRandomSource(seed)));
+  }
+
+  /**
+   * Simulates fights against every monster in a world with every loadout and writes a
+   * report. Each monster is fought empty-handed, carrying each single item, and
+   * carrying everything.
+   *
+   * @param world  The world to sweep
+   * @param fights The number of fights per monster and loadout
+   * @param seed   The seed for every roll
+   * @param out    Where to write the report
+   * @throws IOException If the report cannot be written
+   */
+  public void sweep(GameWorld world, long fights, long seed, Appendable out)
+          throws IOException {
+    List<ItemDefinition> items = world.getItemDefinitions();
+    List<Loadout> loadouts = new ArrayList<>();
+    loadouts.add(new Loadout("empty-handed"));
+    for (ItemDefinition item : items) {
+      loadouts.add(new Loadout(item.getDisplayName(), item));
+    }
+    loadouts.add(new Loadout("everything", items.toArray(new ItemDefinition[0])));
+
+    out.append(String.format(Locale.ROOT, "%-16s %-20s %8s %10s %6s %6s %6s %10s%n",
+            "monster", "loadout", "win%", "turns", "p50", "p90", "p99", "hp lost"));
+    RandomSource seeds = new SplittableRandomSource(seed);
+    for (Monster monster : world.getMonsters()) {
+      for (Loadout loadout : loadouts) {
+        FightStats stats = simulate(monster, loadout, fights, seeds.split().nextLong());
+        out.append(String.format(Locale.ROOT, "%-16s %-20s %8.2f %10.2f %6d %6d %6d %10.2f%n",
+                monster.getDisplayName(), loadout.getName(), stats.getWinRate() * 100,
+                stats.getMeanTurnsToKill(), stats.getTurnsToKillAtPercentile(50),
+                stats.getTurnsToKillAtPercentile(90), stats.getTurnsToKillAtPercentile(99),
+                stats.getExpectedHealthLoss()));
+      }
+    }
+  }
+
+  /**
+   * The fixed numbers of one matchup, copied out of the model once.
+   */
+  private final class Fight {
+    private final int monsterHealth;
+    private final int monsterDamage;
+    private final boolean instantWin;
+    private final int maxTurns;
+
+    private Fight(Monster monster, boolean instantWin) {
+      this.monsterHealth = monster.getMaxHealth();
+      this.monsterDamage = monster.canAttack() ? Math.abs(monster.getDamage()) : 0;
+      this.instantWin = instantWin;
+      this.maxTurns = attackPower > 0
+              ? Math.max(1, (monsterHealth + attackPower - 1) / attackPower) : TURN_LIMIT;
+    }
+
+    /**
+     * Plays one fight and records it.
+     */
+    private void play(RandomSource random, FightStats stats) {
+      if (instantWin) {
+        stats.record(true, 1, 0);
+        return;
+      }
+      int health = playerHealth;
+      int enemy = monsterHealth;
+      for (int turn = 1; turn <= maxTurns; turn++) {
+        boolean critical = random.nextInt(100) < criticalChance;
+        enemy -= critical ? attackPower * 2 : attackPower;
+        if (enemy <= 0) {
+          stats.record(true, turn, playerHealth - health);
+          return;
+        }
+        health = Math.max(0, health - monsterDamage);
+        if (health == 0) {
+          stats.record(false, turn, playerHealth);
+          return;
+        }
+      }
+      stats.record(false, maxTurns, playerHealth - health);
+    }
+  }
+
+  /**
+   * Fights a range of fights, halving the range until it fits in one batch.
+   */
+  private static final class Batch extends RecursiveTask<FightStats> {
+    private static final long serialVersionUID = 1L;
+
+    private final Fight fight;
+    private final long from;
+    private final long to;
+    private final RandomSource random;
+
+    private Batch(Fight fight, long from, long to, RandomSource random) {
+      this.fight = fight;
+      this.from = from;
+      this.to = to;
+      this.random = random;
+    }
+
+    @Override
+    protected FightStats compute() {
+      if (to - from <= BATCH_SIZE) {
+        FightStats stats = new FightStats(fight.maxTurns);
+        for (long i = from; i < to; i++) {
+          fight.play(random, stats);
+        }
+        return stats;
+      }
+      long middle = (from + to) >>> 1;
+      Batch left = new Batch(fight, from, middle, random.split());
+      Batch right = new Batch(fight, middle, to, random);
+      left.fork();
+      return right.compute().merge(left.join());
+    }
+  }
+
+  /**
+   * Sweeps a world file from the command line.
+   * Arguments: the world file, then optionally the fights per matchup (default
+   * 1,000,000) and the seed (default 1).
+   *
+   * @param args The command line arguments
+   * @throws IOException If the world cannot be loaded
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("usage: CombatSimulator <world.json> [fights] [seed]");
+      System.exit(2);
+    }
+    GameWorld world = new GameWorld(args[0]);
+    long fights = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000L;
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+    long start = System.nanoTime();
+    CombatSimulator simulator = new CombatSimulator(world.getPlayer(), ForkJoinPool.commonPool());
+    simulator.sweep(world, fights, seed, System.out);
+    System.out.printf(Locale.ROOT, "%d fights per matchup in %.2f s on %d cores%n", fights,
+            (System.nanoTime() - start) / 1e9, Runtime.getRuntime().availableProcessors());
+  }
+}
@@ -0,0 +1,125 @@
+package simulation;
+
+/**
+ * Totals over a batch of simulated fights: how many were won, how many turns each
+ * win took, and how much health the player lost. Batches from different threads are
+ * combined with {@link #merge(FightStats)}.
+ */
+public final class FightStats {
+  private long fights;
+  private long wins;
+  private long healthLost;
+  private final long[] turnsToKill;
+
+  /**
+   * Constructs empty totals.
+   *
+   * @param maxTurns The longest fight that can be recorded
+   */
+  FightStats(int maxTurns) {
+    this.turnsToKill = new long[maxTurns + 1];
+  }
+
+  /**
+   * Records one fight.
+   *
+   * @param won       Whether the player won
+   * @param turns     The number of turns the fight lasted
+   * @param lost      The health the player lost
+   */
+  void record(boolean won, int turns, int lost) {
+    fights++;
+    healthLost += lost;
+    if (won) {
+      wins++;
+      turnsToKill[turns]++;
+    }
+  }
+
+  /**
+   * Adds another batch's totals to these.
+   *
+   * @param other The other batch
+   * @return These totals, for chaining
+   */
+  FightStats merge(FightStats other) {
+    fights += other.fights;
+    wins += other.wins;
+    healthLost += other.healthLost;
+    for (int i = 0; i < turnsToKill.length; i++) {
+      turnsToKill[i] += other.turnsToKill[i];
+    }
+    return this;
+  }
+
+  /**
+   * Gets the number of fights simulated.
+   *
+   * @return The fight count
+   */
+  public long getFights() {
+    return fights;
+  }
+
+  /**
+   * Gets the fraction of fights the player won.
+   *
+   * @return The win rate between 0 and 1
+   */
+  public double getWinRate() {
+    return fights == 0 ? 0.0 : (double) wins / fights;
+  }
+
+  /**
+   * Gets the average health the player lost per fight, won or lost.
+   *
+   * @return The expected health loss
+   */
+  public double getExpectedHealthLoss() {
+    return fights == 0 ? 0.0 : (double) healthLost / fights;
+  }
+
+  /**
+   * Gets the average number of turns a won fight took.
+   *
+   * @return The mean turns to kill, or 0 if no fight was won
+   */
+  public double getMeanTurnsToKill() {
+    if (wins == 0) {
+      return 0.0;
+    }
+    long total = 0;
+    for (int turns = 0; turns < turnsToKill.length; turns++) {
+      total += turns * turnsToKill[turns];
+    }
+    return (double) total / wins;
+  }
+
+  /**
+   * Gets the number of turns within which the given share of won fights ended.
+   *
+   * @param percentile The percentile, between 0 and 100
+   * @return The turns to kill at that percentile, or 0 if no fight was won
+   */
+  public int getTurnsToKillAtPercentile(double percentile) {
+    long rank = (long) Math.ceil(percentile / 100.0 * wins);
+    long seen = 0;
+    for (int turns = 0; turns < turnsToKill.length; turns++) {
+      seen += turnsToKill[turns];
+      if (seen >= Math.max(1, rank)) {
+        return turns;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Gets how many won fights took exactly the given number of turns.
+   *
+   * @param turns The number of turns
+   * @return The number of wins that took that long
+   */
+  public long getWinsInTurns(int turns) {
+    return turns < 0 || turns >= turnsToKill.length ? 0 : turnsToKill[turns];
+  }
+}
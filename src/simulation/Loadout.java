@@ -0,0 +1,48 @@
+package simulation;
+
+import java.util.Arrays;
+import model.ItemDefinition;
+
+/**
+ * A named set of items a simulated player carries into a fight.
+ * Carrying a monster's solution item ends the fight on the first turn, the way
+ * using it in the game does; any other item leaves the fight to plain attacks.
+ */
+public final class Loadout {
+  private final String name;
+  private final int[] symbols;
+
+  /**
+   * Constructs a loadout.
+   *
+   * @param name  The name shown in reports
+   * @param items The items carried
+   */
+  public Loadout(String name, ItemDefinition... items) {
+    this.name = name;
+    this.symbols = new int[items.length];
+    for (int i = 0; i < items.length; i++) {
+      symbols[i] = items[i].getSymbol();
+    }
+    Arrays.sort(symbols);
+  }
+
+  /**
+   * Gets the name shown in reports.
+   *
+   * @return The loadout name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Checks whether the loadout carries an item.
+   *
+   * @param symbol The item's name symbol
+   * @return true if the item is carried
+   */
+  public boolean holds(int symbol) {
+    return symbol >= 0 && Arrays.binarySearch(symbols, symbol) >= 0;
+  }
+}
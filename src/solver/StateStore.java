@@ -0,0 +1,164 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent set of packed game states that remembers how each state was reached.
+ *
+ * <p>States live in an append-only arena of fixed-width long words, split into chunks so
+ * the arena can grow past the size of one array. Each state also records the index of its
+ * parent and the action that led to it, so a winning path can be read back. Deduplication
+ * uses an open-addressing table of arena indices updated with compare-and-set, so any
+ * number of threads can add states without locks. A state of one word costs about
+ * 24 bytes in all, so 10^8 states fit in a few gigabytes.
+ *
+ * <p>States are added in breadth-first levels: everything added while one level is
+ * expanded belongs to the next level and sits in one contiguous run of indices.
+ */
+final class StateStore {
+  /** Action recorded for a slot that lost a race and holds a duplicate. */
+  static final int DEAD = -1;
+
+  private static final int CHUNK_BITS = 16;
+  private static final int CHUNK_STATES = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_STATES - 1;
+
+  private final int words;
+  private final int maxStates;
+  private final AtomicIntegerArray table;
+  private final int mask;
+  private final AtomicInteger next;
+  private final AtomicReferenceArray<long[]> stateChunks;
+  private final AtomicReferenceArray<int[]> parentChunks;
+  private final AtomicReferenceArray<int[]> actionChunks;
+
+  /**
+   * Constructs an empty store.
+   *
+   * @param words     The number of longs in one packed state
+   * @param maxStates The most states the store will hold
+   */
+  StateStore(int words, int maxStates) {
+    this.words = words;
+    this.maxStates = maxStates;
+    // At least twice as many slots as states keeps probe runs short
+    long wanted = Math.max(4L, 2L * maxStates);
+    int capacity = (int) Math.min(1L << 30, Long.highestOneBit(wanted - 1) << 1);
+    this.table = new AtomicIntegerArray(capacity);
+    this.mask = capacity - 1;
+    this.next = new AtomicInteger();
+    int chunks = (maxStates + CHUNK_STATES - 1) >>> CHUNK_BITS;
+    this.stateChunks = new AtomicReferenceArray<>(chunks);
+    this.parentChunks = new AtomicReferenceArray<>(chunks);
+    this.actionChunks = new AtomicReferenceArray<>(chunks);
+  }
+
+  /**
+   * Adds a state unless an equal state is already present.
+   *
+   * @param state  The packed state
+   * @param parent The index of the state it was reached from, or -1
+   * @param action The action that reached it
+   * @return The index of the new state, or -1 if it was already present
+   * @throws IllegalStateException if the store is full
+   */
+  int add(long[] state, int parent, int action) {
+    int slot = hash(state) & mask;
+    int index = -1;
+    while (true) {
+      int found = table.get(slot);
+      if (found == 0) {
+        if (index < 0) {
+          index = reserve();
+          write(index, state, parent, action);
+        }
+        if (table.compareAndSet(slot, 0, index + 1)) {
+          return index;
+        }
+        found = table.get(slot);
+      }
+      if (matches(found - 1, state)) {
+        if (index >= 0) {
+          actionChunks.get(index >>> CHUNK_BITS)[index & CHUNK_MASK] = DEAD;
+        }
+        return -1;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Claims the next arena index, creating its chunk if needed.
+   */
+  private int reserve() {
+    int index = next.getAndIncrement();
+    if (index >= maxStates) {
+      throw new IllegalStateException("State limit of " + maxStates + " reached");
+    }
+    int chunk = index >>> CHUNK_BITS;
+    if (stateChunks.get(chunk) == null) {
+      parentChunks.compareAndSet(chunk, null, new int[CHUNK_STATES]);
+      actionChunks.compareAndSet(chunk, null, new int[CHUNK_STATES]);
+      stateChunks.compareAndSet(chunk, null, new long[CHUNK_STATES * words]);
+    }
+    return index;
+  }
+
+  private void write(int index, long[] state, int parent, int action) {
+    int chunk = index >>> CHUNK_BITS;
+    int offset = index & CHUNK_MASK;
+    System.arraycopy(state, 0, stateChunks.get(chunk), offset * words, words);
+    parentChunks.get(chunk)[offset] = parent;
+    actionChunks.get(chunk)[offset] = action;
+  }
+
+  private boolean matches(int index, long[] state) {
+    long[] chunk = stateChunks.get(index >>> CHUNK_BITS);
+    int base = (index & CHUNK_MASK) * words;
+    for (int w = 0; w < words; w++) {
+      if (chunk[base + w] != state[w]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int hash(long[] state) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int w = 0; w < words; w++) {
+      h = (h ^ state[w]) * 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 31;
+    }
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Copies a state out of the arena.
+   *
+   * @param index The state index
+   * @param into  The words to copy into
+   */
+  void get(int index, long[] into) {
+    System.arraycopy(stateChunks.get(index >>> CHUNK_BITS), (index & CHUNK_MASK) * words,
+            into, 0, words);
+  }
+
+  int parent(int index) {
+    return parentChunks.get(index >>> CHUNK_BITS)[index & CHUNK_MASK];
+  }
+
+  int action(int index) {
+    return actionChunks.get(index >>> CHUNK_BITS)[index & CHUNK_MASK];
+  }
+
+  /**
+   * Gets the number of indices handed out, including any dead ones.
+   *
+   * @return The arena size
+   */
+  int size() {
+    return Math.min(next.get(), maxStates);
+  }
+}
@@ -0,0 +1,360 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import model.Direction;
+import model.GameWorld;
+import model.Inventory;
+import model.Item;
+import model.Monster;
+import model.Puzzle;
+import model.Room;
+import model.Symbols;
+
+/**
+ * The rules of a loaded world boiled down to index tables, together with the bit layout
+ * of a packed game state.
+ *
+ * <p>A state records the player's room, where each relevant item is (a room, or carried),
+ * how many useful uses each relevant item has left, and which puzzles and monsters are
+ * still active. Only items that solve some puzzle or monster are tracked: any other item
+ * can only add weight, so a shortest solution never picks it up. Uses are capped at the
+ * number of puzzles and monsters an item solves, so an item with 1000 uses that opens one
+ * door needs a single bit. Every field takes just enough bits for its range, and the
+ * fields are packed into as few longs as possible.
+ */
+final class WorldModel {
+  /** Location code of a carried item is the room count; rooms are 0 to rooms - 1. */
+  final int carried;
+  final int roomCount;
+  final int itemCount;
+  final int entityCount;
+  final int maxWeight;
+  final int words;
+
+  final String[] roomNames;
+  /** Target room of each open exit, or -1. Indexed by room then direction ordinal. */
+  final int[][] openExit;
+  /** Target room of each blocked exit, which opens once its room's guard is beaten, or -1. */
+  final int[][] blockedExit;
+  /** Entities in each room, puzzle first, as the game checks them. */
+  final int[][] guards;
+
+  final String[] itemNames;
+  final int[] itemWeight;
+  final int[] itemStartRoom;
+  final int[] itemStartUses;
+
+  final String[] entityNames;
+  final int[] entityValue;
+  final boolean[] entityIsPuzzle;
+  /** Name symbol of the item that beats each entity, or {@link Symbols#NONE}. */
+  final int[] entitySolutionItem;
+  /** First accepted answer of each puzzle, or null if it needs an item. */
+  final String[] entityAnswer;
+  final int[] itemSymbol;
+  /** Entities each item beats. */
+  final int[][] itemTargets;
+  final int maxScore;
+  final int startRoom;
+
+  private final int roomBits;
+  private final int locationBits;
+  private final int[] locationOffset;
+  private final int[] usesOffset;
+  private final int[] usesBits;
+  private final int entityOffset;
+
+  /**
+   * Compiles a world in its current state.
+   *
+   * @param world The world
+   */
+  WorldModel(GameWorld world) {
+    List<Room> rooms = world.getRooms();
+    roomCount = rooms.size();
+    carried = roomCount;
+    maxWeight = world.getPlayer().getMaxWeight();
+    Map<Room, Integer> roomIndex = new HashMap<>();
+    roomNames = new String[roomCount];
+    for (int r = 0; r < roomCount; r++) {
+      roomIndex.put(rooms.get(r), r);
+      roomNames[r] = rooms.get(r).getName();
+    }
+    startRoom = roomIndex.get(world.getPlayer().getCurrentRoom());
+
+    // Active puzzles and monsters, in room order
+    List<String> names = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+    List<Boolean> puzzles = new ArrayList<>();
+    List<String> solutions = new ArrayList<>();
+    List<String> answers = new ArrayList<>();
+    guards = new int[roomCount][];
+    for (int r = 0; r < roomCount; r++) {
+      Room room = rooms.get(r);
+      List<Integer> here = new ArrayList<>(2);
+      Puzzle puzzle = room.getPuzzle();
+      if (puzzle != null && puzzle.isActive()) {
+        here.add(names.size());
+        names.add(puzzle.getName());
+        values.add(puzzle.getValue());
+        puzzles.add(true);
+        solutions.add(puzzle.getSolution());
+        answers.add(puzzle.getAnswer());
+      }
+      Monster monster = room.getMonster();
+      if (monster != null && monster.isActive()) {
+        here.add(names.size());
+        names.add(monster.getName());
+        values.add(monster.getValue());
+        puzzles.add(false);
+        solutions.add(monster.getSolution());
+        answers.add(null);
+      }
+      guards[r] = here.stream().mapToInt(Integer::intValue).toArray();
+    }
+    entityCount = names.size();
+    entityNames = names.toArray(new String[0]);
+    entityValue = new int[entityCount];
+    entityIsPuzzle = new boolean[entityCount];
+    entitySolutionItem = new int[entityCount];
+    entityAnswer = new String[entityCount];
+    int score = 0;
+    Map<Integer, Integer> solves = new HashMap<>();
+    for (int e = 0; e < entityCount; e++) {
+      entityValue[e] = values.get(e);
+      entityIsPuzzle[e] = puzzles.get(e);
+      entityAnswer[e] = answers.get(e);
+      if (entityAnswer[e] != null) {
+        entitySolutionItem[e] = Symbols.NONE;
+      } else {
+        entitySolutionItem[e] = Symbols.lookup(solutions.get(e));
+        solves.merge(entitySolutionItem[e], 1, Integer::sum);
+      }
+      score += entityValue[e];
+    }
+    maxScore = score;
+
+    // Exits
+    openExit = new int[roomCount][Direction.values().length];
+    blockedExit = new int[roomCount][Direction.values().length];
+    for (int r = 0; r < roomCount; r++) {
+      Room room = rooms.get(r);
+      for (Direction direction : Direction.values()) {
+        int d = direction.ordinal();
+        openExit[r][d] = -1;
+        blockedExit[r][d] = -1;
+        int number = Integer.parseInt(room.getExitRoomNumber(direction));
+        if (number > 0 && room.getExit(direction) != null) {
+          openExit[r][d] = roomIndex.getOrDefault(room.getExit(direction), -1);
+        } else if (number < 0 && guards[r].length > 0) {
+          Room target = world.getRoom(String.valueOf(-number));
+          blockedExit[r][d] = target == null ? -1 : roomIndex.get(target);
+        }
+      }
+    }
+
+    // Items that solve something, wherever they lie
+    List<Item> relevant = new ArrayList<>();
+    List<Integer> where = new ArrayList<>();
+    for (int r = 0; r < roomCount; r++) {
+      for (Item item : rooms.get(r).getItems()) {
+        if (solves.containsKey(item.getSymbol())) {
+          relevant.add(item);
+          where.add(r);
+        }
+      }
+    }
+    for (Item item : world.getPlayer().getInventory()) {
+      if (solves.containsKey(item.getSymbol())) {
+        relevant.add(item);
+        where.add(carried);
+      }
+    }
+    itemCount = relevant.size();
+    itemNames = new String[itemCount];
+    itemWeight = new int[itemCount];
+    itemStartRoom = new int[itemCount];
+    itemStartUses = new int[itemCount];
+    itemSymbol = new int[itemCount];
+    for (int i = 0; i < itemCount; i++) {
+      Item item = relevant.get(i);
+      itemNames[i] = item.getDisplayName();
+      itemWeight[i] = Inventory.weightOf(item);
+      itemStartRoom[i] = where.get(i);
+      itemSymbol[i] = item.getSymbol();
+      itemStartUses[i] = Math.max(0, Math.min(item.getUsesRemaining(), solves.get(itemSymbol[i])));
+    }
+    itemTargets = new int[itemCount][];
+    for (int i = 0; i < itemCount; i++) {
+      int symbol = itemSymbol[i];
+      itemTargets[i] = IntStream.range(0, entityCount)
+              .filter(e -> entitySolutionItem[e] == symbol).toArray();
+    }
+
+    // Bit layout
+    roomBits = bitsFor(roomCount);
+    locationBits = bitsFor(roomCount + 1);
+    locationOffset = new int[itemCount];
+    usesOffset = new int[itemCount];
+    usesBits = new int[itemCount];
+    int offset = roomBits;
+    for (int i = 0; i < itemCount; i++) {
+      locationOffset[i] = offset;
+      offset += locationBits;
+      usesOffset[i] = offset;
+      usesBits[i] = bitsFor(itemStartUses[i] + 1);
+      offset += usesBits[i];
+    }
+    entityOffset = offset;
+    offset += entityCount;
+    words = Math.max(1, (offset + 63) / 64);
+  }
+
+  /**
+   * Gets the number of bits needed to store values from 0 to count - 1.
+   */
+  private static int bitsFor(int count) {
+    return count <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(count - 1);
+  }
+
+  /**
+   * Writes the starting state.
+   *
+   * @param state The words to write into
+   */
+  void start(long[] state) {
+    Arrays.fill(state, 0L);
+    setRoom(state, startRoom);
+    for (int i = 0; i < itemCount; i++) {
+      setLocation(state, i, itemStartRoom[i]);
+      setUses(state, i, itemStartUses[i]);
+    }
+    for (int e = 0; e < entityCount; e++) {
+      setActive(state, e, true);
+    }
+    normalize(state);
+  }
+
+  int room(long[] state) {
+    return (int) read(state, 0, roomBits);
+  }
+
+  void setRoom(long[] state, int room) {
+    write(state, 0, roomBits, room);
+  }
+
+  int location(long[] state, int item) {
+    return (int) read(state, locationOffset[item], locationBits);
+  }
+
+  void setLocation(long[] state, int item, int location) {
+    write(state, locationOffset[item], locationBits, location);
+  }
+
+  int uses(long[] state, int item) {
+    return (int) read(state, usesOffset[item], usesBits[item]);
+  }
+
+  void setUses(long[] state, int item, int uses) {
+    write(state, usesOffset[item], usesBits[item], uses);
+  }
+
+  boolean isActive(long[] state, int entity) {
+    return read(state, entityOffset + entity, 1) != 0;
+  }
+
+  void setActive(long[] state, int entity, boolean active) {
+    write(state, entityOffset + entity, 1, active ? 1 : 0);
+  }
+
+  /**
+   * Checks whether an item can still beat anything: it has uses left and something it
+   * beats is still active.
+   */
+  boolean isUseful(long[] state, int item) {
+    if (uses(state, item) == 0) {
+      return false;
+    }
+    for (int entity : itemTargets[item]) {
+      if (isActive(state, entity)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Folds states that differ only in where useless items lie into one. A useless item
+   * on the floor can never matter again, so its place and uses are cleared; a carried
+   * one still counts towards the weight limit and is kept until it is dropped.
+   */
+  void normalize(long[] state) {
+    for (int i = 0; i < itemCount; i++) {
+      if (!isUseful(state, i)) {
+        setUses(state, i, 0);
+        if (location(state, i) != carried) {
+          setLocation(state, i, 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the score of a state: the value of every puzzle and monster beaten so far.
+   */
+  int score(long[] state) {
+    int score = 0;
+    for (int e = 0; e < entityCount; e++) {
+      if (!isActive(state, e)) {
+        score += entityValue[e];
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Gets the weight the player carries in a state.
+   */
+  int carriedWeight(long[] state) {
+    int weight = 0;
+    for (int i = 0; i < itemCount; i++) {
+      if (location(state, i) == carried) {
+        weight += itemWeight[i];
+      }
+    }
+    return weight;
+  }
+
+  private static long read(long[] state, int offset, int bits) {
+    if (bits == 0) {
+      return 0;
+    }
+    int word = offset >>> 6;
+    int shift = offset & 63;
+    long value = state[word] >>> shift;
+    if (shift + bits > 64) {
+      value |= state[word + 1] << (64 - shift);
+    }
+    return bits == 64 ? value : value & ((1L << bits) - 1);
+  }
+
+  private static void write(long[] state, int offset, int bits, long value) {
+    if (bits == 0) {
+      return;
+    }
+    int word = offset >>> 6;
+    int shift = offset & 63;
+    long mask = bits == 64 ? -1L : (1L << bits) - 1;
+    state[word] = (state[word] & ~(mask << shift)) | ((value & mask) << shift);
+    if (shift + bits > 64) {
+      int spill = shift + bits - 64;
+      long high = (1L << spill) - 1;
+      state[word + 1] = (state[word + 1] & ~high) | ((value & mask) >>> (64 - shift));
+    }
+  }
+}
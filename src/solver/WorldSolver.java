@@ -0,0 +1,342 @@
+package solver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Direction;
+import model.GameWorld;
+
+/**
+ * Proves whether a world can be completed by searching every game state reachable from
+ * its current state, breadth first and in parallel.
+ *
+ * <p>The search follows the controller's rules for moving, taking, dropping and using
+ * items, and answering puzzles, within the player's weight limit. Each breadth-first level
+ * is split across a {@link ForkJoinPool}, and new states are deduplicated in a shared
+ * lock-free {@link StateStore}. Because the search is breadth first, the first state that
+ * reaches the maximum score ends the search, and its path is a shortest winning script.
+ * If the maximum is out of reach, the whole space is explored and the script reaches the
+ * best score that is possible.
+ *
+ * <p>Items that can no longer beat anything are never picked up, and where they lie is
+ * forgotten, which keeps the state space small without changing the answer.
+ * Combat is left out: attacks roll dice, so they cannot prove anything. Health is left
+ * out too, since a shortest script does not linger next to monsters. Crafting, loot
+ * and world rules are not searched either, so a world that depends on them may be
+ * reported as not completable.
+ */
+public class WorldSolver {
+  private static final int MOVE = 1;
+  private static final int TAKE = 2;
+  private static final int DROP = 3;
+  private static final int USE = 4;
+  private static final int ANSWER = 5;
+  private static final int KIND_SHIFT = 24;
+  private static final int ARG_MASK = (1 << KIND_SHIFT) - 1;
+  private static final int BATCH = 1024;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final WorldModel model;
+  private final ForkJoinPool pool;
+  private final int maxStates;
+
+  /**
+   * The outcome of a search.
+   */
+  public static final class Result {
+    private final int maxScore;
+    private final int bestScore;
+    private final List<String> script;
+    private final int statesExplored;
+
+    private Result(int maxScore, int bestScore, List<String> script, int statesExplored) {
+      this.maxScore = maxScore;
+      this.bestScore = bestScore;
+      this.script = Collections.unmodifiableList(script);
+      this.statesExplored = statesExplored;
+    }
+
+    /**
+     * Checks whether every puzzle and monster can be beaten.
+     *
+     * @return true if the maximum score is reachable
+     */
+    public boolean isMaxScoreReachable() {
+      return bestScore == maxScore;
+    }
+
+    /**
+     * Gets the score for beating every puzzle and monster.
+     *
+     * @return The maximum score
+     */
+    public int getMaxScore() {
+      return maxScore;
+    }
+
+    /**
+     * Gets the highest score any sequence of commands reaches.
+     *
+     * @return The best reachable score
+     */
+    public int getBestScore() {
+      return bestScore;
+    }
+
+    /**
+     * Gets a shortest list of commands that reaches the best score.
+     *
+     * @return The commands, in the form the controller reads them
+     */
+    public List<String> getScript() {
+      return script;
+    }
+
+    /**
+     * Gets the number of distinct states the search visited.
+     *
+     * @return The state count
+     */
+    public int getStatesExplored() {
+      return statesExplored;
+    }
+  }
+
+  /**
+   * Constructs a solver for a world in its current state.
+   *
+   * @param world     The world to solve
+   * @param pool      The pool to expand states on
+   * @param maxStates The most states to hold before giving up
+   */
+  public WorldSolver(GameWorld world, ForkJoinPool pool, int maxStates) {
+    this.model = new WorldModel(world);
+    this.pool = pool;
+    this.maxStates = maxStates;
+  }
+
+  /**
+   * Runs the search.
+   *
+   * @return The outcome
+   * @throws IllegalStateException if the world has more than the allowed number of states
+   */
+  public Result solve() {
+    StateStore store = new StateStore(model.words, maxStates);
+    long[] start = new long[model.words];
+    model.start(start);
+    store.add(start, -1, 0);
+    AtomicLong best = new AtomicLong(pack(model.score(start), 0));
+    AtomicInteger goal = new AtomicInteger(model.score(start) == model.maxScore ? 0 : -1);
+
+    int levelStart = 0;
+    int levelEnd = 1;
+    while (goal.get() < 0 && levelStart < levelEnd) {
+      pool.invoke(new Expand(store, levelStart, levelEnd, best, goal));
+      levelStart = levelEnd;
+      levelEnd = store.size();
+    }
+
+    int bestIndex = goal.get() >= 0 ? goal.get() : unpackIndex(best.get());
+    long[] state = new long[model.words];
+    store.get(bestIndex, state);
+    List<String> script = new ArrayList<>();
+    for (int index = bestIndex; store.parent(index) >= 0; index = store.parent(index)) {
+      script.add(render(store.action(index)));
+    }
+    Collections.reverse(script);
+    return new Result(model.maxScore, model.score(state), script, store.size());
+  }
+
+  /**
+   * Packs a score with a state index so that a higher score wins, then an earlier index.
+   */
+  private static long pack(int score, int index) {
+    return ((long) score << 32) | (Integer.MAX_VALUE - index);
+  }
+
+  private static int unpackIndex(long packed) {
+    return Integer.MAX_VALUE - (int) packed;
+  }
+
+  /**
+   * Expands one range of a breadth-first level, splitting it across the pool.
+   */
+  private final class Expand extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final StateStore store;
+    private final int from;
+    private final int to;
+    private final AtomicLong best;
+    private final AtomicInteger goal;
+
+    private Expand(StateStore store, int from, int to, AtomicLong best, AtomicInteger goal) {
+      this.store = store;
+      this.from = from;
+      this.to = to;
+      this.best = best;
+      this.goal = goal;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > BATCH) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Expand(store, from, middle, best, goal),
+                new Expand(store, middle, to, best, goal));
+        return;
+      }
+      long[] state = new long[model.words];
+      long[] next = new long[model.words];
+      long localBest = Long.MIN_VALUE;
+      for (int index = from; index < to && goal.get() < 0; index++) {
+        if (store.action(index) == StateStore.DEAD) {
+          continue;
+        }
+        store.get(index, state);
+        localBest = Math.max(localBest, expand(index, state, next));
+      }
+      best.accumulateAndGet(localBest, Math::max);
+    }
+
+    /**
+     * Adds every successor of one state and returns the best of them, packed.
+     */
+    private long expand(int index, long[] state, long[] next) {
+      long localBest = Long.MIN_VALUE;
+      int room = model.room(state);
+
+      for (Direction direction : DIRECTIONS) {
+        int d = direction.ordinal();
+        int target = model.openExit[room][d];
+        if (target < 0 && model.blockedExit[room][d] >= 0 && guardBeaten(state, room)) {
+          target = model.blockedExit[room][d];
+        }
+        if (target >= 0 && target != room) {
+          System.arraycopy(state, 0, next, 0, state.length);
+          model.setRoom(next, target);
+          localBest = Math.max(localBest, offer(next, index, MOVE, d));
+        }
+      }
+
+      int weight = model.carriedWeight(state);
+      for (int item = 0; item < model.itemCount; item++) {
+        int location = model.location(state, item);
+        if (location == room && weight + model.itemWeight[item] <= model.maxWeight
+                && model.isUseful(state, item)) {
+          System.arraycopy(state, 0, next, 0, state.length);
+          model.setLocation(next, item, model.carried);
+          localBest = Math.max(localBest, offer(next, index, TAKE, item));
+        } else if (location == model.carried) {
+          System.arraycopy(state, 0, next, 0, state.length);
+          model.setLocation(next, item, room);
+          localBest = Math.max(localBest, offer(next, index, DROP, item));
+
+          int uses = model.uses(state, item);
+          if (uses > 0) {
+            for (int entity : model.guards[room]) {
+              if (model.isActive(state, entity)
+                      && model.entitySolutionItem[entity] == model.itemSymbol[item]) {
+                System.arraycopy(state, 0, next, 0, state.length);
+                model.setActive(next, entity, false);
+                model.setUses(next, item, uses - 1);
+                localBest = Math.max(localBest, offer(next, index, USE, item));
+                break;
+              }
+            }
+          }
+        }
+      }
+
+      for (int entity : model.guards[room]) {
+        if (model.entityAnswer[entity] != null && model.isActive(state, entity)) {
+          System.arraycopy(state, 0, next, 0, state.length);
+          model.setActive(next, entity, false);
+          localBest = Math.max(localBest, offer(next, index, ANSWER, entity));
+        }
+      }
+      return localBest;
+    }
+
+    private boolean guardBeaten(long[] state, int room) {
+      for (int entity : model.guards[room]) {
+        if (!model.isActive(state, entity)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Adds a successor if it is new, noting it if it wins.
+     */
+    private long offer(long[] next, int parent, int kind, int arg) {
+      model.normalize(next);
+      int added = store.add(next, parent, (kind << KIND_SHIFT) | arg);
+      if (added < 0) {
+        return Long.MIN_VALUE;
+      }
+      int score = model.score(next);
+      if (score == model.maxScore) {
+        goal.compareAndSet(-1, added);
+      }
+      return pack(score, added);
+    }
+  }
+
+  /**
+   * Turns a recorded action back into a command the controller understands.
+   */
+  private String render(int action) {
+    int arg = action & ARG_MASK;
+    switch (action >>> KIND_SHIFT) {
+      case MOVE:
+        return DIRECTIONS[arg].toString().toLowerCase(Locale.ROOT);
+      case TAKE:
+        return "take " + model.itemNames[arg];
+      case DROP:
+        return "drop " + model.itemNames[arg];
+      case USE:
+        return "use " + model.itemNames[arg];
+      case ANSWER:
+        return "answer " + model.entityAnswer[arg].toLowerCase(Locale.ROOT);
+      default:
+        throw new IllegalStateException("Unknown action " + action);
+    }
+  }
+
+  /**
+   * Solves a world file from the command line and prints the verdict and the script.
+   * Arguments: the world file, then optionally the state limit (default 16,777,216).
+   *
+   * @param args The command line arguments
+   * @throws IOException If the world cannot be loaded
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("usage: WorldSolver <world.json> [maxStates]");
+      System.exit(2);
+    }
+    GameWorld world = new GameWorld(args[0]);
+    int maxStates = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 24;
+
+    long started = System.nanoTime();
+    Result result = new WorldSolver(world, ForkJoinPool.commonPool(), maxStates).solve();
+    System.out.printf(Locale.ROOT, "%s: max score %d %s, best score %d%n", world.getGameName(),
+            result.getMaxScore(), result.isMaxScoreReachable() ? "is reachable" : "is NOT reachable",
+            result.getBestScore());
+    System.out.printf(Locale.ROOT, "%d states explored in %.2f s%n", result.getStatesExplored(),
+            (System.nanoTime() - started) / 1e9);
+    System.out.println("shortest script (" + result.getScript().size() + " commands):");
+    for (String command : result.getScript()) {
+      System.out.println("  " + command);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+
+/*
+tests for the line reader and the reusable command view.
+*/
+class LineReaderTest {
+    
+    @Test
+    void testLineEndings() throws IOException {
+        LineReader reader = new LineReader(new StringReader("north\r\ntake key\rlook\n\nquit"));
+        CommandText line = new CommandText();
+        assertTrue(reader.next(line));
+        assertEquals("north", line.toString());
+        assertTrue(reader.next(line));
+        assertEquals("take key", line.toString());
+        assertTrue(reader.next(line));
+        assertEquals("look", line.toString());
+        assertTrue(reader.next(line));
+        assertEquals("", line.toString());
+        assertTrue(reader.next(line));
+        assertEquals("quit", line.toString());
+        assertFalse(reader.next(line));
+    }
+    
+    @Test
+    void testLineLongerThanBuffer() throws IOException {
+        String longLine = "a ".repeat(5000).trim();
+        LineReader reader = new LineReader(new StringReader(longLine + "\nnext\n"));
+        CommandText line = new CommandText();
+        assertTrue(reader.next(line));
+        assertEquals(longLine, line.toString());
+        assertTrue(reader.next(line));
+        assertEquals("next", line.toString());
+        assertFalse(reader.next(line));
+    }
+    
+    @Test
+    void testTrimAndLowercaseInPlace() {
+        CommandText command = new CommandText().set("  \tTake Ancient ÉPÉE \r");
+        command.trim().toLowerCase();
+        assertEquals("take ancient épée", command.toString());
+        assertTrue(command.startsWith("take "));
+        assertFalse(command.is("take"));
+        assertEquals("ancient épée", command.rest(5).toString());
+        assertEquals('a', command.rest(5).charAt(0));
+    }
+    
+    @Test
+    void testEmptyAndShortCommands() {
+        CommandText command = new CommandText().set("   ").trim();
+        assertTrue(command.isEmpty());
+        assertFalse(command.is("n"));
+        assertFalse(command.startsWith("n "));
+        command.set("n");
+        assertTrue(command.is("n"));
+        assertFalse(command.is("north"));
+        assertEquals("", command.rest(1).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> command.rest(2));
+    }
+}
@@ -0,0 +1,143 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import metrics.CommandMetrics;
+import model.GameWorld;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+tests for driving a session one step at a time.
+*/
+class SessionStepTest {
+    private static final String WORLD = "./resources/align_quest_game_elements.json";
+    private static final String LAIR = "{ \"name\": \"Lair\", \"version\": \"1.0\", \"rooms\": ["
+            + "{ \"room_name\": \"Lair\", \"room_number\": \"1\", \"description\": \"A lair.\","
+            + " \"N\": \"0\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\", \"monster\": \"Troll\","
+            + " \"items\": \"Rock\" } ],"
+            + " \"items\": [ { \"name\": \"Rock\", \"weight\": \"1\", \"description\": \"A rock.\" } ],"
+            + " \"monsters\": [ { \"name\": \"Troll\", \"active\": \"true\", \"can_attack\": \"true\","
+            + " \"damage\": \"-5\", \"attack\": \"swings a club\", \"solution\": \"Club\","
+            + " \"effects\": \"The troll blocks the way.\\nIt snarls.\", \"target\": \"1:Lair\" } ] }";
+    
+    @Test
+    void testPhasesRunInOrder() throws IOException {
+        GameController controller = new GameController(new GameWorld(WORLD));
+        assertEquals(SessionPhase.NEW, controller.getPhase());
+        
+        TurnResult greeting = controller.step(null);
+        assertEquals(SessionPhase.NAMING, greeting.getPhase());
+        assertEquals("welcome to Align Quest!\n\nenter your name: ", greeting.getOutput());
+        
+        TurnResult named = controller.step("Tester");
+        assertEquals(SessionPhase.PLAYING, named.getPhase());
+        assertNull(named.getVerb());
+        assertTrue(named.getOutput().startsWith("hello, Tester!"));
+        assertTrue(named.getOutput().endsWith("your choice: "));
+        
+        TurnResult inventory = controller.step("  I ");
+        assertEquals(Verb.INVENTORY, inventory.getVerb());
+        assertTrue(inventory.getOutput().startsWith("inventory (weight: 0/"));
+        
+        TurnResult quit = controller.step("q");
+        assertEquals(SessionPhase.OVER, quit.getPhase());
+        assertFalse(quit.isOpen());
+        assertTrue(quit.getOutput().contains("final score: 0"));
+        assertFalse(quit.getOutput().contains("your choice"));
+        
+        TurnResult after = controller.step("l");
+        assertEquals(SessionPhase.OVER, after.getPhase());
+        assertEquals("", after.getOutput());
+        assertTrue(controller.isGameOver());
+    }
+    
+    @Test
+    void testInterleavedSessionsAreIndependent() throws IOException {
+        GameController first = new GameController(new GameWorld(WORLD));
+        GameController second = new GameController(new GameWorld(WORLD));
+        first.step(null);
+        second.step(null);
+        first.step("First");
+        second.step("Second");
+        assertTrue(first.step("t golden ticket").getOutput().contains("you pick up the golden ticket."));
+        assertTrue(second.step("i").getOutput().contains("your inventory is empty."));
+    }
+    
+    @Test
+    void testResultsWithoutTextAreShared() throws IOException {
+        StringBuilder sink = new StringBuilder();
+        GameController controller = new GameController(new GameWorld(WORLD), sink);
+        controller.step(null);
+        controller.step("Tester");
+        TurnResult look = controller.step("l");
+        assertEquals("", look.getOutput());
+        assertSame(look, controller.step("look"));
+        assertTrue(sink.toString().contains("hello, Tester!"));
+    }
+    
+    @Test
+    void testPlayAsksForTheNameBeforeReading() throws IOException {
+        StringBuilder sink = new StringBuilder();
+        StringBuilder seenAtFirstRead = new StringBuilder();
+        Readable input = new Readable() {
+            private boolean sent;
+            
+            @Override
+            public int read(java.nio.CharBuffer buffer) {
+                if (sent) {
+                    return -1;
+                }
+                sent = true;
+                seenAtFirstRead.append(sink);
+                buffer.put("Tester\nq\n");
+                return 9;
+            }
+        };
+        new GameController(new GameWorld(WORLD), input, sink).play();
+        assertTrue(seenAtFirstRead.toString().endsWith("enter your name: "), seenAtFirstRead.toString());
+    }
+    
+    @Test
+    void testMonsterStrikesBetweenTheRoomAndItsItems() throws IOException {
+        Path file = Files.createTempFile("lair", ".json");
+        try {
+            Files.writeString(file, LAIR);
+            GameController controller = new GameController(new GameWorld(file.toString()));
+            controller.step(null);
+            String strike = "you are in the lair\nThe troll blocks the way.\nIt snarls.\n"
+                    + "troll swings a club\nyou take -5 damage!\nitems here: rock \n";
+            // the first render builds the cached view, the second reuses it
+            String first = controller.step("Tester").getOutput();
+            assertTrue(first.contains(strike), first);
+            String second = controller.step("i").getOutput();
+            assertTrue(second.contains(strike), second);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    void testLookIsTimedOnce() throws IOException {
+        CommandMetrics<Verb> looking = played("Tester\nl\nq\n");
+        CommandMetrics<Verb> listing = played("Tester\ni\nq\n");
+        assertEquals(1, looking.getCount(Verb.LOOK));
+        // the room display before each prompt is the only LOOK_AROUND either way
+        assertEquals(listing.getCount(Verb.LOOK_AROUND), looking.getCount(Verb.LOOK_AROUND));
+    }
+    
+    private static CommandMetrics<Verb> played(String lines) throws IOException {
+        CommandMetrics<Verb> metrics = new CommandMetrics<>(Verb.class, true);
+        new GameController(new GameWorld(WORLD), new StringReader(lines), new StringBuilder(),
+                metrics).play();
+        return metrics;
+    }
+    
+    @Test
+    void testPlayNeedsInput() throws IOException {
+        GameController controller = new GameController(new GameWorld(WORLD));
+        assertThrows(IllegalStateException.class, controller::play);
+    }
+}
@@ -0,0 +1,151 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import model.GameWorld;
+import model.Player;
+import model.RoomActors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+tests for several players sharing one world from several threads.
+*/
+class SharedWorldTest {
+    private static final String WORLD = "{ \"name\": \"Shared\", \"version\": \"1.0\", \"rooms\": ["
+            + "{ \"room_name\": \"Hall\", \"room_number\": \"1\", \"description\": \"A hall.\","
+            + " \"N\": \"2\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\", \"items\": \"Gem\" },"
+            + "{ \"room_name\": \"Vault\", \"room_number\": \"2\", \"description\": \"A vault.\","
+            + " \"N\": \"0\", \"S\": \"1\", \"E\": \"0\", \"W\": \"0\" } ],"
+            + " \"items\": [ { \"name\": \"Gem\", \"weight\": \"1\" } ] }";
+    
+    private Path file;
+    private GameWorld world;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("shared", ".json");
+        Files.writeString(file, WORLD);
+        world = new GameWorld(file.toString());
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Test
+    void testPlayersSeeEachOthersChanges() throws IOException {
+        GameController first = new GameController(world);
+        Player other = world.addPlayer("Other");
+        StringBuilder otherText = new StringBuilder();
+        GameController second = new GameController(world, other, otherText);
+        first.step(null);
+        first.step("First");
+        second.step(null);
+        second.step("Other");
+        assertSame(world.getPlayer().getCurrentRoom(), other.getCurrentRoom());
+        
+        assertTrue(first.step("t gem").getOutput().contains("you pick up the gem."));
+        otherText.setLength(0);
+        second.step("t gem");
+        assertTrue(otherText.toString().contains("there's no gem here to take."));
+        assertTrue(otherText.toString().contains("First picks up the gem.\n"));
+        
+        // the second player moves next door and still hears the first
+        second.step("n");
+        assertTrue(first.step("d gem").getOutput().contains("Other goes north.\n"));
+        otherText.setLength(0);
+        second.step("l");
+        assertTrue(otherText.toString().contains("from the hall: First drops the gem.\n"));
+        assertTrue(first.step("v").getOutput().contains("can't be saved"));
+    }
+    
+    @Test
+    void testConcurrentPlayersNeverLoseOrCopyAnItem() throws Exception {
+        int players = 4;
+        List<Thread> threads = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < players; p++) {
+            Player player = p == 0 ? world.getPlayer() : world.addPlayer("P" + p);
+            GameController controller = new GameController(world, player, new StringBuilder());
+            String[] turns = p % 2 == 0 ? new String[] {"t gem", "d gem"}
+                    : new String[] {"t gem", "n", "d gem", "s"};
+            threads.add(new Thread(() -> {
+                try {
+                    controller.step(null);
+                    controller.step("Player");
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        controller.step(turns[i % turns.length]);
+                    }
+                    // put back anything still carried
+                    controller.step("d gem");
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(60_000);
+            assertFalse(thread.isAlive(), "players deadlocked");
+        }
+        assertNull(failure.get());
+        
+        int gems = world.getRoom("1").getItems().size() + world.getRoom("2").getItems().size();
+        for (Player player : world.getPlayers()) {
+            gems += player.getInventory().size();
+        }
+        assertEquals(1, gems);
+    }
+    
+    @Test
+    void testRoomActorsRunPlayersWithoutLocks() throws Exception {
+        try (RoomActors actors = new RoomActors(4)) {
+            world.setRoomGuard(actors);
+            int players = 4;
+            List<Thread> threads = new ArrayList<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            for (int p = 0; p < players; p++) {
+                Player player = p == 0 ? world.getPlayer() : world.addPlayer("P" + p);
+                GameController controller = new GameController(world, player, new StringBuilder());
+                String[] turns = p % 2 == 0 ? new String[] {"t gem", "d gem"}
+                        : new String[] {"t gem", "n", "d gem", "s"};
+                threads.add(new Thread(() -> {
+                    try {
+                        controller.step(null, actors).get(5, TimeUnit.SECONDS);
+                        controller.step("Player", actors).get(5, TimeUnit.SECONDS);
+                        for (int i = 0; i < 1000; i++) {
+                            controller.step(turns[i % turns.length], actors).get(5, TimeUnit.SECONDS);
+                        }
+                        controller.step("d gem", actors).get(5, TimeUnit.SECONDS);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join(60_000);
+            }
+            assertNull(failure.get());
+            
+            int gems = world.getRoom("1").getItems().size() + world.getRoom("2").getItems().size();
+            for (Player player : world.getPlayers()) {
+                gems += player.getInventory().size();
+            }
+            assertEquals(1, gems);
+        }
+    }
+}
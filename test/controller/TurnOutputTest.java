@@ -0,0 +1,76 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/*
+tests for message templates and the turn output buffer.
+*/
+class TurnOutputTest {
+    
+    @Test
+    void testSlotsAreFilledInOrder() throws IOException {
+        StringBuilder text = new StringBuilder();
+        TurnOutput output = new TurnOutput(text);
+        output.say(Message.ATTACK).with("troll").with(12);
+        output.say(Message.WALL);
+        assertEquals("", text.toString());
+        output.flush();
+        assertEquals("you attack the troll for 12 damage.\nyou can't go that way. there's a wall.\n",
+                text.toString());
+    }
+    
+    @Test
+    void testNumbers() throws IOException {
+        StringBuilder text = new StringBuilder();
+        TurnOutput output = new TurnOutput(text);
+        output.say(Message.INVENTORY).with(0).with(-45);
+        output.say(Message.TAKE_DAMAGE).with(Long.MIN_VALUE);
+        output.flush();
+        assertEquals("inventory (weight: 0/-45):\nyou take -" + Long.MIN_VALUE + " damage!\n",
+                text.toString());
+    }
+    
+    @Test
+    void testByteSinkGetsUtf8() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TurnOutput output = new TurnOutput(Channels.newChannel(bytes));
+        output.say(Message.PICKED_UP).with("café 👻");
+        output.append("naïve").append('\n');
+        output.flush();
+        assertEquals("you pick up the café 👻.\nnaïve\n",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(0, output.size());
+    }
+    
+    @Test
+    void testLongTextFlushesWithoutSplittingCharacters() throws IOException {
+        StringBuilder text = new StringBuilder();
+        TurnOutput output = new TurnOutput(text);
+        String repeated = "é👻x".repeat(5000);
+        output.say(Message.LINE).with(repeated);
+        output.flush();
+        assertEquals(repeated + "\n", text.toString());
+    }
+    
+    @Test
+    void testUnfilledSlotsAreRejected() throws IOException {
+        TurnOutput output = new TurnOutput(new StringBuilder());
+        output.say(Message.LOOT).with("troll");
+        assertThrows(IllegalStateException.class, () -> output.say(Message.WALL));
+        assertThrows(IllegalStateException.class, () -> output.append("text"));
+        output.with("key");
+        assertThrows(IllegalStateException.class, () -> output.with("extra"));
+    }
+    
+    @Test
+    void testTemplatesRoundTrip() {
+        assertEquals("you craft {} of the {}.\n", Message.CRAFTED_MANY.template());
+        assertEquals(2, Message.CRAFTED_MANY.slots());
+        assertEquals(0, Message.MENU.slots());
+    }
+}
@@ -0,0 +1,54 @@
+package metrics;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandMetricsTest {
+
+  private enum Kind { LOOK, TAKE, QUIT }
+
+  @Test
+  void testDisabledRecordsNothing() {
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, false);
+    assertFalse(metrics.isEnabled());
+    assertEquals(0, metrics.startTimer());
+    metrics.record(Kind.LOOK, 0, 0);
+    assertEquals(0, metrics.getCount(Kind.LOOK));
+    assertNull(metrics.getLatency(Kind.LOOK));
+    assertTrue(metrics.snapshot().isEmpty());
+  }
+
+  @Test
+  void testRecordsCountsAndLatencyPerKind() {
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, true);
+    for (int i = 0; i < 3; i++) {
+      metrics.record(Kind.LOOK, metrics.startTimer(), metrics.startAllocation());
+    }
+    metrics.record(Kind.TAKE, metrics.startTimer(), metrics.startAllocation());
+
+    assertEquals(3, metrics.getCount(Kind.LOOK));
+    assertEquals(1, metrics.getCount(Kind.TAKE));
+    assertEquals(0, metrics.getCount(Kind.QUIT));
+    assertEquals(3, metrics.getLatency(Kind.LOOK).getCount());
+    assertTrue(metrics.getAllocatedBytes(Kind.LOOK) >= 0);
+  }
+
+  @Test
+  void testSnapshotAndReportSkipUnusedKinds() {
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, true);
+    metrics.record(Kind.TAKE, metrics.startTimer(), metrics.startAllocation());
+    metrics.record(Kind.TAKE, metrics.startTimer(), metrics.startAllocation());
+
+    Map<String, long[]> snapshot = metrics.snapshot();
+    assertEquals(1, snapshot.size());
+    long[] take = snapshot.get("take");
+    assertEquals(2, take[0]);
+    assertTrue(take[2] <= take[3] && take[3] <= take[4] && take[4] <= take[5]);
+
+    String[] lines = metrics.report().split(System.lineSeparator());
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("command"));
+    assertTrue(lines[1].startsWith("take"));
+  }
+}
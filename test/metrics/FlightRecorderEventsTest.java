@@ -0,0 +1,59 @@
+package metrics;
+
+import controller.GameController;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.GameWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+  private static final String WORLD = "./resources/align_quest_game_elements.json";
+
+  @Test
+  void testWorldLoadAndTurnsAreRecorded() throws IOException {
+    Path file = Files.createTempFile("adventure", ".jfr");
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("adventure.WorldLoad").withThreshold(Duration.ZERO);
+      recording.enable("adventure.CommandTurn").withThreshold(Duration.ZERO);
+      recording.start();
+      GameController controller = new GameController(new GameWorld(WORLD));
+      controller.step(null);
+      controller.step("Tester");
+      controller.step("i");
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    List<RecordedEvent> loads = named(events, "adventure.WorldLoad");
+    assertFalse(loads.isEmpty());
+    RecordedEvent rooms = loads.stream()
+            .filter(event -> "rooms".equals(event.getString("phase")))
+            .findFirst().orElseThrow();
+    assertEquals(WORLD, rooms.getString("worldFile"));
+    assertTrue(rooms.getInt("elementCount") > 0);
+
+    List<RecordedEvent> turns = named(events, "adventure.CommandTurn");
+    assertEquals(1, turns.size());
+    assertEquals("INVENTORY", turns.get(0).getString("verb"));
+    assertNotNull(turns.get(0).getString("roomNumber"));
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+  }
+}
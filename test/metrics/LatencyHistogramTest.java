@@ -0,0 +1,60 @@
+package metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  @BeforeEach
+  void setUp() {
+    histogram = new LatencyHistogram();
+  }
+
+  @Test
+  void testEmptyHistogram() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    assertEquals(0.0, histogram.getMean(), 0.0);
+  }
+
+  @Test
+  void testSmallValuesAreExact() {
+    for (int i = 1; i <= 50; i++) {
+      histogram.record(i);
+    }
+    assertEquals(50, histogram.getCount());
+    assertEquals(25, histogram.getValueAtPercentile(50));
+    assertEquals(50, histogram.getValueAtPercentile(100));
+    assertEquals(25.5, histogram.getMean(), 0.001);
+  }
+
+  @Test
+  void testLargeValuesStayWithinPrecision() {
+    long value = 1_234_567L;
+    histogram.record(value);
+    long reported = histogram.getValueAtPercentile(50);
+    assertTrue(reported >= value);
+    assertTrue(reported - value <= value / 32);
+  }
+
+  @Test
+  void testBucketBoundsCoverEveryValue() {
+    long[] samples = {0, 63, 64, 65, 127, 128, 1_000_000, Long.MAX_VALUE / 2, Long.MAX_VALUE};
+    for (long sample : samples) {
+      int index = LatencyHistogram.indexFor(sample);
+      assertTrue(LatencyHistogram.highestValueIn(index) >= sample);
+    }
+  }
+
+  @Test
+  void testReset() {
+    histogram.record(100);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+}
@@ -0,0 +1,57 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsReporterTest {
+
+  private enum Kind { LOOK }
+
+  @Test
+  void testDumpReplacesTheReportAndLeavesNoTemporaryFiles() throws IOException {
+    Path dir = Files.createTempDirectory("metrics");
+    Path target = dir.resolve("report.txt");
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, true);
+    try (MetricsReporter reporter = new MetricsReporter(metrics, target, 3600)) {
+      reporter.dump();
+      assertFalse(Files.readString(target).contains("look"));
+
+      metrics.record(Kind.LOOK, metrics.startTimer(), metrics.startAllocation());
+      reporter.dump();
+      assertTrue(Files.readString(target).contains("look"));
+    }
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(1, files.count());
+    } finally {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  @Test
+  void testCloseWritesAFinalReport() throws IOException {
+    Path dir = Files.createTempDirectory("metrics");
+    Path target = dir.resolve("report.txt");
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, true);
+    MetricsReporter reporter = new MetricsReporter(metrics, target, 3600);
+    metrics.record(Kind.LOOK, metrics.startTimer(), metrics.startAllocation());
+    reporter.close();
+    try {
+      assertTrue(Files.readString(target).contains("look"));
+    } finally {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  @Test
+  void testPeriodMustBePositive() {
+    CommandMetrics<Kind> metrics = new CommandMetrics<>(Kind.class, true);
+    assertThrows(IllegalArgumentException.class,
+            () -> new MetricsReporter(metrics, Path.of("unused.txt"), 0));
+  }
+}
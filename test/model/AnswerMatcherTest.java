@@ -0,0 +1,86 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerMatcherTest {
+
+  @Test
+  void testIgnoresCaseWhitespaceAndPunctuation() {
+    AnswerMatcher matcher = AnswerMatcher.compile("Line up", 0);
+    assertTrue(matcher.matches("line up"));
+    assertTrue(matcher.matches("  LINE-UP! "));
+    assertTrue(matcher.matches("lineup"));
+    assertFalse(matcher.matches("line"));
+    assertFalse(matcher.matches("line ups"));
+  }
+
+  @Test
+  void testAcceptsEveryListedAnswer() {
+    AnswerMatcher matcher = AnswerMatcher.compile("Align | Line up|", 0);
+    assertTrue(matcher.matches("align"));
+    assertTrue(matcher.matches("line up"));
+    assertFalse(matcher.matches(""));
+    assertEquals("Align", matcher.getAnswer());
+  }
+
+  @Test
+  void testToleranceForgivesTypingMistakes() {
+    AnswerMatcher matcher = AnswerMatcher.compile("Shadow", 1);
+    assertTrue(matcher.matches("shadow"));
+    assertTrue(matcher.matches("shadw"));
+    assertTrue(matcher.matches("shadows"));
+    assertTrue(matcher.matches("shodow"));
+    assertFalse(matcher.matches("shdw"));
+    assertFalse(matcher.matches("meadow"));
+  }
+
+  @Test
+  void testDistanceMatchesTheTextbookDefinition() {
+    String[] words = {"kitten", "sitting", "saturday", "sunday", "flaw", "lawn", "a", "abc"};
+    for (String answer : words) {
+      for (String attempt : words) {
+        int expected = levenshtein(answer, attempt);
+        for (int tolerance = 1; tolerance <= 3; tolerance++) {
+          assertEquals(expected <= tolerance,
+                  AnswerMatcher.compile(answer, tolerance).matches(attempt),
+                  answer + " vs " + attempt + " within " + tolerance);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testPunctuationOnlyAnswerKeepsItsPunctuation() {
+    AnswerMatcher matcher = AnswerMatcher.compile("?", 0);
+    assertTrue(matcher.matches(" ? "));
+    assertFalse(matcher.matches("!"));
+  }
+
+  @Test
+  void testPuzzleUsesCompiledAnswers() {
+    Puzzle puzzle = new Puzzle("Riddle", true, true, false, "'Echo|An echo'", 10,
+            "What answers without speaking?", "The door opens", "door");
+    assertTrue(puzzle.requiresAnswer());
+    assertEquals("Echo", puzzle.getAnswer());
+    assertFalse(puzzle.solve("ecco"));
+    puzzle.setAnswerTolerance(1);
+    assertTrue(puzzle.solve("an ecco"));
+    assertFalse(puzzle.isActive());
+  }
+
+  private static int levenshtein(String a, String b) {
+    int[][] d = new int[a.length() + 1][b.length() + 1];
+    for (int i = 0; i <= a.length(); i++) {
+      for (int j = 0; j <= b.length(); j++) {
+        if (i == 0 || j == 0) {
+          d[i][j] = i + j;
+        } else {
+          int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+          d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+        }
+      }
+    }
+    return d[a.length()][b.length()];
+  }
+}
@@ -0,0 +1,79 @@
+package model;
+
+import java.util.HashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombatEngineTest {
+
+  private Room room;
+
+  @BeforeEach
+  void setUp() {
+    room = new Room("Cave", "4", "A cave", new HashMap<>(), 0, 0, 0, 0, "items", "picture");
+  }
+
+  private Monster newMonster() {
+    return new Monster("Troll", "A troll", true, -5, true, "bites", "growls", 50,
+            "Sword", "4:Cave");
+  }
+
+  /**
+   * Fights until the monster falls and records the damage of every hit.
+   */
+  private String fight(long seed) {
+    CombatEngine engine = new CombatEngine(new SplittableRandomSource(seed));
+    Player player = new Player(room);
+    Monster monster = newMonster();
+    StringBuilder log = new StringBuilder();
+    HitResult hit;
+    do {
+      hit = engine.exchange(player, monster);
+      log.append(hit.getDamage()).append(hit.isCritical() ? "!" : "").append(' ');
+    } while (!hit.isDefeated());
+    return log.append(player.getHealth()).toString();
+  }
+
+  @Test
+  void testSameSeedReplaysTheSameFight() {
+    assertEquals(fight(42L), fight(42L));
+  }
+
+  @Test
+  void testCriticalHitsFollowTheCriticalChance() {
+    CombatEngine engine = new CombatEngine(new SplittableRandomSource(7L));
+    Player player = new Player(room);
+    int criticals = 0;
+    for (int i = 0; i < 10000; i++) {
+      Monster monster = newMonster();
+      if (engine.exchange(player, monster).isCritical()) {
+        criticals++;
+      }
+      player.setHealth(100);
+    }
+    // 15% of 10000, with plenty of room for chance
+    assertTrue(criticals > 1200 && criticals < 1800, "criticals: " + criticals);
+  }
+
+  @Test
+  void testMonsterStrikesBackUntilDefeated() {
+    CombatEngine engine = new CombatEngine(new SplittableRandomSource(1L));
+    Player player = new Player(room);
+    Monster monster = newMonster();
+
+    HitResult hit = engine.exchange(player, monster);
+    assertTrue(hit.isSuccess());
+    assertEquals(100 - hit.getDamage(), hit.getHealthRemaining());
+    assertEquals(5, engine.getCounterDamage());
+    assertEquals(95, player.getHealth());
+
+    while (!engine.exchange(player, monster).isDefeated()) {
+      assertTrue(monster.isActive());
+    }
+    assertEquals(0, engine.getCounterDamage());
+    assertFalse(monster.isActive());
+    assertSame(hit, engine.exchange(player, monster));
+    assertFalse(hit.isSuccess());
+  }
+}
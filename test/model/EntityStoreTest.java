@@ -0,0 +1,83 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+  private EntityStore store;
+  private Room room;
+
+  @BeforeEach
+  void setUp() {
+    store = new EntityStore(1);
+    room = new Room("Cave", "4", "A cave", new HashMap<>(), 0, 0, 0, 0, "items", "picture");
+  }
+
+  private Monster addMonster(String name, int damage) {
+    return new Monster(store, store.addMonster(name, "A monster", true, damage, true,
+            "bites", "growls", 50, "Sword", "4:Cave"));
+  }
+
+  @Test
+  void testViewsReadAndWriteColumns() {
+    Monster troll = addMonster("Troll", -10);
+    Puzzle lock = new Puzzle(store, store.addPuzzle("Lock", true, true, false, "Key", 150,
+            "A lock", "It is locked", "4:Cave"));
+
+    assertEquals("Troll", troll.getName());
+    assertEquals(-10, troll.getDamage());
+    assertEquals("Key", lock.getSolution());
+    assertEquals(2, store.size());
+
+    troll.takeDamage(30, false);
+    assertEquals(70, troll.getHealthPercentage());
+    lock.setActive(false);
+    assertFalse(lock.isActive());
+    assertTrue(troll.isActive());
+  }
+
+  @Test
+  void testDefeatEmptiesHealth() {
+    Monster troll = addMonster("Troll", 5);
+    room.setMonster(troll);
+
+    store.defeat(troll.getEntityId());
+    assertFalse(troll.isActive());
+    assertEquals(0, troll.getHealthPercentage());
+  }
+
+  @Test
+  void testAttackAllOnlyHitsMonstersInRoom() {
+    Monster here = addMonster("Troll", -10);
+    Monster elsewhere = addMonster("Goblin", 7);
+    room.setMonster(here);
+    elsewhere.setRoom(9);
+    Player player = new Player(room);
+    List<Integer> struck = new ArrayList<>();
+
+    assertEquals(10, store.attackAll(4, player, struck::add));
+    assertEquals(90, player.getHealth());
+    assertEquals(List.of(here.getEntityId()), struck);
+  }
+
+  @Test
+  void testRegenerateIsCapped() {
+    Monster troll = addMonster("Troll", 5);
+    Monster goblin = addMonster("Goblin", 5);
+    Monster fallen = addMonster("Wraith", 5);
+    troll.takeDamage(20, false);
+    goblin.takeDamage(50, false);
+    fallen.takeDamage(50, false);
+    store.defeat(fallen.getEntityId());
+
+    assertEquals(2, store.regenerateAll(30));
+    assertEquals(100, troll.getHealthPercentage());
+    assertEquals(80, goblin.getHealthPercentage());
+    assertEquals(0, fallen.getHealthPercentage());
+  }
+}
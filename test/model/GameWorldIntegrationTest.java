@@ -2,6 +2,9 @@ package model;
 
 import org.junit.jupiter.api.Test;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -191,4 +194,32 @@ public class GameWorldIntegrationTest {
     // Player should get points for defeating the monster
     assertEquals(350, player.getScore());
   }
+  /**
+   * Tests restoring a save whose inventory is heavier than the player can carry.
+   * Verifies that what does not fit is left in the player's room and reported.
+   *
+   * @throws Exception If the save cannot be written or read
+   */
+  @Test
+  void testRestoreLeavesOverweightItemsInTheRoom() throws Exception {
+    GameWorld gameWorld = new GameWorld("./resources/simple_hallway.json");
+    Path save = Files.createTempFile("overweight", ".json");
+    try {
+      gameWorld.saveGame(save.toString());
+      // Five lamps weigh 15, over the limit of 13
+      String lamp = "{\"name\":\"Lamp\",\"uses_remaining\":2}";
+      String json = Files.readString(save).replaceFirst("\"inventory\":\\[\\]",
+              "\"inventory\":[" + String.join(",", lamp, lamp, lamp, lamp, lamp) + "]");
+      Files.writeString(save, json);
+
+      List<Item> leftBehind = gameWorld.loadGame(save.toString());
+      Player player = gameWorld.getPlayer();
+      assertEquals(1, leftBehind.size());
+      assertEquals(4, player.getInventory().size());
+      assertTrue(player.getCurrentRoom().getItems().contains(leftBehind.get(0)));
+      assertEquals(player.getCurrentRoom().getLocation(), leftBehind.get(0).getLocation());
+    } finally {
+      Files.deleteIfExists(save);
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryTest {
+
+  private ItemInstances store;
+  private ItemDefinition coin;
+  private ItemDefinition rock;
+  private ItemDefinition bag;
+  private Inventory inventory;
+
+  @BeforeEach
+  void setUp() {
+    store = new ItemInstances(8);
+    coin = new ItemDefinition("Coin", 1, 1, 1, 1, "Clink.", "A gold coin");
+    rock = new ItemDefinition("Rock", 5, 1, 1, 0, "Thud.", "A heavy rock");
+    bag = new ItemDefinition("Bag", 1, 1, 1, 0, "Rustle.", "A cloth bag", 6);
+    inventory = new Inventory(13);
+  }
+
+  @Test
+  void testCopiesStackByName() {
+    Item first = store.create(coin);
+    Item second = store.create(coin);
+    assertTrue(inventory.add(first));
+    assertTrue(inventory.add(second));
+
+    assertEquals(2, inventory.size());
+    assertEquals(1, inventory.getStacks().size());
+    assertEquals(2, inventory.count("COIN"));
+    assertEquals(2, inventory.getWeight());
+    assertSame(second, inventory.find("coin"));
+  }
+
+  @Test
+  void testRemoveKeepsWeightAndIndexInStep() {
+    Item gold = store.create(coin);
+    Item stone = store.create(rock);
+    inventory.add(gold);
+    inventory.add(stone);
+
+    assertTrue(inventory.remove(gold));
+    assertFalse(inventory.remove(gold));
+    assertNull(inventory.find("coin"));
+    assertSame(stone, inventory.find("rock"));
+    assertEquals(5, inventory.getWeight());
+    assertEquals(1, inventory.getItems().size());
+  }
+
+  @Test
+  void testCapacityIsEnforced() {
+    assertTrue(inventory.add(store.create(rock)));
+    assertTrue(inventory.add(store.create(rock)));
+    assertFalse(inventory.add(store.create(rock)));
+    assertEquals(10, inventory.getWeight());
+  }
+
+  @Test
+  void testContainerContentsCountTowardsParent() {
+    Item sack = store.create(bag);
+    Item stone = store.create(rock);
+    inventory.add(sack);
+    inventory.add(stone);
+    assertEquals(6, inventory.getWeight());
+
+    assertTrue(inventory.moveInto(sack, stone));
+    assertEquals(6, inventory.getWeight());
+    assertEquals(5, sack.getContents().getWeight());
+    assertNull(inventory.find("rock"));
+    assertEquals(ItemInstances.IN_CONTAINER, stone.getLocation());
+
+    // The bag only holds 6, so a second rock stays out
+    Item another = store.create(rock);
+    inventory.add(another);
+    assertFalse(inventory.moveInto(sack, another));
+    assertSame(another, inventory.find("rock"));
+
+    inventory.remove(sack);
+    assertEquals(5, inventory.getWeight());
+  }
+
+  @Test
+  void testContainerCannotHoldItself() {
+    Item sack = store.create(bag);
+    assertThrows(IllegalArgumentException.class, () -> sack.getContents().add(sack));
+  }
+
+  @Test
+  void testViewIsReadOnly() {
+    inventory.add(store.create(coin));
+    assertThrows(UnsupportedOperationException.class,
+        () -> inventory.getItems().add(store.create(coin)));
+  }
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemInstancesTest {
+
+  private ItemInstances store;
+  private ItemDefinition key;
+
+  @BeforeEach
+  void setUp() {
+    store = new ItemInstances(2);
+    key = new ItemDefinition("Key", 1, 3, 3, 5, "Click!", "A small key");
+  }
+
+  @Test
+  void testCopiesShareDefinitionButNotUses() {
+    Item first = store.create(key);
+    Item second = store.create(key);
+
+    assertSame(first.getDefinition(), second.getDefinition());
+    assertTrue(first.use());
+    assertEquals(2, first.getUsesRemaining());
+    assertEquals(3, second.getUsesRemaining());
+  }
+
+  @Test
+  void testReleasedIdsAreReused() {
+    Item first = store.create(key);
+    int id = first.getInstanceId();
+    store.create(key);
+    store.release(id);
+    assertEquals(1, store.size());
+
+    Item reused = store.create(key, 1);
+    assertEquals(id, reused.getInstanceId());
+    assertEquals(1, reused.getUsesRemaining());
+    assertThrows(IllegalArgumentException.class, () -> store.release(99));
+  }
+
+  @Test
+  void testReleasedViewDoesNotReadItsSuccessor() {
+    Item first = store.create(key);
+    store.release(first.getInstanceId());
+    assertThrows(IllegalArgumentException.class, first::getUsesRemaining);
+
+    Item reused = store.create(key, 1);
+    assertEquals(first.getInstanceId(), reused.getInstanceId());
+    assertThrows(IllegalStateException.class, first::getUsesRemaining);
+    assertThrows(IllegalStateException.class, () -> first.setUsesRemaining(3));
+    assertEquals(1, reused.getUsesRemaining());
+  }
+
+  @Test
+  void testDroppedStandaloneItemsAreFreed() throws InterruptedException {
+    Item lamp = new Item("Lamp", 3, 10, 2, 100, "You light the lamp.", "An oil lamp.");
+    Item rope = new Item("Rope", 2, 1, 1, 5, "You tie the rope.", "A coil of rope.");
+    assertEquals(lamp.getInstanceId(), rope.getInstanceId());
+    assertEquals("Lamp", lamp.getName());
+    WeakReference<ItemDefinition> definition = new WeakReference<>(lamp.getDefinition());
+    lamp = null;
+    for (int i = 0; i < 50 && definition.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(definition.get(), "a dropped standalone item kept its definition alive");
+    assertEquals("Rope", rope.getName());
+  }
+
+  @Test
+  void testStoreGrows() {
+    for (int i = 0; i < 1000; i++) {
+      store.allocate(key, i % 4);
+    }
+    assertEquals(1000, store.size());
+    assertEquals(3, store.getUsesRemaining(999));
+  }
+
+  @Test
+  void testWritesDuringGrowthAreKept() throws InterruptedException {
+    int[] ids = new int[16];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = store.allocate(key, 0);
+    }
+    Thread grower = new Thread(() -> {
+      for (int i = 0; i < 100_000; i++) {
+        store.allocate(key, 1);
+      }
+    });
+    grower.start();
+    for (int round = 1; round <= 20_000; round++) {
+      for (int id : ids) {
+        store.setLocation(id, round);
+        store.setUsesRemaining(id, round);
+      }
+    }
+    grower.join(30_000);
+    for (int id : ids) {
+      assertEquals(20_000, store.getLocation(id));
+      assertEquals(20_000, store.getUsesRemaining(id));
+    }
+  }
+
+  @Test
+  void testLocationFollowsRoomAndInventory() {
+    java.util.Map<Direction, String> exits = new java.util.HashMap<>();
+    Room room = new Room("Hall", "7", "A hall", exits, 0, 0, 0, 0, "items", "picture");
+    Player player = new Player(room);
+    Item item = store.create(key);
+
+    room.addItem(item);
+    assertEquals(7, item.getLocation());
+
+    room.removeItem(item);
+    player.addToInventory(item);
+    assertEquals(ItemInstances.IN_INVENTORY, item.getLocation());
+
+    player.removeFromInventory(item);
+    assertEquals(ItemInstances.NOWHERE, item.getLocation());
+  }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static model.Samples.definition;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LootTableTest {
+
+  /**
+   * Rolls a table many times and counts the copies of each item dropped.
+   */
+  private static Map<String, Integer> tally(LootTable table, Inventory carrying, int rolls) {
+    Map<String, Integer> counts = new HashMap<>();
+    RandomSource random = new SplittableRandomSource(11L);
+    LootTable.Sink sink = (item, count) -> counts.merge(item.getName(), count, Integer::sum);
+    for (int i = 0; i < rolls; i++) {
+      table.roll(random, carrying, sink);
+    }
+    return counts;
+  }
+
+  @Test
+  void testDropsFollowTheWeights() {
+    LootTable table = new LootTable(List.of(), 1, List.of(
+            LootTable.Entry.item(definition("Gold"), 60, 1),
+            LootTable.Entry.item(definition("Gem"), 30, 1),
+            LootTable.Entry.item(definition("Crown"), 1, 1),
+            LootTable.Entry.nothing(9)));
+    Map<String, Integer> counts = tally(table, null, 100000);
+    // 60%, 30% and 1% of 100000, with plenty of room for chance
+    assertTrue(Math.abs(counts.get("Gold") - 60000) < 1500, "gold: " + counts.get("Gold"));
+    assertTrue(Math.abs(counts.get("Gem") - 30000) < 1500, "gem: " + counts.get("Gem"));
+    assertTrue(Math.abs(counts.get("Crown") - 1000) < 300, "crown: " + counts.get("Crown"));
+  }
+
+  @Test
+  void testGuaranteedDropsAlwaysFall() {
+    LootTable table = new LootTable(List.of(definition("Sealed Key")), 2,
+            List.of(LootTable.Entry.nothing(1)));
+    assertEquals(Map.of("Sealed Key", 50), tally(table, null, 50));
+  }
+
+  @Test
+  void testConditionsCheckWhatThePlayerCarries() {
+    LootTable table = new LootTable(List.of(), 1, List.of(
+            LootTable.Entry.item(definition("Lamp Oil"), 1, 2).ifCarrying("Lamp"),
+            LootTable.Entry.item(definition("Lamp"), 1, 1).unlessCarrying("Lamp")));
+    Map<String, Integer> without = tally(table, null, 1000);
+    assertNull(without.get("Lamp Oil"));
+    assertTrue(without.get("Lamp") > 400);
+
+    Inventory carrying = new Inventory(100);
+    carrying.add(new Item("Lamp", 1, 1, 1, 1, "", ""));
+    Map<String, Integer> with = tally(table, carrying, 1000);
+    assertNull(with.get("Lamp"));
+    assertTrue(with.get("Lamp Oil") > 800);
+  }
+
+  @Test
+  void testNestedTablesRollOnce() {
+    LootTable rare = new LootTable(List.of(), 1, List.of(
+            LootTable.Entry.item(definition("Ruby"), 1, 1),
+            LootTable.Entry.item(definition("Emerald"), 1, 1)));
+    LootTable table = new LootTable(List.of(), 1, List.of(LootTable.Entry.table(rare, 1)));
+    Map<String, Integer> counts = tally(table, null, 10000);
+    assertEquals(10000, counts.get("Ruby") + counts.get("Emerald"));
+    assertTrue(Math.abs(counts.get("Ruby") - 5000) < 300);
+  }
+
+  @Test
+  void testDefeatedMonsterDropsLootInTheRoom() throws IOException {
+    Path file = Files.createTempFile("loot", ".json");
+    try {
+      Files.writeString(file, "{ \"name\": \"Lair\", \"version\": \"1.0\", \"rooms\": ["
+              + "{ \"room_name\": \"Lair\", \"room_number\": \"1\", \"description\": \"Dark.\","
+              + " \"N\": \"0\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\", \"monster\": \"Guardian\" } ],"
+              + " \"items\": [ { \"name\": \"Sealed Key\" }, { \"name\": \"Gold\" } ],"
+              + " \"monsters\": [ { \"name\": \"Guardian\", \"active\": \"true\","
+              + " \"solution\": \"Sword\", \"value\": \"10\", \"target\": \"1:Lair\","
+              + " \"loot\": { \"guaranteed\": \"Sealed Key\", \"entries\": ["
+              + " { \"item\": \"Gold\", \"count\": \"3\", \"weight\": \"1\" } ] } } ] }");
+      GameWorld world = new GameWorld(file.toString());
+      assertTrue(world.isLoot(Symbols.lookup("Sealed Key")));
+      assertTrue(world.applySolution("Sword"));
+
+      Room lair = world.getRoom("1");
+      assertNotNull(lair.getItem("Sealed Key"));
+      assertEquals(4, world.getLastLoot().size());
+      assertEquals(4, lair.getItems().size());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
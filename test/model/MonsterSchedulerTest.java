@@ -0,0 +1,139 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scheduler.TurnClock;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonsterSchedulerTest {
+
+  // Hall - Den - Yard in a row; the troll in the yard guards the way up to the tower
+  private static final String WORLD = "{ \"name\": \"Den\", \"version\": \"1.0\", \"rooms\": ["
+          + "{ \"room_name\": \"Hall\", \"room_number\": \"1\", \"description\": \"A hall.\","
+          + " \"N\": \"0\", \"S\": \"0\", \"E\": \"2\", \"W\": \"0\" },"
+          + "{ \"room_name\": \"Den\", \"room_number\": \"2\", \"description\": \"A den.\","
+          + " \"N\": \"0\", \"S\": \"0\", \"E\": \"3\", \"W\": \"1\", \"monster\": \"Wolf\" },"
+          + "{ \"room_name\": \"Yard\", \"room_number\": \"3\", \"description\": \"A yard.\","
+          + " \"N\": \"-4\", \"S\": \"0\", \"E\": \"0\", \"W\": \"2\", \"monster\": \"Troll\" },"
+          + "{ \"room_name\": \"Tower\", \"room_number\": \"4\", \"description\": \"A tower.\","
+          + " \"N\": \"0\", \"S\": \"3\", \"E\": \"0\", \"W\": \"0\" } ],"
+          + " \"monsters\": ["
+          + " { \"name\": \"Wolf\", \"active\": \"true\", \"can_attack\": \"true\","
+          + " \"damage\": \"-5\", \"attack\": \"bites\", \"solution\": \"Bone\","
+          + " \"effects\": \"A wolf growls.\", \"target\": \"2:Den\" },"
+          + " { \"name\": \"Troll\", \"active\": \"true\", \"can_attack\": \"true\","
+          + " \"damage\": \"-8\", \"attack\": \"swings a club\", \"solution\": \"Club\","
+          + " \"effects\": \"A troll blocks the way.\", \"target\": \"3:Yard\" } ] }";
+
+  private Path file;
+  private GameWorld world;
+  private TurnClock clock;
+  private Monster wolf;
+  private Monster troll;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = Files.createTempFile("monsters", ".json");
+    Files.writeString(file, WORLD);
+    world = new GameWorld(file.toString());
+    clock = new TurnClock();
+    wolf = world.getMonsterByName("Wolf");
+    troll = world.getMonsterByName("Troll");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private MonsterScheduler scheduler(int attackEvery, int regenerateEvery, int roamEvery) {
+    return new MonsterScheduler(world, clock, new SplittableRandomSource(3L), attackEvery,
+            regenerateEvery, 10, roamEvery);
+  }
+
+  @Test
+  void testMonstersOnlyAttackInTheirOwnRoom() {
+    MonsterScheduler timers = scheduler(1, 0, 0);
+    Player player = world.getPlayer();
+    timers.endTurn();
+    timers.endTurn();
+    assertEquals(100, player.getHealth());
+    assertEquals("", timers.drainLog());
+
+    player.setCurrentRoom(world.getRoom("2"));
+    timers.endTurn();
+    timers.endTurn();
+    assertEquals(90, player.getHealth());
+    assertEquals("wolf bites\nyou take -5 damage!\nwolf bites\nyou take -5 damage!\n",
+            timers.drainLog());
+  }
+
+  @Test
+  void testDefeatedMonstersNeitherAttackNorHeal() {
+    MonsterScheduler timers = scheduler(1, 1, 0);
+    world.getPlayer().setCurrentRoom(world.getRoom("3"));
+    troll.takeDamage(50, false);
+    world.getEntities().defeat(troll.getEntityId());
+    for (int i = 0; i < 3; i++) {
+      timers.endTurn();
+    }
+    assertEquals(100, world.getPlayer().getHealth());
+    assertEquals(0, troll.getHealth());
+  }
+
+  @Test
+  void testRegenerationIsCapped() {
+    MonsterScheduler timers = scheduler(0, 1, 0);
+    wolf.takeDamage(25, false);
+    timers.endTurn();
+    assertEquals(85, wolf.getHealth());
+    for (int i = 0; i < 5; i++) {
+      timers.endTurn();
+    }
+    assertEquals(100, wolf.getHealth());
+  }
+
+  @Test
+  void testMonstersRoamUnlessTheyGuardAnExit() {
+    MonsterScheduler timers = scheduler(0, 0, 1);
+    timers.endTurn();
+    // The hall is the wolf's only free neighbour; the troll holds the yard
+    assertSame(wolf, world.getRoom("1").getMonster());
+    assertNull(world.getRoom("2").getMonster());
+    assertEquals(1, wolf.getRoomNumber());
+    assertSame(troll, world.getRoom("3").getMonster());
+    assertEquals("the wolf wanders in.\n", timers.drainLog());
+
+    timers.endTurn();
+    assertSame(wolf, world.getRoom("2").getMonster());
+    assertEquals("the wolf wanders off.\n", timers.drainLog());
+  }
+
+  @Test
+  void testSavedGameKeepsMonstersWhereTheyRoamedAndTheirWounds() throws Exception {
+    scheduler(0, 0, 1).endTurn();
+    wolf.takeDamage(30, false);
+    world.getEntities().defeat(troll.getEntityId());
+    Path save = Files.createTempFile("monsters-save", ".json");
+    try {
+      world.saveGame(save.toString());
+      GameWorld restored = new GameWorld(file.toString());
+      restored.loadGame(save.toString());
+
+      Monster restoredWolf = restored.getMonsterByName("Wolf");
+      assertSame(restoredWolf, restored.getRoom("1").getMonster());
+      assertNull(restored.getRoom("2").getMonster());
+      assertEquals(1, restoredWolf.getRoomNumber());
+      assertTrue(restoredWolf.isActive());
+      assertEquals(70, restoredWolf.getHealth());
+      assertFalse(restored.getMonsterByName("Troll").isActive());
+      assertEquals(0, restored.getMonsterByName("Troll").getHealth());
+    } finally {
+      Files.deleteIfExists(save);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static model.Samples.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearbyEventsTest {
+
+  private Room hall;
+  private Room vault;
+  private Room attic;
+  private NearbyEvents events;
+
+  @BeforeEach
+  void setUp() {
+    // hall - vault - attic, in a line going north
+    hall = room("1");
+    vault = room("2");
+    attic = room("3");
+    hall.setExit(Direction.NORTH, vault);
+    vault.setExit(Direction.SOUTH, hall);
+    vault.setExit(Direction.NORTH, attic);
+    attic.setExit(Direction.SOUTH, vault);
+    events = new NearbyEvents();
+  }
+
+  @Test
+  void testEventsReachTheRoomAndItsNeighboursOnly() {
+    Player actor = new Player(hall);
+    Player beside = new Player(hall);
+    Player next = new Player(vault);
+    Player far = new Player(attic);
+    events.subscribe(actor);
+    NearbyEvents.Subscription besideHears = events.subscribe(beside);
+    NearbyEvents.Subscription nextHears = events.subscribe(next);
+    NearbyEvents.Subscription farHears = events.subscribe(far);
+
+    assertEquals(2, events.publish(hall, actor, "Ann picks up the lamp."));
+    NearbyEvents.Event event = besideHears.poll();
+    assertEquals("Ann picks up the lamp.", event.getText());
+    assertSame(hall, event.getRoom());
+    assertSame(actor, event.getSource());
+    // Every recipient shares the one event
+    assertSame(event, nextHears.poll());
+    assertNull(farHears.poll());
+    assertNull(besideHears.poll());
+  }
+
+  @Test
+  void testTheIndexFollowsPlayersAsTheyMove() {
+    Player walker = new Player(hall);
+    Player listener = new Player(attic);
+    NearbyEvents.Subscription hears = events.subscribe(listener);
+    events.subscribe(walker);
+    assertFalse(events.isHeard(hall, walker));
+
+    assertTrue(walker.move(Direction.NORTH));
+    assertEquals(0, events.countIn(hall));
+    assertEquals(1, events.countIn(vault));
+    assertTrue(events.isHeard(vault, walker));
+
+    listener.setCurrentRoom(hall);
+    assertEquals(1, events.countIn(hall));
+    assertEquals(0, events.countIn(attic));
+    events.publish(vault, walker, "Bo drops the key.");
+    assertNotNull(hears.poll());
+
+    events.unsubscribe(listener);
+    assertEquals(0, events.countIn(hall));
+    assertEquals(0, events.publish(vault, walker, "Bo waves."));
+  }
+
+  @Test
+  void testSubscribingTwiceKeepsOneSubscription() {
+    Player player = new Player(hall);
+    assertSame(events.subscribe(player), events.subscribe(player));
+    assertEquals(1, events.countIn(hall));
+    assertEquals(1, events.publish(vault, null, "the Teddy Bear growls."));
+  }
+}
@@ -0,0 +1,154 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static model.Samples.definition;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeBookTest {
+
+  private ItemInstances instances;
+  private RecipeBook book;
+  private Player player;
+
+  @BeforeEach
+  void setUp() {
+    instances = new ItemInstances(16);
+    book = new RecipeBook(instances);
+    player = new Player(new Room("Forge", "1", "A forge", new HashMap<>(), 0, 0, 0, 0,
+            "items", "picture"));
+  }
+
+  private void give(String name, int copies) {
+    ItemDefinition definition = definition(name);
+    for (int i = 0; i < copies; i++) {
+      player.addToInventory(instances.create(definition));
+    }
+  }
+
+  @Test
+  void testCraftConsumesIngredientsAndMakesOutput() {
+    book.add(new Recipe("Sword", List.of("Iron", "Diamond"), definition("Diamond Sword"), 1,
+            null));
+    give("Iron", 1);
+    give("Diamond", 1);
+    give("Apple", 1);
+
+    Recipe made = book.craft(player);
+    assertNotNull(made);
+    assertEquals("Sword", made.getName());
+    Inventory inventory = player.getInventoryStore();
+    assertEquals(0, inventory.count("Iron"));
+    assertEquals(0, inventory.count("Diamond"));
+    assertEquals(1, inventory.count("Apple"));
+    assertEquals(1, inventory.count("Diamond Sword"));
+    assertNull(book.craft(player));
+  }
+
+  @Test
+  void testIngredientCountsMatter() {
+    book.add(new Recipe("Chain", List.of("Iron", "Iron", "Iron"), definition("Chain"), 1, null));
+    give("Iron", 2);
+    assertNull(book.craft(player));
+    give("Iron", 2);
+    assertNotNull(book.craft(player));
+    assertEquals(1, player.getInventoryStore().count("Iron"));
+  }
+
+  @Test
+  void testRecipeUsingTheMostItemsWins() {
+    book.add(new Recipe("Nail", List.of("Iron"), definition("Nail"), 4, null));
+    book.add(new Recipe("Hammer", List.of("Iron", "Wood"), definition("Hammer"), 1, null));
+    book.add(new Recipe("Axe", List.of("Iron", "Iron", "Wood"), definition("Axe"), 1, null));
+    give("Iron", 2);
+    give("Wood", 1);
+    assertEquals("Axe", book.craft(player).getName());
+  }
+
+  @Test
+  void testNamedIngredientsPickTheRecipe() {
+    book.add(new Recipe("Nail", List.of("Iron"), definition("Nail"), 4, null));
+    book.add(new Recipe("Hammer", List.of("Iron", "Wood"), definition("Hammer"), 1, null));
+    give("Iron", 1);
+    give("Wood", 1);
+    assertNull(book.craft(player, List.of("iron", "iron")));
+    assertNull(book.craft(player, List.of("iron", "stone")));
+
+    assertEquals("Nail", book.craft(player, List.of(" IRON ")).getName());
+    assertEquals(4, player.getInventoryStore().count("Nail"));
+    assertEquals(1, player.getInventoryStore().count("Wood"));
+  }
+
+  @Test
+  void testSameIngredientsTwiceIsRejected() {
+    book.add(new Recipe("Hammer", List.of("Iron", "Wood"), definition("Hammer"), 1, null));
+    assertThrows(IllegalArgumentException.class, () -> book.add(
+            new Recipe("Mallet", List.of("Wood", "Iron"), definition("Mallet"), 1, null)));
+  }
+
+  @Test
+  void testLookupStaysExactAmongThousandsOfRecipes() {
+    for (int i = 0; i < 5000; i++) {
+      book.add(new Recipe("Alloy " + i, List.of("Ore " + i, "Ore " + (i + 1)),
+              definition("Alloy " + i), 1, null));
+    }
+    assertEquals(5000, book.size());
+    give("Ore 1234", 1);
+    give("Ore 1235", 1);
+    assertEquals("Alloy 1234", book.craft(player).getName());
+  }
+
+  @Test
+  void testBigInventoriesStillFindTheirRecipe() {
+    for (int i = 0; i < 11; i++) {
+      book.add(new Recipe("Tonic " + i, List.of("Herb " + i, "Salt"), definition("Tonic " + i),
+              1, null));
+      give("Herb " + i, 1);
+    }
+    book.add(new Recipe("Hammer", List.of("Iron", "Wood"), definition("Hammer"), 1, null));
+    assertNull(book.craft(player));
+    give("Iron", 1);
+    give("Wood", 1);
+    // 13 kinds of ingredient make 8192 sub-multisets, more than were ever probed
+    assertEquals("Hammer", book.craft(player).getName());
+    assertEquals(0, player.getInventoryStore().count("Iron"));
+    assertEquals(1, player.getInventoryStore().count("Hammer"));
+    assertEquals(1, player.getInventoryStore().count("Herb 4"));
+  }
+
+  @Test
+  void testWorldAttachesRecipesToStations() throws IOException {
+    Path file = Files.createTempFile("crafting", ".json");
+    try {
+      Files.writeString(file, "{ \"name\": \"Forge\", \"version\": \"1.0\", \"rooms\": ["
+              + "{ \"room_name\": \"Forge\", \"room_number\": \"1\", \"description\": \"Hot.\","
+              + " \"N\": \"0\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\","
+              + " \"items\": \"Iron, Diamond\", \"fixtures\": \"Anvil\" } ],"
+              + " \"items\": ["
+              + "{ \"name\": \"Iron\", \"weight\": \"1\" }, { \"name\": \"Diamond\", \"weight\": \"1\" },"
+              + "{ \"name\": \"Diamond Sword\", \"weight\": \"2\" } ],"
+              + " \"fixtures\": [ { \"name\": \"Anvil\", \"weight\": \"1000\" } ],"
+              + " \"recipes\": [ { \"name\": \"Diamond Sword\", \"station\": \"Anvil\","
+              + " \"ingredients\": \"Iron, Diamond\" } ] }");
+      GameWorld world = new GameWorld(file.toString());
+      assertTrue(world.isCraftable(Symbols.lookup("Diamond Sword")));
+      assertNull(world.craft(List.of()));
+
+      Room forge = world.getRoom("1");
+      for (String name : List.of("Iron", "Diamond")) {
+        Item item = forge.getItem(name);
+        forge.removeItem(item);
+        world.getPlayer().addToInventory(item);
+      }
+      assertNotNull(world.craft(List.of()));
+      assertNotNull(world.getPlayer().getItemFromInventory("Diamond Sword"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
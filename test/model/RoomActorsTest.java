@@ -0,0 +1,105 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static model.Samples.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomActorsTest {
+
+  private RoomActors actors;
+
+  @BeforeEach
+  void setUp() {
+    actors = new RoomActors(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    actors.close();
+  }
+
+  @Test
+  void testMessagesToARoomRunOneAtATimeInOrder() throws Exception {
+    Room room = room("1");
+    int senders = 4;
+    int each = 5000;
+    int[] count = new int[1];
+    int[] last = new int[senders];
+    AtomicInteger inside = new AtomicInteger();
+    AtomicInteger overlaps = new AtomicInteger();
+    AtomicInteger reordered = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(senders * each);
+    Thread[] threads = new Thread[senders];
+    for (int s = 0; s < senders; s++) {
+      int sender = s;
+      threads[s] = new Thread(() -> {
+        for (int i = 1; i <= each; i++) {
+          int sequence = i;
+          actors.tell(room, () -> {
+            if (inside.incrementAndGet() > 1) {
+              overlaps.incrementAndGet();
+            }
+            // Plain fields: only safe because one actor owns them
+            count[0]++;
+            if (last[sender] != sequence - 1) {
+              reordered.incrementAndGet();
+            }
+            last[sender] = sequence;
+            inside.decrementAndGet();
+            done.countDown();
+          });
+        }
+      });
+      threads[s].start();
+    }
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(0, overlaps.get());
+    assertEquals(0, reordered.get());
+    CompletableFuture<Integer> total = new CompletableFuture<>();
+    actors.tell(room, () -> total.complete(count[0]));
+    assertEquals(senders * each, (int) total.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testChangesFromOutsideAreSentToTheRoom() throws Exception {
+    Room room = room("2");
+    CompletableFuture<Boolean> ranOnActor = new CompletableFuture<>();
+    assertFalse(actors.isRunning(room));
+    actors.apply(room, () -> ranOnActor.complete(actors.isRunning(room)));
+    assertTrue(ranOnActor.get(5, TimeUnit.SECONDS));
+
+    // From the room's own actor, a change runs at once
+    CompletableFuture<Boolean> inline = new CompletableFuture<>();
+    actors.tell(room, () -> {
+      boolean[] ran = new boolean[1];
+      actors.apply(room, () -> ran[0] = true);
+      inline.complete(ran[0]);
+    });
+    assertTrue(inline.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testRoomsAreOnlyUsedFromTheirActors() throws Exception {
+    Room room = room("3");
+    Player player = new Player(room);
+    assertThrows(IllegalStateException.class, () -> actors.lock(player));
+    CompletableFuture<Room> locked = new CompletableFuture<>();
+    actors.tell(room, () -> locked.complete(actors.lock(player)));
+    assertSame(room, locked.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testIdleRoomsHaveNoMailbox() {
+    Room busy = room("4");
+    room("5");
+    room("6");
+    actors.tell(busy, () -> { });
+    assertEquals(1, actors.getMailboxCount());
+  }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static model.Samples.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomLocksTest {
+
+  @Test
+  void testStripeCountIsAPowerOfTwo() {
+    assertEquals(8, new RoomLocks(5).getStripeCount());
+    assertEquals(8, new RoomLocks(8).getStripeCount());
+    assertEquals(1, new RoomLocks(1).getStripeCount());
+    assertThrows(IllegalArgumentException.class, () -> new RoomLocks(0));
+  }
+
+  @Test
+  void testNeighbouringRoomsGetDifferentStripes() {
+    RoomLocks locks = new RoomLocks(8);
+    assertNotEquals(locks.stripeOf(room("1")), locks.stripeOf(room("2")));
+    assertEquals(locks.stripeOf(room("1")), locks.stripeOf(room("9")));
+  }
+
+  @Test
+  void testLockAlsoBacksOffInsteadOfWaitingOutOfOrder() throws Exception {
+    RoomLocks locks = new RoomLocks(8);
+    Room low = room("1");
+    Room high = room("2");
+    CountDownLatch held = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread other = new Thread(() -> {
+      locks.lock(low);
+      held.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        locks.unlock(low);
+      }
+    });
+    other.start();
+    assertTrue(held.await(5, TimeUnit.SECONDS));
+
+    locks.lock(high);
+    Thread releaser = new Thread(() -> {
+      // Gets the higher stripe only once the main thread has let go of it
+      locks.lock(high);
+      release.countDown();
+      locks.unlock(high);
+    });
+    releaser.start();
+    assertFalse(locks.lockAlso(high, low));
+    assertTrue(locks.isHeldByCurrentThread(high));
+    assertTrue(locks.isHeldByCurrentThread(low));
+    locks.unlock(high, low);
+    assertFalse(locks.isHeldByCurrentThread(high));
+    assertFalse(locks.isHeldByCurrentThread(low));
+    other.join(5000);
+    releaser.join(5000);
+  }
+
+  @Test
+  void testChangesToABusyRoomWaitForItsHolder() throws Exception {
+    RoomLocks locks = new RoomLocks(8);
+    Room busy = room("3");
+    AtomicInteger changes = new AtomicInteger();
+    CountDownLatch held = new CountDownLatch(1);
+    CountDownLatch queued = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      locks.lock(busy);
+      held.countDown();
+      try {
+        queued.await();
+        // Still held, so the change has not run yet
+        assertEquals(0, changes.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        locks.unlock(busy);
+      }
+    });
+    holder.start();
+    assertTrue(held.await(5, TimeUnit.SECONDS));
+    locks.apply(busy, changes::incrementAndGet);
+    queued.countDown();
+    holder.join(5000);
+    assertEquals(1, changes.get());
+
+    // A free room changes at once
+    locks.apply(busy, changes::incrementAndGet);
+    assertEquals(2, changes.get());
+  }
+}
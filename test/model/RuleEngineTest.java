@@ -0,0 +1,124 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEngineTest {
+
+  private static final String WORLD = "{ \"name\": \"Rules\", \"version\": \"1.0\", \"rooms\": ["
+          + "{ \"room_name\": \"Hall\", \"room_number\": \"1\", \"description\": \"A hall.\","
+          + " \"N\": \"-2\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\", \"puzzle\": \"Riddle\" },"
+          + "{ \"room_name\": \"Vault\", \"room_number\": \"2\", \"description\": \"A vault.\","
+          + " \"N\": \"-3\", \"S\": \"1\", \"E\": \"0\", \"W\": \"0\" },"
+          + "{ \"room_name\": \"Attic\", \"room_number\": \"3\", \"description\": \"An attic.\","
+          + " \"N\": \"0\", \"S\": \"2\", \"E\": \"0\", \"W\": \"0\" } ],"
+          + " \"items\": [ { \"name\": \"Gem\" } ],"
+          + " \"puzzles\": [ { \"name\": \"Riddle\", \"active\": \"true\", \"solution\": \"'echo'\","
+          + " \"value\": \"10\", \"target\": \"1:Hall\" } ],"
+          + " \"rules\": ["
+          + " { \"on\": \"solved:Riddle\", \"do\": [\"unblock:2:N\", \"set:riddle_done\","
+          + " \"say:A distant door creaks.\"] },"
+          + " { \"on\": \"enter:2\", \"if\": \"flag:riddle_done\", \"do\": \"spawn:2:Gem\" },"
+          + " { \"on\": \"take:Gem\", \"if\": [\"!carrying:Lamp\", \"in_room:2\"],"
+          + " \"do\": \"damage:10\", \"repeat\": \"true\" } ] }";
+
+  private Path file;
+  private GameWorld world;
+  private RuleEngine rules;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = Files.createTempFile("rules", ".json");
+    Files.writeString(file, WORLD);
+    world = new GameWorld(file.toString());
+    rules = world.getRules();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void testRulesReplaceTheDefaultUnblock() {
+    assertEquals(3, rules.size());
+    assertTrue(world.applySolution("echo"));
+    assertEquals("-2", world.getRoom("1").getExitRoomNumber(Direction.NORTH));
+    assertEquals("3", world.getRoom("2").getExitRoomNumber(Direction.NORTH));
+    assertSame(world.getRoom("3"), world.getRoom("2").getExit(Direction.NORTH));
+    assertTrue(rules.isSet("riddle_done"));
+    assertEquals("A distant door creaks.\n", world.drainLog(world.getPlayer()));
+    assertEquals("", world.drainLog(world.getPlayer()));
+  }
+
+  @Test
+  void testConditionsGateRulesAndRulesFireOnce() {
+    Room vault = world.getRoom("2");
+    assertEquals(0, rules.fire(RuleEvent.ENTER, "2"));
+    assertNull(vault.getItem("Gem"));
+
+    world.applySolution("echo");
+    assertEquals(1, rules.fire(RuleEvent.ENTER, "2"));
+    assertEquals(0, rules.fire(RuleEvent.ENTER, "2"));
+    assertEquals(1, vault.getItems().size());
+  }
+
+  @Test
+  void testRepeatableRulesFireEveryTime() {
+    world.getPlayer().setCurrentRoom(world.getRoom("2"));
+    rules.fire(RuleEvent.TAKE, "gem");
+    rules.fire(RuleEvent.TAKE, "GEM");
+    assertEquals(80, world.getPlayer().getHealth());
+    assertEquals(0, rules.fire(RuleEvent.TAKE, "Lamp"));
+  }
+
+  @Test
+  void testFlagsSurviveSaveAndRestore() throws Exception {
+    world.applySolution("echo");
+    rules.fire(RuleEvent.ENTER, "2");
+    Path save = Files.createTempFile("rules-save", ".json");
+    try {
+      world.saveGame(save.toString());
+      rules.restoreState(List.of());
+      assertFalse(rules.isSet("riddle_done"));
+      world.loadGame(save.toString());
+      assertTrue(rules.isSet("riddle_done"));
+      // The spawn rule stays spent
+      assertEquals(0, rules.fire(RuleEvent.ENTER, "2"));
+    } finally {
+      Files.deleteIfExists(save);
+    }
+  }
+
+  @Test
+  void testSpentRulesFollowTheirDeclarationNotTheirPosition() throws Exception {
+    world.applySolution("echo");
+    rules.fire(RuleEvent.ENTER, "2");
+    Path save = Files.createTempFile("rules-save", ".json");
+    try {
+      world.saveGame(save.toString());
+      // A new one-shot rule is added in front of the others
+      Files.writeString(file, WORLD.replace("\"rules\": [",
+              "\"rules\": [ { \"on\": \"enter:3\", \"do\": \"score:5\" },"));
+      GameWorld edited = new GameWorld(file.toString());
+      edited.loadGame(save.toString());
+      assertEquals(0, edited.getRules().fire(RuleEvent.ENTER, "2"));
+      assertEquals(1, edited.getRules().fire(RuleEvent.ENTER, "3"));
+    } finally {
+      Files.deleteIfExists(save);
+    }
+  }
+
+  @Test
+  void testBadRuleFailsTheLoad() throws IOException {
+    Files.writeString(file, WORLD.replace("spawn:2:Gem", "teleport:2"));
+    IOException e = assertThrows(IOException.class, () -> new GameWorld(file.toString()));
+    assertTrue(e.getMessage().contains("teleport"), e.getMessage());
+  }
+}
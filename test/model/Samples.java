@@ -0,0 +1,37 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Small rooms and item definitions shared by the model tests.
+ */
+final class Samples {
+
+  private Samples() {
+  }
+
+  /**
+   * Makes an empty room with no exits.
+   *
+   * @param number The room number, which also names the room
+   * @return The room
+   */
+  static Room room(String number) {
+    Map<Direction, String> exits = new HashMap<>();
+    for (Direction direction : Direction.values()) {
+      exits.put(direction, "0");
+    }
+    return new Room("Room " + number, number, "A room.", exits, 0, 0, 0, 0, null, null);
+  }
+
+  /**
+   * Makes a light, single-use item definition.
+   *
+   * @param name The item name
+   * @return The definition
+   */
+  static ItemDefinition definition(String name) {
+    return new ItemDefinition(name, 1, 1, 1, 10, "You use the " + name + ".", name);
+  }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoftLockDetectorTest {
+
+  private GameWorld world;
+  private SoftLockDetector detector;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    world = new GameWorld("./resources/simple_hallway.json");
+    detector = world.getSoftLockDetector();
+  }
+
+  private Item itemInRoom(String room, String name) {
+    return world.getRoom(room).getItem(name);
+  }
+
+  @Test
+  void testFreshWorldCanBeFinished() {
+    assertNull(detector.check());
+  }
+
+  @Test
+  void testSpentKeyLocksTheGame() {
+    itemInRoom("2", "Key").setUsesRemaining(0);
+    String problem = detector.check();
+    assertNotNull(problem);
+    assertTrue(problem.contains("lock"), problem);
+  }
+
+  @Test
+  void testProblemClearsWhenTheItemComesBack() {
+    Item key = itemInRoom("2", "Key");
+    key.setUsesRemaining(0);
+    assertNotNull(detector.check());
+    key.setUsesRemaining(1);
+    assertNull(detector.check());
+  }
+
+  @Test
+  void testMissingItemIsNamed() {
+    Room end = world.getRoom("3");
+    end.removeItem(end.getItem("Lamp"));
+    String problem = detector.check();
+    assertNotNull(problem);
+    assertTrue(problem.contains("darkness") && problem.contains("lamp"), problem);
+  }
+
+  @Test
+  void testSpentMonsterItemLeavesCombat() {
+    Item clippers = itemInRoom("2", "Hair Clippers");
+    clippers.setUsesRemaining(0);
+    // The teddy bear can still be fought, so the game is not lost
+    assertNull(detector.check());
+  }
+
+  @Test
+  void testUnchangedWorldReusesTheVerdict() {
+    itemInRoom("2", "Key").setUsesRemaining(0);
+    String first = detector.check();
+    assertSame(first, detector.check());
+  }
+
+  @Test
+  void testMovingBetweenOpenRoomsKeepsTheVerdict() {
+    itemInRoom("2", "Key").setUsesRemaining(0);
+    String first = detector.check();
+    assertNotNull(first);
+    world.getPlayer().setCurrentRoom(world.getRoom("2"));
+    assertSame(first, detector.check());
+  }
+
+  @Test
+  void testOneWayExitStrandsTheItemBehind() {
+    Room hall = world.getRoom("1");
+    Room hallway = world.getRoom("2");
+    Item key = itemInRoom("2", "Key");
+    hallway.removeItem(key);
+    hall.addItem(key);
+    // The hallway can no longer be left southwards
+    hallway.setExitRoomNumber(Direction.SOUTH, "0");
+    detector.rebuild();
+    assertNull(detector.check());
+
+    world.getPlayer().setCurrentRoom(hallway);
+    String problem = detector.check();
+    assertNotNull(problem);
+    assertTrue(problem.contains("lock") && problem.contains("key"), problem);
+  }
+}
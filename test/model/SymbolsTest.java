@@ -0,0 +1,66 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolsTest {
+
+  @Test
+  void testInternIgnoresCaseAndWhitespace() {
+    int symbol = Symbols.intern("Hair Clippers");
+    assertEquals(symbol, Symbols.intern("  hair clippers "));
+    assertEquals(symbol, Symbols.lookup("HAIR CLIPPERS"));
+    assertEquals("HAIR CLIPPERS", Symbols.name(symbol));
+    assertEquals("hair clippers", Symbols.lowerName(symbol));
+  }
+
+  @Test
+  void testLookupOfRegion() {
+    int symbol = Symbols.intern("Lamp");
+    StringBuilder command = new StringBuilder("take   lamp ");
+    assertEquals(symbol, Symbols.lookup(command, 4, command.length()));
+    assertEquals(Symbols.NONE, Symbols.lookup(command, 0, 4));
+  }
+
+  @Test
+  void testUnknownAndBlankNames() {
+    assertEquals(Symbols.NONE, Symbols.lookup("never interned anywhere"));
+    assertEquals(Symbols.NONE, Symbols.lookup("   "));
+    assertEquals(Symbols.NONE, Symbols.lookup(null));
+    assertThrows(IllegalArgumentException.class, () -> Symbols.intern(" "));
+  }
+
+  @Test
+  void testManySymbolsSurviveGrowth() {
+    int first = Symbols.intern("growth-0");
+    for (int i = 1; i < 5000; i++) {
+      Symbols.intern("growth-" + i);
+    }
+    assertEquals(first, Symbols.lookup("GROWTH-0"));
+    assertEquals("growth-4999", Symbols.lowerName(Symbols.lookup("Growth-4999")));
+  }
+
+  @Test
+  void testSymbolMap() {
+    SymbolMap<String> map = new SymbolMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put(Symbols.intern("entry " + i), "value " + i);
+    }
+    assertEquals("value 42", map.get("ENTRY 42"));
+    assertEquals("value 42", map.remove(Symbols.lookup("entry 42")));
+    assertNull(map.get("entry 42"));
+    assertEquals(99, map.size());
+    assertNull(map.get("no such entry"));
+  }
+
+  @Test
+  void testSymbolMapIgnoresMissingNames() {
+    SymbolMap<String> map = new SymbolMap<>();
+    map.put(Symbols.intern("lantern"), "lit");
+    assertNull(map.put(Symbols.NONE, "nameless"));
+    assertNull(map.remove(Symbols.NONE));
+    assertEquals(1, map.size());
+    assertEquals("lit", map.get("lantern"));
+    assertNull(map.get(Symbols.NONE));
+  }
+}
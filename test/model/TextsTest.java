@@ -0,0 +1,121 @@
+package model;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextsTest {
+
+  private final Texts texts = new Texts();
+
+  @Test
+  void testNullIsNone() {
+    assertEquals(Texts.NONE, texts.store(null));
+    assertNull(texts.get(Texts.NONE));
+  }
+
+  @Test
+  void testTextsRoundTripBeforeAndAfterFlush() {
+    int plain = texts.store("A dusty hallway leads north.");
+    int unicode = texts.store("Un café — très étrange 👻");
+    int empty = texts.store("");
+    assertEquals("A dusty hallway leads north.", texts.get(plain));
+    texts.flush();
+    assertEquals("A dusty hallway leads north.", texts.get(plain));
+    assertEquals("Un café — très étrange 👻", texts.get(unicode));
+    assertEquals("", texts.get(empty));
+  }
+
+  @Test
+  void testIdenticalTextsShareAHandle() {
+    int first = texts.store("The door to the east is locked.");
+    texts.flush();
+    int second = texts.store(new String("The door to the east is locked."));
+    assertEquals(first, second);
+    assertNotEquals(first, texts.store("The door to the west is locked."));
+  }
+
+  @Test
+  void testManyBlocksStayReadable() {
+    int[] handles = new int[2000];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = texts.store("Room " + i + " of the endless library. Shelves of old books"
+              + " lean over you and a cold draft comes from the north.");
+    }
+    texts.flush();
+    // Read in an order that defeats both the cache and the last inflated block
+    for (int i = 0; i < handles.length; i++) {
+      int j = (i * 7919) % handles.length;
+      assertTrue(texts.get(handles[j]).startsWith("Room " + j + " of"), "text " + j);
+    }
+  }
+
+  @Test
+  void testRepetitiveProseCompressesWell() {
+    for (int i = 0; i < 500; i++) {
+      texts.store("Cell " + i + ". A damp stone cell. Water drips from the ceiling and"
+              + " the door to the south is locked. You hear footsteps in the corridor.");
+    }
+    texts.flush();
+    assertTrue(texts.storedBytes() * 5 < texts.rawBytes(),
+            texts.storedBytes() + " of " + texts.rawBytes());
+  }
+
+  @Test
+  void testStoresDoNotShareHandles() {
+    Texts other = new Texts();
+    int mine = texts.store("A cold cellar.");
+    int theirs = other.store("A warm attic.");
+    assertEquals(mine, theirs);
+    assertEquals("A cold cellar.", texts.get(mine));
+    assertEquals("A warm attic.", other.get(theirs));
+  }
+
+  @Test
+  void testReadersDoNotWaitForAWriter() throws InterruptedException {
+    int[] handles = new int[300];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = texts.store("Vault " + i + ". The walls are lined with old iron doors.");
+    }
+    texts.flush();
+    AtomicInteger wrong = new AtomicInteger();
+    Thread[] readers = new Thread[4];
+    for (int t = 0; t < readers.length; t++) {
+      int offset = t;
+      readers[t] = new Thread(() -> {
+        for (int i = 0; i < 20_000; i++) {
+          int j = (i * 31 + offset) % handles.length;
+          if (!texts.get(handles[j]).startsWith("Vault " + j + ".")) {
+            wrong.incrementAndGet();
+          }
+        }
+      });
+      readers[t].start();
+    }
+    // Keep storing, and sealing new blocks, while the readers run
+    for (int i = 0; i < 3000; i++) {
+      texts.store("Annex " + i + ". More doors, all of them rusted shut.");
+    }
+    for (Thread reader : readers) {
+      reader.join(30_000);
+    }
+    assertEquals(0, wrong.get());
+  }
+
+  @Test
+  void testDroppedWorldReleasesItsTexts() throws IOException, InterruptedException {
+    GameWorld world = new GameWorld("./resources/simple_hallway.json");
+    // Reading fills this thread's caches, which must not hold on to the store
+    assertTrue(world.getRoom("1").getDescription().startsWith("You're standing"));
+    assertTrue(world.getTexts().size() > 0);
+    WeakReference<Texts> store = new WeakReference<>(world.getTexts());
+    world = null;
+    for (int i = 0; i < 50 && store.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(store.get(), "the world's text store outlived the world");
+  }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldEventRingTest {
+
+  private static final String WORLD = "{ \"name\": \"Events\", \"version\": \"1.0\", \"rooms\": ["
+          + "{ \"room_name\": \"Hall\", \"room_number\": \"1\", \"description\": \"A hall.\","
+          + " \"N\": \"-2\", \"S\": \"0\", \"E\": \"0\", \"W\": \"0\", \"puzzle\": \"Riddle\" },"
+          + "{ \"room_name\": \"Vault\", \"room_number\": \"2\", \"description\": \"A vault.\","
+          + " \"N\": \"0\", \"S\": \"1\", \"E\": \"0\", \"W\": \"0\" } ],"
+          + " \"puzzles\": [ { \"name\": \"Riddle\", \"active\": \"true\", \"solution\": \"'echo'\","
+          + " \"value\": \"10\", \"target\": \"1:Hall\" } ] }";
+
+  @Test
+  void testEventsArriveInOrderAndInBatches() {
+    WorldEventRing ring = new WorldEventRing(6);
+    assertEquals(8, ring.getCapacity());
+    // Nobody is listening, so nothing is written
+    ring.publish(WorldEventType.ITEM_TAKEN, null, null, "Lamp", 0);
+    assertFalse(ring.hasConsumers());
+
+    List<String> seen = new ArrayList<>();
+    WorldEventRing.Consumer consumer = ring.addConsumer((event, sequence, endOfBatch) ->
+            seen.add(sequence + ":" + event.getSubject() + (endOfBatch ? "!" : "")));
+    assertEquals(0, consumer.drain());
+    ring.publish(WorldEventType.ITEM_TAKEN, null, null, "Lamp", 0);
+    ring.publish(WorldEventType.ITEM_DROPPED, null, null, "Lamp", 0);
+    ring.publish(WorldEventType.SCORE_CHANGED, null, null, "Riddle", 10);
+    assertEquals(3, consumer.drain());
+    assertEquals(List.of("0:Lamp", "1:Lamp", "2:Riddle!"), seen);
+    assertEquals(2, consumer.getSequence());
+
+    consumer.close();
+    for (int i = 0; i < 20; i++) {
+      // Would wait forever for the closed consumer if it still counted
+      ring.publish(WorldEventType.ITEM_TAKEN, null, null, "Lamp", 0);
+    }
+  }
+
+  @Test
+  void testPublishersWaitForSlowConsumersAndLoseNothing() throws Exception {
+    WorldEventRing ring = new WorldEventRing(8);
+    int publishers = 4;
+    int each = 20_000;
+    long[] lastSeen = new long[publishers];
+    int[] outOfOrder = new int[1];
+    long[] total = new long[2];
+    WorldEventRing.Consumer first = ring.addConsumer((event, sequence, endOfBatch) -> {
+      int publisher = event.getSubject().charAt(0) - 'a';
+      if (event.getAmount() != lastSeen[publisher] + 1) {
+        outOfOrder[0]++;
+      }
+      lastSeen[publisher] = event.getAmount();
+      total[0]++;
+    });
+    WorldEventRing.Consumer second = ring.addConsumer((event, sequence, endOfBatch) -> total[1]++);
+    Thread firstThread = new Thread(first);
+    Thread secondThread = new Thread(second);
+    firstThread.start();
+    secondThread.start();
+
+    Thread[] threads = new Thread[publishers];
+    for (int p = 0; p < publishers; p++) {
+      String name = String.valueOf((char) ('a' + p));
+      threads[p] = new Thread(() -> {
+        for (int i = 1; i <= each; i++) {
+          ring.publish(WorldEventType.SCORE_CHANGED, null, null, name, i);
+        }
+      });
+      threads[p].start();
+    }
+    for (Thread thread : threads) {
+      thread.join(30_000);
+    }
+    long expected = (long) publishers * each - 1;
+    long deadline = System.currentTimeMillis() + 30_000;
+    while ((first.getSequence() < expected || second.getSequence() < expected)
+            && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    first.close();
+    second.close();
+    firstThread.join(5_000);
+    secondThread.join(5_000);
+    assertEquals(publishers * each, total[0]);
+    assertEquals(publishers * each, total[1]);
+    assertEquals(0, outOfOrder[0]);
+  }
+
+  @Test
+  void testTheWorldPublishesWhatChanges() throws IOException {
+    Path file = Files.createTempFile("events", ".json");
+    try {
+      Files.writeString(file, WORLD);
+      GameWorld world = new GameWorld(file.toString());
+      List<String> seen = new ArrayList<>();
+      WorldEventRing.Consumer consumer = world.getEvents().addConsumer((event, sequence, endOfBatch) ->
+              seen.add(event.getType() + " " + event.getSubject() + " " + event.getAmount()));
+      assertTrue(world.applySolution("echo"));
+      consumer.drain();
+      assertEquals(List.of("PUZZLE_SOLVED Riddle 10", "SCORE_CHANGED Riddle 10",
+              "EXIT_UNBLOCKED NORTH 0"), seen);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
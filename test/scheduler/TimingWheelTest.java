@@ -0,0 +1,102 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+  @Test
+  void testActionsRunOnTheirTickAcrossLevels() {
+    TimingWheel wheel = new TimingWheel();
+    List<Long> fired = new ArrayList<>();
+    long[] delays = {1, 63, 64, 65, 4095, 4096, 300_000, 20_000_000};
+    for (long delay : delays) {
+      wheel.schedule(delay, () -> fired.add(wheel.getCurrentTick()));
+    }
+    assertEquals(delays.length, wheel.size());
+
+    wheel.advanceTo(20_000_000);
+    assertEquals(List.of(1L, 63L, 64L, 65L, 4095L, 4096L, 300_000L, 20_000_000L), fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void testCancelledActionsNeverRun() {
+    TimingWheel wheel = new TimingWheel();
+    int[] runs = new int[1];
+    TimingWheel.Timeout kept = wheel.schedule(100, () -> runs[0]++);
+    TimingWheel.Timeout dropped = wheel.schedule(100, () -> runs[0] += 10);
+
+    assertTrue(dropped.cancel());
+    assertFalse(dropped.cancel());
+    assertEquals(1, wheel.size());
+    assertEquals(1, wheel.advanceTo(200));
+    assertEquals(1, runs[0]);
+    assertFalse(kept.isPending());
+    assertFalse(kept.cancel());
+  }
+
+  @Test
+  void testActionCanCancelAnotherDueOnTheSameTick() {
+    TimingWheel wheel = new TimingWheel();
+    int[] runs = new int[1];
+    TimingWheel.Timeout[] both = new TimingWheel.Timeout[2];
+    both[0] = wheel.schedule(5, () -> {
+      runs[0]++;
+      both[1].cancel();
+    });
+    both[1] = wheel.schedule(5, () -> {
+      runs[0]++;
+      both[0].cancel();
+    });
+    wheel.advanceTo(5);
+    assertEquals(1, runs[0]);
+  }
+
+  @Test
+  void testManyRandomTimersFireInOrder() {
+    TimingWheel wheel = new TimingWheel(1_000);
+    SplittableRandom random = new SplittableRandom(11);
+    long[] last = {0};
+    int[] bad = new int[1];
+    List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+    for (int i = 0; i < 200_000; i++) {
+      long delay = 1 + random.nextLong(1_000_000);
+      timeouts.add(wheel.schedule(delay, () -> {
+        if (wheel.getCurrentTick() < last[0]) {
+          bad[0]++;
+        }
+        last[0] = wheel.getCurrentTick();
+      }));
+    }
+    int cancelled = 0;
+    for (int i = 0; i < timeouts.size(); i += 3) {
+      timeouts.get(i).cancel();
+      cancelled++;
+    }
+    int ran = wheel.advanceTo(1_002_000);
+    assertEquals(200_000 - cancelled, ran);
+    assertEquals(0, bad[0]);
+    for (TimingWheel.Timeout timeout : timeouts) {
+      assertFalse(timeout.isPending());
+    }
+  }
+
+  @Test
+  void testTurnClockDrivesTheWheel() {
+    TurnClock clock = new TurnClock();
+    TimingWheel wheel = new TimingWheel(clock.now());
+    int[] runs = new int[1];
+    wheel.schedule(3, () -> runs[0]++);
+    clock.tick();
+    clock.tick();
+    wheel.advanceTo(clock.now());
+    assertEquals(0, runs[0]);
+    clock.tick();
+    wheel.advanceTo(clock.now());
+    assertEquals(1, runs[0]);
+  }
+}
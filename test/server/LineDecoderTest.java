@@ -0,0 +1,59 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineDecoderTest {
+
+  private final List<String> lines = new ArrayList<>();
+
+  private boolean collect(CharSequence line) {
+    lines.add(line.toString());
+    return !line.toString().equals("q");
+  }
+
+  private static ByteBuffer bytes(String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testLinesSplitAcrossReads() throws IOException {
+    LineDecoder decoder = new LineDecoder(64);
+    assertTrue(decoder.decode(bytes("tak"), this::collect));
+    assertTrue(lines.isEmpty());
+    assertTrue(decoder.decode(bytes("e key\r\nn\nca"), this::collect));
+    assertTrue(decoder.decode(bytes("fé\n"), this::collect));
+    assertEquals(List.of("take key", "n", "café"), lines);
+  }
+
+  @Test
+  void testMultiByteCharacterSplitAcrossReads() throws IOException {
+    LineDecoder decoder = new LineDecoder(64);
+    byte[] ghost = "👻\n".getBytes(StandardCharsets.UTF_8);
+    decoder.decode(ByteBuffer.wrap(ghost, 0, 2), this::collect);
+    decoder.decode(ByteBuffer.wrap(ghost, 2, ghost.length - 2), this::collect);
+    assertEquals(List.of("👻"), lines);
+  }
+
+  @Test
+  void testLongLinesAreCut() throws IOException {
+    LineDecoder decoder = new LineDecoder(4);
+    decoder.decode(bytes("abcdefgh\nxy\n"), this::collect);
+    assertEquals(List.of("abcd", "xy"), lines);
+  }
+
+  @Test
+  void testStopIgnoresTheRest() throws IOException {
+    LineDecoder decoder = new LineDecoder(16);
+    ByteBuffer in = bytes("l\nq\nn\n");
+    assertFalse(decoder.decode(in, this::collect));
+    assertFalse(in.hasRemaining());
+    assertFalse(decoder.decode(bytes("s\n"), this::collect));
+    assertEquals(List.of("l", "q"), lines);
+  }
+}
@@ -0,0 +1,186 @@
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.GameWorld;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectorServerTest {
+
+  private static final String WORLD = "./resources/align_quest_game_elements.json";
+
+  private SelectorServer server;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new SelectorServer(() -> new GameWorld(WORLD),
+            new InetSocketAddress("127.0.0.1", 0), 2);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    server.close();
+  }
+
+  private String play(String input) throws IOException {
+    try (Socket socket = new Socket("127.0.0.1", server.getAddress().getPort())) {
+      socket.setSoTimeout(10_000);
+      OutputStream out = socket.getOutputStream();
+      out.write(input.getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      InputStream in = socket.getInputStream();
+      ByteArrayOutputStream received = new ByteArrayOutputStream();
+      in.transferTo(received);
+      return received.toString(StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void testSessionPlaysToTheEnd() throws IOException {
+    String transcript = play("Tester\r\nl\ni\nq\nl\n");
+    assertTrue(transcript.startsWith("welcome to Align Quest!\n\nenter your name: "
+            + "hello, Tester!"), transcript);
+    assertTrue(transcript.contains("your inventory is empty."), transcript);
+    // The look sent after quitting is ignored and the connection closes
+    String ending = transcript.substring(transcript.indexOf("\ngame over!\nfinal score: 0\n"));
+    assertTrue(ending.startsWith("\ngame over!"), transcript);
+    assertFalse(ending.contains("health:"), transcript);
+  }
+
+  @Test
+  void testSessionsAreIndependent() throws Exception {
+    Thread other = new Thread(() -> {
+      try {
+        play("Other\nq\n");
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    other.start();
+    String transcript = play("Tester\nt golden ticket\ni\nq\n");
+    other.join();
+    assertTrue(transcript.contains("you pick up the golden ticket."), transcript);
+    assertTrue(transcript.contains("- golden ticket"), transcript);
+  }
+
+  @Test
+  void testSessionsCannotSaveOrRestore() throws IOException {
+    Files.deleteIfExists(Path.of("saved_game.json"));
+    String transcript = play("Tester\nv\nr\nq\n");
+    assertEquals(2, transcript.split("saving is turned off for this game.", -1).length - 1,
+            transcript);
+    assertFalse(Files.exists(Path.of("saved_game.json")));
+  }
+
+  @Test
+  void testSlowWorldDoesNotStallTheLoop() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger made = new AtomicInteger();
+    try (SelectorServer single = new SelectorServer(() -> {
+      if (made.incrementAndGet() == 2) {
+        release.await();
+      }
+      return new GameWorld(WORLD);
+    }, new InetSocketAddress("127.0.0.1", 0), 1)) {
+      single.start();
+      int port = single.getAddress().getPort();
+      try (Socket first = new Socket("127.0.0.1", port);
+           Socket second = new Socket("127.0.0.1", port)) {
+        first.setSoTimeout(5_000);
+        second.setSoTimeout(10_000);
+        // The first player keeps playing while the second one's world is still loading
+        first.getOutputStream().write("Tester\ni\nq\n".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        first.getInputStream().transferTo(received);
+        assertTrue(received.toString(StandardCharsets.UTF_8).contains("game over!"));
+        release.countDown();
+        byte[] greeting = new byte[8];
+        assertEquals(8, second.getInputStream().readNBytes(greeting, 0, 8));
+        assertEquals("welcome ", new String(greeting, StandardCharsets.UTF_8));
+      } finally {
+        release.countDown();
+      }
+    }
+  }
+
+  @Test
+  void testOutputQueueKeepsWhatTheSocketRefuses() throws IOException {
+    OutputQueue queue = new OutputQueue();
+    byte[] text = new byte[OutputQueue.CHUNK_SIZE * 2 + 100];
+    for (int i = 0; i < text.length; i++) {
+      text[i] = (byte) ('a' + i % 26);
+    }
+    queue.write(ByteBuffer.wrap(text));
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    Trickle socket = new Trickle(sent, 5000);
+    int writes = 0;
+    while (!queue.drainTo(socket)) {
+      writes++;
+      queue.write(ByteBuffer.wrap(new byte[] {'!'}));
+    }
+    assertEquals(3, writes);
+    String all = sent.toString(StandardCharsets.US_ASCII);
+    assertEquals(new String(text, StandardCharsets.US_ASCII), all.substring(0, text.length));
+    assertEquals("!".repeat(writes), all.substring(text.length));
+    assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * A channel that takes at most a few bytes per write, like a full socket.
+   */
+  private static final class Trickle implements GatheringByteChannel {
+    private final ByteArrayOutputStream sink;
+    private final int perWrite;
+
+    Trickle(ByteArrayOutputStream sink, int perWrite) {
+      this.sink = sink;
+      this.perWrite = perWrite;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      int budget = perWrite;
+      for (int i = offset; i < offset + length && budget > 0; i++) {
+        while (srcs[i].hasRemaining() && budget > 0) {
+          sink.write(srcs[i].get());
+          budget--;
+        }
+      }
+      return perWrite - budget;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      return (int) write(new ByteBuffer[] {src});
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
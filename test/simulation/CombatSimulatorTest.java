@@ -0,0 +1,57 @@
+package simulation;
+
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import model.ItemDefinition;
+import model.Monster;
+import model.Player;
+import model.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombatSimulatorTest {
+
+  private CombatSimulator simulator;
+  private Monster troll;
+  private ItemDefinition sword;
+
+  @BeforeEach
+  void setUp() {
+    Room room = new Room("Cave", "4", "A cave", new HashMap<>(), 0, 0, 0, 0, "items", "picture");
+    simulator = new CombatSimulator(new Player(room), new ForkJoinPool(4));
+    troll = new Monster("Troll", "A troll", true, -15, true, "bites", "growls", 50,
+            "Sword", "4:Cave");
+    sword = new ItemDefinition("Sword", 3, 1, 1, 0, "Slash.", "A sharp sword");
+  }
+
+  @Test
+  void testSameSeedGivesSameTotals() {
+    FightStats first = simulator.simulate(troll, new Loadout("empty"), 300_000, 9L);
+    FightStats second = simulator.simulate(troll, new Loadout("empty"), 300_000, 9L);
+    assertEquals(300_000, first.getFights());
+    assertEquals(first.getWinRate(), second.getWinRate());
+    assertEquals(first.getExpectedHealthLoss(), second.getExpectedHealthLoss());
+    assertEquals(first.getMeanTurnsToKill(), second.getMeanTurnsToKill());
+  }
+
+  @Test
+  void testWinsNeedEnoughCriticalHits() {
+    // 10 power against 100 health: even four criticals in a row leave the troll standing
+    FightStats stats = simulator.simulate(troll, new Loadout("empty"), 200_000, 3L);
+    assertTrue(stats.getWinRate() > 0.0 && stats.getWinRate() < 0.2);
+    assertEquals(0, stats.getWinsInTurns(4));
+    assertEquals(7, stats.getTurnsToKillAtPercentile(50));
+    assertTrue(stats.getExpectedHealthLoss() > 90.0);
+  }
+
+  @Test
+  void testSolutionItemWinsAtOnce() {
+    FightStats stats = simulator.simulate(troll, new Loadout("sword", sword), 1000, 1L);
+    assertEquals(1.0, stats.getWinRate());
+    assertEquals(1.0, stats.getMeanTurnsToKill());
+    assertEquals(0.0, stats.getExpectedHealthLoss());
+    assertTrue(troll.isActive());
+    assertEquals(100, troll.getHealth());
+  }
+}
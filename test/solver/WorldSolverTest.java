@@ -0,0 +1,48 @@
+package solver;
+
+import controller.GameController;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+import model.GameWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldSolverTest {
+
+  private WorldSolver.Result solve(String file) throws IOException {
+    return new WorldSolver(new GameWorld(file), new ForkJoinPool(4), 1 << 16).solve();
+  }
+
+  @Test
+  void testHallwayScriptWinsWhenReplayed() throws IOException {
+    WorldSolver.Result result = solve("./resources/simple_hallway.json");
+    assertTrue(result.isMaxScoreReachable());
+    assertEquals(9, result.getScript().size());
+
+    GameWorld world = new GameWorld("./resources/simple_hallway.json");
+    String input = "Tester\n" + String.join("\n", result.getScript()) + "\nq\n";
+    StringBuilder output = new StringBuilder();
+    new GameController(world, new StringReader(input), output).play();
+    assertEquals(result.getMaxScore(), world.getPlayer().getScore());
+  }
+
+  @Test
+  void testAnswersArePartOfTheScript() throws IOException {
+    WorldSolver.Result result = solve("./resources/museum.json");
+    assertTrue(result.isMaxScoreReachable());
+    assertTrue(result.getScript().contains("answer align"));
+  }
+
+  @Test
+  void testUnwinnableWorldReportsBestScore() throws IOException {
+    GameWorld world = new GameWorld("./resources/simple_hallway.json");
+    // Lose the key: the lock can never open, so nothing past it can be beaten
+    model.Room start = world.getPlayer().getCurrentRoom();
+    model.Room hall = start.getExit(model.Direction.NORTH);
+    hall.removeItem(hall.getItem("key"));
+    WorldSolver.Result result = new WorldSolver(world, new ForkJoinPool(2), 1 << 16).solve();
+    assertFalse(result.isMaxScoreReachable());
+    assertTrue(result.getBestScore() < result.getMaxScore());
+  }
+}